@@ -1,21 +1,27 @@
 package controller;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.List;
 import java.util.logging.Logger;
 
+import javax.swing.Timer;
+
 import codeprocessor.CodeProcessor;
 import codeprocessor.Filter;
 import codeprocessor.GraphBuilder;
 import dfa.framework.AnalysisLoader;
+import dfa.framework.DFADirection;
 import dfa.framework.DFAExecution;
 import dfa.framework.DFAFactory;
 import dfa.framework.DFAPrecalcController;
 import dfa.framework.LatticeElement;
 import dfa.framework.SimpleBlockGraph;
 import dfa.framework.StaticAnalysisLoader;
+import dfa.framework.TraceMode;
 import dfa.framework.Worklist;
 import dfa.framework.WorklistManager;
 import gui.visualgraph.VisualGraphPanel;
@@ -40,6 +46,7 @@ public class Controller {
     private static final String EXCEPTION_TITLE = "Exception caused by analysis calculation";
 
     private static final int WAIT_FOR_STOP = 500;
+    private static final int PROGRESS_INTERVAL = 100;
 
     // path for release, load analyses dynamically
     private static final String DYNAMIC_ANALYSES_PATH = findJarPath();
@@ -55,6 +62,7 @@ public class Controller {
     private AnalysisLoader analysisLoader;
     private WorklistManager worklistManager;
     private Thread precalcThread;
+    private Timer progressTimer;
     private DFAPrecalcController precalcController;
     private boolean shouldContinue = false;
 
@@ -293,8 +301,9 @@ public class Controller {
      * Creates a new {@code CodeProcessor} to process the input of the user and
      * creates a {@code SimpleBlockGraph} of the chosen method. Precalculates
      * the steps of the analysis with the {@code DFAPrecalculator} and an
-     * instance of {@code DFAPrecalcController}. The {@code GraphUIController}
-     * is invoked to display the CFG. The {@code ControlPanel}, the
+     * instance of {@code DFAPrecalcController}. As soon as the first step is
+     * available, the {@code GraphUIController} is invoked to display the CFG
+     * (see {@code showPublishedSteps}). The {@code ControlPanel}, the
      * {@code StatePanel} and the {@code VisualGraphPanel} are activated and the
      * {@code InputPanel} is deactivated.
      * 
@@ -337,10 +346,12 @@ public class Controller {
 
         SimpleBlockGraph blockGraph = graphBuilder.buildGraph(methodSignature);
         this.precalcController = new DFAPrecalcController();
+        this.precalcController.setTraceMode(TraceMode.KEYFRAMES);
         DFAPrecalculator precalculator = null;
         try {
-            Worklist worklist = this.worklistManager.getWorklist(worklistName, blockGraph);
             DFAFactory<? extends LatticeElement> dfaFactory = analysisLoader.getDFAFactory(analysisName);
+            DFADirection direction = dfaFactory != null ? dfaFactory.getDirection() : DFADirection.FORWARD;
+            Worklist worklist = this.worklistManager.getWorklist(worklistName, blockGraph, direction);
             precalculator = new DFAPrecalculator(dfaFactory, worklist, blockGraph, this.precalcController, this);
         } catch (IllegalArgumentException e) {
             e.printStackTrace();
@@ -353,15 +364,82 @@ public class Controller {
             e.printStackTrace();
         }
         visibilityPrecalculating();
+        startProgressTimer();
         return this.precalcController;
     }
 
+    private void startProgressTimer() {
+        this.progressTimer = new Timer(PROGRESS_INTERVAL, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!progressTimer.isRunning()) {
+                    return;
+                }
+                showPublishedSteps();
+                programFrame.getControlPanel().setPrecalcProgress(precalcController.getProgress());
+                if (!precalcThread.isAlive()) {
+                    stopProgressTimer();
+                }
+            }
+        });
+        this.progressTimer.start();
+    }
+
+    private void stopProgressTimer() {
+        if (this.progressTimer != null) {
+            this.progressTimer.stop();
+        }
+    }
+
+    /**
+     * Shows the steps of the analysis that have been precalculated so far.
+     * When the first step is available, the {@code GraphUIController} is
+     * started and the {@code ControlPanel} is activated, so the user can
+     * navigate through the available steps while the precalculation is still
+     * running. Afterwards only the step-slider of the {@code ControlPanel} is
+     * extended to the newly calculated steps.
+     */
+    public synchronized void showPublishedSteps() {
+        if (this.precalcController == null) {
+            return;
+        }
+        DFAExecution<? extends LatticeElement> published = this.precalcController.getPublishedExecution();
+        if (published == null) {
+            return;
+        }
+        if (this.dfaExecution == published) {
+            this.programFrame.getControlPanel().extendTotalSteps(this.dfaExecution.getTotalElementarySteps());
+            return;
+        }
+        if (this.dfaExecution != null) {
+            this.dfaExecution.dispose();
+        }
+        this.dfaExecution = published;
+        this.dfaExecution.setCurrentElementaryStep(0);
+        this.programFrame.getControlPanel().setTotalSteps(this.dfaExecution.getTotalElementarySteps());
+        this.programFrame.getControlPanel().setSliderStep(0);
+        this.graphUIController.start(this.dfaExecution);
+        this.visualGraphPanel.setJumpToAction(true);
+        this.graphUIController.refresh();
+        visibilityWorking();
+    }
+
     /**
      * Method that is invoked when the precalcution is terminated. It sets the
      * {@code DFAExecution} and controls the setting of the {@code ControlPanel}
-     * . The {@code GraphUIController} is started.
+     * . The {@code GraphUIController} is started, unless the steps are already
+     * shown, in which case only the step-slider is extended to all steps.
      */
-    public void completedAnalysis() {
+    public synchronized void completedAnalysis() {
+        stopProgressTimer();
+        this.programFrame.getControlPanel().setPrecalcProgress(this.precalcController.getProgress());
+        if (this.dfaExecution != null && this.dfaExecution == this.precalcController.getResult()) {
+            this.programFrame.getControlPanel().extendTotalSteps(this.dfaExecution.getTotalElementarySteps());
+            return;
+        }
+        if (this.dfaExecution != null) {
+            this.dfaExecution.dispose();
+        }
         this.dfaExecution = this.precalcController.getResult();
         this.dfaExecution.setCurrentElementaryStep(0);
         this.programFrame.getControlPanel().setTotalSteps(this.dfaExecution.getTotalElementarySteps());
@@ -373,18 +451,18 @@ public class Controller {
     }
 
     /**
-     * Deletes the current {@code DFAExecution} and the content of the
-     * {@code VisualGraphPanel} through the {@code GraphUIController}. The
-     * {@code ControlPanel}, the {@code StatePanel} and the
-     * {@code VisualGraphPanel} are deactivated and the {@code InputPanel} is
-     * activated. First the Thread in that the precalculation is running is
-     * stopped with the {@code DFAPrecalcController}. If that does not work the
-     * deprecated method {@code Thread.stop} is needed to deal with infinite
-     * loops in the precalculation. The used Dataflow Analysis can be
-     * implemented by the user and the correctness of theses analyses can not be
-     * assumed.
+     * Deletes the current {@code DFAExecution}, releasing the resources of its
+     * steps, and the content of the {@code VisualGraphPanel} through the
+     * {@code GraphUIController}. The {@code ControlPanel}, the
+     * {@code StatePanel} and the {@code VisualGraphPanel} are deactivated and
+     * the {@code InputPanel} is activated. First the Thread in that the precalculation is running is
+     * stopped with the {@code DFAPrecalcController}. If it does not stop in
+     * time, it is interrupted. Only if that does not work either, the
+     * deprecated method {@code Thread.stop} is used as a last resort to deal
+     * with infinite loops in the precalculation. The used Dataflow Analysis
+     * can be implemented by the user and the correctness of theses analyses
+     * can not be assumed.
      */
-    @SuppressWarnings("deprecation")
     public void stopAnalysis() {
         if (precalcController == null) {
             visibilityInput();
@@ -400,16 +478,7 @@ public class Controller {
                     return;
                 }
                 this.precalcController.stopPrecalc();
-                synchronized (this) {
-                    try {
-                        wait(WAIT_FOR_STOP);
-                    } catch (InterruptedException e1) {
-                        e1.printStackTrace();
-                    }
-                }
-                if (this.precalcThread.isAlive()) {
-                    this.precalcThread.stop();
-                }
+                terminatePrecalcThread();
                 visibilityInput();
             } else if ((closeBox.getOption() == Option.YES_OPTION)) {
                 // shows an intermediate result if possible
@@ -417,15 +486,7 @@ public class Controller {
                     return;
                 }
                 this.precalcController.stopPrecalc();
-                synchronized (this) {
-                    try {
-                        wait(WAIT_FOR_STOP);
-                    } catch (InterruptedException e1) {
-                        e1.printStackTrace();
-                    }
-                }
-                if (this.precalcThread.isAlive()) {
-                    this.precalcThread.stop();
+                if (!terminatePrecalcThread()) {
                     visibilityInput();
                 }
             }
@@ -439,12 +500,43 @@ public class Controller {
                 return;
             }
         }
+        stopProgressTimer();
+        this.programFrame.getControlPanel().setPrecalcProgress(null);
         this.graphUIController.stop();
         this.programFrame.getStatePanelOpen().reset();
+        if (this.dfaExecution != null) {
+            this.dfaExecution.dispose();
+        }
         this.dfaExecution = null;
         visibilityInput();
     }
 
+    /**
+     * Waits for the stopped precalculation to set its intermediate result. If
+     * it does not do so in time, the thread of the precalculation is
+     * interrupted and, if that does not help either, stopped.
+     * 
+     * @return whether the precalculation has set a result
+     */
+    @SuppressWarnings("deprecation")
+    private boolean terminatePrecalcThread() {
+        try {
+            if (this.precalcController.awaitResult(WAIT_FOR_STOP)) {
+                return true;
+            }
+            this.precalcThread.interrupt();
+            if (this.precalcController.awaitResult(WAIT_FOR_STOP)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.precalcThread.isAlive()) {
+            this.precalcThread.stop();
+        }
+        return false;
+    }
+
     protected void visibilityPrecalculating() {
         this.visualGraphPanel.setActivated(false);
         this.programFrame.getInputPanel().setActivated(false);
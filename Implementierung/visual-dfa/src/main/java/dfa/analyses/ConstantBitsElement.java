@@ -1,10 +1,8 @@
 package dfa.analyses;
 
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
 
 import dfa.analyses.ConstantBitsElement.BitValueArray;
 import soot.BooleanType;
@@ -57,6 +55,31 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
         }
     }
 
+    /**
+     * Creates a {@code ConstantBitsElement} with the given mapping, using the given {@code LocalIndex}.
+     * 
+     * @param localIndex
+     *        the {@code LocalIndex} of the method
+     * @param localMap
+     *        a {@code Map} that maps a {@code JimpleLocal} to its corresponding {@code BitValueArray}
+     * 
+     * @throws IllegalArgumentException
+     *         if one of the {@code BitValueArray}s is not of the right size
+     */
+    public ConstantBitsElement(LocalIndex localIndex, Map<JimpleLocal, BitValueArray> localMap) {
+        super(localIndex, localMap);
+        for (Map.Entry<JimpleLocal, BitValueArray> entry : localMap.entrySet()) {
+            int l = entry.getValue().getLength();
+            if (!(l == 32 || l == 64)) {
+                throw new IllegalArgumentException("each BitValueArray must have 32 or 64 entries");
+            }
+        }
+    }
+
+    private ConstantBitsElement(ConstantBitsElement original) {
+        super(original);
+    }
+
     /**
      * Creates a {@code ConstantBitsElement} with an empty mapping.
      */
@@ -88,7 +111,31 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
             throw new IllegalArgumentException("local must not be null");
         }
 
-        localMap.put(local, val);
+        super.setValue(local, val);
+    }
+
+    /**
+     * Sets the {@code BitValueArray} mapped to the {@code JimpleLocal} with the given index in
+     * {@code getLocalIndex()}.
+     * 
+     * @param index
+     *        the index of the {@code JimpleLocal} for which the {@code BitValueArray} is set
+     * @param val
+     *        the {@code BitValueArray} to set
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code val} is null or not of the right size
+     */
+    public void setValue(int index, BitValueArray val) {
+        if (val == null) {
+            throw new IllegalArgumentException("val must not be null");
+        }
+        int l = val.getLength();
+        if (!(l == 32 || l == 64)) {
+            throw new IllegalArgumentException("val must have 32 or 64 entries");
+        }
+
+        super.setValue(index, val);
     }
 
     @Override
@@ -98,22 +145,17 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
         }
 
         ConstantBitsElement e = (ConstantBitsElement) o;
-        return localMap.equals(e.getLocalMap());
+        return mappingEquals(e);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(localMap);
+        return mappingHashCode();
     }
 
     @Override
-    public LocalMapElement<BitValueArray> clone() {
-        TreeMap<JimpleLocal, BitValueArray> newMap =
-                new TreeMap<JimpleLocal, BitValueArray>(LocalMapElement.DEFAULT_COMPARATOR);
-        for (JimpleLocal local : localMap.keySet()) {
-            newMap.put(local, localMap.get(local));
-        }
-        return new ConstantBitsElement(newMap);
+    public ConstantBitsElement clone() {
+        return new ConstantBitsElement(this);
     }
 
     @Override
@@ -125,7 +167,7 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
         String header64 = "00 01 02 03 04 05 06 07 08 09 10 11 12 13 14 15 16 17 18 19 20 21 22 23 24 25 26 27 28 29 30 31 32 33 34 35 36 37 38 39 40 41 42 43 44 45 46 47 48 49 50 51 52 53 54 55 56 57 58 59 60 61 62 63";
         // @formatter:off
 
-        Iterator<Map.Entry<JimpleLocal, BitValueArray>> entryIt = localMap.entrySet().iterator();
+        Iterator<Map.Entry<JimpleLocal, BitValueArray>> entryIt = getLocalMap().entrySet().iterator();
         Map.Entry<JimpleLocal, BitValueArray> entry;
         boolean longHeader = false;
         while (entryIt.hasNext()) {
@@ -153,14 +195,23 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
      *
      *         A {@code BitValue} represents the BitValue of one bit of a {@code JimpleLocal}.
      *
+     *         The bits are packed into three masks of type {@code long} (one for each of BOTTOM, ZERO and ONE, a bit
+     *         which is in none of them is TOP), so joining, comparing, shifting and combining {@code BitValueArray}s
+     *         bitwise are single word operations.
      */
     public static class BitValueArray {
-        private BitValue[] bitValues;
 
         public static final BitValueArray TOP = new BitValueArray(new BitValue[0]);
         public static final int INT_SIZE = 32;
         public static final int LONG_SIZE = 64;
 
+        private final int length;
+
+        // bit i is set in bottom/zeros/ones iff the i-th bit is BOTTOM/ZERO/ONE, it is TOP if it is set in none of them
+        private final long bottom;
+        private final long zeros;
+        private final long ones;
+
         /**
          * Creates a {@code BitValueArray} representing the given {@code ArithmeticConstant}.
          * 
@@ -171,34 +222,43 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
             if (c == null) {
                 throw new IllegalArgumentException("c must not be null");
             }
-            int length;
             long val;
             if (c instanceof IntConstant) {
                 val = ((IntConstant) c).value;
-                length = 32;
+                length = INT_SIZE;
             } else {
                 val = ((LongConstant) c).value;
-                length = 64;
+                length = LONG_SIZE;
             }
-            BitValue[] values = new BitValue[length];
-            for (int j = 0; j < length; j++) {
-                values[j] = booleanToBitValue((val & (1L << j)) != 0);
-            }
-            bitValues = values;
+            long lengthMask = getLengthMask(length);
+            bottom = 0;
+            ones = val & lengthMask;
+            zeros = ~val & lengthMask;
         }
 
         /**
-         * Creates a {@code BitValueArray} representing the given array of {@code BitValue}s
+         * Creates a {@code BitValueArray} representing the given array of {@code BitValue}s. Later changes to the
+         * array are not reflected in the new {@code BitValueArray}.
          * 
          * @param bitValues
          *        the {@code BitValue}s for the new {@code BitValueArray}
+         * 
+         * @throws IllegalArgumentException
+         *         if {@code bitValues} is {@code null}, contains {@code null} or has more than {@code LONG_SIZE}
+         *         entries
          */
         public BitValueArray(BitValue[] bitValues) {
             if (bitValues == null) {
                 throw new IllegalArgumentException("bitValues must not be null");
             }
+            if (bitValues.length > LONG_SIZE) {
+                throw new IllegalArgumentException("bitValues must not have more than LONG_SIZE entries");
+            }
 
-            this.bitValues = bitValues;
+            length = bitValues.length;
+            bottom = getMask(bitValues, BitValue.BOTTOM);
+            zeros = getMask(bitValues, BitValue.ZERO);
+            ones = getMask(bitValues, BitValue.ONE);
         }
 
         /**
@@ -209,12 +269,57 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
          *        length of the array
          * @param init
          *        value for the array
+         * 
+         * @throws IllegalArgumentException
+         *         if {@code length} is negative or greater than {@code LONG_SIZE} or {@code init} is {@code null}
          */
         public BitValueArray(int length, BitValue init) {
-            this.bitValues = new BitValue[length];
-            for (int i = 0; i < length; i++) {
-                this.bitValues[i] = init;
+            if (length < 0 || length > LONG_SIZE) {
+                throw new IllegalArgumentException("length must be between 0 and LONG_SIZE");
+            }
+            if (init == null) {
+                throw new IllegalArgumentException("init must not be null");
             }
+
+            this.length = length;
+            long lengthMask = getLengthMask(length);
+            bottom = init == BitValue.BOTTOM ? lengthMask : 0;
+            zeros = init == BitValue.ZERO ? lengthMask : 0;
+            ones = init == BitValue.ONE ? lengthMask : 0;
+        }
+
+        /**
+         * Creates a {@code BitValueArray} of the given length from the given masks. Bit i of a mask stands for the
+         * i-th bit of the {@code BitValueArray}, a bit which is in none of the masks is TOP.
+         * 
+         * @param length
+         *        length of the array
+         * @param bottom
+         *        the bits which are BOTTOM
+         * @param zeros
+         *        the bits which are ZERO
+         * @param ones
+         *        the bits which are ONE
+         * 
+         * @throws IllegalArgumentException
+         *         if {@code length} is negative or greater than {@code LONG_SIZE}, if the masks overlap or if one of
+         *         them contains a bit not below {@code length}
+         */
+        public BitValueArray(int length, long bottom, long zeros, long ones) {
+            if (length < 0 || length > LONG_SIZE) {
+                throw new IllegalArgumentException("length must be between 0 and LONG_SIZE");
+            }
+            if ((bottom & zeros) != 0 || (bottom & ones) != 0 || (zeros & ones) != 0) {
+                throw new IllegalArgumentException("the masks must not overlap");
+            }
+            if (((bottom | zeros | ones) & ~getLengthMask(length)) != 0) {
+                throw new IllegalArgumentException("the masks must not contain bits not below length");
+            }
+
+            this.length = length;
+            this.bottom = bottom;
+            this.zeros = zeros;
+            this.ones = ones;
         }
 
         /**
@@ -249,6 +354,17 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
             }
         }
 
+        /**
+         * Returns a mask of the lowest {@code length} bits.
+         * 
+         * @param length
+         *        the number of bits, between 0 and {@code LONG_SIZE}
+         * @return a mask of the lowest {@code length} bits
+         */
+        public static long getLengthMask(int length) {
+            return length >= LONG_SIZE ? -1L : (1L << length) - 1;
+        }
+
         /**
          * Returns a symbolic TOP.
          * 
@@ -320,16 +436,93 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
          * @return the length of {@code bitValues}
          */
         public int getLength() {
-            return bitValues.length;
+            return length;
+        }
+
+        /**
+         * Returns the mask of the bits which are BOTTOM.
+         * 
+         * @return the mask of the bits which are BOTTOM
+         */
+        public long getBottomMask() {
+            return bottom;
+        }
+
+        /**
+         * Returns the mask of the bits which are ZERO.
+         * 
+         * @return the mask of the bits which are ZERO
+         */
+        public long getZeroMask() {
+            return zeros;
+        }
+
+        /**
+         * Returns the mask of the bits which are ONE.
+         * 
+         * @return the mask of the bits which are ONE
+         */
+        public long getOneMask() {
+            return ones;
+        }
+
+        /**
+         * Returns the mask of the bits which are TOP.
+         * 
+         * @return the mask of the bits which are TOP
+         */
+        public long getTopMask() {
+            return ~(bottom | zeros | ones) & getLengthMask(length);
+        }
+
+        /**
+         * Returns the {@code BitValue} of the bit at the given position.
+         * 
+         * @param index
+         *        the position of the bit
+         * @return the {@code BitValue} of the bit at the given position
+         * 
+         * @throws IndexOutOfBoundsException
+         *         if {@code index} is negative or not less than {@code getLength()}
+         */
+        public BitValue getBitValue(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("no bit at position " + index);
+            }
+
+            long bit = 1L << index;
+            if ((bottom & bit) != 0) {
+                return BitValue.BOTTOM;
+            } else if ((zeros & bit) != 0) {
+                return BitValue.ZERO;
+            } else if ((ones & bit) != 0) {
+                return BitValue.ONE;
+            } else {
+                return BitValue.TOP;
+            }
         }
 
         /**
-         * Returns the array of {@code BitValue}s represented by this {@code BitValueArray}
+         * Returns the array of {@code BitValue}s represented by this {@code BitValueArray}. Each call returns a new
+         * array (see {@code toBitValues()}), so changes to it are not reflected in this {@code BitValueArray}.
          * 
          * @return the array of {@code BitValue}s represented by this {@code BitValueArray}
          */
         public BitValue[] getBitValues() {
-            return bitValues;
+            return toBitValues();
+        }
+
+        /**
+         * Returns a new array of the {@code BitValue}s represented by this {@code BitValueArray}.
+         * 
+         * @return a new array of the {@code BitValue}s represented by this {@code BitValueArray}
+         */
+        public BitValue[] toBitValues() {
+            BitValue[] values = new BitValue[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = getBitValue(i);
+            }
+            return values;
         }
 
         /**
@@ -338,12 +531,7 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
          * @return if this {@code BitValueArray} represents a constant
          */
         public boolean isConst() {
-            for (BitValue val : bitValues) {
-                if (val == BitValue.BOTTOM || val == BitValue.TOP) {
-                    return false;
-                }
-            }
-            return true;
+            return (zeros | ones) == getLengthMask(length);
         }
 
         /**
@@ -352,24 +540,7 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
          * @return if the constant represented by this {@code BitValueArray} is a power of two
          */
         public boolean isPowerOfTwo() {
-            if (bitValues[bitValues.length - 1] != BitValue.ZERO) {
-                return false;
-            }
-            int foundOnes = 0;
-            for (BitValue bit : bitValues) {
-                switch (bit) {
-                case TOP:
-                    return false;
-                case BOTTOM:
-                    return false;
-                case ONE:
-                    foundOnes++;
-                    break;
-                case ZERO: // ignore
-                    break;
-                }
-            }
-            return (foundOnes == 1);
+            return isNotNegative() && isConst() && Long.bitCount(ones) == 1;
         }
 
         /**
@@ -381,12 +552,7 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
             if (!isPowerOfTwo()) {
                 return -1;
             }
-            for (int i = 0; i < getLength(); i++) {
-                if (bitValues[i] == BitValue.ONE) {
-                    return i;
-                }
-            }
-            return -1;
+            return Long.numberOfTrailingZeros(ones);
         }
 
         /**
@@ -395,12 +561,7 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
          * @return if the constant represented by this {@code BitValueArray} is azero
          */
         public boolean isZero() {
-            for (BitValue bit : bitValues) {
-                if (bit != BitValue.ZERO) {
-                    return false;
-                }
-            }
-            return true;
+            return zeros == getLengthMask(length);
         }
 
         /**
@@ -411,19 +572,12 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
         public ArithmeticConstant getConstant() {
             if (!isConst()) {
                 return null;
+            } else if (length == INT_SIZE) {
+                return IntConstant.v((int) ones);
+            } else if (length == LONG_SIZE) {
+                return LongConstant.v(ones);
             } else {
-                long result = 0;
-                int length = bitValues.length;
-                for (int i = length - 1; i >= 0; i--) {
-                    result = (result << 1) | (bitValueToBoolean(bitValues[i]) ? 1 : 0);
-                }
-                if (length == 32) {
-                    return IntConstant.v((int) result);
-                } else if (length == 64) {
-                    return LongConstant.v(result);
-                } else {
-                    return null;
-                }
+                return null;
             }
         }
 
@@ -433,7 +587,7 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
          * @return if the constant represented by this {@code BitValueArray} is not negative
          */
         public boolean isNotNegative() {
-            return (bitValues[getLength() - 1] == BitValue.ZERO);
+            return length > 0 && (zeros >>> (length - 1)) != 0;
         }
 
         /**
@@ -442,12 +596,7 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
          * @return if this {@code BitValueArray} contains a bit with the {@code BitValue} BOTTOM
          */
         public boolean containsBOTTOM() {
-            for (BitValue bit : bitValues) {
-                if (bit == BitValue.BOTTOM) {
-                    return true;
-                }
-            }
-            return false;
+            return bottom != 0;
         }
 
         @Override
@@ -457,32 +606,20 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
             }
 
             BitValueArray val = (BitValueArray) o;
-            return Arrays.equals(getBitValues(), val.getBitValues());
+            return length == val.getLength() && getBottomMask() == val.getBottomMask()
+                    && getZeroMask() == val.getZeroMask() && getOneMask() == val.getOneMask();
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash((Object[]) bitValues);
+            return Objects.hash(length, bottom, zeros, ones);
         }
 
         @Override
         public String toString() {
-            return bitsToString(getBitValues());
-        }
-
-        /**
-         * Returns the String Representation of {@code bitValues}.
-         * 
-         * @param bitValues
-         * @return the String Representation of {@code bitValues}
-         */
-        private String bitsToString(BitValue[] bitValues) {
-            if (bitValues == null) {
-                throw new IllegalArgumentException("bitValues must not be null");
-            }
             StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < bitValues.length; i++) {
-                switch (bitValues[i]) {
+            for (int i = 0; i < length; i++) {
+                switch (getBitValue(i)) {
                 case BOTTOM:
                     sb.append("  ").append(BOTTOM_SYMBOL);
                     break;
@@ -500,6 +637,22 @@ public class ConstantBitsElement extends LocalMapElement<BitValueArray> {
             sb.deleteCharAt(0);
             return sb.toString();
         }
+
+        /*
+         * returns the mask of the positions at which the given BitValues (not more than LONG_SIZE) are value
+         */
+        private static long getMask(BitValue[] values, BitValue value) {
+            long mask = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    throw new IllegalArgumentException("bitValues must not contain null");
+                }
+                if (values[i] == value) {
+                    mask |= 1L << i;
+                }
+            }
+            return mask;
+        }
     }
 
     /**
@@ -82,8 +82,9 @@ public class ConstantBitsInitializer implements Initializer<ConstantBitsElement>
         Block head = heads.get(0);
         List<Block> blocks = blockGraph.getBlocks();
 
-        ConstantBitsElement headIn = new ConstantBitsElement(initialHeadMap);
-        ConstantBitsElement defaultIn = new ConstantBitsElement(initialBottomMap);
+        LocalIndex localIndex = new LocalIndex(initialBottomMap.keySet());
+        ConstantBitsElement headIn = new ConstantBitsElement(localIndex, initialHeadMap);
+        ConstantBitsElement defaultIn = new ConstantBitsElement(localIndex, initialBottomMap);
 
         BlockState<ConstantBitsElement> headState = new BlockState<ConstantBitsElement>(headIn, defaultIn);
         BlockState<ConstantBitsElement> defaultState = new BlockState<ConstantBitsElement>(defaultIn, defaultIn);
@@ -3,7 +3,6 @@ package dfa.analyses;
 import java.util.Iterator;
 import java.util.Set;
 
-import dfa.analyses.ConstantBitsElement.BitValue;
 import dfa.analyses.ConstantBitsElement.BitValueArray;
 import dfa.framework.Join;
 import soot.jimple.internal.JimpleLocal;
@@ -52,25 +51,16 @@ public class ConstantBitsJoin implements Join<ConstantBitsElement> {
                 throw new IllegalStateException("Unable to join BitValueArrays of different size!");
             }
 
-            BitValue[] result = new BitValue[length];
-            for (int i = 0; i < length; i++) {
-                BitValue currentBit = currentVal.getBitValues()[i];
-                BitValue tmpBit = refVal.getBitValues()[i];
+            // a bit is BOTTOM if it is BOTTOM in both, it keeps its value if it is BOTTOM in one or equal in both, and
+            // it is TOP otherwise
+            long refBottom = refVal.getBottomMask();
+            long currentBottom = currentVal.getBottomMask();
+            long zeros = (refVal.getZeroMask() & (currentVal.getZeroMask() | currentBottom))
+                    | (refBottom & currentVal.getZeroMask());
+            long ones = (refVal.getOneMask() & (currentVal.getOneMask() | currentBottom))
+                    | (refBottom & currentVal.getOneMask());
 
-                if (currentBit == BitValue.TOP || tmpBit == BitValue.TOP) {
-                    result[i] = BitValue.TOP;
-                } else if (currentBit == BitValue.BOTTOM) {
-                    result[i] = tmpBit;
-                } else if (tmpBit == BitValue.BOTTOM) {
-                    result[i] = currentBit;
-                } else if (currentBit == tmpBit) {
-                    result[i] = currentBit;
-                } else {
-                    result[i] = BitValue.TOP;
-                }
-            }
-
-            return new BitValueArray(result);
+            return new BitValueArray(length, refBottom & currentBottom, zeros, ones);
         }
     }
 }
@@ -124,7 +124,7 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
         public Transitioner(ConstantBitsElement inputElement, ConstantBitsJoin join) {
             this.inputElement = inputElement;
             this.join = join;
-            outputElement = new ConstantBitsElement(inputElement.getLocalMap());
+            outputElement = inputElement.clone();
         }
 
         /**
@@ -355,62 +355,42 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
          */
 
         /**
-         * Checks for addition if one of the given {@code BitValue}s equals TOP and if so, calculates the carry
+         * Creates a {@code BitValueArray} of the given length which has the bits of {@code value} where {@code unknown}
+         * is not set and TOP bits where it is set.
          * 
-         * @param opAndCarry
-         *        the {@code BitValue}s to check
-         * @return if one of the bits was TOP, and the calculated carry
+         * @param value
+         *        the value of the known bits
+         * @param unknown
+         *        the mask of the bits which are TOP
+         * @param length
+         *        the length of the {@code BitValueArray}
+         * @return a {@code BitValueArray} with the known bits of {@code value} and TOP bits elsewhere
          */
-        private BitValue[] checkAddTop(BitValue[] opAndCarry) {
-            // opAndcarry = { op1Values[i], op2Values[i], carry }
-            // we will return resValcarry, with the first entry beeing the resulting bit
-            // and the second entry beeing the calculated carry
-            BitValue[] resValCarry = new BitValue[2];
-            resValCarry[0] = BitValue.ZERO;
-            resValCarry[1] = BitValue.ZERO;
-
-            // counting the ONEs and TOPs in opAndCarry
-            int numberOfOnes = 0;
-            int numberOfTops = 0;
-            for (BitValue entry : opAndCarry) {
-                switch (entry) {
-                case ONE:
-                    numberOfOnes++;
-                    break;
-                case TOP:
-                    numberOfTops++;
-                    break;
-                case ZERO:
-                    // ignore
-                    break;
-                case BOTTOM:
-                    throw new IllegalStateException("Transition of BOTTOM not possible!");
-                }
-            }
-
-            // Calculating the resulting bit
-            if (numberOfTops > 0) {
-                // If one of the 3 bits is TOP, the resulting bit is also TOP
-                resValCarry[0] = BitValue.TOP;
-            } else if (numberOfOnes == 1 || numberOfOnes == 3) {
-                // None of the bits is TOP, so we have only ONEs and ZEROs
-                // If the number of ONEs is odd, the result is ONE, if it is even, it remains ZERO
-                resValCarry[0] = BitValue.ONE;
-            }
+        private static BitValueArray fromKnownBits(long value, long unknown, int length) {
+            long known = ~unknown & BitValueArray.getLengthMask(length);
+            return new BitValueArray(length, 0, ~value & known, value & known);
+        }
 
-            // Calculating the carry bit
-            if (numberOfOnes >= 2) {
-                // If at least 2 of the 3 bits are ONE, the carry is definitely ONE
-                resValCarry[1] = BitValue.ONE;
-            } else if (numberOfOnes + numberOfTops >= 2) {
-                // The carry bit is not definitely ONE
-                // If the number of ONEs and TOPs combined are at least two, the carry bit is TOP, since there could be
-                // two or more ONEs
-                // If not, the carry bit remains ZERO
-                resValCarry[1] = BitValue.TOP;
-            }
+        /**
+         * Returns the value of {@code op} if all its TOP bits are ZERO, sign-extended to 64 bits.
+         * 
+         * @param op
+         *        the {@code BitValueArray} to get the value of
+         * @return the value of {@code op} if all its TOP bits are ZERO
+         */
+        private static long getKnownValue(BitValueArray op) {
+            return signExtend(op.getOneMask(), op.getLength());
+        }
 
-            return resValCarry;
+        /**
+         * Returns the mask of the TOP bits of {@code op}, sign-extended to 64 bits.
+         * 
+         * @param op
+         *        the {@code BitValueArray} to get the TOP bits of
+         * @return the mask of the TOP bits of {@code op}
+         */
+        private static long getUnknownBits(BitValueArray op) {
+            return signExtend(op.getTopMask(), op.getLength());
         }
 
         @Override
@@ -432,137 +412,16 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
 
             } else {
                 // both are not top and at least one is not a constant
-                // therefore we have to add all the bits one by one
-
-                // Making sure we have the right length in both:
-                int l1 = op1.getLength();
-                int l2 = op2.getLength();
-                int length = Math.max(l1, l2);
-                BitValue op1HighBit = op1.getBitValues()[l1 - 1];
-                BitValue op2HighBit = op2.getBitValues()[l2 - 1];
-                BitValue[] op1Values = new BitValue[length];
-                BitValue[] op2Values = new BitValue[length];
-                BitValue[] bitValues = new BitValue[length];
-                BitValue carry = BitValue.ZERO;
-
-                for (int i = 0; i < length; i++) {
-                    if (i >= l1) {
-                        op1Values[i] = op1HighBit;
-                    } else {
-                        op1Values[i] = op1.getBitValues()[i];
-                    }
-                    if (i >= l2) {
-                        op2Values[i] = op2HighBit;
-                    } else {
-                        op2Values[i] = op2.getBitValues()[i];
-                    }
-
-                    // the actual addition bit by bit:
-                    // first checking if one of the bits is TOP
-                    BitValue[] opAndCarry = { op1Values[i], op2Values[i], carry };
-                    BitValue[] checkTop = checkAddTop(opAndCarry);
-
-                    if (checkTop[0] == BitValue.TOP) {
-                        bitValues[i] = BitValue.TOP;
-                        carry = checkTop[1];
-
-                    } else {
-                        // both bits and the carry are ONE or ZERO so we convert them to int and add them
-                        int op1Bit = BitValueArray.bitValueToBoolean(op1Values[i]) ? 1 : 0;
-                        int op2Bit = BitValueArray.bitValueToBoolean(op2Values[i]) ? 1 : 0;
-                        int carryBit = BitValueArray.bitValueToBoolean(carry) ? 1 : 0;
-                        int res = op1Bit + op2Bit + carryBit;
-                        carry = BitValueArray.booleanToBitValue(res > 1);
-                        bitValues[i] = BitValueArray.booleanToBitValue((res & 1) != 0);
-                    }
-                }
-                result = new BitValueArray(bitValues);
-            }
-        }
-
-        /**
-         * Checks for subtraction if one of the given {@code BitValue}s equals TOP and if so, calculates the carry
-         * 
-         * @param opAndCarry
-         *        the {@code BitValue}s to check
-         * @return if one of the bits was TOP, and the calculated carry
-         */
-        private BitValue[] checkSubTop(BitValue[] opAndCarry) {
-            // opAndcarry = { op1Values[i], op2Values[i], carry }
-            // we will return resValcarry, with the first entry beeing the resulting bit
-            // and the second entry beeing the calculated carry
-            BitValue[] resValCarry = new BitValue[2];
-            resValCarry[0] = BitValue.ZERO;
-            resValCarry[1] = BitValue.ZERO;
-
-            boolean subFromOne = (opAndCarry[0] == BitValue.ONE);
-            boolean subFromTop = (opAndCarry[0] == BitValue.TOP);
-
-            // counting the ONEs and TOPs in (op2Values[i] and carry) as well as in all of opAndCarry
-            int numberOfAllOnes = 0;
-            int numberOfAllTops = 0;
-            int numberOfSubOnes = 0;
-            int numberOfSubTops = 0;
-            for (int i = 0; i < 3; i++) {
-                switch (opAndCarry[i]) {
-                case ONE:
-                    numberOfAllOnes++;
-                    if (i > 0) {
-                        numberOfSubOnes++;
-                    }
-                    break;
-                case TOP:
-                    numberOfAllTops++;
-                    if (i > 0) {
-                        numberOfSubTops++;
-                    }
-                    break;
-                case ZERO:
-                    // ignore
-                    break;
-                case BOTTOM:
-                    throw new IllegalStateException("Transition of BOTTOM not possible!");
-                }
-            }
-
-            // Calculating the resulting bit
-            if (numberOfAllTops > 0) {
-                // If one of the 3 bits is TOP, the resulting bit is also TOP
-                resValCarry[0] = BitValue.TOP;
-            } else {
-                // None of the bits is TOP, so we have only ONEs and ZEROs
-                if (numberOfAllOnes == 1 || numberOfAllOnes == 3) {
-                    // An odd number of bits is ONE so the resulting bit is ONE
-                    resValCarry[0] = BitValue.ONE;
-                }
-            }
-
-            // Calculating the carry bit
-            if (subFromOne || subFromTop) {
-                // We subtract from ONE or from TOP
-                if (numberOfSubOnes == 2) {
-                    // All 3 bits are ONE, or only the two sub-bits are one, so the carry is definitely ONE
-                    resValCarry[1] = BitValue.ONE;
-                } else if (subFromOne && (numberOfSubOnes + numberOfSubTops == 2)) {
-                    // Not all 3 bits are ONE, so the carry is not definitely ONE
-                    // All 3 bits are either TOP or ONE, so the carry is TOP
-                    resValCarry[1] = BitValue.TOP;
-                } else if (subFromTop && (numberOfSubOnes + numberOfSubTops >= 1)) {
-                    //
-                    resValCarry[1] = BitValue.TOP;
-                }
-            } else {
-                // We subtract from ZERO
-                if (numberOfSubOnes >= 1) {
-                    // We subtract at least 1 ONE from ZERO so the carry is definitely ONE
-                    resValCarry[1] = BitValue.ONE;
-                } else if (numberOfSubTops >= 1) {
-                    // We subtract no ONEs, so only TOPs and ZEROs
-                    // We subtract at least 1 TOP from ZERO so the carry is TOP
-                    resValCarry[1] = BitValue.TOP;
-                }
+                // therefore we add the known bits and propagate the carries through the masks:
+                // a carry can only be TOP if it differs between the smallest and the largest possible sum
+                // (the shorter operand is extended with its highest bit)
+                int length = Math.max(op1.getLength(), op2.getLength());
+                long unknown1 = getUnknownBits(op1);
+                long unknown2 = getUnknownBits(op2);
+                long minSum = getKnownValue(op1) + getKnownValue(op2);
+                long maxSum = minSum + unknown1 + unknown2;
+                result = fromKnownBits(minSum, (minSum ^ maxSum) | unknown1 | unknown2, length);
             }
-            return resValCarry;
         }
 
         @Override
@@ -584,51 +443,16 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
 
             } else {
                 // both are not top and at least one is not a constant
-                // therefore we have to subtract all the bits one by one
-
-                // Making sure we have the right length in both:
-                int l1 = op1.getLength();
-                int l2 = op2.getLength();
-                int length = Math.max(l1, l2);
-                BitValue op1HighBit = op1.getBitValues()[l1 - 1];
-                BitValue op2HighBit = op2.getBitValues()[l2 - 1];
-                BitValue[] op1Values = new BitValue[length];
-                BitValue[] op2Values = new BitValue[length];
-                BitValue[] bitValues = new BitValue[length];
-                BitValue carry = BitValue.ZERO;
-
-                for (int i = 0; i < length; i++) {
-                    if (i >= l1) {
-                        op1Values[i] = op1HighBit;
-                    } else {
-                        op1Values[i] = op1.getBitValues()[i];
-                    }
-                    if (i >= l2) {
-                        op2Values[i] = op2HighBit;
-                    } else {
-                        op2Values[i] = op2.getBitValues()[i];
-                    }
-
-                    // the actual subtraction bit by bit:
-                    // first checking if one of the bits is TOP or BOTTOM
-                    BitValue[] opAndcarry = { op1Values[i], op2Values[i], carry };
-                    BitValue[] checkTop = checkSubTop(opAndcarry);
-
-                    if (checkTop[0] == BitValue.TOP) {
-                        bitValues[i] = BitValue.TOP;
-                        carry = checkTop[1];
-
-                    } else {
-                        // both bits and the carry are ONE or ZERO so we convert them to int and subtract them
-                        int op1Bit = BitValueArray.bitValueToBoolean(op1Values[i]) ? 1 : 0;
-                        int op2Bit = BitValueArray.bitValueToBoolean(op2Values[i]) ? 1 : 0;
-                        int carryBit = BitValueArray.bitValueToBoolean(carry) ? 1 : 0;
-                        int res = op1Bit + op2Bit + carryBit;
-                        carry = BitValueArray.booleanToBitValue(op1Bit < op2Bit + carryBit);
-                        bitValues[i] = BitValueArray.booleanToBitValue((res & 1) != 0);
-                    }
-                }
-                result = new BitValueArray(bitValues);
+                // therefore we subtract the known bits and propagate the borrows through the masks:
+                // a borrow can only be TOP if it differs between the smallest and the largest possible difference
+                // (the shorter operand is extended with its highest bit)
+                int length = Math.max(op1.getLength(), op2.getLength());
+                long unknown1 = getUnknownBits(op1);
+                long unknown2 = getUnknownBits(op2);
+                long difference = getKnownValue(op1) - getKnownValue(op2);
+                long maxDifference = difference + unknown1;
+                long minDifference = difference - unknown2;
+                result = fromKnownBits(difference, (minDifference ^ maxDifference) | unknown1 | unknown2, length);
             }
         }
 
@@ -639,169 +463,231 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
          *        the {@code BitValueArray} to get the number of TOP bits from
          * @return the number of bits of the {@code BitValueArray} op that are TOP
          */
-        private static int getNumberOfTOP(BitValue[] opValues) {
-            int count = 0;
-            for (BitValue bit : opValues) {
-                if (bit == BitValue.TOP) {
-                    count++;
-                }
-            }
-            return count;
-        }
-
-        private static int getNumberOfTOP(BitValue[] opValues, int maxPos) {
-            int count = 0;
-            int m = Math.min(opValues.length, maxPos);
-            for (int i = 0; i < m; ++i) {
-                if (opValues[i] == BitValue.TOP) {
-                    count++;
-                }
-            }
-            return count;
+        private static int getNumberOfTOP(BitValueArray op) {
+            return Long.bitCount(op.getTopMask());
         }
 
         /**
-         * Returns the maximum and minimum value the {@code BitValue} {@code opValue} can have.
+         * Calculates the result of {@code operation} for every pair of constants {@code op1} and {@code op2} can be
+         * and joins these results. The number of pairs grows exponentially with the number of TOP bits, so this
+         * should only be used if there are at most {@code TOP_TRESHOLD} of them.
          * 
-         * @param opValue
-         *        The {@code BitValue} to get the maximum and minimum value of
-         * @param opHighBit
-         *        The MSB of the {@code BitValueArray} that {@code opValue} is part of
-         * @return the maximum and minimum value the {@code BitValue} {@code opValue} can have
+         * @param op1
+         *        the first operand
+         * @param op2
+         *        the second operand
+         * @param length
+         *        the length of the result
+         * @param operation
+         *        the {@code ArithmeticOperation} to calculate
+         * @return the join of the results of all possibilities
          */
-        private BitValue[] maxMinBit(BitValue opValue, BitValue opHighBit) {
-            BitValue opMax = null;
-            BitValue opMin = null;
-            switch (opValue) {
-            case ONE:
-                opMax = BitValue.ONE;
-                opMin = BitValue.ONE;
-                break;
-            case ZERO:
-                opMax = BitValue.ZERO;
-                opMin = BitValue.ZERO;
-                break;
-            case TOP:
-                opMax = BitValueArray.booleanToBitValue(opHighBit == BitValue.ZERO);
-                opMin = BitValueArray.booleanToBitValue(opHighBit == BitValue.ONE);
-                break;
-            case BOTTOM:
-                throw new IllegalStateException("Transition of BOTTOM not possible!");
-            }
-            BitValue[] actualMinMax = { opMax, opMin };
-            return actualMinMax;
+        private static BitValueArray calculatePossibilities(BitValueArray op1, BitValueArray op2, int length,
+                ArithmeticOperation operation) {
+            long unknown1 = op1.getTopMask();
+            long unknown2 = op2.getTopMask();
+            long ones = -1L;
+            long zeros = -1L;
+
+            // iterating over all subsets of the TOP bits of op1 and op2 (the TOP bits which are ONE)
+            long topOnes1 = 0;
+            do {
+                long value1 = signExtend(op1.getOneMask() | topOnes1, op1.getLength());
+                long topOnes2 = 0;
+                do {
+                    long value2 = signExtend(op2.getOneMask() | topOnes2, op2.getLength());
+                    long value = calculate(value1, value2, length, operation);
+                    ones &= value;
+                    zeros &= ~value;
+                    topOnes2 = (topOnes2 - unknown2) & unknown2;
+                } while (topOnes2 != 0);
+                topOnes1 = (topOnes1 - unknown1) & unknown1;
+            } while (topOnes1 != 0);
+
+            long lengthMask = BitValueArray.getLengthMask(length);
+            return new BitValueArray(length, 0, zeros & lengthMask, ones & lengthMask);
         }
 
         /**
-         * Returns the maximum and minimum absolute values that op1 and op2 can have.
+         * Calculates the result of {@code operation} for the given values with the precision of the given length.
          * 
-         * @param op1Values
-         *        the {@code BitValue}s of op1
-         * @param op2Values
-         *        the {@code BitValue}s of op2
-         * @param op1HighBit
-         *        the sign of op1
-         * @param op2HighBit
-         *        the sign of op2
+         * @param value1
+         *        the first operand
+         * @param value2
+         *        the second operand
          * @param length
-         *        the length of op1 and op2
-         * @return the maximum and minimum absolute values that op1 and op2 can have
+         *        {@code INT_SIZE} or {@code LONG_SIZE}
+         * @param operation
+         *        the {@code ArithmeticOperation} to calculate
+         * @return the result of {@code operation}
+         * 
+         * @throws ArithmeticException
+         *         if {@code operation} is a division or remainder and {@code value2} is zero
          */
-        private long[] getMaxMinAbs(BitValue[] op1Values, BitValue[] op2Values, BitValue op1HighBit,
-                BitValue op2HighBit, int length) {
-            if (op1HighBit == BitValue.TOP || op1HighBit == BitValue.BOTTOM || op2HighBit == BitValue.TOP
-                    || op2HighBit == BitValue.BOTTOM) {
-                throw new IllegalArgumentException("HighBits of both BitValues must not be TOP/BOTTOM");
+        private static long calculate(long value1, long value2, int length, ArithmeticOperation operation) {
+            if (length == BitValueArray.INT_SIZE) {
+                int int1 = (int) value1;
+                int int2 = (int) value2;
+                switch (operation) {
+                case MUL:
+                    return int1 * int2;
+                case DIV:
+                    return int1 / int2;
+                default: // REM
+                    return int1 % int2;
+                }
             }
 
-            BitValue[] op1Max = new BitValue[length];
-            BitValue[] op1Min = new BitValue[length];
-            BitValue[] op2Max = new BitValue[length];
-            BitValue[] op2Min = new BitValue[length];
-
-            // calculating the the bitValues of the maximum and minimum op1 and op2 can become
-            // if the sign is ZERO the operand is positive, so maximizing means putting ONE's instead of TOP/BOTTOM
-            // if the sign is ONE the operand is negative, so maximizing means putting ZERO's instead of TOP/BOTTOM
-            for (int k = 0; k < length; k++) {
-                BitValue[] op1ActualMaxMinAbs = maxMinBit(op1Values[k], op1HighBit);
-                op1Max[k] = op1ActualMaxMinAbs[0];
-                op1Min[k] = op1ActualMaxMinAbs[1];
-
-                BitValue[] op2ActualMaxMinAbs = maxMinBit(op2Values[k], op2HighBit);
-                op2Max[k] = op2ActualMaxMinAbs[0];
-                op2Min[k] = op2ActualMaxMinAbs[1];
+            switch (operation) {
+            case MUL:
+                return value1 * value2;
+            case DIV:
+                return value1 / value2;
+            default: // REM
+                return value1 % value2;
             }
+        }
 
-            // converting from BitValue[] to BitValueArray
-            BitValueArray op1MaxArray = new BitValueArray(op1Max);
-            BitValueArray op1MinArray = new BitValueArray(op1Min);
-            BitValueArray op2MaxArray = new BitValueArray(op2Max);
-            BitValueArray op2MinArray = new BitValueArray(op2Min);
-
-            // converting from BitValueArray to ArithmeticConstant
-            ArithmeticConstant op1MaxConst = op1MaxArray.getConstant();
-            ArithmeticConstant op1MinConst = op1MinArray.getConstant();
-            ArithmeticConstant op2MaxConst = op2MaxArray.getConstant();
-            ArithmeticConstant op2MinConst = op2MinArray.getConstant();
-
-            // converting from ArithmeticConstant to long
-            ConstantRetriever constantSwitch = new ConstantRetriever();
-            op1MaxConst.apply(constantSwitch);
-            long op1MaxAbs = Math.abs(constantSwitch.getValue());
-            op1MinConst.apply(constantSwitch);
-            long op1MinAbs = Math.abs(constantSwitch.getValue());
-            op2MaxConst.apply(constantSwitch);
-            long op2MaxAbs = Math.abs(constantSwitch.getValue());
-            op2MinConst.apply(constantSwitch);
-            long op2MinAbs = Math.abs(constantSwitch.getValue());
-
-            long[] maxMinAbs = { op1MaxAbs, op1MinAbs, op2MaxAbs, op2MinAbs };
-            return maxMinAbs;
+        /**
+         * Returns the maximum absolute value the {@code BitValueArray} {@code op} can have. For positive operands the
+         * TOP bits are taken as ONE, for negative ones as ZERO.
+         * 
+         * @param op
+         *        the {@code BitValueArray} whose highest bit is ONE or ZERO
+         * @return the maximum absolute value {@code op} can have
+         */
+        private static long getMaxAbs(BitValueArray op) {
+            long tops = op.isNotNegative() ? op.getTopMask() : 0;
+            return Math.abs(signExtend(op.getOneMask() | tops, op.getLength()));
+        }
+
+        /**
+         * Returns the minimum absolute value the {@code BitValueArray} {@code op} can have. For positive operands the
+         * TOP bits are taken as ZERO, for negative ones as ONE.
+         * 
+         * @param op
+         *        the {@code BitValueArray} whose highest bit is ONE or ZERO
+         * @return the minimum absolute value {@code op} can have
+         */
+        private static long getMinAbs(BitValueArray op) {
+            long tops = op.isNotNegative() ? 0 : op.getTopMask();
+            return Math.abs(signExtend(op.getOneMask() | tops, op.getLength()));
         }
 
         /**
          * Returns the maximum and minimum absolute value the multiplication of op1 and op2 can result in.
          * 
-         * @param op1Values
-         *        the bitValues of op1
-         * @param op2Values
-         *        the bitValues of op2
-         * @param op1HighBit
-         *        the sign of op1
-         * @param op2HighBit
-         *        the sign of op2
-         * @param length
-         *        the length of op1 and op2
+         * @param op1
+         *        the first factor, whose highest bit is ONE or ZERO
+         * @param op2
+         *        the second factor, whose highest bit is ONE or ZERO
          * @return the maximum and minimum absolute value the multiplication of op1 and op2 can result in
          */
-        private long[] getMaxMinMultAbs(BitValue[] op1Values, BitValue[] op2Values, BitValue op1HighBit,
-                BitValue op2HighBit, int length) {
+        private static long[] getMaxMinMultAbs(BitValueArray op1, BitValueArray op2) {
+            long op2MaxAbs = getMaxAbs(op2);
+            long op2MinAbs = getMinAbs(op2);
 
-            long[] minMaxAbs = getMaxMinAbs(op1Values, op2Values, op1HighBit, op2HighBit, length);
+            long resultMaxAbs;
+            long resultMinAbs;
+            if (op2MinAbs == 0) {
+                resultMaxAbs = Long.MAX_VALUE;
+            } else {
+                resultMaxAbs = getMaxAbs(op1) * op2MaxAbs;
+            }
+            if (op2MaxAbs == 0) {
+                resultMinAbs = Long.MAX_VALUE;
+            } else {
+                resultMinAbs = getMinAbs(op1) * op2MinAbs;
+            }
 
-            long op1MaxAbs = minMaxAbs[0];
-            long op1MinAbs = minMaxAbs[1];
-            long op2MaxAbs = minMaxAbs[2];
-            long op2MinAbs = minMaxAbs[3];
+            long[] maxMinAbs = { resultMaxAbs, resultMinAbs };
+            return maxMinAbs;
+        }
+
+        /**
+         * Returns the maximum and minimum absolute value the division of op1 and op2 can result in.
+         * 
+         * @param op1
+         *        the dividend, whose highest bit is ONE or ZERO
+         * @param op2
+         *        the divisor, whose highest bit is ONE or ZERO
+         * @return the maximum and minimum absolute value the division of op1 and op2 can result in
+         */
+        private static long[] getMaxMinDivAbs(BitValueArray op1, BitValueArray op2) {
+            long op2MaxAbs = getMaxAbs(op2);
+            long op2MinAbs = getMinAbs(op2);
 
-            // calculating the actual minAbs and maxAbs of the division
             long resultMaxAbs;
             long resultMinAbs;
             if (op2MinAbs == 0) {
                 resultMaxAbs = Long.MAX_VALUE;
             } else {
-                resultMaxAbs = op1MaxAbs * op2MaxAbs;
+                resultMaxAbs = (long) Math.floor((double) getMaxAbs(op1) / op2MinAbs);
             }
             if (op2MaxAbs == 0) {
                 resultMinAbs = Long.MAX_VALUE;
             } else {
-                resultMinAbs = op1MinAbs * op2MinAbs;
+                resultMinAbs = (long) Math.floor((double) getMinAbs(op1) / op2MaxAbs);
             }
 
             long[] maxMinAbs = { resultMaxAbs, resultMinAbs };
             return maxMinAbs;
         }
 
+        /**
+         * Returns the bits a result can have if its absolute value lies between the given bounds.
+         * 
+         * @param maxMinAbs
+         *        the maximum and minimum absolute value of the result
+         * @param positive
+         *        whether the result is positive
+         * @param length
+         *        the length of the result
+         * @return the bits the result can have
+         */
+        private static BitValueArray getRangeBits(long[] maxMinAbs, boolean positive, int length) {
+            long lengthMask = BitValueArray.getLengthMask(length);
+            long zeros = 0;
+            long ones = 0;
+            if (positive) {
+                // How many ONE's can we put from the lowest bit up
+                // How many ZERO's can we put from the highest bit down
+                long maxVal = maxMinAbs[0] & lengthMask;
+                long minVal = maxMinAbs[1];
+
+                int zeroPos = Long.numberOfTrailingZeros(~minVal);
+                if (zeroPos < length) {
+                    ones = BitValueArray.getLengthMask(zeroPos);
+                }
+                if (maxVal != 0) {
+                    int onePos = Long.SIZE - 1 - Long.numberOfLeadingZeros(maxVal);
+                    zeros = lengthMask & ~BitValueArray.getLengthMask(onePos + 1) & ~ones;
+                }
+
+            } else {
+                // How many ZERO's can we put from the lowest bit up
+                // How many ONE's can we put from the highest bit down
+                long maxVal = -maxMinAbs[1];
+                long minVal = -maxMinAbs[0];
+                if (maxVal == 0 || minVal == 0) {
+                    // result could be 0, but we are negative, so all bits could be anything
+                    return top;
+                }
+
+                int onePos = Long.numberOfTrailingZeros(maxVal);
+                if (onePos < length) {
+                    zeros = BitValueArray.getLengthMask(onePos);
+                }
+                long minValZeros = ~minVal & lengthMask;
+                if (minValZeros != 0) {
+                    int zeroPos = Long.SIZE - 1 - Long.numberOfLeadingZeros(minValZeros);
+                    ones = lengthMask & ~BitValueArray.getLengthMask(zeroPos + 1) & ~zeros;
+                }
+            }
+
+            return new BitValueArray(length, 0, zeros, ones);
+        }
+
         @Override
         public void caseMulExpr(MulExpr expr) {
             ValuePair operandValues = calcOperands(expr);
@@ -827,8 +713,8 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                 int l1 = op1.getLength();
                 int l2 = op2.getLength();
                 int length = Math.max(l1, l2);
-                BitValue op1HighBit = op1.getBitValues()[l1 - 1];
-                BitValue op2HighBit = op2.getBitValues()[l2 - 1];
+                BitValue op1HighBit = op1.getBitValue(l1 - 1);
+                BitValue op2HighBit = op2.getBitValue(l2 - 1);
 
                 if (op1.isZero() || op2.isZero()) {
                     // If one of the factors is zero, the result of the multiplication is zero
@@ -844,254 +730,64 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                     int shiftAmount = op2.getPositionOfOne();
                     result = shiftLeft(op1, shiftAmount);
 
-                } else {
-
+                } else if (getNumberOfTOP(op1) + getNumberOfTOP(op2) <= TOP_TRESHOLD) {
                     // none of the special cases applied, so bring on those nasty heuristics :P
-                    BitValue[] op1Values = new BitValue[length];
-                    BitValue[] op2Values = new BitValue[length];
-
-                    // make both the same length
-                    for (int i = 0; i < length; i++) {
-                        if (i >= l1) {
-                            op1Values[i] = op1HighBit;
-
-                        } else {
-                            op1Values[i] = op1.getBitValues()[i];
-                        }
-                        if (i >= l2) {
-                            op2Values[i] = op2HighBit;
+                    // heuristic of multiplying each possibility:
+                    result = calculatePossibilities(op1, op2, length, ArithmeticOperation.MUL);
 
-                        } else {
-                            op2Values[i] = op2.getBitValues()[i];
-                        }
-                    }
-
-                    int numberOfTops1 = getNumberOfTOP(op1.getBitValues());
-                    int numberOfTops2 = getNumberOfTOP(op2.getBitValues());
-                    if (numberOfTops1 + numberOfTops2 <= TOP_TRESHOLD) {
-                        // heuristic of multiplying each possibility:
-                        int dim1 = (1 << numberOfTops1);
-                        int dim2 = (1 << numberOfTops2);
-                        int dimGes = dim1 * dim2;
-                        BitValueArray[] possibilities = new BitValueArray[dimGes];
-
-                        for (long counter1 = 0; counter1 < dim1; counter1++) {
-                            for (long counter2 = 0; counter2 < dim2; counter2++) {
-                                BitValue[] op1ValuesPossibility = new BitValue[length];
-                                BitValue[] op2ValuesPossibility = new BitValue[length];
-                                int topCounter1 = 0;
-                                int topCounter2 = 0;
-                                for (int j = 0; j < length; j++) {
-                                    if (op1Values[j] == BitValue.TOP) {
-                                        topCounter1++;
-                                        op1ValuesPossibility[j] = BitValueArray
-                                                .booleanToBitValue((counter1 & (1L << (topCounter1 - 1))) != 0);
-                                    } else {
-                                        op1ValuesPossibility[j] = op1Values[j];
-                                    }
-                                    if (op2Values[j] == BitValue.TOP) {
-                                        topCounter2++;
-                                        op2ValuesPossibility[j] = BitValueArray
-                                                .booleanToBitValue((counter2 & (1L << (topCounter2 - 1))) != 0);
-                                    } else {
-                                        op2ValuesPossibility[j] = op2Values[j];
-                                    }
-                                }
-                                BitValueArray op1Possibility = new BitValueArray(op1ValuesPossibility);
-                                BitValueArray op2Possibility = new BitValueArray(op2ValuesPossibility);
-                                possibilities[(int) (counter1 * dim2 + counter2)] =
-                                        new BitValueArray((ArithmeticConstant) op1Possibility.getConstant()
-                                                .multiply(op2Possibility.getConstant()));
-                            }
-                        }
-                        BitValueArray refVal = possibilities[0];
-                        for (int j = 1; j < dimGes; j++) {
-                            refVal = join.getJoinHelper().performSingleJoin(refVal, possibilities[j]);
-                        }
-                        result = refVal;
-
-                    } else if (op1HighBit == BitValue.TOP || op2HighBit == BitValue.TOP) {
-                        // If we can not apply the heuristic, and one of the HighBits is TOP, we have no information
-                        result = top;
-
-                    } else if (op1HighBit == BitValue.ZERO && op2HighBit == BitValue.ZERO) {
-                        // Both operands are positive, but have too many TOP bits so the next idea is counting zeros
-                        // from the lowest and highest bit
-                        int lowZeros = 0;
-                        int highZeros = 0;
-                        boolean op1FoundLow = false;
-                        boolean op2FoundLow = false;
-                        boolean op1FoundHigh = false;
-                        boolean op2FoundHigh = false;
-                        for (int k = 0; k < length; k++) {
-                            if (!op1FoundLow) {
-                                if (op1Values[k] == BitValue.ZERO) {
-                                    lowZeros++;
-                                } else {
-                                    op1FoundLow = true;
-                                }
-                            }
-                            if (!op2FoundLow) {
-                                if (op2Values[k] == BitValue.ZERO) {
-                                    lowZeros++;
-                                } else {
-                                    op2FoundLow = true;
-                                }
-                            }
-                            if (!op1FoundHigh) {
-                                if (op1Values[length - k - 1] == BitValue.ZERO) {
-                                    highZeros++;
-                                } else {
-                                    op1FoundHigh = true;
-                                }
-                            }
-                            if (!op2FoundHigh) {
-                                if (op2Values[length - k - 1] == BitValue.ZERO) {
-                                    highZeros++;
-                                } else {
-                                    op2FoundHigh = true;
-                                }
-                            }
-                        }
-                        int highIndex = Math.min(2 * length - highZeros, length);
-                        BitValue[] sandwich = new BitValue[length];
-                        for (int l = 0; l < Math.min(lowZeros, length); l++) {
-                            sandwich[l] = BitValue.ZERO;
-                        }
-                        for (int m = lowZeros; m < Math.min(highZeros, length); m++) {
-                            sandwich[m] = BitValue.TOP;
-                        }
-                        for (int n = highIndex; n < length; n++) {
-                            sandwich[n] = BitValue.ZERO;
-                        }
-                        result = new BitValueArray(sandwich);
+                } else if (op1HighBit == BitValue.TOP || op2HighBit == BitValue.TOP) {
+                    // If we can not apply the heuristic, and one of the HighBits is TOP, we have no information
+                    result = top;
 
-                    } else {
-                        // Range Analysis with getMaxMinAbs
-                        // The HighBits of both operands are either ONE or ZERO so we can calculate the sign of our
-                        // result
-                        // Calculate max abs of op1 and min abs of op2 to get max abs of result
-                        // also min abs of op1 and max abs of op2 to get min abs of result
-                        long[] maxMinAbs = getMaxMinMultAbs(op1Values, op2Values, op1HighBit, op2HighBit, length);
-
-                        BitValue[] resValues = new BitValue[length];
-                        boolean foundOne = false;
-                        boolean foundZero = false;
-                        int onePos = -1;
-                        int zeroPos = -1;
-                        if (op1HighBit == op2HighBit) {
-                            // the result will be positive so we are checking:
-                            // How many ONE's can we put from the lowest bit up
-                            // How many ZERO's can we put from the highest bit down
-
-                            long maxVal = maxMinAbs[0];
-                            long minVal = maxMinAbs[1];
-
-                            for (int l = 0; l < length; l++) {
-                                if (!foundZero && (minVal & (1L << l)) == 0) {
-                                    foundZero = true;
-                                    zeroPos = l;
-                                    break;
-                                }
-                            }
-                            for (int p = length - 1; p >= 0; p--) {
-                                if (!foundOne && (maxVal & (1L << p)) != 0) {
-                                    foundOne = true;
-                                    onePos = p;
-                                    break;
-                                }
-                            }
-                            for (int q = 0; q < length; q++) {
-                                if (foundZero && q < zeroPos) {
-                                    resValues[q] = BitValue.ONE;
-                                } else if (foundOne && q > onePos) {
-                                    resValues[q] = BitValue.ZERO;
-                                } else {
-                                    resValues[q] = BitValue.TOP;
-                                }
-                            }
+                } else if (op1HighBit == BitValue.ZERO && op2HighBit == BitValue.ZERO) {
+                    // Both operands are positive, but have too many TOP bits so the next idea is counting zeros
+                    // from the lowest and highest bit: the product has at least as many ZERO bits at the bottom as
+                    // both factors together and at most as many significant bits as both factors together
+                    long lengthMask = BitValueArray.getLengthMask(length);
+                    long op1Zeros = signExtend(op1.getZeroMask(), l1) & lengthMask;
+                    long op2Zeros = signExtend(op2.getZeroMask(), l2) & lengthMask;
+                    int lowZeros = getLowZeros(op1Zeros, length) + getLowZeros(op2Zeros, length);
+                    int highZeros = getHighZeros(op1Zeros, length) + getHighZeros(op2Zeros, length);
+                    int highIndex = Math.min(2 * length - highZeros, length);
+                    long zeros = BitValueArray.getLengthMask(Math.min(lowZeros, length))
+                            | (lengthMask & ~BitValueArray.getLengthMask(highIndex));
+                    result = new BitValueArray(length, 0, zeros, 0);
 
-                        } else {
-                            // the result will be negative so we are checking:
-                            // How many ZERO's can we put from the lowest bit up
-                            // How many ONE's can we put from the highest bit down
-                            long maxVal = -maxMinAbs[1];
-                            long minVal = -maxMinAbs[0];
-                            if (maxVal == 0 || minVal == 0) {
-                                result = top;
-                                return;
-                            }
-                            for (int m = 0; m < length; m++) {
-                                if (!foundOne && (maxVal & (1L << m)) != 0) {
-                                    foundOne = true;
-                                    onePos = m;
-                                    break;
-                                }
-                            }
-                            for (int n = length - 1; n >= 0; n--) {
-                                if (!foundZero && (minVal & (1L << n)) == 0) {
-                                    foundZero = true;
-                                    zeroPos = n;
-                                    break;
-                                }
-                            }
-                            for (int o = 0; o < length; o++) {
-                                if (foundOne && o < onePos) {
-                                    resValues[o] = BitValue.ZERO;
-                                } else if (foundZero && o > zeroPos) {
-                                    resValues[o] = BitValue.ONE;
-                                } else {
-                                    resValues[o] = BitValue.TOP;
-                                }
-                            }
-                        }
-                        result = new BitValueArray(resValues);
-                    }
+                } else {
+                    // Range Analysis with getMaxMinMultAbs
+                    // The HighBits of both operands are either ONE or ZERO so we can calculate the sign of our
+                    // result
+                    // Calculate max abs of op1 and max abs of op2 to get max abs of result
+                    // also min abs of op1 and min abs of op2 to get min abs of result
+                    result = getRangeBits(getMaxMinMultAbs(op1, op2), op1HighBit == op2HighBit, length);
                 }
             }
         }
 
         /**
-         * Returns the maximum and minimum absolute value the division of op1 and op2 can result in.
+         * Returns the number of consecutive ZERO bits starting at the lowest bit.
          * 
-         * @param op1Values
-         *        the bitValues of op1
-         * @param op2Values
-         *        the bitValues of op2
-         * @param op1HighBit
-         *        the sign of op1
-         * @param op2HighBit
-         *        the sign of op2
+         * @param zeros
+         *        the mask of the ZERO bits
          * @param length
-         *        the length of op1 and op2
-         * @return the maximum and minimum absolute value the division of op1 and op2 can result in
+         *        the number of bits
+         * @return the number of consecutive ZERO bits starting at the lowest bit
          */
-        private long[] getMaxMinDivAbs(BitValue[] op1Values, BitValue[] op2Values, BitValue op1HighBit,
-                BitValue op2HighBit, int length) {
-
-            long[] minMaxAbs = getMaxMinAbs(op1Values, op2Values, op1HighBit, op2HighBit, length);
-
-            long op1MaxAbs = minMaxAbs[0];
-            long op1MinAbs = minMaxAbs[1];
-            long op2MaxAbs = minMaxAbs[2];
-            long op2MinAbs = minMaxAbs[3];
-
-            // calculating the actual minAbs and maxAbs of the division
-            long resultMaxAbs;
-            long resultMinAbs;
-            if (op2MinAbs == 0) {
-                resultMaxAbs = Long.MAX_VALUE;
-            } else {
-                resultMaxAbs = (long) Math.floor((double) op1MaxAbs / op2MinAbs);
-            }
-            if (op2MaxAbs == 0) {
-                resultMinAbs = Long.MAX_VALUE;
-            } else {
-                resultMinAbs = (long) Math.floor((double) op1MinAbs / op2MaxAbs);
-            }
+        private static int getLowZeros(long zeros, int length) {
+            return Math.min(Long.numberOfTrailingZeros(~zeros), length);
+        }
 
-            long[] maxMinAbs = { resultMaxAbs, resultMinAbs };
-            return maxMinAbs;
+        /**
+         * Returns the number of consecutive ZERO bits starting at the highest bit.
+         * 
+         * @param zeros
+         *        the mask of the ZERO bits
+         * @param length
+         *        the number of bits
+         * @return the number of consecutive ZERO bits starting at the highest bit
+         */
+        private static int getHighZeros(long zeros, int length) {
+            return Math.min(Long.numberOfLeadingZeros(~zeros << (Long.SIZE - length)), length);
         }
 
         @Override
@@ -1119,8 +815,8 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                 int l1 = op1.getLength();
                 int l2 = op2.getLength();
                 int length = Math.max(l1, l2);
-                BitValue op1HighBit = op1.getBitValues()[l1 - 1];
-                BitValue op2HighBit = op2.getBitValues()[l2 - 1];
+                BitValue op1HighBit = op1.getBitValue(l1 - 1);
+                BitValue op2HighBit = op2.getBitValue(l2 - 1);
 
                 // dividing by ZERO gives TOP
                 if (op2.isZero()) {
@@ -1142,83 +838,17 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
 
                     if (op1HighBit == BitValue.TOP) {
                         // if op1HighBit is TOP we have to check both cases for 0 and 1 to get op1MinAbs and op1MaxAbs
-                        BitValue[] op1Values = op1.getBitValues();
-                        BitValue[] op1ONEValues = new BitValue[l1];
-                        BitValue[] op1ZEROValues = new BitValue[l1];
-                        for (int i = 0; i < l1; i++) {
-                            op1ONEValues[i] = op1Values[i];
-                            op1ZEROValues[i] = op1Values[i];
-                        }
-                        op1ONEValues[l1 - 1] = BitValue.ONE;
-                        op1ZEROValues[l1 - 1] = BitValue.ZERO;
-                        BitValue[] op1ONEMax = new BitValue[l1];
-                        BitValue[] op1ONEMin = new BitValue[l1];
-                        BitValue[] op1ZEROMax = new BitValue[l1];
-                        BitValue[] op1ZEROMin = new BitValue[l1];
-
-                        for (int i = 0; i < l1; i++) {
-                            // calculating the bitValues of the min and max op1ONE and op1ZERO can become
-                            BitValue[] op1ONEActualMaxMinAbs = maxMinBit(op1ONEValues[i], op1HighBit);
-                            op1ONEMax[i] = op1ONEActualMaxMinAbs[0];
-                            op1ONEMin[i] = op1ONEActualMaxMinAbs[1];
-                            BitValue[] op1ZEROActualMaxMinAbs = maxMinBit(op1ZEROValues[i], op1HighBit);
-                            op1ZEROMax[i] = op1ZEROActualMaxMinAbs[0];
-                            op1ZEROMin[i] = op1ZEROActualMaxMinAbs[1];
-                        }
-
-                        // converting from BitValue[] to BitValueArray
-                        BitValueArray op1ONEMaxArray = new BitValueArray(op1ONEMax);
-                        BitValueArray op1ONEMinArray = new BitValueArray(op1ONEMin);
-                        BitValueArray op1ZEROMaxArray = new BitValueArray(op1ZEROMax);
-                        BitValueArray op1ZEROMinArray = new BitValueArray(op1ZEROMin);
-
-                        // converting from BitValueArray to ArithmeticConstant
-                        ArithmeticConstant op1ONEMaxConst = op1ONEMaxArray.getConstant();
-                        ArithmeticConstant op1ONEMinConst = op1ONEMinArray.getConstant();
-                        ArithmeticConstant op1ZEROMaxConst = op1ZEROMaxArray.getConstant();
-                        ArithmeticConstant op1ZEROMinConst = op1ZEROMinArray.getConstant();
-
-                        // converting from ArithmeticConstant to long
-                        ConstantRetriever constantSwitch = new ConstantRetriever();
-                        op1ONEMaxConst.apply(constantSwitch);
-                        long op1ONEMaxAbs = Math.abs(constantSwitch.getValue());
-                        op1ONEMinConst.apply(constantSwitch);
-                        long op1ONEMinAbs = Math.abs(constantSwitch.getValue());
-                        op1ZEROMaxConst.apply(constantSwitch);
-                        long op1ZEROMaxAbs = Math.abs(constantSwitch.getValue());
-                        op1ZEROMinConst.apply(constantSwitch);
-                        long op1ZEROMinAbs = Math.abs(constantSwitch.getValue());
+                        // (taking all other TOP bits as ZERO)
+                        long op1ONEAbs = Math.abs(signExtend(op1.getOneMask() | (1L << (l1 - 1)), l1));
+                        long op1ZEROAbs = Math.abs(op1.getOneMask());
 
                         // Comparing the two cases and getting the actual minimum and maximum
-                        op1MaxAbs = Math.max(op1ONEMaxAbs, op1ZEROMaxAbs);
-                        op1MinAbs = Math.min(op1ONEMinAbs, op1ZEROMinAbs);
+                        op1MaxAbs = Math.max(op1ONEAbs, op1ZEROAbs);
+                        op1MinAbs = Math.min(op1ONEAbs, op1ZEROAbs);
 
                     } else {
-                        BitValue[] op1Values = op1.getBitValues();
-                        BitValue[] op1Max = new BitValue[l1];
-                        BitValue[] op1Min = new BitValue[l1];
-
-                        for (int i = 0; i < l1; i++) {
-                            // calculating the the bitValues of the minimum op1 can become
-                            BitValue[] op1ActualMaxMinAbs = maxMinBit(op1Values[i], op1HighBit);
-                            op1Max[i] = op1ActualMaxMinAbs[0];
-                            op1Min[i] = op1ActualMaxMinAbs[1];
-                        }
-
-                        // converting from BitValue[] to BitValueArray
-                        BitValueArray op1MaxArray = new BitValueArray(op1Max);
-                        BitValueArray op1MinArray = new BitValueArray(op1Min);
-
-                        // converting from BitValueArray to ArithmeticConstant
-                        ArithmeticConstant op1MaxConst = op1MaxArray.getConstant();
-                        ArithmeticConstant op1MinConst = op1MinArray.getConstant();
-
-                        // converting from ArithmeticConstant to long
-                        ConstantRetriever constantSwitch = new ConstantRetriever();
-                        op1MaxConst.apply(constantSwitch);
-                        op1MaxAbs = Math.abs(constantSwitch.getValue());
-                        op1MinConst.apply(constantSwitch);
-                        op1MinAbs = Math.abs(constantSwitch.getValue());
+                        op1MaxAbs = getMaxAbs(op1);
+                        op1MinAbs = getMinAbs(op1);
                     }
 
                     if (op1MinAbs >= op2Abs) {
@@ -1229,167 +859,29 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
 
                     } else if (op1MaxAbs < op2Abs) {
                         // if op1Abs < op2MaxAbs, the result is zero
-                        BitValue[] zeros = new BitValue[l1];
-                        for (int j = 0; j < l1; j++) {
-                            zeros[j] = BitValue.ZERO;
-                        }
-                        result = new BitValueArray(zeros);
+                        result = new BitValueArray(l1, BitValue.ZERO);
                         return;
                     }
 
                 }
-                // none of the special cases applied, so bring on those nasty heuristics :P
-                BitValue[] op1Values = new BitValue[length];
-                BitValue[] op2Values = new BitValue[length];
-
-                // make both the same length
-                for (int i = 0; i < length; i++) {
-                    if (i >= l1) {
-                        op1Values[i] = op1HighBit;
-                    } else {
-                        op1Values[i] = op1.getBitValues()[i];
-                    }
-                    if (i >= l2) {
-                        op2Values[i] = op2HighBit;
-                    } else {
-                        op2Values[i] = op2.getBitValues()[i];
-                    }
-                }
 
-                int numberOfTops1 = getNumberOfTOP(op1.getBitValues());
-                int numberOfTops2 = getNumberOfTOP(op2.getBitValues());
-                if (numberOfTops1 + numberOfTops2 <= TOP_TRESHOLD) {
+                // none of the special cases applied, so bring on those nasty heuristics :P
+                if (getNumberOfTOP(op1) + getNumberOfTOP(op2) <= TOP_TRESHOLD) {
                     // heuristic of dividing each possibility:
-                    int dim1 = (1 << numberOfTops1);
-                    int dim2 = (1 << numberOfTops2);
-                    int dimGes = dim1 * dim2;
-                    BitValueArray[] possibilities = new BitValueArray[dimGes];
-
-                    for (long counter1 = 0; counter1 < dim1; counter1++) {
-                        for (long counter2 = 0; counter2 < dim2; counter2++) {
-                            BitValue[] op1ValuesPossibility = new BitValue[length];
-                            BitValue[] op2ValuesPossibility = new BitValue[length];
-                            int topCounter1 = 0;
-                            int topCounter2 = 0;
-                            for (int j = 0; j < length; j++) {
-                                if (op1Values[j] == BitValue.TOP) {
-                                    topCounter1++;
-                                    op1ValuesPossibility[j] = BitValueArray
-                                            .booleanToBitValue((counter1 & (1L << (topCounter1 - 1))) != 0);
-                                } else {
-                                    op1ValuesPossibility[j] = op1Values[j];
-                                }
-                                if (op2Values[j] == BitValue.TOP) {
-                                    topCounter2++;
-                                    op2ValuesPossibility[j] = BitValueArray
-                                            .booleanToBitValue((counter2 & (1L << (topCounter2 - 1))) != 0);
-                                } else {
-                                    op2ValuesPossibility[j] = op2Values[j];
-                                }
-                            }
-                            BitValueArray op1Possibility = new BitValueArray(op1ValuesPossibility);
-                            BitValueArray op2Possibility = new BitValueArray(op2ValuesPossibility);
-                            possibilities[(int) (counter1 * dim2 + counter2)] =
-                                    new BitValueArray((ArithmeticConstant) op1Possibility.getConstant()
-                                            .divide(op2Possibility.getConstant()));
-                        }
-                    }
-                    // joining the possibilities
-                    BitValueArray refVal = possibilities[0];
-                    for (int j = 1; j < dimGes; j++) {
-                        refVal = join.getJoinHelper().performSingleJoin(refVal, possibilities[j]);
-                    }
-                    result = refVal;
+                    result = calculatePossibilities(op1, op2, length, ArithmeticOperation.DIV);
 
-                } else {
+                } else if (op1HighBit == BitValue.TOP || op2HighBit == BitValue.TOP) {
                     // too many TOP bits so the last resort is counting zeros from the lowest and highest bit
+                    // If we have no clue what the sign of one of the operands is, we have no better guess than
+                    // to make everything TOP
+                    result = top;
 
-                    if (op1HighBit == BitValue.TOP || op2HighBit == BitValue.TOP) {
-                        // If we have no clue what the sign of one of the operands is, we have no better guess than
-                        // to make everything TOP
-                        result = top;
-
-                    } else {
-                        // The HighBits of both operands are either ONE or ZERO so we can calculate the sign of our
-                        // result
-                        // Calculate max abs of op1 and min abs of op2 to get max abs of result
-                        // also min abs of op1 and max abs of op2 to get min abs of result
-                        long[] maxMinAbs = getMaxMinDivAbs(op1Values, op2Values, op1HighBit, op2HighBit, length);
-
-                        BitValue[] resValues = new BitValue[length];
-                        boolean foundOne = false;
-                        boolean foundZero = false;
-                        int onePos = -1;
-                        int zeroPos = -1;
-                        if (op1HighBit == op2HighBit) {
-                            // the result will be positive so we are checking:
-                            // How many ONE's can we put from the lowest bit up
-                            // How many ZERO's can we put from the highest bit down
-
-                            long maxVal = maxMinAbs[0];
-                            long minVal = maxMinAbs[1];
-
-                            for (int l = 0; l < length; l++) {
-                                if (!foundZero && (minVal & (1L << l)) == 0) {
-                                    foundZero = true;
-                                    zeroPos = l;
-                                    break;
-                                }
-                            }
-                            for (int p = length - 1; p >= 0; p--) {
-                                if (!foundOne && (maxVal & (1L << p)) != 0) {
-                                    foundOne = true;
-                                    onePos = p;
-                                    break;
-                                }
-                            }
-                            for (int q = 0; q < length; q++) {
-                                if (foundZero && q < zeroPos) {
-                                    resValues[q] = BitValue.ONE;
-                                } else if (foundOne && q > onePos) {
-                                    resValues[q] = BitValue.ZERO;
-                                } else {
-                                    resValues[q] = BitValue.TOP;
-                                }
-                            }
-
-                        } else {
-                            // the result will be negative so we are checking:
-                            // How many ZERO's can we put from the lowest bit up
-                            // How many ONE's can we put from the highest bit down
-                            long maxVal = -maxMinAbs[1];
-                            long minVal = -maxMinAbs[0];
-                            if (maxVal == 0 || minVal == 0) {
-                                // result could be 0, but we are negative, so all bits could be anything
-                                result = top;
-                                return;
-                            }
-                            for (int m = 0; m < length; m++) {
-                                if (!foundOne && (maxVal & (1L << m)) != 0) {
-                                    foundOne = true;
-                                    onePos = m;
-                                    break;
-                                }
-                            }
-                            for (int n = length - 1; n >= 0; n--) {
-                                if (!foundZero && (minVal & (1L << n)) == 0) {
-                                    foundZero = true;
-                                    zeroPos = n;
-                                    break;
-                                }
-                            }
-                            for (int o = 0; o < length; o++) {
-                                if (foundOne && o < onePos) {
-                                    resValues[o] = BitValue.ZERO;
-                                } else if (foundZero && o > zeroPos) {
-                                    resValues[o] = BitValue.ONE;
-                                } else {
-                                    resValues[o] = BitValue.TOP;
-                                }
-                            }
-                        }
-                        result = new BitValueArray(resValues);
-                    }
+                } else {
+                    // The HighBits of both operands are either ONE or ZERO so we can calculate the sign of our
+                    // result
+                    // Calculate max abs of op1 and min abs of op2 to get max abs of result
+                    // also min abs of op1 and max abs of op2 to get min abs of result
+                    result = getRangeBits(getMaxMinDivAbs(op1, op2), op1HighBit == op2HighBit, length);
                 }
             }
         }
@@ -1419,206 +911,79 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                 int l1 = op1.getLength();
                 int l2 = op2.getLength();
                 int length = Math.max(l1, l2);
-                BitValue op1HighBit = op1.getBitValues()[l1 - 1];
-                BitValue op2HighBit = op2.getBitValues()[l2 - 1];
+                BitValue op1HighBit = op1.getBitValue(l1 - 1);
+                BitValue op2HighBit = op2.getBitValue(l2 - 1);
 
                 if (op2.isZero()) {
                     result = top;
 
                 } else if (op2.isPowerOfTwo() && op1.isNotNegative()) {
                     // if op2 is a power of two, the abs of op1 is simply cut left of the power
-                    int cutPosition = op2.getPositionOfOne();
-                    BitValue[] bitValues = new BitValue[l1];
-                    for (int a = 0; a < cutPosition; a++) {
-                        bitValues[a] = op1.getBitValues()[a];
-                    }
-                    for (int b = cutPosition; b < l1; b++) {
-                        bitValues[b] = BitValue.ZERO;
-                    }
-                    result = new BitValueArray(bitValues);
+                    long cutMask = BitValueArray.getLengthMask(op2.getPositionOfOne());
+                    long zeros = (op1.getZeroMask() & cutMask) | (BitValueArray.getLengthMask(l1) & ~cutMask);
+                    result = new BitValueArray(l1, 0, zeros, op1.getOneMask() & cutMask);
 
-                } else {
+                } else if (getNumberOfTOP(op1) + getNumberOfTOP(op2) <= TOP_TRESHOLD) {
                     // none of the special cases applied, so bring on those nasty heuristics :P
-                    BitValue[] op1Values = new BitValue[length];
-                    BitValue[] op2Values = new BitValue[length];
+                    // heuristic of calculationg the remainder for each possibility:
+                    result = calculatePossibilities(op1, op2, length, ArithmeticOperation.REM);
 
-                    // make both the same length
-                    for (int i = 0; i < length; i++) {
-                        if (i >= l1) {
-                            op1Values[i] = op1HighBit;
-                        } else {
-                            op1Values[i] = op1.getBitValues()[i];
-                        }
-                        if (i >= l2) {
-                            op2Values[i] = op2HighBit;
-                        } else {
-                            op2Values[i] = op2.getBitValues()[i];
-                        }
+                } else {
+                    // we are looking for the max abs of op2 and op1 cause the abs of the result will be
+                    // smaller than both of these
+                    long op1MaxAbs = -1;
+                    long op2MaxAbs = -1;
+                    long op2MinAbs = -1;
+                    boolean op1Computable = false;
+                    boolean op2Computable = false;
+
+                    // Calculating the actual long values of op1MaxAbs, op2MaxAbs und op2MinAbs
+                    if (!(op1HighBit == BitValue.TOP)) {
+                        op1Computable = true;
+                        op1MaxAbs = getMaxAbs(op1);
+                    }
+                    if (!(op2HighBit == BitValue.TOP)) {
+                        op2Computable = true;
+                        op2MaxAbs = getMaxAbs(op2);
+                        op2MinAbs = getMinAbs(op2);
+                    }
+                    if (op1HighBit == BitValue.ONE && op1MaxAbs >= op2MinAbs) {
+                        // the result could be 0, but we are negative, so all bits could be anything
+                        result = top;
+                        return;
                     }
 
-                    int numberOfTops1 = getNumberOfTOP(op1.getBitValues());
-                    int numberOfTops2 = getNumberOfTOP(op2.getBitValues());
-                    if (numberOfTops1 + numberOfTops2 <= TOP_TRESHOLD) {
-                        // heuristic of calculationg the remainder for each possibility:
-                        int dim1 = (1 << numberOfTops1);
-                        int dim2 = (1 << numberOfTops2);
-                        int dimGes = dim1 * dim2;
-                        BitValueArray[] possibilities = new BitValueArray[dimGes];
-
-                        for (long counter1 = 0; counter1 < dim1; counter1++) {
-                            for (long counter2 = 0; counter2 < dim2; counter2++) {
-                                BitValue[] op1ValuesPossibility = new BitValue[length];
-                                BitValue[] op2ValuesPossibility = new BitValue[length];
-                                int topCounter1 = 0;
-                                int topCounter2 = 0;
-                                for (int j = 0; j < length; j++) {
-                                    if (op1Values[j] == BitValue.TOP) {
-                                        topCounter1++;
-                                        op1ValuesPossibility[j] = BitValueArray
-                                                .booleanToBitValue((counter1 & (1L << (topCounter1 - 1))) != 0);
-                                    } else {
-                                        op1ValuesPossibility[j] = op1Values[j];
-                                    }
-                                    if (op2Values[j] == BitValue.TOP) {
-                                        topCounter2++;
-                                        op2ValuesPossibility[j] = BitValueArray
-                                                .booleanToBitValue((counter2 & (1L << (topCounter2 - 1))) != 0);
-                                    } else {
-                                        op2ValuesPossibility[j] = op2Values[j];
-                                    }
-                                }
-                                BitValueArray op1Possibility = new BitValueArray(op1ValuesPossibility);
-                                BitValueArray op2Possibility = new BitValueArray(op2ValuesPossibility);
-                                possibilities[(int) (counter1 * dim2 + counter2)] =
-                                        new BitValueArray((ArithmeticConstant) op1Possibility.getConstant()
-                                                .remainder(op2Possibility.getConstant()));
-                            }
-                        }
-                        // joining the possibilities
-                        BitValueArray refVal = possibilities[0];
-                        for (int j = 1; j < dimGes; j++) {
-                            refVal = join.getJoinHelper().performSingleJoin(refVal, possibilities[j]);
+                    // Calculating the minimum if existing
+                    long resultingMaxAbs;
+                    if (op1Computable) {
+                        if (op2Computable) {
+                            resultingMaxAbs = Math.min(op1MaxAbs, op2MaxAbs);
+                        } else {
+                            resultingMaxAbs = op1MaxAbs;
                         }
-                        result = refVal;
-
                     } else {
-                        // we are looking for the max abs of op2 and op1 cause the abs of the result will be
-                        // smaller than both of these
-                        BitValue[] op1MaxValues = new BitValue[length];
-                        BitValue[] op2MaxValues = new BitValue[length];
-                        BitValue[] op2MinValues = new BitValue[length];
-                        BitValueArray op1MaxArray;
-                        BitValueArray op2MaxArray;
-                        BitValueArray op2MinArray;
-                        ArithmeticConstant op1MaxConst;
-                        ArithmeticConstant op2MaxConst;
-                        ArithmeticConstant op2MinConst;
-                        long op1MaxAbs = -1;
-                        long op2MaxAbs = -1;
-                        long op2MinAbs = -1;
-                        boolean op1Computable = false;
-                        boolean op2Computable = false;
-
-                        // Calculating the actual long values of op1MinAbs und op2MaxAbs
-                        if (!(op1HighBit == BitValue.TOP)) {
-                            op1Computable = true;
-                            for (int k = 0; k < length; k++) {
-                                switch (op1Values[k]) {
-                                case ONE:
-                                    op1MaxValues[k] = BitValue.ONE;
-                                    break;
-                                case ZERO:
-                                    op1MaxValues[k] = BitValue.ZERO;
-                                    break;
-                                case TOP:
-                                    op1MaxValues[k] = BitValueArray.booleanToBitValue(op1HighBit == BitValue.ZERO);
-                                    break;
-                                case BOTTOM:
-                                    throw new IllegalStateException("Transition of BOTTOM not possible!");
-                                }
-                            }
-                            op1MaxArray = new BitValueArray(op1MaxValues);
-                            op1MaxConst = op1MaxArray.getConstant();
-                            ConstantRetriever constantSwitch = new ConstantRetriever();
-                            op1MaxConst.apply(constantSwitch);
-                            op1MaxAbs = Math.abs(constantSwitch.getValue());
-                        }
-                        if (!(op2HighBit == BitValue.TOP)) {
-                            op2Computable = true;
-                            for (int k = 0; k < length; k++) {
-                                switch (op2Values[k]) {
-                                case ONE:
-                                    op2MaxValues[k] = BitValue.ONE;
-                                    op2MinValues[k] = BitValue.ONE;
-                                    break;
-                                case ZERO:
-                                    op2MaxValues[k] = BitValue.ZERO;
-                                    op2MinValues[k] = BitValue.ZERO;
-                                    break;
-                                case TOP:
-                                    op2MaxValues[k] = BitValueArray.booleanToBitValue(op2HighBit == BitValue.ZERO);
-                                    op2MinValues[k] = BitValueArray.booleanToBitValue(op2HighBit == BitValue.ONE);
-                                    break;
-                                case BOTTOM:
-                                    throw new IllegalStateException("Transition of BOTTOM not possible!");
-                                }
-                            }
-                            op2MaxArray = new BitValueArray(op2MaxValues);
-                            op2MinArray = new BitValueArray(op2MinValues);
-                            op2MaxConst = op2MaxArray.getConstant();
-                            op2MinConst = op2MinArray.getConstant();
-                            ConstantRetriever constantSwitch = new ConstantRetriever();
-                            op2MaxConst.apply(constantSwitch);
-                            op2MaxAbs = Math.abs(constantSwitch.getValue());
-                            constantSwitch = new ConstantRetriever();
-                            op2MinConst.apply(constantSwitch);
-                            op2MinAbs = Math.abs(constantSwitch.getValue());
-                        }
-                        if (op1HighBit == BitValue.ONE && op1MaxAbs >= op2MinAbs) {
-                            // the result could be 0, but we are negative, so all bits could be anything
+                        if (op2Computable) {
+                            resultingMaxAbs = op2MaxAbs;
+                        } else {
+                            // if we don't know the sign of op1 or op2 we have no information at all
                             result = top;
                             return;
                         }
-
-                        // Calculating the minimum if existing
-                        long resultingMaxAbs;
-                        if (op1Computable) {
-                            if (op2Computable) {
-                                resultingMaxAbs = Math.min(op1MaxAbs, op2MaxAbs);
-                            } else {
-                                resultingMaxAbs = op1MaxAbs;
-                            }
-                        } else {
-                            if (op2Computable) {
-                                resultingMaxAbs = op2MaxAbs;
-                            } else {
-                                // if we don't know the sign of op1 or op2 we have no information at all
-                                result = top;
-                                return;
-                            }
-                        }
-                        if (op1HighBit != BitValue.ZERO) {
-                            // Since we could in some cases have another resulting TOP Bit because of 2-Complement
-                            resultingMaxAbs++;
-                        }
-
-                        // Putting together the result which has the same sign as op1 and can be anything which's abs is
-                        // smaller than the resulting abs
-                        BitValue[] resultingValues = new BitValue[length];
-                        int highestTopBitPos = -1;
-                        for (int a = length - 1; a >= 0; a--) {
-                            if ((resultingMaxAbs & (1L << a)) != 0) {
-                                highestTopBitPos = a;
-                                break;
-                            } else {
-                                resultingValues[a] = op1HighBit;
-                            }
-                        }
-                        for (int b = 0; b <= highestTopBitPos; b++) {
-                            resultingValues[b] = BitValue.TOP;
-                        }
-                        result = new BitValueArray(resultingValues);
                     }
+                    if (op1HighBit != BitValue.ZERO) {
+                        // Since we could in some cases have another resulting TOP Bit because of 2-Complement
+                        resultingMaxAbs++;
+                    }
+
+                    // Putting together the result which has the same sign as op1 and can be anything which's abs is
+                    // smaller than the resulting abs
+                    long lengthMask = BitValueArray.getLengthMask(length);
+                    long significant = resultingMaxAbs & lengthMask;
+                    long signBits = lengthMask
+                            & ~BitValueArray.getLengthMask(Long.SIZE - Long.numberOfLeadingZeros(significant));
+                    long zeros = op1HighBit == BitValue.ZERO ? signBits : 0;
+                    long ones = op1HighBit == BitValue.ONE ? signBits : 0;
+                    result = new BitValueArray(length, 0, zeros, ones);
                 }
             }
         }
@@ -1638,58 +1003,10 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                 result = top;
 
             } else {
-                // not top, so we negate the bits one by one
-                int length = val.getLength();
-                BitValue[] resBitValues = new BitValue[length];
-                BitValue[] opBitValues = val.getBitValues();
-                for (int i = 0; i < length; i++) {
-                    if (opBitValues[i].equals(BitValue.TOP)) {
-                        resBitValues[i] = opBitValues[i];
-                    } else {
-                        resBitValues[i] = (opBitValues[i] == BitValue.ZERO) ? BitValue.ONE : BitValue.ZERO;
-                    }
-                }
-
-                // resValue is negOp inverted bitwise, now we add 1 because 2-complement
-                BitValueArray resValue = new BitValueArray(resBitValues);
-                if (resValue.isConst()) {
-                    // if constant, we can just add the Arithmetic Constant 1
-                    ArithmeticConstant c;
-                    if (length == 32) {
-                        c = IntConstant.v(1);
-                    } else {
-                        c = LongConstant.v(1);
-                    }
-                    result = new BitValueArray((ArithmeticConstant) resValue.getConstant().add(c));
-
-                } else {
-                    // if not Constant we have to add bitwise like in AddExpression
-                    BitValue carry = BitValue.ZERO;
-                    BitValue[] bitValues = new BitValue[length];
-                    for (int j = 0; j < length; j++) {
-                        int oneBit = (j == 0) ? 1 : 0;
-                        BitValue oneBitValue = BitValueArray.booleanToBitValue(oneBit == 1);
-                        // oneBit and oneBitValue are the "1" that will be added, they are 1/ONE if and if only j is 0
-
-                        // Checking if one of the bits is TOP/BOTTOM:
-                        BitValue[] opAndcarry = { resBitValues[j], oneBitValue, carry };
-                        BitValue[] checkTop = checkSubTop(opAndcarry);
-
-                        if (checkTop[0] == BitValue.TOP) {
-                            bitValues[j] = BitValue.TOP;
-                            carry = checkTop[1];
-
-                        } else {
-                            // both bits and the carry are ONE or ZERO so we convert them to int and add them
-                            int resBit = BitValueArray.bitValueToBoolean(resBitValues[j]) ? 1 : 0;
-                            int carryBit = BitValueArray.bitValueToBoolean(carry) ? 1 : 0;
-                            int res = resBit + oneBit + carryBit;
-                            carry = BitValueArray.booleanToBitValue(resBit < oneBit + carryBit);
-                            bitValues[j] = BitValueArray.booleanToBitValue((res & 1) != 0);
-                        }
-                    }
-                    result = new BitValueArray(bitValues);
-                }
+                // not top, so we subtract val from zero like in SubExpr
+                long unknown = getUnknownBits(val);
+                long difference = -getKnownValue(val);
+                result = fromKnownBits(difference, (difference ^ (difference - unknown)) | unknown, val.getLength());
             }
         }
 
@@ -1727,71 +1044,36 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                 }
 
             } else {
-                // both are not top and at least one is not a constant
-                // therefore we have to calculate the operation all the bits one by one
-
-                // Making sure we have the right length in both:
+                // both are not top and at least one is not a constant, therefore we combine the masks of known bits
+                // (the shorter BitValueArray is extended with ZERO bits)
                 int l1 = op1.getLength();
                 int l2 = op2.getLength();
                 int length = Math.max(l1, l2);
-                BitValue[] op1Values = new BitValue[length];
-                BitValue[] op2Values = new BitValue[length];
-                BitValue[] bitValues = new BitValue[length];
-
-                for (int i = 0; i < length; i++) {
-                    if (i >= l1) {
-                        op1Values[i] = BitValue.ZERO;
-                    } else {
-                        op1Values[i] = op1.getBitValues()[i];
-                    }
-                    if (i >= l2) {
-                        op2Values[i] = BitValue.ZERO;
-                    } else {
-                        op2Values[i] = op2.getBitValues()[i];
-                    }
-
-                    // the actual operation bit by bit:
-                    // first check for eliminating options (0 for AND, 1 for OR)
-                    switch (operation) {
-                    case AND:
-                        if (op1Values[i] == BitValue.ZERO || op2Values[i] == BitValue.ZERO) {
-                            bitValues[i] = BitValue.ZERO;
-                            continue;
-                        }
-                        break;
-                    case OR:
-                        if (op1Values[i] == BitValue.ONE || op2Values[i] == BitValue.ONE) {
-                            bitValues[i] = BitValue.ONE;
-                            continue;
-                        }
-                        break;
-                    case XOR:
-                        // ignore, since there is no eliminating option for XOR
-                    }
-
-                    // then check if one of the bits is TOP
-                    if (op1Values[i] == BitValue.TOP || op2Values[i] == BitValue.TOP) {
-                        bitValues[i] = BitValue.TOP;
-
-                    } else {
-                        // the bits are both neither TOP nor eliminating, so we can convert them to boolean
-                        // and use the & / | / ^
-                        boolean b1 = BitValueArray.bitValueToBoolean(op1Values[i]);
-                        boolean b2 = BitValueArray.bitValueToBoolean(op2Values[i]);
-                        switch (operation) {
-                        case AND:
-                            bitValues[i] = BitValueArray.booleanToBitValue(b1 & b2);
-                            break;
-                        case OR:
-                            bitValues[i] = BitValueArray.booleanToBitValue(b1 | b2);
-                            break;
-                        case XOR:
-                            bitValues[i] = BitValueArray.booleanToBitValue(b1 ^ b2);
-                            break;
-                        }
-                    }
+                long lengthMask = BitValueArray.getLengthMask(length);
+                long zeros1 = op1.getZeroMask() | (lengthMask & ~BitValueArray.getLengthMask(l1));
+                long zeros2 = op2.getZeroMask() | (lengthMask & ~BitValueArray.getLengthMask(l2));
+                long ones1 = op1.getOneMask();
+                long ones2 = op2.getOneMask();
+
+                // a bit is known if it is eliminating (0 for AND, 1 for OR) in one of the operands or known in both,
+                // otherwise it is TOP
+                long zeros;
+                long ones;
+                switch (operation) {
+                case AND:
+                    zeros = zeros1 | zeros2;
+                    ones = ones1 & ones2;
+                    break;
+                case OR:
+                    zeros = zeros1 & zeros2;
+                    ones = ones1 | ones2;
+                    break;
+                default: // XOR
+                    zeros = (zeros1 & zeros2) | (ones1 & ones2);
+                    ones = (zeros1 & ones2) | (ones1 & zeros2);
+                    break;
                 }
-                result = new BitValueArray(bitValues);
+                result = new BitValueArray(length, 0, zeros, ones);
             }
         }
 
@@ -1832,16 +1114,11 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
          * @return the bits of {@code op} shifted left by {@code shiftAmount}
          */
         private static BitValueArray shiftLeft(BitValueArray op, int shiftAmount) {
-            int length = op.getBitValues().length;
-            BitValue[] opValues = op.getBitValues();
-            BitValue[] shiftedValues = new BitValue[length];
-            for (int i = 0; i < shiftAmount; i++) {
-                shiftedValues[i] = BitValue.ZERO;
-            }
-            for (int j = shiftAmount; j < length; j++) {
-                shiftedValues[j] = opValues[j - shiftAmount];
-            }
-            return new BitValueArray(shiftedValues);
+            int length = op.getLength();
+            long lengthMask = BitValueArray.getLengthMask(length);
+            return new BitValueArray(length, (op.getBottomMask() << shiftAmount) & lengthMask,
+                    ((op.getZeroMask() << shiftAmount) | BitValueArray.getLengthMask(shiftAmount)) & lengthMask,
+                    (op.getOneMask() << shiftAmount) & lengthMask);
         }
 
         /**
@@ -1856,44 +1133,47 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
          * @return the bits of {@code op} signed-shifted right by {@code shiftAmount}
          */
         private BitValueArray shiftRight(BitValueArray op, int shiftAmount, boolean signed) {
-            int length = op.getBitValues().length;
-            BitValue extension = signed ? op.getBitValues()[length - 1] : BitValue.ZERO;
-            BitValue[] opValues = op.getBitValues();
-            BitValue[] shiftedValues = new BitValue[length];
-            for (int i = length - 1; i >= length - shiftAmount; i--) {
-                shiftedValues[i] = extension;
+            int length = op.getLength();
+            long lengthMask = BitValueArray.getLengthMask(length);
+            if (signed) {
+                // the highest bit is copied into the vacated positions of whichever mask it is in
+                return new BitValueArray(length, (signExtend(op.getBottomMask(), length) >> shiftAmount) & lengthMask,
+                        (signExtend(op.getZeroMask(), length) >> shiftAmount) & lengthMask,
+                        (signExtend(op.getOneMask(), length) >> shiftAmount) & lengthMask);
             }
-            for (int j = length - shiftAmount - 1; j >= 0; j--) {
-                shiftedValues[j] = opValues[j + shiftAmount];
+
+            long vacated = lengthMask & ~BitValueArray.getLengthMask(length - shiftAmount);
+            return new BitValueArray(length, op.getBottomMask() >>> shiftAmount,
+                    (op.getZeroMask() >>> shiftAmount) | vacated, op.getOneMask() >>> shiftAmount);
+        }
+
+        /**
+         * Extends the highest of the lowest {@code length} bits of {@code mask} to all higher bits.
+         * 
+         * @param mask
+         *        the mask to extend
+         * @param length
+         *        the number of bits in {@code mask}
+         * @return {@code mask} extended from {@code length} bits
+         */
+        private static long signExtend(long mask, int length) {
+            if (length == 0) {
+                return 0;
             }
-            return new BitValueArray(shiftedValues);
+            return (mask << (Long.SIZE - length)) >> (Long.SIZE - length);
         }
 
         /**
-         * Returns the {@code int} that is represented by the lowest {@code cutLength} {@code BitValue}s in
-         * {@code op2Values}.
+         * Returns the {@code int} that is represented by the lowest {@code cutLength} bits of {@code ones}.
          * 
-         * @param op2Values
-         *        The array of {@code BitValue}s of which to take the lowest entries
+         * @param ones
+         *        the mask of ONE bits of which to take the lowest entries
          * @param cutLength
-         *        the number of entries to take from {@code op2Values}
-         * @return the {@code int} that is represented by the lowest {@code cutLength} {@code BitValue}s in
-         *         {@code op2Values}
+         *        the number of entries to take from {@code ones}
+         * @return the {@code int} that is represented by the lowest {@code cutLength} bits of {@code ones}
          */
-        private int getShiftAmount(BitValue[] op2Values, int cutLength) {
-            BitValue[] shiftAmountValues = new BitValue[op2Values.length];
-            for (int i = 0; i < cutLength; i++) {
-                shiftAmountValues[i] = op2Values[i];
-            }
-            for (int j = cutLength; j < shiftAmountValues.length; j++) {
-                shiftAmountValues[j] = BitValue.ZERO;
-            }
-            BitValueArray shiftAmountArray = new BitValueArray(shiftAmountValues);
-            ArithmeticConstant c = shiftAmountArray.getConstant();
-            ConstantRetriever constantSwitch = new ConstantRetriever();
-            c.apply(constantSwitch);
-            int shiftAmount = (int) constantSwitch.getValue();
-            return shiftAmount;
+        private static int getShiftAmount(long ones, int cutLength) {
+            return (int) (ones & BitValueArray.getLengthMask(cutLength));
         }
 
         @Override
@@ -1911,27 +1191,22 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
             } else if (op2.isConst()) {
                 // if op2 is constant, we can just calculate the shift amount and shift op1 by that amount
                 int cutLength = (op1.getLength() == 32) ? 5 : 6;
-                int shiftAmount = getShiftAmount(op2.getBitValues(), cutLength);
+                int shiftAmount = getShiftAmount(op2.getOneMask(), cutLength);
                 result = shiftLeft(op1, shiftAmount);
 
             } else {
                 // no special case applies and we have TOP bits in op2
 
                 int cutLength = (op1.getLength() == 32) ? 5 : 6;
-                BitValue[] op2Values = op2.getBitValues();
-                int numberOfTOPs = getNumberOfTOP(op2Values, cutLength);
-                int dim = (1 << numberOfTOPs);
-
-                BitValueArray[] op2Possibilities = getPossibilities(op2Values, numberOfTOPs);
-                for (int counter = 0; counter < dim; ++counter) {
-                    int shiftAmount = getShiftAmount(op2Possibilities[counter].getBitValues(), cutLength);
-                    op2Possibilities[counter] = shiftLeft(op1, shiftAmount);
-                }
+                // every combination of the TOP bits of the shift amount is a possible shift amount
+                long topBits = op2.getTopMask() & BitValueArray.getLengthMask(cutLength);
+                long knownOnes = op2.getOneMask();
+                BitValueArray refVal = shiftLeft(op1, getShiftAmount(knownOnes, cutLength));
 
                 // joining the possibilities
-                BitValueArray refVal = op2Possibilities[0];
-                for (int j = 1; j < dim; j++) {
-                    refVal = join.getJoinHelper().performSingleJoin(refVal, op2Possibilities[j]);
+                for (long topOnes = (-topBits) & topBits; topOnes != 0; topOnes = (topOnes - topBits) & topBits) {
+                    int shiftAmount = getShiftAmount(knownOnes | topOnes, cutLength);
+                    refVal = join.getJoinHelper().performSingleJoin(refVal, shiftLeft(op1, shiftAmount));
                 }
                 result = refVal;
             }
@@ -1952,25 +1227,20 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
             } else if (op2.isConst()) {
                 // if op2 is constant, we can just calculate the shift amount and shift op1 by that amount
                 int cutLength = (op1.getLength() == 32) ? 5 : 6;
-                int shiftAmount = getShiftAmount(op2.getBitValues(), cutLength);
+                int shiftAmount = getShiftAmount(op2.getOneMask(), cutLength);
                 result = shiftRight(op1, shiftAmount, true);
             } else {
                 // no special case applies and we have TOP bits in op2
                 int cutLength = (op1.getLength() == 32) ? 5 : 6;
-                BitValue[] op2Values = op2.getBitValues();
-                int numberOfTOPs = getNumberOfTOP(op2Values, cutLength);
-                int dim = (1 << numberOfTOPs);
-
-                BitValueArray[] op2Possibilities = getPossibilities(op2Values, numberOfTOPs);
-                for (int counter = 0; counter < dim; ++counter) {
-                    int shiftAmount = getShiftAmount(op2Possibilities[counter].getBitValues(), cutLength);
-                    op2Possibilities[counter] = shiftRight(op1, shiftAmount, true);
-                }
+                // every combination of the TOP bits of the shift amount is a possible shift amount
+                long topBits = op2.getTopMask() & BitValueArray.getLengthMask(cutLength);
+                long knownOnes = op2.getOneMask();
+                BitValueArray refVal = shiftRight(op1, getShiftAmount(knownOnes, cutLength), true);
 
                 // joining the possibilities
-                BitValueArray refVal = op2Possibilities[0];
-                for (int j = 1; j < dim; j++) {
-                    refVal = join.getJoinHelper().performSingleJoin(refVal, op2Possibilities[j]);
+                for (long topOnes = (-topBits) & topBits; topOnes != 0; topOnes = (topOnes - topBits) & topBits) {
+                    int shiftAmount = getShiftAmount(knownOnes | topOnes, cutLength);
+                    refVal = join.getJoinHelper().performSingleJoin(refVal, shiftRight(op1, shiftAmount, true));
                 }
                 result = refVal;
             }
@@ -1991,26 +1261,21 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
             } else if (op2.isConst()) {
                 // if op2 is constant, we can just calculate the shift amount and shift op1 by that amount
                 int cutLength = (op1.getLength() == 32) ? 5 : 6;
-                int shiftAmount = getShiftAmount(op2.getBitValues(), cutLength);
+                int shiftAmount = getShiftAmount(op2.getOneMask(), cutLength);
                 result = shiftRight(op1, shiftAmount, false);
 
             } else {
                 // no special case applies and we have TOP bits in op2
                 int cutLength = (op1.getLength() == 32) ? 5 : 6;
-                BitValue[] op2Values = op2.getBitValues();
-                int numberOfTOPs = getNumberOfTOP(op2Values, cutLength);
-                int dim = (1 << numberOfTOPs);
-
-                BitValueArray[] op2Possibilities = getPossibilities(op2Values, numberOfTOPs);
-                for (int counter = 0; counter < dim; ++counter) {
-                    int shiftAmount = getShiftAmount(op2Possibilities[counter].getBitValues(), cutLength);
-                    op2Possibilities[counter] = shiftRight(op1, shiftAmount, false);
-                }
+                // every combination of the TOP bits of the shift amount is a possible shift amount
+                long topBits = op2.getTopMask() & BitValueArray.getLengthMask(cutLength);
+                long knownOnes = op2.getOneMask();
+                BitValueArray refVal = shiftRight(op1, getShiftAmount(knownOnes, cutLength), false);
 
                 // joining the possibilities
-                BitValueArray refVal = op2Possibilities[0];
-                for (int j = 1; j < dim; j++) {
-                    refVal = join.getJoinHelper().performSingleJoin(refVal, op2Possibilities[j]);
+                for (long topOnes = (-topBits) & topBits; topOnes != 0; topOnes = (topOnes - topBits) & topBits) {
+                    int shiftAmount = getShiftAmount(knownOnes | topOnes, cutLength);
+                    refVal = join.getJoinHelper().performSingleJoin(refVal, shiftRight(op1, shiftAmount, false));
                 }
                 result = refVal;
             }
@@ -2043,7 +1308,7 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                 Evaluator ev = new Evaluator(inputElement, join);
                 op.apply(ev);
                 BitValueArray opArray = ev.getResult();
-                BitValue[] opValues = opArray.getBitValues();
+                int opLength = opArray.getLength();
                 int length = 0;
 
                 // get length of the resulting BitValueArray
@@ -2054,16 +1319,12 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
                     length = BitValueArray.LONG_SIZE;
                 }
 
-                if (length != opValues.length) {
+                if (length != opLength) {
                     // if the length of op and the length determined by the cast are not the same, cut or expand op
-                    BitValue[] resultingBits = new BitValue[length];
-                    for (int i = 0; i < Math.min(length, opValues.length); i++) {
-                        resultingBits[i] = opValues[i];
-                    }
-                    for (int j = opValues.length; j < length; j++) {
-                        resultingBits[j] = opValues[opValues.length - 1];
-                    }
-                    result = new BitValueArray(resultingBits);
+                    long lengthMask = BitValueArray.getLengthMask(length);
+                    result = new BitValueArray(length, signExtend(opArray.getBottomMask(), opLength) & lengthMask,
+                            signExtend(opArray.getZeroMask(), opLength) & lengthMask,
+                            signExtend(opArray.getOneMask(), opLength) & lengthMask);
 
                 } else {
                     // if the length of op ant the length determined by the cast are the same, the result is just op
@@ -2204,27 +1465,6 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
             assert false : "No soot Value - You fucked up!";
         }
 
-        BitValueArray[] getPossibilities(BitValue[] input, int numTops) {
-            int dim = 1 << numTops;
-            int length = input.length;
-            BitValueArray[] possibilities = new BitValueArray[dim];
-            for (int counter = 0; counter < dim; ++counter) {
-                BitValue[] possibility = new BitValue[length];
-                for (int j = 0, topCnt = 0; j < length; j++) {
-                    if (input[j] == BitValue.TOP && topCnt < numTops) {
-                        possibility[j] = BitValueArray.booleanToBitValue((counter & (1L << topCnt)) != 0);
-                        ++topCnt;
-                    } else {
-                        possibility[j] = input[j];
-                    }
-                }
-
-                possibilities[counter] = new BitValueArray(possibility);
-            }
-
-            return possibilities;
-        }
-
         private ValuePair calcOperands(BinopExpr binOpExpr) {
             Value op1 = binOpExpr.getOp1();
             Evaluator switch1 = new Evaluator(inputElement, join);
@@ -2326,6 +1566,26 @@ public class ConstantBitsTransition implements Transition<ConstantBitsElement> {
         }
     }
 
+    /**
+     * Arithmetic operations which are calculated for every possibility if there are only a few TOP bits.
+     */
+    enum ArithmeticOperation {
+        /**
+         * for multiplication
+         */
+        MUL,
+
+        /**
+         * for division
+         */
+        DIV,
+
+        /**
+         * for remainder
+         */
+        REM
+    }
+
     /**
      * @author Nils Jessen
      * 
@@ -47,6 +47,22 @@ public class ConstantFoldingElement extends LocalMapElement<Value> {
         super(localMap, LocalMapElement.DEFAULT_COMPARATOR);
     }
 
+    /**
+     * Creates a {@code ConstantFoldingElement} with the given mapping, using the given {@code LocalIndex}.
+     * 
+     * @param localIndex
+     *        the {@code LocalIndex} of the method
+     * @param localMap
+     *        a {@code Map} that maps a {@code JimpleLocal} to its corresponding value
+     */
+    public ConstantFoldingElement(LocalIndex localIndex, Map<JimpleLocal, Value> localMap) {
+        super(localIndex, localMap);
+    }
+
+    private ConstantFoldingElement(ConstantFoldingElement original) {
+        super(original);
+    }
+
     /**
      * Creates a {@code LocalMapElement} with an empty mapping.
      */
@@ -61,19 +77,19 @@ public class ConstantFoldingElement extends LocalMapElement<Value> {
         }
 
         ConstantFoldingElement e = (ConstantFoldingElement) o;
-        return localMap.equals(e.getLocalMap());
+        return mappingEquals(e);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(localMap);
+        return mappingHashCode();
     }
 
     @Override
     public String getStringRepresentation() {
         StringBuilder sb = new StringBuilder();
 
-        Iterator<Map.Entry<JimpleLocal, Value>> entryIt = localMap.entrySet().iterator();
+        Iterator<Map.Entry<JimpleLocal, Value>> entryIt = getLocalMap().entrySet().iterator();
         Map.Entry<JimpleLocal, Value> entry;
         if (entryIt.hasNext()) {
             entry = entryIt.next();
@@ -214,7 +230,7 @@ public class ConstantFoldingElement extends LocalMapElement<Value> {
 
     @Override
     public ConstantFoldingElement clone() {
-        return new ConstantFoldingElement(getLocalMap());
+        return new ConstantFoldingElement(this);
     }
 
     /**
@@ -77,8 +77,9 @@ public class ConstantFoldingInitializer implements Initializer<ConstantFoldingEl
         Block head = heads.get(0);
         List<Block> blocks = blockGraph.getBlocks();
 
-        ConstantFoldingElement headIn = new ConstantFoldingElement(initialHeadMap);
-        ConstantFoldingElement defaultInOut = new ConstantFoldingElement(initialBottomMap);
+        LocalIndex localIndex = new LocalIndex(initialBottomMap.keySet());
+        ConstantFoldingElement headIn = new ConstantFoldingElement(localIndex, initialHeadMap);
+        ConstantFoldingElement defaultInOut = new ConstantFoldingElement(localIndex, initialBottomMap);
 
         BlockState<ConstantFoldingElement> headState = new BlockState<ConstantFoldingElement>(headIn, defaultInOut);
         BlockState<ConstantFoldingElement> defaultState =
@@ -117,7 +117,7 @@ public class ConstantFoldingTransition implements Transition<ConstantFoldingElem
          */
         public Transitioner(ConstantFoldingElement inputElement) {
             this.inputElement = inputElement;
-            outputElement = new ConstantFoldingElement(inputElement.getLocalMap());
+            outputElement = inputElement.clone();
         }
 
         /**
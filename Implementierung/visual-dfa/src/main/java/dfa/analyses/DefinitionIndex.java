@@ -0,0 +1,153 @@
+package dfa.analyses;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dfa.analyses.ReachingDefinitionsElement.StringRepresentation;
+import dfa.framework.SimpleBlockGraph;
+import dfa.framework.UnsupportedValueException;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.internal.JimpleLocal;
+
+/**
+ * A {@code DefinitionIndex} assigns each definition of a method a dense id, which {@code DefinitionSet}s use to store
+ * their definitions in a {@code BitSet}. A definition is identified by the textual representation of the right-hand
+ * side of the statement, so two statements assigning the same expression get the same id.
+ *
+ * The definitions of a method are rendered once when the {@code DefinitionIndex} is created. Definitions which are not
+ * known yet are assigned the next free id, ids are never changed or removed. All {@code DefinitionSet}s of an analysis
+ * share one {@code DefinitionIndex}.
+ */
+public final class DefinitionIndex {
+
+    private final List<String> definitions = new ArrayList<String>();
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+    // the id of the definition of each statement seen so far
+    private final Map<DefinitionStmt, Integer> statementIds = new IdentityHashMap<DefinitionStmt, Integer>();
+
+    /**
+     * Creates an empty {@code DefinitionIndex}.
+     */
+    public DefinitionIndex() {
+    }
+
+    /**
+     * Creates a {@code DefinitionIndex} containing the definitions of all local variables in the method the given
+     * {@code SimpleBlockGraph} was created from.
+     *
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} of the method
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockGraph} is {@code null}
+     */
+    public DefinitionIndex(SimpleBlockGraph blockGraph) {
+        if (blockGraph == null) {
+            throw new IllegalArgumentException("blockGraph must not be null");
+        }
+
+        for (Unit unit : blockGraph.getBody().getUnits()) {
+            if (unit instanceof DefinitionStmt && ((DefinitionStmt) unit).getLeftOp() instanceof JimpleLocal) {
+                DefinitionStmt stmt = (DefinitionStmt) unit;
+                try {
+                    String definition = getStringRepresentation(stmt.getRightOp());
+                    if (definition != null) {
+                        statementIds.put(stmt, getId(definition));
+                    }
+                } catch (UnsupportedValueException e) {
+                    // reported by the transition, if the statement is reached at all
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of definitions in this {@code DefinitionIndex}.
+     *
+     * @return the number of definitions
+     */
+    public synchronized int size() {
+        return definitions.size();
+    }
+
+    /**
+     * Returns the definition with the given id.
+     *
+     * @param id
+     *        the id of the definition
+     * @return the textual representation of the definition
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code id} is negative or not less than {@code size()}
+     */
+    public synchronized String getDefinition(int id) {
+        return definitions.get(id);
+    }
+
+    /**
+     * Returns the id of the given definition, assigning it the next free id if it is not in this
+     * {@code DefinitionIndex} yet.
+     *
+     * @param definition
+     *        the textual representation of the definition
+     * @return the id of {@code definition}
+     *
+     * @throws IllegalArgumentException
+     *         if {@code definition} is {@code null}
+     */
+    public synchronized int getId(String definition) {
+        if (definition == null) {
+            throw new IllegalArgumentException("definition must not be null");
+        }
+
+        Integer id = ids.get(definition);
+        if (id == null) {
+            id = definitions.size();
+            definitions.add(definition);
+            ids.put(definition, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the id of the definition made by the given statement, which is its right-hand side.
+     *
+     * @param stmt
+     *        the {@code DefinitionStmt}
+     * @return the id of the definition made by {@code stmt}
+     *
+     * @throws IllegalArgumentException
+     *         if the right-hand side of {@code stmt} has no textual representation
+     */
+    public synchronized int getId(DefinitionStmt stmt) {
+        Integer id = statementIds.get(stmt);
+        if (id == null) {
+            id = getId(getStringRepresentation(stmt.getRightOp()));
+            statementIds.put(stmt, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the textual representation of the given {@code Value}.
+     *
+     * @param val
+     *        the {@code Value} to render
+     * @return the textual representation of {@code val}
+     */
+    static String getStringRepresentation(Value val) {
+        StringRepresentation valueSwitch = new StringRepresentation(val);
+        val.apply(valueSwitch);
+        return valueSwitch.getResult();
+    }
+
+}
@@ -0,0 +1,144 @@
+package dfa.analyses;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soot.jimple.internal.JimpleLocal;
+
+/**
+ * A {@code LocalIndex} assigns each {@code JimpleLocal} of a method a dense index, which {@code LocalMapElement}s use
+ * to store their values in an array. The {@code JimpleLocal}s are ordered by a {@code Comparator} (by default by their
+ * names) and identified by their names, so two {@code JimpleLocal}s with the same name get the same index.
+ *
+ * A {@code LocalIndex} is immutable. The initializer of an analysis creates one {@code LocalIndex} per method, which
+ * all {@code LocalMapElement}s of the analysis share.
+ */
+public final class LocalIndex {
+
+    /**
+     * the {@code LocalIndex} without any {@code JimpleLocal}s
+     */
+    public static final LocalIndex EMPTY = new LocalIndex(Collections.<JimpleLocal> emptyList());
+
+    private final Comparator<JimpleLocal> comparator;
+
+    private final JimpleLocal[] locals;
+
+    private final Map<String, Integer> indices;
+
+    /**
+     * Creates a {@code LocalIndex} for the given {@code JimpleLocal}s, ordered by their names.
+     *
+     * @param locals
+     *        the {@code JimpleLocal}s to index
+     *
+     * @throws IllegalArgumentException
+     *         if {@code locals} is {@code null} or contains {@code null}
+     */
+    public LocalIndex(Collection<? extends JimpleLocal> locals) {
+        this(locals, LocalMapElement.DEFAULT_COMPARATOR);
+    }
+
+    /**
+     * Creates a {@code LocalIndex} for the given {@code JimpleLocal}s, ordered by the given {@code Comparator}.
+     *
+     * @param locals
+     *        the {@code JimpleLocal}s to index
+     * @param comparator
+     *        the {@code Comparator} determining the order of the {@code JimpleLocal}s
+     *
+     * @throws IllegalArgumentException
+     *         if {@code locals} or {@code comparator} is {@code null} or {@code locals} contains {@code null}
+     */
+    public LocalIndex(Collection<? extends JimpleLocal> locals, Comparator<JimpleLocal> comparator) {
+        if (locals == null) {
+            throw new IllegalArgumentException("locals must not be null");
+        }
+
+        if (comparator == null) {
+            throw new IllegalArgumentException("comparator must not be null");
+        }
+
+        List<JimpleLocal> sorted = new ArrayList<JimpleLocal>(locals.size());
+        Map<String, JimpleLocal> byName = new HashMap<String, JimpleLocal>(2 * locals.size());
+        for (JimpleLocal local : locals) {
+            if (local == null) {
+                throw new IllegalArgumentException("locals must not contain null");
+            }
+
+            if (!byName.containsKey(local.getName())) {
+                byName.put(local.getName(), local);
+                sorted.add(local);
+            }
+        }
+
+        Collections.sort(sorted, comparator);
+
+        this.comparator = comparator;
+        this.locals = sorted.toArray(new JimpleLocal[sorted.size()]);
+        this.indices = new HashMap<String, Integer>(2 * this.locals.length);
+        for (int i = 0; i < this.locals.length; ++i) {
+            indices.put(this.locals[i].getName(), i);
+        }
+    }
+
+    /**
+     * Returns the number of {@code JimpleLocal}s in this {@code LocalIndex}.
+     *
+     * @return the number of {@code JimpleLocal}s
+     */
+    public int size() {
+        return locals.length;
+    }
+
+    /**
+     * Returns the {@code JimpleLocal} with the given index.
+     *
+     * @param index
+     *        the index of the {@code JimpleLocal}
+     * @return the {@code JimpleLocal} with the given index
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code index} is negative or not less than {@code size()}
+     */
+    public JimpleLocal getLocal(int index) {
+        return locals[index];
+    }
+
+    /**
+     * Returns the index of the given {@code JimpleLocal}.
+     *
+     * @param local
+     *        the {@code JimpleLocal}
+     * @return the index of {@code local} or -1 if it is not in this {@code LocalIndex}
+     */
+    public int indexOf(JimpleLocal local) {
+        if (local == null) {
+            return -1;
+        }
+
+        Integer index = indices.get(local.getName());
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns a {@code LocalIndex} containing the {@code JimpleLocal}s of this {@code LocalIndex} and the given
+     * {@code JimpleLocal}, using the same {@code Comparator}.
+     *
+     * @param local
+     *        the {@code JimpleLocal} to add
+     * @return a {@code LocalIndex} containing {@code local}
+     */
+    LocalIndex with(JimpleLocal local) {
+        List<JimpleLocal> extended = new ArrayList<JimpleLocal>(locals.length + 1);
+        Collections.addAll(extended, locals);
+        extended.add(local);
+        return new LocalIndex(extended, comparator);
+    }
+
+}
@@ -1,9 +1,13 @@
 package dfa.analyses;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import dfa.framework.LatticeElement;
 import soot.jimple.internal.JimpleLocal;
@@ -11,6 +15,14 @@ import soot.jimple.internal.JimpleLocal;
 /**
  * A {@code LocalMapElement} is a {@code LatticeElement} that maps each {@code JimpleLocal} to a value of type
  * {@code V}.
+ * 
+ * The values are stored in an array, indexed by a {@code LocalIndex} which is shared by all copies of a
+ * {@code LocalMapElement}, so looking up, setting and copying values does not compare any {@code JimpleLocal}s. Setting
+ * the value of a {@code JimpleLocal} which is not in the {@code LocalIndex} yet switches this {@code LocalMapElement}
+ * to an extended {@code LocalIndex}.
+ * 
+ * Subclasses whose values can take only a few different values may provide a {@code ValueCodec}, in which case the
+ * values are packed into a byte per {@code JimpleLocal}.
  *
  * @param <V>
  *        the type of value
@@ -26,15 +38,42 @@ public abstract class LocalMapElement<V> implements LatticeElement, Cloneable {
 
     protected static final LocalComparator DEFAULT_COMPARATOR = new LocalComparator();
 
-    protected SortedMap<JimpleLocal, V> localMap;
+    private LocalIndex localIndex;
+
+    // packs the values into codes, null if the values are stored as they are
+    private final ValueCodec<V> codec;
+
+    // the value of each local (indexed by localIndex), null if a local is not mapped (only used without codec)
+    private Object[] values;
+
+    // the code of the value of each local (indexed by localIndex), 0 if a local is not mapped (only used with codec)
+    private byte[] codes;
 
     /**
      * Creates a {@code LocalMapElement} with the given mapping and local-{@code Comparator}.
      * 
      * @param localMap
      *        a {@code Map} that maps a {@code JimpleLocal} to its corresponding value
+     * @param comparator
+     *        the {@code Comparator} determining the order of the {@code JimpleLocal}s
      */
     public LocalMapElement(Map<JimpleLocal, V> localMap, Comparator<JimpleLocal> comparator) {
+        this(localMap, comparator, null);
+    }
+
+    /**
+     * Creates a {@code LocalMapElement} with the given mapping and local-{@code Comparator}, which packs its values
+     * with the given {@code ValueCodec}.
+     * 
+     * @param localMap
+     *        a {@code Map} that maps a {@code JimpleLocal} to its corresponding value
+     * @param comparator
+     *        the {@code Comparator} determining the order of the {@code JimpleLocal}s
+     * @param codec
+     *        the {@code ValueCodec} to pack the values with or {@code null} to store them as they are
+     */
+    protected LocalMapElement(Map<JimpleLocal, V> localMap, Comparator<JimpleLocal> comparator,
+            ValueCodec<V> codec) {
         if (localMap == null) {
             throw new IllegalArgumentException("localMap must not be null");
         }
@@ -43,15 +82,90 @@ public abstract class LocalMapElement<V> implements LatticeElement, Cloneable {
             throw new IllegalArgumentException("comparator must not be null");
         }
 
-        this.localMap = new TreeMap<JimpleLocal, V>(comparator);
-        this.localMap.putAll(localMap);
+        this.codec = codec;
+        this.localIndex = new LocalIndex(localMap.keySet(), comparator);
+        allocate();
+        putAll(localMap);
+    }
+
+    /**
+     * Creates a {@code LocalMapElement} with the given mapping, using the given {@code LocalIndex}.
+     * 
+     * @param localIndex
+     *        the {@code LocalIndex} of the method
+     * @param localMap
+     *        a {@code Map} that maps a {@code JimpleLocal} to its corresponding value
+     */
+    public LocalMapElement(LocalIndex localIndex, Map<JimpleLocal, V> localMap) {
+        this(localIndex, localMap, null);
+    }
+
+    /**
+     * Creates a {@code LocalMapElement} with the given mapping, using the given {@code LocalIndex}, which packs its
+     * values with the given {@code ValueCodec}.
+     * 
+     * @param localIndex
+     *        the {@code LocalIndex} of the method
+     * @param localMap
+     *        a {@code Map} that maps a {@code JimpleLocal} to its corresponding value
+     * @param codec
+     *        the {@code ValueCodec} to pack the values with or {@code null} to store them as they are
+     */
+    protected LocalMapElement(LocalIndex localIndex, Map<JimpleLocal, V> localMap, ValueCodec<V> codec) {
+        if (localIndex == null) {
+            throw new IllegalArgumentException("localIndex must not be null");
+        }
+
+        if (localMap == null) {
+            throw new IllegalArgumentException("localMap must not be null");
+        }
+
+        this.codec = codec;
+        this.localIndex = localIndex;
+        allocate();
+        putAll(localMap);
+    }
+
+    /**
+     * Creates a {@code LocalMapElement} with the same mapping as the given {@code LocalMapElement}.
+     * 
+     * @param original
+     *        the {@code LocalMapElement} to copy
+     */
+    protected LocalMapElement(LocalMapElement<V> original) {
+        this.codec = original.codec;
+        this.localIndex = original.localIndex;
+        this.values = original.values == null ? null : original.values.clone();
+        this.codes = original.codes == null ? null : original.codes.clone();
     }
 
     /**
      * Creates a {@code LocalMapElement} with an empty mapping.
      */
     public LocalMapElement() {
-        this(new TreeMap<JimpleLocal, V>(), DEFAULT_COMPARATOR);
+        this((ValueCodec<V>) null);
+    }
+
+    /**
+     * Creates a {@code LocalMapElement} with an empty mapping, which packs its values with the given
+     * {@code ValueCodec}.
+     * 
+     * @param codec
+     *        the {@code ValueCodec} to pack the values with or {@code null} to store them as they are
+     */
+    protected LocalMapElement(ValueCodec<V> codec) {
+        this.codec = codec;
+        this.localIndex = LocalIndex.EMPTY;
+        allocate();
+    }
+
+    /**
+     * Returns the {@code LocalIndex} the values of this {@code LocalMapElement} are stored by.
+     * 
+     * @return the {@code LocalIndex} of this {@code LocalMapElement}
+     */
+    public LocalIndex getLocalIndex() {
+        return localIndex;
     }
 
     /**
@@ -74,7 +188,32 @@ public abstract class LocalMapElement<V> implements LatticeElement, Cloneable {
             throw new IllegalArgumentException("local must not be null");
         }
 
-        localMap.put(local, val);
+        int index = localIndex.indexOf(local);
+        if (index < 0) {
+            extendIndex(local);
+            index = localIndex.indexOf(local);
+        }
+
+        set(index, val);
+    }
+
+    /**
+     * Sets the value mapped to the {@code JimpleLocal} with the given index in {@code getLocalIndex()}.
+     * 
+     * @param index
+     *        the index of the {@code JimpleLocal} for which the value is set
+     * @param val
+     *        the value to set
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code val} is {@code null}
+     */
+    public void setValue(int index, V val) {
+        if (val == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+
+        set(index, val);
     }
 
     /**
@@ -83,22 +222,108 @@ public abstract class LocalMapElement<V> implements LatticeElement, Cloneable {
      * @param local
      *        the {@code JimpleLocal} for which the value is retrieved
      * 
-     * @return the value mapped to the given {@code JimpleLocal}
-     * 
-     * @throws IllegalArgumentException
-     *         if there is no value mapping for {@code local}
+     * @return the value mapped to the given {@code JimpleLocal} or {@code null} if there is no such value
      */
     public V getValue(JimpleLocal local) {
-        return localMap.get(local);
+        int index = localIndex.indexOf(local);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /**
+     * Returns the value mapped to the {@code JimpleLocal} with the given index in {@code getLocalIndex()}.
+     * 
+     * @param index
+     *        the index of the {@code JimpleLocal} for which the value is retrieved
+     * 
+     * @return the value mapped to the {@code JimpleLocal} or {@code null} if there is no such value
+     */
+    @SuppressWarnings("unchecked")
+    public V getValue(int index) {
+        if (codec != null) {
+            return codes[index] == 0 ? null : codec.decode(codes[index]);
+        }
+
+        return (V) values[index];
+    }
+
+    /**
+     * Returns the codes of the values of this {@code LocalMapElement}, indexed like the {@code JimpleLocal}s of
+     * {@code getLocalIndex()}, where 0 means that a {@code JimpleLocal} is not mapped. The returned array is the
+     * storage of this {@code LocalMapElement}, so subclasses can update values by modifying their codes in place.
+     * 
+     * @return the codes of the values of this {@code LocalMapElement}
+     * 
+     * @throws IllegalStateException
+     *         if this {@code LocalMapElement} has no {@code ValueCodec}
+     */
+    protected byte[] getCodes() {
+        if (codec == null) {
+            throw new IllegalStateException("values are not packed");
+        }
+
+        return codes;
     }
 
     /**
-     * Returns a {@code Map} that maps a {@code JimpleLocal} to its corresponding value.
+     * Returns an unmodifiable {@code Map} that maps a {@code JimpleLocal} to its corresponding value. The {@code Map}
+     * is a view of this {@code LocalMapElement}, its entries are ordered like the {@code JimpleLocal}s of
+     * {@code getLocalIndex()}.
      * 
      * @return a {@code Map} that maps a {@code JimpleLocal} to its corresponding value
      */
     public Map<JimpleLocal, V> getLocalMap() {
-        return localMap;
+        return new LocalMapView();
+    }
+
+    /**
+     * Returns whether this {@code LocalMapElement} maps the same {@code JimpleLocal}s (identified by their names) to
+     * equal values as the given {@code LocalMapElement}.
+     * 
+     * @param other
+     *        the {@code LocalMapElement} to compare to
+     * @return {@code true} iff both {@code LocalMapElement}s have equal mappings
+     */
+    protected boolean mappingEquals(LocalMapElement<?> other) {
+        if (localIndex == other.localIndex && codec == other.codec) {
+            return codec == null ? Arrays.equals(values, other.values) : Arrays.equals(codes, other.codes);
+        }
+
+        int count = 0;
+        for (int i = 0; i < localIndex.size(); ++i) {
+            V value = getValue(i);
+            if (value != null) {
+                ++count;
+                int otherIndex = other.localIndex.indexOf(localIndex.getLocal(i));
+                if (otherIndex < 0 || !value.equals(other.getValue(otherIndex))) {
+                    return false;
+                }
+            }
+        }
+
+        for (int i = 0; i < other.localIndex.size(); ++i) {
+            if (other.isMapped(i)) {
+                --count;
+            }
+        }
+
+        return count == 0;
+    }
+
+    /**
+     * Returns a hash code of the mapping of this {@code LocalMapElement}, which is consistent with
+     * {@code mappingEquals}.
+     * 
+     * @return a hash code of the mapping
+     */
+    protected int mappingHashCode() {
+        int hash = 0;
+        for (int i = 0; i < localIndex.size(); ++i) {
+            if (isMapped(i)) {
+                hash += localIndex.getLocal(i).getName().hashCode() ^ getValue(i).hashCode();
+            }
+        }
+
+        return hash;
     }
 
     /* force subclasses to override this themselves */
@@ -112,4 +337,166 @@ public abstract class LocalMapElement<V> implements LatticeElement, Cloneable {
     @Override
     public abstract LocalMapElement<V> clone();
 
+    private void putAll(Map<JimpleLocal, V> localMap) {
+        for (Map.Entry<JimpleLocal, V> entry : localMap.entrySet()) {
+            int index = localIndex.indexOf(entry.getKey());
+            if (index < 0) {
+                extendIndex(entry.getKey());
+                index = localIndex.indexOf(entry.getKey());
+            }
+
+            set(index, entry.getValue());
+        }
+    }
+
+    private void allocate() {
+        if (codec == null) {
+            values = new Object[localIndex.size()];
+        } else {
+            codes = new byte[localIndex.size()];
+        }
+    }
+
+    private boolean isMapped(int index) {
+        return codec == null ? values[index] != null : codes[index] != 0;
+    }
+
+    private void set(int index, V val) {
+        if (codec == null) {
+            values[index] = val;
+            return;
+        }
+
+        byte code = val == null ? 0 : codec.encode(val);
+        if (val != null && code == 0) {
+            throw new IllegalStateException("the code of a value must not be 0");
+        }
+
+        codes[index] = code;
+    }
+
+    private void extendIndex(JimpleLocal local) {
+        LocalIndex extended = localIndex.with(local);
+        if (codec == null) {
+            Object[] extendedValues = new Object[extended.size()];
+            for (int i = 0; i < values.length; ++i) {
+                extendedValues[extended.indexOf(localIndex.getLocal(i))] = values[i];
+            }
+
+            values = extendedValues;
+        } else {
+            byte[] extendedCodes = new byte[extended.size()];
+            for (int i = 0; i < codes.length; ++i) {
+                extendedCodes[extended.indexOf(localIndex.getLocal(i))] = codes[i];
+            }
+
+            codes = extendedCodes;
+        }
+
+        localIndex = extended;
+    }
+
+    /*
+     * a read-only view of the mapping, mainly used for displaying a LocalMapElement
+     */
+    private class LocalMapView extends AbstractMap<JimpleLocal, V> {
+
+        @Override
+        public V get(Object key) {
+            return key instanceof JimpleLocal ? getValue((JimpleLocal) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Map.Entry<JimpleLocal, V>> entrySet() {
+            return new AbstractSet<Map.Entry<JimpleLocal, V>>() {
+
+                @Override
+                public Iterator<Map.Entry<JimpleLocal, V>> iterator() {
+                    return new Iterator<Map.Entry<JimpleLocal, V>>() {
+
+                        private int next = nextMapped(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < localIndex.size();
+                        }
+
+                        @Override
+                        public Map.Entry<JimpleLocal, V> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+
+                            Map.Entry<JimpleLocal, V> entry = new SimpleImmutableEntry<JimpleLocal, V>(
+                                    localIndex.getLocal(next), getValue(next));
+                            next = nextMapped(next + 1);
+                            return entry;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException("the local map is read-only");
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int i = 0; i < localIndex.size(); ++i) {
+                        if (isMapped(i)) {
+                            ++size;
+                        }
+                    }
+
+                    return size;
+                }
+            };
+        }
+
+        private int nextMapped(int from) {
+            int idx = from;
+            while (idx < localIndex.size() && !isMapped(idx)) {
+                ++idx;
+            }
+
+            return idx;
+        }
+
+    }
+
+    /**
+     * A {@code ValueCodec} packs the values of a {@code LocalMapElement} into single bytes. It is meant for values
+     * which can only take a few different values, like flyweights.
+     * 
+     * @param <V>
+     *        the type of value
+     */
+    protected interface ValueCodec<V> {
+
+        /**
+         * Returns the code of the given value, which must not be 0. Equal values must have equal codes.
+         * 
+         * @param value
+         *        the value to encode
+         * @return the code of {@code value}
+         */
+        byte encode(V value);
+
+        /**
+         * Returns the value with the given code.
+         * 
+         * @param code
+         *        a code returned by {@code encode}
+         * @return the value with the given code
+         */
+        V decode(byte code);
+
+    }
+
 }
@@ -3,7 +3,6 @@ package dfa.analyses;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.Map.Entry;
 
 import soot.jimple.internal.JimpleLocal;
 
@@ -37,15 +36,15 @@ public abstract class LocalMapElementJoinHelper<V, E extends LocalMapElement<V>>
 
         Iterator<E> it = elements.iterator();
         E refElement = it.next();
-        Map<JimpleLocal, V> refMap = refElement.getLocalMap();
-        Set<Entry<JimpleLocal, V>> entries = refMap.entrySet();
+        LocalIndex localIndex = refElement.getLocalIndex();
 
         @SuppressWarnings("unchecked")
-        E result = (E) refElement.clone(); // assume clone() returns the same type
-        for (Entry<JimpleLocal, V> entry : entries) {
-            JimpleLocal local = entry.getKey();
-            V localJoinResult = doValueJoin(elements, local);
-            result.setValue(local, localJoinResult);
+        E result = (E) refElement.clone(); // assume clone() returns the same type (and shares the LocalIndex)
+        for (int i = 0; i < localIndex.size(); ++i) {
+            if (refElement.getValue(i) != null) {
+                V localJoinResult = doValueJoin(elements, localIndex.getLocal(i));
+                result.setValue(i, localJoinResult);
+            }
         }
 
         return result;
@@ -68,6 +67,17 @@ public abstract class LocalMapElementJoinHelper<V, E extends LocalMapElement<V>>
         Map<JimpleLocal, V> refMap = refElement.getLocalMap();
         while (it.hasNext()) {
             LocalMapElement<V> compElement = it.next();
+            if (compElement.getLocalIndex() == refElement.getLocalIndex()) {
+                // same LocalIndex, so it suffices to compare which indices are mapped
+                for (int i = 0; i < refElement.getLocalIndex().size(); ++i) {
+                    if ((refElement.getValue(i) == null) != (compElement.getValue(i) == null)) {
+                        return false;
+                    }
+                }
+
+                continue;
+            }
+
             Map<JimpleLocal, V> compMap = compElement.getLocalMap();
 
             for (Map.Entry<JimpleLocal, V> entry : refMap.entrySet()) {
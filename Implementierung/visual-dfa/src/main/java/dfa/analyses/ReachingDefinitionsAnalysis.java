@@ -17,7 +17,11 @@ public class ReachingDefinitionsAnalysis extends CompositeDataFlowAnalysis<Reach
      *        the {@code SimpleBlockGraph} the {@code ReachingDefinitionsAnalysis} is based on
      */
     public ReachingDefinitionsAnalysis(SimpleBlockGraph blockGraph) {
-        super(new ReachingDefinitionsJoin(), new ReachingDefinitionsTransition(),
+        this(blockGraph, new DefinitionIndex(blockGraph));
+    }
+
+    private ReachingDefinitionsAnalysis(SimpleBlockGraph blockGraph, DefinitionIndex definitionIndex) {
+        super(new ReachingDefinitionsJoin(), new ReachingDefinitionsTransition(definitionIndex),
                 new ReachingDefinitionsInitializer(blockGraph));
     }
 }
\ No newline at end of file
@@ -1,9 +1,10 @@
 package dfa.analyses;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -74,6 +75,22 @@ public class ReachingDefinitionsElement extends LocalMapElement<DefinitionSet> {
         super(localMap, LocalMapElement.DEFAULT_COMPARATOR);
     }
 
+    /**
+     * Creates a {@code ReachingDefinitionsElement} with the given mapping, using the given {@code LocalIndex}.
+     * 
+     * @param localIndex
+     *        the {@code LocalIndex} of the method
+     * @param localMap
+     *        a {@code Map} that maps a {@code JimpleLocal} to its corresponding {@code DefinitionSet}
+     */
+    public ReachingDefinitionsElement(LocalIndex localIndex, Map<JimpleLocal, DefinitionSet> localMap) {
+        super(localIndex, localMap);
+    }
+
+    private ReachingDefinitionsElement(ReachingDefinitionsElement original) {
+        super(original);
+    }
+
     /**
      * Creates a {@code ReachingDefinitionsElement} with an empty mapping.
      */
@@ -88,24 +105,24 @@ public class ReachingDefinitionsElement extends LocalMapElement<DefinitionSet> {
         }
 
         ReachingDefinitionsElement e = (ReachingDefinitionsElement) o;
-        return localMap.equals(e.getLocalMap());
+        return mappingEquals(e);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(localMap);
+        return mappingHashCode();
     }
 
     @Override
-    public LocalMapElement<DefinitionSet> clone() {
-        return new ReachingDefinitionsElement(getLocalMap());
+    public ReachingDefinitionsElement clone() {
+        return new ReachingDefinitionsElement(this);
     }
 
     @Override
     public String getStringRepresentation() {
         StringBuilder sb = new StringBuilder();
 
-        Iterator<Map.Entry<JimpleLocal, DefinitionSet>> entryIt = localMap.entrySet().iterator();
+        Iterator<Map.Entry<JimpleLocal, DefinitionSet>> entryIt = getLocalMap().entrySet().iterator();
         Map.Entry<JimpleLocal, DefinitionSet> entry;
         boolean firstOutput = false;
         while (entryIt.hasNext()) {
@@ -130,35 +147,111 @@ public class ReachingDefinitionsElement extends LocalMapElement<DefinitionSet> {
     /**
      * @author Nils Jessen
      * 
-     *         The "Value" of the Reaching Definition Analysis
+     *         The "Value" of the Reaching Definition Analysis. The definitions are stored as the ids of a
+     *         {@code DefinitionIndex} in a {@code BitSet} and only rendered when the textual representation is
+     *         needed. A {@code DefinitionSet} is immutable.
      */
     public static class DefinitionSet {
-        private static final DefinitionSet BOTTOM = new DefinitionSet(new TreeSet<String>());
+        private static final DefinitionSet BOTTOM = new DefinitionSet(new DefinitionIndex(), new BitSet());
 
-        private Set<String> values;
-        private DefinitionType type;
+        private final DefinitionIndex definitionIndex;
+        private final BitSet ids;
+        private final DefinitionType type;
+
+        // the sum of the hash codes of the definitions, 0 if not computed yet
+        private int hash;
 
         public DefinitionSet(Value val) {
             if (val == null) {
                 throw new IllegalArgumentException("val must not be null");
             }
 
-            this.values = new TreeSet<>();
+            this.definitionIndex = new DefinitionIndex();
+            this.ids = new BitSet();
+            ids.set(definitionIndex.getId(DefinitionIndex.getStringRepresentation(val)));
+            this.type = DefinitionType.DEFINITION;
+        }
 
-            StringRepresentation valueSwitch = new StringRepresentation(val);
-            val.apply(valueSwitch);
-            values.add(valueSwitch.getResult());
+        public DefinitionSet(Set<String> values) {
+            this.definitionIndex = new DefinitionIndex();
+            this.ids = new BitSet();
+            for (String value : values) {
+                ids.set(definitionIndex.getId(value));
+            }
 
+            this.type = ids.isEmpty() ? DefinitionType.BOTTOM : DefinitionType.DEFINITION;
+        }
+
+        /**
+         * Creates a {@code DefinitionSet} containing the definition with the given id.
+         * 
+         * @param definitionIndex
+         *        the {@code DefinitionIndex} of the method
+         * @param id
+         *        the id of the definition in {@code definitionIndex}
+         */
+        public DefinitionSet(DefinitionIndex definitionIndex, int id) {
+            if (definitionIndex == null) {
+                throw new IllegalArgumentException("definitionIndex must not be null");
+            }
+
+            this.definitionIndex = definitionIndex;
+            this.ids = new BitSet(id + 1);
+            ids.set(id);
             this.type = DefinitionType.DEFINITION;
         }
 
-        public DefinitionSet(Set<String> values) {
-            this.values = new TreeSet<String>(values);
-            this.type = this.values.isEmpty() ? DefinitionType.BOTTOM : DefinitionType.DEFINITION;
+        /*
+         * takes ownership of ids, which must not be modified afterwards
+         */
+        DefinitionSet(DefinitionIndex definitionIndex, BitSet ids) {
+            this.definitionIndex = definitionIndex;
+            this.ids = ids;
+            this.type = ids.isEmpty() ? DefinitionType.BOTTOM : DefinitionType.DEFINITION;
         }
 
+        /**
+         * Returns the textual representations of the definitions in this {@code DefinitionSet} in ascending order.
+         * 
+         * @return an unmodifiable {@code Set} of the definitions
+         */
         public Set<String> getValues() {
-            return values;
+            Set<String> values = new TreeSet<String>();
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                values.add(definitionIndex.getDefinition(id));
+            }
+
+            return Collections.unmodifiableSet(values);
+        }
+
+        /**
+         * Returns the {@code DefinitionIndex} the ids of this {@code DefinitionSet} refer to.
+         * 
+         * @return the {@code DefinitionIndex} of this {@code DefinitionSet}
+         */
+        public DefinitionIndex getDefinitionIndex() {
+            return definitionIndex;
+        }
+
+        /**
+         * Returns the ids of the definitions of this {@code DefinitionSet} in the given {@code DefinitionIndex}. The
+         * returned {@code BitSet} must not be modified.
+         * 
+         * @param index
+         *        the {@code DefinitionIndex} to get the ids in
+         * @return the ids of the definitions in {@code index}
+         */
+        BitSet getIds(DefinitionIndex index) {
+            if (index == definitionIndex) {
+                return ids;
+            }
+
+            BitSet converted = new BitSet();
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                converted.set(index.getId(definitionIndex.getDefinition(id)));
+            }
+
+            return converted;
         }
 
         public static DefinitionSet getBottom() {
@@ -196,9 +289,29 @@ public class ReachingDefinitionsElement extends LocalMapElement<DefinitionSet> {
             }
 
             DefinitionSet defSet = (DefinitionSet) o;
+            if (this.definitionIndex == defSet.definitionIndex) {
+                return this.ids.equals(defSet.ids);
+            }
+
             return this.getValues().equals(defSet.getValues());
         }
 
+        @Override
+        public int hashCode() {
+            // consistent with the hash code of getValues(), since DefinitionSets of different DefinitionIndexes are
+            // compared by their definitions
+            int h = hash;
+            if (h == 0) {
+                for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                    h += definitionIndex.getDefinition(id).hashCode();
+                }
+
+                hash = h;
+            }
+
+            return h;
+        }
+
     }
 
     /**
@@ -56,7 +56,8 @@ public class ReachingDefinitionsInitializer implements Initializer<ReachingDefin
 
         List<Block> blocks = blockGraph.getBlocks();
 
-        ReachingDefinitionsElement defaultIn = new ReachingDefinitionsElement(initialBottomMap);
+        LocalIndex localIndex = new LocalIndex(initialBottomMap.keySet());
+        ReachingDefinitionsElement defaultIn = new ReachingDefinitionsElement(localIndex, initialBottomMap);
         BlockState<ReachingDefinitionsElement> defaultState =
                 new BlockState<ReachingDefinitionsElement>(defaultIn, defaultIn);
 
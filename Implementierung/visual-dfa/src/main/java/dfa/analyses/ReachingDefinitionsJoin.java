@@ -1,8 +1,7 @@
 package dfa.analyses;
 
-import java.util.Iterator;
+import java.util.BitSet;
 import java.util.Set;
-import java.util.TreeSet;
 
 import dfa.analyses.ReachingDefinitionsElement.DefinitionSet;
 import dfa.analyses.ReachingDefinitionsElement.DefinitionType;
@@ -27,22 +26,23 @@ public class ReachingDefinitionsJoin implements Join<ReachingDefinitionsElement>
 
         @Override
         public DefinitionSet doValueJoin(Set<ReachingDefinitionsElement> elements, JimpleLocal local) {
+            DefinitionIndex definitionIndex = null;
+            BitSet joinResult = null;
+            for (ReachingDefinitionsElement element : elements) {
+                DefinitionSet currentVal = element.getValue(local);
+                if (currentVal.getDefType() == DefinitionType.BOTTOM) {
+                    continue;
+                }
 
-            Iterator<? extends LocalMapElement<DefinitionSet>> elementIt = elements.iterator();
-            DefinitionSet refVal = elementIt.next().getValue(local);
-
-            Set<String> joinResult = new TreeSet<String>();
-            joinResult.addAll(refVal.getValues());
-
-            while (elementIt.hasNext()) {
-                DefinitionSet currentVal = elementIt.next().getValue(local);
-                if (currentVal.getDefType() != DefinitionType.BOTTOM) {
-                    joinResult.addAll(currentVal.getValues());
+                if (joinResult == null) {
+                    definitionIndex = currentVal.getDefinitionIndex();
+                    joinResult = (BitSet) currentVal.getIds(definitionIndex).clone();
                 } else {
+                    joinResult.or(currentVal.getIds(definitionIndex));
                 }
             }
 
-            return new DefinitionSet(joinResult);
+            return joinResult == null ? DefinitionSet.getBottom() : new DefinitionSet(definitionIndex, joinResult);
         }
     }
 }
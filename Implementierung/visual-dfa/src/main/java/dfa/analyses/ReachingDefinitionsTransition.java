@@ -4,7 +4,6 @@ import dfa.analyses.ReachingDefinitionsElement.DefinitionSet;
 import dfa.framework.Transition;
 import dfa.framework.UnsupportedStatementException;
 import soot.Unit;
-import soot.Value;
 import soot.jimple.AssignStmt;
 import soot.jimple.BreakpointStmt;
 import soot.jimple.EnterMonitorStmt;
@@ -30,9 +29,32 @@ import soot.jimple.internal.JimpleLocal;
  */
 public class ReachingDefinitionsTransition implements Transition<ReachingDefinitionsElement> {
 
+    private final DefinitionIndex definitionIndex;
+
+    /**
+     * Creates a {@code ReachingDefinitionsTransition} which assigns ids to definitions as it encounters them.
+     */
+    public ReachingDefinitionsTransition() {
+        this(new DefinitionIndex());
+    }
+
+    /**
+     * Creates a {@code ReachingDefinitionsTransition} using the given {@code DefinitionIndex}.
+     * 
+     * @param definitionIndex
+     *        the {@code DefinitionIndex} of the method the analysis is executed on
+     */
+    public ReachingDefinitionsTransition(DefinitionIndex definitionIndex) {
+        if (definitionIndex == null) {
+            throw new IllegalArgumentException("definitionIndex must not be null");
+        }
+
+        this.definitionIndex = definitionIndex;
+    }
+
     @Override
     public ReachingDefinitionsElement transition(ReachingDefinitionsElement element, Unit unit) {
-        Transitioner stmtSwitch = new Transitioner(element);
+        Transitioner stmtSwitch = new Transitioner(element, definitionIndex);
         unit.apply(stmtSwitch);
 
         return stmtSwitch.getOutputElement();
@@ -47,14 +69,19 @@ public class ReachingDefinitionsTransition implements Transition<ReachingDefinit
 
         private ReachingDefinitionsElement outputElement;
 
+        private DefinitionIndex definitionIndex;
+
         /**
          * Creates a {@code Transitioner} with the given input-{@code ReachingDefinitionsElement}.
          * 
          * @param inputElement
          *        the input-{@code ReachingDefinitionsElement}
+         * @param definitionIndex
+         *        the {@code DefinitionIndex} to get the ids of definitions from
          */
-        public Transitioner(ReachingDefinitionsElement inputElement) {
-            outputElement = new ReachingDefinitionsElement(inputElement.getLocalMap());
+        public Transitioner(ReachingDefinitionsElement inputElement, DefinitionIndex definitionIndex) {
+            outputElement = inputElement.clone();
+            this.definitionIndex = definitionIndex;
         }
 
         /**
@@ -75,8 +102,7 @@ public class ReachingDefinitionsTransition implements Transition<ReachingDefinit
                 return; // ignore
             }
 
-            Value rVal = stmt.getRightOp();
-            DefinitionSet rhs = new DefinitionSet(rVal);
+            DefinitionSet rhs = new DefinitionSet(definitionIndex, definitionIndex.getId(stmt));
 
             outputElement.setValue(lValLocal, rhs);
         }
@@ -110,8 +136,7 @@ public class ReachingDefinitionsTransition implements Transition<ReachingDefinit
                 return; // ignore
             }
 
-            Value rVal = stmt.getRightOp();
-            DefinitionSet rhs = new DefinitionSet(rVal);
+            DefinitionSet rhs = new DefinitionSet(definitionIndex, definitionIndex.getId(stmt));
 
             outputElement.setValue(lValLocal, rhs);
         }
@@ -2,7 +2,6 @@ package dfa.analyses;
 
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Objects;
 
 import soot.PrimType;
 import soot.Type;
@@ -11,6 +10,9 @@ import soot.jimple.internal.JimpleLocal;
 /**
  * A {@code TaintElement} is a {@code LatticeElement} for Taint-Analysis.
  *
+ * There are only six different {@code Value}s, which are shared (see {@code Value.of}) and packed into a byte per
+ * local, encoded such that the join of two {@code Value}s is the bitwise or of their codes.
+ *
  * @author Sebastian Rauch
  */
 public class TaintElement extends LocalMapElement<TaintElement.Value> {
@@ -27,12 +29,63 @@ public class TaintElement extends LocalMapElement<TaintElement.Value> {
         return type instanceof PrimType;
     }
 
+    private static final ValueCodec<Value> CODEC = new ValueCodec<Value>() {
+
+        @Override
+        public byte encode(Value value) {
+            return value.code;
+        }
+
+        @Override
+        public Value decode(byte code) {
+            return Value.VALUES[code];
+        }
+    };
+
     public TaintElement(Map<JimpleLocal, Value> localMap) {
-        super(localMap, LocalMapElement.DEFAULT_COMPARATOR);
+        super(localMap, LocalMapElement.DEFAULT_COMPARATOR, CODEC);
+    }
+
+    public TaintElement(LocalIndex localIndex, Map<JimpleLocal, Value> localMap) {
+        super(localIndex, localMap, CODEC);
+    }
+
+    private TaintElement(TaintElement original) {
+        super(original);
     }
 
     public TaintElement() {
-        super();
+        super(CODEC);
+    }
+
+    /**
+     * Joins the values of the given {@code TaintElement} into this {@code TaintElement} by or-ing their codes, if
+     * both share their {@code LocalIndex}.
+     * 
+     * @param other
+     *        the {@code TaintElement} to join into this one
+     * @return {@code true} if the values were joined, {@code false} if the {@code TaintElement}s have different
+     *         {@code LocalIndex}es (in which case this {@code TaintElement} is not modified)
+     * 
+     * @throws IllegalArgumentException
+     *         if the {@code TaintElement}s do not map the same locals
+     */
+    boolean joinWith(TaintElement other) {
+        if (getLocalIndex() != other.getLocalIndex()) {
+            return false;
+        }
+
+        byte[] codes = getCodes();
+        byte[] otherCodes = other.getCodes();
+        for (int i = 0; i < codes.length; ++i) {
+            if ((codes[i] == 0) != (otherCodes[i] == 0)) {
+                throw new IllegalArgumentException("locals not matching");
+            }
+
+            codes[i] |= otherCodes[i];
+        }
+
+        return true;
     }
 
     @Override
@@ -55,37 +108,70 @@ public class TaintElement extends LocalMapElement<TaintElement.Value> {
         return sb.toString();
     }
 
+    /**
+     * The value of a local: its {@code TaintState} and whether a tainted value was assigned to it where this was not
+     * allowed. A {@code Value} is immutable, use {@code of} to get the shared instances.
+     */
     public static class Value {
 
-        private TaintState taintState;
+        // marks a code as a mapped value (so no code is 0)
+        private static final byte MAPPED = 0x10;
 
-        private boolean violated;
+        private static final byte VIOLATED = 0x08;
+
+        // the shared instances, indexed by their codes
+        private static final Value[] VALUES = new Value[0x20];
+
+        static {
+            for (TaintState taintState : TaintState.values()) {
+                for (boolean violated : new boolean[] { false, true }) {
+                    Value value = new Value(taintState, violated);
+                    VALUES[value.code] = value;
+                }
+            }
+        }
+
+        private final TaintState taintState;
+
+        private final boolean violated;
+
+        private final byte code;
 
         public Value(TaintState taintState, boolean violated) {
             if (taintState == null) {
                 throw new IllegalArgumentException("taintState must not be null");
             }
 
-            setTaintState(taintState);
-            setViolated(violated);
+            this.taintState = taintState;
+            this.violated = violated;
+            this.code = (byte) (MAPPED | taintState.bits | (violated ? VIOLATED : 0));
         }
 
-        public boolean wasViolated() {
-            return violated;
+        /**
+         * Returns the shared {@code Value} with the given {@code TaintState} and violation.
+         * 
+         * @param taintState
+         *        the {@code TaintState}
+         * @param violated
+         *        whether the local was violated
+         * @return the shared {@code Value}
+         */
+        public static Value of(TaintState taintState, boolean violated) {
+            if (taintState == null) {
+                throw new IllegalArgumentException("taintState must not be null");
+            }
+
+            return VALUES[MAPPED | taintState.bits | (violated ? VIOLATED : 0)];
         }
 
-        public void setViolated(boolean violated) {
-            this.violated = violated;
+        public boolean wasViolated() {
+            return violated;
         }
 
         public TaintState getTaintState() {
             return taintState;
         }
 
-        public void setTaintState(TaintState taintState) {
-            this.taintState = taintState;
-        }
-
         public boolean equals(Object o) {
             if (!(o instanceof Value)) {
                 return false;
@@ -95,6 +181,11 @@ public class TaintElement extends LocalMapElement<TaintElement.Value> {
             return getTaintState() == val.getTaintState() && wasViolated() == val.wasViolated();
         }
 
+        @Override
+        public int hashCode() {
+            return code;
+        }
+
         public String toString() {
             if (wasViolated()) {
                 return taintState + " (v)";
@@ -105,12 +196,16 @@ public class TaintElement extends LocalMapElement<TaintElement.Value> {
     }
 
     public enum TaintState {
-        TAINTED("tainted"), CLEAN("clean"), BOTTOM(LocalMapElement.BOTTOM_SYMBOL);
+        TAINTED("tainted", 0x03), CLEAN("clean", 0x01), BOTTOM(LocalMapElement.BOTTOM_SYMBOL, 0x00);
 
         private String description;
 
-        private TaintState(String description) {
+        // TAINTED contains the bits of CLEAN, which contains those of BOTTOM, so or-ing them performs the join
+        private final int bits;
+
+        private TaintState(String description, int bits) {
             this.description = description;
+            this.bits = bits;
         }
 
         public String toString() {
@@ -125,17 +220,17 @@ public class TaintElement extends LocalMapElement<TaintElement.Value> {
         }
 
         TaintElement e = (TaintElement) o;
-        return getLocalMap().equals(e.getLocalMap());
+        return mappingEquals(e);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getLocalMap());
+        return mappingHashCode();
     }
 
     @Override
-    public LocalMapElement<Value> clone() {
-        return new TaintElement(getLocalMap());
+    public TaintElement clone() {
+        return new TaintElement(this);
     }
 
 }
@@ -42,8 +42,8 @@ public class TaintInitializer implements Initializer<TaintElement> {
         Map<JimpleLocal, TaintElement.Value> initialBottomMap = new TreeMap<>(LocalMapElement.DEFAULT_COMPARATOR);
         Map<JimpleLocal, TaintElement.Value> initialHeadMap = new TreeMap<>(LocalMapElement.DEFAULT_COMPARATOR);
 
-        TaintElement.Value bottom = new TaintElement.Value(TaintState.BOTTOM, false);
-        TaintElement.Value clean = new TaintElement.Value(TaintState.CLEAN, false);
+        TaintElement.Value bottom = TaintElement.Value.of(TaintState.BOTTOM, false);
+        TaintElement.Value clean = TaintElement.Value.of(TaintState.CLEAN, false);
 
         Chain<Local> locals = blockGraph.getBody().getLocals();
         for (Local l : locals) {
@@ -64,8 +64,9 @@ public class TaintInitializer implements Initializer<TaintElement> {
         Block head = heads.get(0);
         List<Block> blocks = blockGraph.getBlocks();
 
-        TaintElement headIn = new TaintElement(initialHeadMap);
-        TaintElement defaultInOut = new TaintElement(initialBottomMap);
+        LocalIndex localIndex = new LocalIndex(initialBottomMap.keySet());
+        TaintElement headIn = new TaintElement(localIndex, initialHeadMap);
+        TaintElement defaultInOut = new TaintElement(localIndex, initialBottomMap);
 
         BlockState<TaintElement> headState = new BlockState<TaintElement>(headIn, defaultInOut);
         BlockState<TaintElement> defaultState = new BlockState<TaintElement>(defaultInOut, defaultInOut);
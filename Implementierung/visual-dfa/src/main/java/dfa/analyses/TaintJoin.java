@@ -19,6 +19,19 @@ public class TaintJoin implements Join<TaintElement> {
 
     @Override
     public TaintElement join(Set<TaintElement> elements) {
+        Iterator<TaintElement> elementIt = elements.iterator();
+        if (elementIt.hasNext()) {
+            // elements sharing a LocalIndex are joined by or-ing their packed values
+            TaintElement result = elementIt.next().clone();
+            while (elementIt.hasNext()) {
+                if (!result.joinWith(elementIt.next())) {
+                    return joinHelper.performJoin(elements);
+                }
+            }
+
+            return result;
+        }
+
         return joinHelper.performJoin(elements);
     }
 
@@ -28,21 +41,22 @@ public class TaintJoin implements Join<TaintElement> {
         public Value doValueJoin(Set<TaintElement> elements, JimpleLocal local) {
             Iterator<? extends LocalMapElement<Value>> elementIt = elements.iterator();
             Value refVal = elementIt.next().getValue(local);
-            Value result = new Value(refVal.getTaintState(), refVal.wasViolated());
+            TaintState taintState = refVal.getTaintState();
+            boolean violated = refVal.wasViolated();
             while (elementIt.hasNext()) {
                 Value currentVal = elementIt.next().getValue(local);
 
                 if (currentVal.wasViolated()) {
-                    result.setViolated(true);
+                    violated = true;
                 }
 
                 switch (currentVal.getTaintState()) {
                 case TAINTED:
-                    result.setTaintState(TaintState.TAINTED);
+                    taintState = TaintState.TAINTED;
                     break;
                 case CLEAN:
-                    if (result.getTaintState().equals(TaintState.BOTTOM)) {
-                        result.setTaintState(TaintState.CLEAN);
+                    if (taintState.equals(TaintState.BOTTOM)) {
+                        taintState = TaintState.CLEAN;
                     }
                     break;
                 default: // ignore bottom
@@ -50,7 +64,7 @@ public class TaintJoin implements Join<TaintElement> {
 
             }
 
-            return result;
+            return Value.of(taintState, violated);
         }
     }
 
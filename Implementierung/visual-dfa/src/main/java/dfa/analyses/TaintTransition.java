@@ -109,7 +109,7 @@ public class TaintTransition implements Transition<TaintElement> {
          */
         public Transitioner(TaintElement element) {
             this.inputElement = element;
-            outputElement = new TaintElement(inputElement.getLocalMap());
+            outputElement = inputElement.clone();
         }
 
         /**
@@ -141,7 +141,7 @@ public class TaintTransition implements Transition<TaintElement> {
             
             boolean violated = inputElement.getValue(lValLocal).wasViolated();
             if (violated) {
-            	rhs.setViolated(true);
+                rhs = TaintElement.Value.of(rhs.getTaintState(), true);
             }
             
             outputElement.setValue(lValLocal, rhs);
@@ -182,7 +182,7 @@ public class TaintTransition implements Transition<TaintElement> {
             }
 
             boolean violated = inputElement.getValue(lValLocal).wasViolated(); // should be false
-            outputElement.setValue(lValLocal, new TaintElement.Value(TaintState.TAINTED, violated));
+            outputElement.setValue(lValLocal, TaintElement.Value.of(TaintState.TAINTED, violated));
         }
 
         @Override
@@ -211,7 +211,7 @@ public class TaintTransition implements Transition<TaintElement> {
                             // we only need to do something if this is the first violation
                             JimpleLocal local = e.getKey();
                             TaintElement.Value inValue = inputElement.getValue(local);
-                            outputElement.setValue(local, new TaintElement.Value(inValue.getTaintState(), true));
+                            outputElement.setValue(local, TaintElement.Value.of(inValue.getTaintState(), true));
                         }
                     }
                 }
@@ -233,17 +233,17 @@ public class TaintTransition implements Transition<TaintElement> {
             if (method.hasTag(TaintAnalysisTag.TAINT_TAG.getName())) {
                 // taint
                 if (inValue.getTaintState() != TaintState.TAINTED) {
-                    outputElement.setValue(local, new TaintElement.Value(TaintState.TAINTED, inValue.wasViolated()));
+                    outputElement.setValue(local, TaintElement.Value.of(TaintState.TAINTED, inValue.wasViolated()));
                 }
             } else if (method.hasTag(TaintAnalysisTag.CLEAN_TAG.getName())) {
                 // clean
                 if (inValue.getTaintState() != TaintState.CLEAN) {
-                    outputElement.setValue(local, new TaintElement.Value(TaintState.CLEAN, inValue.wasViolated()));
+                    outputElement.setValue(local, TaintElement.Value.of(TaintState.CLEAN, inValue.wasViolated()));
                 }
             } else if (method.hasTag(TaintAnalysisTag.SENSITIVE_TAG.getName())) {
                 // sensitive
                 if (!inValue.wasViolated() && inValue.getTaintState() == TaintState.TAINTED) {
-                    outputElement.setValue(local, new TaintElement.Value(TaintState.TAINTED, true));
+                    outputElement.setValue(local, TaintElement.Value.of(TaintState.TAINTED, true));
                 }
             }
 
@@ -325,42 +325,42 @@ public class TaintTransition implements Transition<TaintElement> {
 
         @Override
         public void caseClassConstant(ClassConstant c) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseDoubleConstant(DoubleConstant c) {
-            result = new TaintElement.Value(TaintState.CLEAN, false);
+            result = TaintElement.Value.of(TaintState.CLEAN, false);
         }
 
         @Override
         public void caseFloatConstant(FloatConstant c) {
-            result = new TaintElement.Value(TaintState.CLEAN, false);
+            result = TaintElement.Value.of(TaintState.CLEAN, false);
         }
 
         @Override
         public void caseIntConstant(IntConstant c) {
-            result = new TaintElement.Value(TaintState.CLEAN, false);
+            result = TaintElement.Value.of(TaintState.CLEAN, false);
         }
 
         @Override
         public void caseLongConstant(LongConstant c) {
-            result = new TaintElement.Value(TaintState.CLEAN, false);
+            result = TaintElement.Value.of(TaintState.CLEAN, false);
         }
 
         @Override
         public void caseMethodHandle(MethodHandle c) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseNullConstant(NullConstant c) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseStringConstant(StringConstant c) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         // ExprSwitch
@@ -452,12 +452,12 @@ public class TaintTransition implements Transition<TaintElement> {
             op.apply(eval);
 
             TaintElement.Value opVal = eval.getResult();
-            result = new TaintElement.Value(opVal.getTaintState(), opVal.wasViolated());
+            result = TaintElement.Value.of(opVal.getTaintState(), opVal.wasViolated());
         }
 
         @Override
         public void caseDynamicInvokeExpr(DynamicInvokeExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
@@ -492,55 +492,55 @@ public class TaintTransition implements Transition<TaintElement> {
 
         @Override
         public void caseInstanceOfExpr(InstanceOfExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseInterfaceInvokeExpr(InterfaceInvokeExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseLengthExpr(LengthExpr expr) {
             // array-length is not handled, so it is always tainted
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseNewArrayExpr(NewArrayExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseNewExpr(NewExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseNewMultiArrayExpr(NewMultiArrayExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseSpecialInvokeExpr(SpecialInvokeExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseStaticInvokeExpr(StaticInvokeExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseVirtualInvokeExpr(VirtualInvokeExpr expr) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         // RefSwitch
 
         @Override
         public void caseArrayRef(ArrayRef ref) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
@@ -550,22 +550,22 @@ public class TaintTransition implements Transition<TaintElement> {
 
         @Override
         public void caseInstanceFieldRef(InstanceFieldRef ref) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseParameterRef(ParameterRef ref) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseStaticFieldRef(StaticFieldRef ref) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         @Override
         public void caseThisRef(ThisRef ref) {
-            result = new TaintElement.Value(TaintState.TAINTED, false);
+            result = TaintElement.Value.of(TaintState.TAINTED, false);
         }
 
         // JimpleValueSwitch
@@ -590,11 +590,11 @@ public class TaintTransition implements Transition<TaintElement> {
             TaintElement.Value opVal2 = opValues.getSecond();
 
             if (isTainted(opVal1) || isTainted(opVal2)) {
-                result = new TaintElement.Value(TaintState.TAINTED, false);
+                result = TaintElement.Value.of(TaintState.TAINTED, false);
             } else if (isBottom(opVal1) || isBottom(opVal2)) {
-                result = new TaintElement.Value(TaintState.BOTTOM, false);
+                result = TaintElement.Value.of(TaintState.BOTTOM, false);
             } else {
-                result = new TaintElement.Value(TaintState.CLEAN, false);
+                result = TaintElement.Value.of(TaintState.CLEAN, false);
             }
         }
 
@@ -604,7 +604,7 @@ public class TaintTransition implements Transition<TaintElement> {
             op.apply(eval);
 
             TaintElement.Value opVal = eval.getResult();
-            result = new TaintElement.Value(opVal.getTaintState(), false);
+            result = TaintElement.Value.of(opVal.getTaintState(), false);
         }
 
         private Pair<TaintElement.Value> calcOperands(BinopExpr binOpExpr) {
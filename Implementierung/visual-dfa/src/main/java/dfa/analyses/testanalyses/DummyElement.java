@@ -28,6 +28,11 @@ public class DummyElement implements LatticeElement {
         return e.type == this.type;
     }
 
+    @Override
+    public int hashCode() {
+        return type.hashCode();
+    }
+
     @Override
     public String getStringRepresentation() {
         switch (type) {
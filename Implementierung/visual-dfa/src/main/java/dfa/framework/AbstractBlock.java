@@ -9,4 +9,29 @@ package dfa.framework;
  */
 public abstract class AbstractBlock {
 
+    private int id = -1;
+
+    /**
+     * Returns the id of this {@code AbstractBlock}. The ids of all {@code AbstractBlock}s of a
+     * {@code ControlFlowGraph} are dense, i. e. they are in range {@code [0, getBlockCount() - 1]} of the
+     * {@code ControlFlowGraph}, so they can be used as array indices.
+     * 
+     * @return the id of this {@code AbstractBlock} or {@code -1} if this {@code AbstractBlock} does not belong to a
+     *         {@code ControlFlowGraph}
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of this {@code AbstractBlock}. Ids are assigned by the {@code ControlFlowGraph} this
+     * {@code AbstractBlock} belongs to.
+     * 
+     * @param id
+     *        the new id
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
 }
@@ -0,0 +1,211 @@
+package dfa.framework;
+
+import java.util.Iterator;
+
+/**
+ * An {@code AdaptiveWorklist} is a {@code Worklist} which chooses the order in which {@code BasicBlock}s are retrieved
+ * from the shape of the graph the analysis runs on and switches to another order if the chosen one turns out to need
+ * too many steps.
+ *
+ * Initially, a {@code ReversePostorderWorklist} (for forward analyses) or a {@code PostorderWorklist} (for backward
+ * analyses) is used, which processes each {@code BasicBlock} after its predecessors and is optimal for graphs without
+ * loops. If the graph contains nested loops, a {@code WeakTopologicalWorklist} is used right away, since it stabilizes
+ * inner loops before outer ones. Once the average number of times a {@code BasicBlock} has been retrieved reaches the
+ * revisit threshold, the {@code AdaptiveWorklist} switches to a {@code WeakTopologicalWorklist}, keeping all
+ * {@code BasicBlock}s which are currently on it.
+ *
+ * The decision only depends on the graph and on the number of retrieved {@code BasicBlock}s, so an analysis using an
+ * {@code AdaptiveWorklist} can be repeated exactly. A copy shares its {@code BasicBlock}s with the original
+ * {@code AdaptiveWorklist} until one of them is modified.
+ */
+public class AdaptiveWorklist implements Worklist {
+
+    /**
+     * The default average number of times a {@code BasicBlock} may be retrieved before an {@code AdaptiveWorklist}
+     * switches to a weak topological order.
+     */
+    public static final int DEFAULT_REVISIT_THRESHOLD = 4;
+
+    /**
+     * The orders an {@code AdaptiveWorklist} can retrieve {@code BasicBlock}s in.
+     */
+    public enum Strategy {
+        /**
+         * reverse postorder (see {@code ReversePostorderWorklist})
+         */
+        REVERSE_POSTORDER,
+
+        /**
+         * postorder (see {@code PostorderWorklist})
+         */
+        POSTORDER,
+
+        /**
+         * weak topological order (see {@code WeakTopologicalWorklist})
+         */
+        WEAK_TOPOLOGICAL_ORDER
+    }
+
+    // an empty worklist in weak topological order to switch to (only copies of it are modified)
+    private final Worklist fallback;
+
+    // the number of polls after which this worklist switches to fallback
+    private final long switchThreshold;
+
+    private Worklist current;
+
+    private Strategy strategy;
+
+    // the number of BasicBlocks retrieved so far
+    private long polls;
+
+    /**
+     * Creates an empty {@code AdaptiveWorklist} for an analysis in the given {@code DFADirection} on the given
+     * {@code SimpleBlockGraph}, using {@code DEFAULT_REVISIT_THRESHOLD}.
+     *
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis runs on
+     * @param direction
+     *        the {@code DFADirection} of the analysis
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockGraph} or {@code direction} is {@code null}
+     */
+    public AdaptiveWorklist(SimpleBlockGraph blockGraph, DFADirection direction) {
+        this(blockGraph, direction, DEFAULT_REVISIT_THRESHOLD);
+    }
+
+    /**
+     * Creates an empty {@code AdaptiveWorklist} for an analysis in the given {@code DFADirection} on the given
+     * {@code SimpleBlockGraph}.
+     *
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis runs on
+     * @param direction
+     *        the {@code DFADirection} of the analysis
+     * @param revisitThreshold
+     *        the average number of times a {@code BasicBlock} may be retrieved before switching to a weak topological
+     *        order
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockGraph} or {@code direction} is {@code null} or {@code revisitThreshold} is not positive
+     */
+    public AdaptiveWorklist(SimpleBlockGraph blockGraph, DFADirection direction, int revisitThreshold) {
+        if (revisitThreshold < 1) {
+            throw new IllegalArgumentException("revisitThreshold must be positive");
+        }
+
+        GraphEdges forwardEdges = new GraphEdges(blockGraph, DFADirection.FORWARD);
+        WeakTopologicalOrder wto = new WeakTopologicalOrder(direction == DFADirection.FORWARD ? forwardEdges
+                : new GraphEdges(blockGraph, direction));
+        fallback = new WeakTopologicalWorklist(wto);
+        switchThreshold = (long) revisitThreshold * wto.size();
+        polls = 0;
+
+        if (wto.getNestingDepth() > 1) {
+            current = fallback.clone();
+            strategy = Strategy.WEAK_TOPOLOGICAL_ORDER;
+        } else if (direction == DFADirection.FORWARD) {
+            current = new ReversePostorderWorklist(forwardEdges);
+            strategy = Strategy.REVERSE_POSTORDER;
+        } else {
+            current = new PostorderWorklist(forwardEdges);
+            strategy = Strategy.POSTORDER;
+        }
+    }
+
+    private AdaptiveWorklist(AdaptiveWorklist original) {
+        this.fallback = original.fallback;
+        this.switchThreshold = original.switchThreshold;
+        this.current = original.current.clone();
+        this.strategy = original.strategy;
+        this.polls = original.polls;
+    }
+
+    /**
+     * Returns the order in which this {@code AdaptiveWorklist} currently retrieves {@code BasicBlock}s.
+     *
+     * @return the current {@code Strategy}
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * If {@code basicBlock} is already on this {@code AdaptiveWorklist}, this has no effect.
+     *
+     * @throws {
+     * @code IllegalArgumentException}, if {@code basicBlock} is {@code null} or does not belong to a
+     *       {@code ControlFlowGraph}
+     */
+    public boolean add(BasicBlock basicBlock) {
+        return current.add(basicBlock);
+    }
+
+    /**
+     * Retrieves and removes the next {@code BasicBlock} according to the current {@code Strategy}. Afterwards, the
+     * {@code Strategy} is switched to {@code WEAK_TOPOLOGICAL_ORDER} if the revisit threshold has been reached.
+     *
+     * @return the next {@code BasicBlock} or {@code null} if this {@code AdaptiveWorklist} is empty
+     */
+    public BasicBlock poll() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        BasicBlock basicBlock = current.poll();
+        if (++polls >= switchThreshold && strategy != Strategy.WEAK_TOPOLOGICAL_ORDER) {
+            Worklist switched = fallback.clone();
+            for (BasicBlock bBlock : current) {
+                switched.add(bBlock);
+            }
+
+            current = switched;
+            strategy = Strategy.WEAK_TOPOLOGICAL_ORDER;
+        }
+
+        return basicBlock;
+    }
+
+    /**
+     * Retrieves the next {@code BasicBlock} according to the current {@code Strategy}. The retrieved
+     * {@code BasicBlock} is not removed from this {@code AdaptiveWorklist}.
+     *
+     * @return the next {@code BasicBlock} or {@code null} if this {@code AdaptiveWorklist} is empty
+     */
+    public BasicBlock peek() {
+        return current.peek();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean contains(BasicBlock basicBlock) {
+        return current.contains(basicBlock);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned {@code Iterator} does not support removal and returns the {@code BasicBlock}s in the order they
+     * would be retrieved according to the current {@code Strategy}.
+     */
+    public Iterator<BasicBlock> iterator() {
+        return current.iterator();
+    }
+
+    @Override
+    public Worklist clone() {
+        return new AdaptiveWorklist(this);
+    }
+
+}
@@ -1,12 +1,12 @@
 package dfa.framework;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * An {@code AnalysisState} represents the state of a dataflow analysis in one specific step. It holds the current
  * {@code Worklist} and the current {@code BlockState} for each {@code AbstractBlock}.
  * 
+ * The mappings are kept in {@code PersistentMap}s, so {@code AnalysisState}s of consecutive steps share all mappings
+ * that did not change between those steps.
+ * 
  * @param <E>
  *        the type of {@code LatticeElement} used in this {@code AnalysisState}
  * 
@@ -15,9 +15,9 @@ import java.util.Map;
  */
 public class AnalysisState<E extends LatticeElement> {
 	
-    private Map<AbstractBlock, BlockState<E>> stateMap;
+    private PersistentMap<AbstractBlock, BlockState<E>> stateMap;
 
-    private Map<BasicBlock, LogicalColor> colorMap;
+    private PersistentMap<BasicBlock, LogicalColor> colorMap;
 
     private Worklist worklist;
 
@@ -29,8 +29,8 @@ public class AnalysisState<E extends LatticeElement> {
 
     /**
      * Construct a new {@code AnalysisState} from a given {@code Worklist}, a current {@code BasicBlock}, an index of an
-     * {@code ElementaryBlock}, a {@code Map} of {@code AbstractBlock}s to {@code BlockState}s and a {@code Map} of
-     * {@code AbstractBlock}s to {@code LogicalColor}s.
+     * {@code ElementaryBlock}, a {@code PersistentMap} of {@code AbstractBlock}s to {@code BlockState}s and a
+     * {@code PersistentMap} of {@code AbstractBlock}s to {@code LogicalColor}s.
      * 
      * @param worklist
      *        the {@code Worklist} in this {@code AnalysisState}
@@ -39,12 +39,13 @@ public class AnalysisState<E extends LatticeElement> {
      * @param eBlockIndex
      *        the index of the current {@code ElementaryBlock}
      * @param stateMap
-     *        a {@code Map} determining the {@code BlockState} of each {@code AbstractBlock}
+     *        a {@code PersistentMap} determining the {@code BlockState} of each {@code AbstractBlock}
      * @param colorMap
-     *        a {@code Map} determining the {@code LogicalColor} of each {@code BasicBlock}
+     *        a {@code PersistentMap} determining the {@code LogicalColor} of each {@code BasicBlock}
      */
-    protected AnalysisState(Worklist worklist, BasicBlock currentBasicBlock, int eBlockIndex,
-            Map<AbstractBlock, BlockState<E>> stateMap, Map<BasicBlock, LogicalColor> colorMap, DFADirection direction) {
+    AnalysisState(Worklist worklist, BasicBlock currentBasicBlock, int eBlockIndex,
+            PersistentMap<AbstractBlock, BlockState<E>> stateMap, PersistentMap<BasicBlock, LogicalColor> colorMap,
+            DFADirection direction) {
         setWorklist(worklist);
         setCurrentBasicBlock(currentBasicBlock);
         setCurrentElementaryBlockIndex(eBlockIndex);
@@ -65,8 +66,8 @@ public class AnalysisState<E extends LatticeElement> {
      *        the index of the current {@code ElementaryBlock}
      */
     public AnalysisState(Worklist worklist, BasicBlock currentBasicBlock, int eBlockIndex, DFADirection direction) {
-        this(worklist, currentBasicBlock, eBlockIndex, new HashMap<AbstractBlock, BlockState<E>>(),
-                new HashMap<BasicBlock, LogicalColor>(), direction);
+        this(worklist, currentBasicBlock, eBlockIndex, PersistentMap.<AbstractBlock, BlockState<E>> empty(),
+                PersistentMap.<BasicBlock, LogicalColor> empty(), direction);
     }
 
     /**
@@ -104,7 +105,7 @@ public class AnalysisState<E extends LatticeElement> {
             throw new IllegalArgumentException("color must not be null");
         }
 
-        colorMap.put(basicBlock, color);
+        colorMap = colorMap.put(basicBlock, color);
     }
 
     /**
@@ -123,7 +124,7 @@ public class AnalysisState<E extends LatticeElement> {
     }
 
     public void setBlockState(AbstractBlock block, BlockState<E> blockState) {
-        stateMap.put(block, blockState);
+        stateMap = stateMap.put(block, blockState);
     }
 
     /**
@@ -219,12 +220,12 @@ public class AnalysisState<E extends LatticeElement> {
     }
 
     /**
-     * Sets the {@code Map} that assigns {@code BlockState}s to {@code AbstractBlock}s.
+     * Sets the {@code PersistentMap} that assigns {@code BlockState}s to {@code AbstractBlock}s.
      * 
      * @param stateMap
-     *        the {@code Map} that assigns {@code BlockState}s to {@code AbstractBlock}s
+     *        the {@code PersistentMap} that assigns {@code BlockState}s to {@code AbstractBlock}s
      */
-    protected void setStateMap(Map<AbstractBlock, BlockState<E>> stateMap) {
+    void setStateMap(PersistentMap<AbstractBlock, BlockState<E>> stateMap) {
         if (stateMap == null) {
             throw new IllegalArgumentException("stateMap must not be null");
         }
@@ -232,17 +233,22 @@ public class AnalysisState<E extends LatticeElement> {
         this.stateMap = stateMap;
     }
 
-    protected Map<AbstractBlock, BlockState<E>> getStateMap() {
+    /**
+     * Returns the {@code PersistentMap} that assigns {@code BlockState}s to {@code AbstractBlock}s.
+     * 
+     * @return the {@code PersistentMap} that assigns {@code BlockState}s to {@code AbstractBlock}s
+     */
+    PersistentMap<AbstractBlock, BlockState<E>> getStateMap() {
         return stateMap;
     }
 
     /**
-     * Sets the {@code Map} that assigns {@code LogicalColor}s to {@code BasicBlock}s.
+     * Sets the {@code PersistentMap} that assigns {@code LogicalColor}s to {@code BasicBlock}s.
      * 
      * @param colorMap
-     *        the {@code Map} that assigns {@code LogicalColor}s to {@code BasicBlock}s
+     *        the {@code PersistentMap} that assigns {@code LogicalColor}s to {@code BasicBlock}s
      */
-    protected void setColorMap(Map<BasicBlock, LogicalColor> colorMap) {
+    void setColorMap(PersistentMap<BasicBlock, LogicalColor> colorMap) {
         if (colorMap == null) {
             throw new IllegalArgumentException("colorMap must not be null");
         }
@@ -251,11 +257,11 @@ public class AnalysisState<E extends LatticeElement> {
     }
 
     /**
-     * Returns the {@code Map} that assigns {@code LogicalColor}s to {@code BasicBlock}s.
+     * Returns the {@code PersistentMap} that assigns {@code LogicalColor}s to {@code BasicBlock}s.
      * 
-     * @return the {@code Map} that assigns {@code LogicalColor}s to {@code BasicBlock}s
+     * @return the {@code PersistentMap} that assigns {@code LogicalColor}s to {@code BasicBlock}s
      */
-    protected Map<BasicBlock, LogicalColor> getColorMap() {
+    PersistentMap<BasicBlock, LogicalColor> getColorMap() {
         return colorMap;
     }
 
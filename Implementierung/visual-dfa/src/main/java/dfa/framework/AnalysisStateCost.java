@@ -0,0 +1,108 @@
+package dfa.framework;
+
+import java.util.Iterator;
+
+/**
+ * Provides rough estimates of the heap used by {@code AnalysisState}s. Consecutive {@code AnalysisState}s share all
+ * unchanged mappings, so the cost of an {@code AnalysisState} is estimated relative to the one stored before it.
+ *
+ * The traces estimate the cost of every elementary-step while the analysis is precalculated, so
+ * {@code estimateStep} takes constant time. {@code estimate} compares the mappings and is meant for
+ * {@code AnalysisState}s that are stored less often.
+ */
+final class AnalysisStateCost {
+
+    // rough estimates of the heap used by a single AnalysisState
+    static final int BYTES_PER_STATE = 96;
+    static final int BYTES_PER_CHANGED_MAPPING = 256;
+    static final int BYTES_PER_WORKLIST_ENTRY = 32;
+
+    // rough estimate of the heap used by a Worklist whose size is not known
+    static final int BYTES_PER_WORKLIST = 8 * BYTES_PER_WORKLIST_ENTRY;
+
+    // rough estimate of the heap used by a LatticeElement that is referred to by an element table
+    static final int BYTES_PER_ELEMENT = 256;
+
+    private AnalysisStateCost() {
+    }
+
+    /**
+     * Estimates the number of bytes used by the {@code AnalysisState} of an elementary-step in addition to the ones
+     * used by the {@code AnalysisState} of the preceding elementary-step. Such an {@code AnalysisState} is assumed to
+     * differ from its predecessor in a single mapping and, if it begins a block-step, in its {@code Worklist}.
+     *
+     * @param prevState
+     *        the {@code AnalysisState} of the preceding elementary-step or {@code null} if {@code state} is the first
+     *        one
+     * @param state
+     *        the {@code AnalysisState} to estimate the cost of
+     * @return the estimated additional number of bytes used by {@code state}
+     */
+    static <E extends LatticeElement> int estimateStep(AnalysisState<E> prevState, AnalysisState<E> state) {
+        if (prevState == null) {
+            return estimate(null, state);
+        }
+
+        int cost = BYTES_PER_STATE + BYTES_PER_CHANGED_MAPPING;
+        if (state.getWorklist() != prevState.getWorklist()) {
+            cost += BYTES_PER_WORKLIST;
+        }
+
+        return cost;
+    }
+
+    /**
+     * Estimates the number of bytes used by {@code state} in addition to the ones used by {@code prevState}.
+     *
+     * @param prevState
+     *        the previously stored {@code AnalysisState} or {@code null} if {@code state} is the first one
+     * @param state
+     *        the {@code AnalysisState} to estimate the cost of
+     * @return the estimated additional number of bytes used by {@code state}
+     */
+    static <E extends LatticeElement> int estimate(AnalysisState<E> prevState, AnalysisState<E> state) {
+        int cost = BYTES_PER_STATE + getWorklistSize(state.getWorklist()) * BYTES_PER_WORKLIST_ENTRY;
+
+        if (prevState == null) {
+            return cost + (state.getStateMap().size() + state.getColorMap().size()) * BYTES_PER_CHANGED_MAPPING;
+        }
+
+        ChangeCounter<AbstractBlock, BlockState<E>> stateChanges = new ChangeCounter<>();
+        state.getStateMap().forEachChanged(prevState.getStateMap(), stateChanges);
+
+        ChangeCounter<BasicBlock, LogicalColor> colorChanges = new ChangeCounter<>();
+        state.getColorMap().forEachChanged(prevState.getColorMap(), colorChanges);
+
+        return cost + (stateChanges.count + colorChanges.count) * BYTES_PER_CHANGED_MAPPING;
+    }
+
+    /**
+     * Returns the number of {@code BasicBlock}s in the given {@code Worklist}.
+     *
+     * @param worklist
+     *        the {@code Worklist}
+     * @return the number of {@code BasicBlock}s in {@code worklist}
+     */
+    static int getWorklistSize(Worklist worklist) {
+        int size = 0;
+        Iterator<BasicBlock> it = worklist.iterator();
+        while (it.hasNext()) {
+            it.next();
+            ++size;
+        }
+
+        return size;
+    }
+
+    private static final class ChangeCounter<K, V> implements PersistentMap.EntryVisitor<K, V> {
+
+        private int count = 0;
+
+        @Override
+        public void visit(K key, V value) {
+            ++count;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package dfa.framework;
+
+/**
+ * An {@code AnalysisTrace} stores the {@code AnalysisState}s of all elementary-steps of a {@code DFAExecution}.
+ * {@code AnalysisState}s may be read by other threads while new ones are still added.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in the stored {@code AnalysisState}s
+ */
+interface AnalysisTrace<E extends LatticeElement> {
+
+    /**
+     * Appends the {@code AnalysisState} of the next elementary-step. The {@code AnalysisState} must not be modified
+     * after it has been added.
+     *
+     * @param state
+     *        the {@code AnalysisState} to append
+     */
+    void add(AnalysisState<E> state);
+
+    /**
+     * Returns the {@code AnalysisState} of the given elementary-step.
+     *
+     * @param step
+     *        the elementary-step
+     * @return the {@code AnalysisState} of {@code step}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code step} is not in range {@code [0, ..., size() - 1]}
+     */
+    AnalysisState<E> get(int step);
+
+    /**
+     * Returns the number of stored elementary-steps.
+     *
+     * @return the number of stored elementary-steps
+     */
+    int size();
+
+    /**
+     * Returns a rough estimate of the heap (in bytes) used by the stored {@code AnalysisState}s.
+     *
+     * @return the estimated heap used by the stored {@code AnalysisState}s
+     */
+    long getHeapEstimate();
+
+}
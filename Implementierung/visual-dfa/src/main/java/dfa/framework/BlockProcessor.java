@@ -0,0 +1,350 @@
+package dfa.framework;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import soot.toolkits.graph.Block;
+
+/**
+ * A {@code BlockProcessor} holds what the {@code FixpointSolver}, the {@code ParallelFixpointSolver}, the
+ * {@code StepEngine} and the {@code BlockReplayAnalysisTrace} have in common: it resolves predecessors, successors,
+ * elementary blocks and in- and out-states according to the {@code DFADirection} of the analysis, and it selects and
+ * processes single {@code BasicBlock}s on an array of {@code BlockState}s indexed by the ids of the blocks.
+ *
+ * If the {@code DataFlowAnalysis} is a {@code MemoizingDataFlowAnalysis}, the transitions of whole {@code BasicBlock}s
+ * are memoized when they are processed.
+ *
+ * A {@code BlockProcessor} has no mutable state, so it can be used by multiple threads, as long as they do not process
+ * the same {@code BasicBlock}s concurrently.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used by the {@code DataFlowAnalysis}
+ */
+final class BlockProcessor<E extends LatticeElement> {
+
+    private final DataFlowAnalysis<E> dfa;
+
+    // dfa if it memoizes transitions, or null
+    private final MemoizingDataFlowAnalysis<E> memoizingDfa;
+
+    private final ControlFlowGraph cfg;
+
+    private final DFADirection direction;
+
+    // the widening to apply at loop headers, or null
+    private final Widening<E> widening;
+
+    private final int wideningDelay;
+
+    private final BitSet loopHeaders;
+
+    /**
+     * Creates a {@code BlockProcessor} for the given {@code DataFlowAnalysis} and {@code ControlFlowGraph} that does
+     * not apply a {@code Widening}.
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} whose transitions and joins are used
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis is based on
+     * @param direction
+     *        the {@code DFADirection} of {@code dfa}
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfa}, {@code cfg} or {@code direction} is {@code null}
+     */
+    BlockProcessor(DataFlowAnalysis<E> dfa, ControlFlowGraph cfg, DFADirection direction) {
+        this(dfa, cfg, direction, null, 0);
+    }
+
+    /**
+     * Creates a {@code BlockProcessor} for the given {@code DataFlowAnalysis} and {@code ControlFlowGraph} that applies
+     * the given {@code Widening} at loop headers (see {@code ControlFlowGraph.getLoopHeaders}).
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} whose transitions and joins are used
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis is based on
+     * @param direction
+     *        the {@code DFADirection} of {@code dfa}
+     * @param widening
+     *        the {@code Widening} to apply at loop headers, {@code null} to apply none
+     * @param wideningDelay
+     *        the number of times a loop header is selected before the {@code Widening} is applied
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfa}, {@code cfg} or {@code direction} is {@code null} or if {@code wideningDelay} is
+     *         negative
+     */
+    BlockProcessor(DataFlowAnalysis<E> dfa, ControlFlowGraph cfg, DFADirection direction, Widening<E> widening,
+            int wideningDelay) {
+        if (dfa == null) {
+            throw new IllegalArgumentException("dfa must not be null");
+        }
+
+        if (cfg == null) {
+            throw new IllegalArgumentException("cfg must not be null");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        if (wideningDelay < 0) {
+            throw new IllegalArgumentException("wideningDelay must not be negative");
+        }
+
+        this.dfa = dfa;
+        this.memoizingDfa = dfa instanceof MemoizingDataFlowAnalysis ? (MemoizingDataFlowAnalysis<E>) dfa : null;
+        this.cfg = cfg;
+        this.direction = direction;
+        this.widening = widening;
+        this.wideningDelay = wideningDelay;
+        this.loopHeaders = widening == null ? new BitSet() : cfg.getLoopHeaders(direction);
+    }
+
+    /**
+     * Creates the {@code BlockState}s of all blocks before the analysis starts, indexed by the ids of the blocks. The
+     * {@code BasicBlock}s have the initial states of the analysis, all {@code ElementaryBlock}s have {@code null}-states.
+     *
+     * @return the initial {@code BlockState}s of all blocks
+     */
+    AtomicReferenceArray<BlockState<E>> createInitialStates() {
+        Map<Block, BlockState<E>> initialStates = dfa.getInitialStates();
+        List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
+
+        AtomicReferenceArray<BlockState<E>> blockStates = new AtomicReferenceArray<>(cfg.getBlockCount());
+        BlockState<E> nullState = new BlockState<E>(null, null);
+        for (BasicBlock bBlock : basicBlocks) {
+            blockStates.set(bBlock.getId(), initialStates.get(bBlock.getSootBlock()));
+        }
+
+        for (int id = basicBlocks.size(); id < cfg.getBlockCount(); ++id) {
+            blockStates.set(id, nullState);
+        }
+
+        return blockStates;
+    }
+
+    /**
+     * Sets the in-state of the given {@code BasicBlock} to the join of the out-states of its predecessors. If it is a
+     * loop header that has been selected more than {@code wideningDelay} times, the join is widened with its previous
+     * in-state.
+     *
+     * @param bBlock
+     *        the selected {@code BasicBlock}
+     * @param selectionCount
+     *        how often {@code bBlock} has been selected, including this time
+     * @param blockStates
+     *        the {@code BlockState}s of all blocks, indexed by their ids
+     */
+    void selectBasicBlock(BasicBlock bBlock, int selectionCount, AtomicReferenceArray<BlockState<E>> blockStates) {
+        Set<E> predOutStates = new HashSet<E>();
+        for (BasicBlock p : getPredecessors(bBlock)) {
+            predOutStates.add(getOutState(blockStates.get(p.getId())));
+        }
+
+        E outStatesJoin = dfa.join(predOutStates);
+        BlockState<E> prevBlockState = blockStates.get(bBlock.getId());
+        if (widening != null && selectionCount > wideningDelay && loopHeaders.get(bBlock.getId())
+                && prevBlockState.getInState() != null) {
+            outStatesJoin = widening.widen(prevBlockState.getInState(), outStatesJoin);
+        }
+
+        blockStates.set(bBlock.getId(), new BlockState<E>(outStatesJoin, getOutState(prevBlockState)));
+    }
+
+    /**
+     * Applies the transitions of all elementary blocks of the given {@code BasicBlock} to its in-state and sets its
+     * out-state to the result. The transitions are skipped if the in-state has not changed since the
+     * {@code BasicBlock} was last processed (see {@code isUnchanged}). The states of consecutive elementary blocks are
+     * chained in the same way as in {@code DFAExecution}.
+     *
+     * @param bBlock
+     *        the {@code BasicBlock} to process
+     * @param blockStates
+     *        the {@code BlockState}s of all blocks, indexed by their ids
+     * @return whether the out-state of {@code bBlock} changed
+     */
+    boolean processBasicBlock(BasicBlock bBlock, AtomicReferenceArray<BlockState<E>> blockStates) {
+        BlockState<E> prevBlockState = blockStates.get(bBlock.getId());
+
+        E outState;
+        int eBlockCount = bBlock.getElementaryBlockCount();
+        if (eBlockCount == 0) {
+            outState = prevBlockState.getInState();
+        } else if (isUnchanged(bBlock, blockStates)) {
+            // the states of the elementary blocks are still those of the last time bBlock was processed
+            outState = blockStates.get(getElementaryBlock(bBlock, eBlockCount - 1).getId()).getOutState();
+        } else {
+            E prevOutState = getInState(prevBlockState);
+            List<E> outStates = null;
+            if (memoizingDfa != null) {
+                outStates = memoizingDfa.transitionBlock(prevOutState, bBlock, direction);
+            }
+
+            BlockState<E> eBlockState = null;
+            for (int i = 0; i < eBlockCount; ++i) {
+                if (i > 0) {
+                    prevOutState = getOutState(eBlockState);
+                }
+
+                ElementaryBlock eBlock = getElementaryBlock(bBlock, i);
+                E nextOutState = outStates != null ? outStates.get(i) : dfa.transition(prevOutState, eBlock.getUnit());
+                eBlockState = new BlockState<E>(prevOutState, nextOutState);
+                blockStates.set(eBlock.getId(), eBlockState);
+            }
+
+            outState = eBlockState.getOutState();
+        }
+
+        boolean outStateChanged = !outState.equals(getOutState(prevBlockState));
+        blockStates.set(bBlock.getId(), new BlockState<E>(getInState(prevBlockState), outState));
+        return outStateChanged;
+    }
+
+    /**
+     * Returns whether the given {@code BasicBlock} has been processed before with its current in-state, i. e. whether
+     * its first elementary block was given the same in-state.
+     *
+     * @param bBlock
+     *        a {@code BasicBlock} with at least one elementary block
+     * @param blockStates
+     *        the {@code BlockState}s of all blocks, indexed by their ids
+     * @return whether the transitions of {@code bBlock} would have the same results as the last time
+     */
+    boolean isUnchanged(BasicBlock bBlock, AtomicReferenceArray<BlockState<E>> blockStates) {
+        return isUnchanged(blockStates.get(getElementaryBlock(bBlock, 0).getId()),
+                getInState(blockStates.get(bBlock.getId())));
+    }
+
+    /**
+     * Returns whether an elementary block with the given {@code BlockState} has been processed with the given in-state
+     * (see {@code isUnchanged(BasicBlock, AtomicReferenceArray)}).
+     *
+     * @param firstState
+     *        the {@code BlockState} of the first elementary block of a {@code BasicBlock}
+     * @param inState
+     *        the current in-state of the {@code BasicBlock}
+     * @return whether {@code firstState} has the in-state {@code inState}
+     */
+    static <E extends LatticeElement> boolean isUnchanged(BlockState<E> firstState, E inState) {
+        if (firstState == null || firstState.getInState() == null) {
+            return false;
+        }
+
+        return firstState.getInState() == inState || firstState.getInState().equals(inState);
+    }
+
+    /**
+     * Returns the {@code BasicBlock} the analysis starts with, this depends on the {@code DFADirection}.
+     *
+     * @return the start block of the analysis
+     */
+    BasicBlock getStartBlock() {
+        switch (direction) {
+        case FORWARD:
+            return cfg.getStartBlock();
+        case BACKWARD:
+            return cfg.getEndBlock();
+        default:
+            throw new IllegalStateException("unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Returns the {@code BasicBlock}s whose out-states are joined to the in-state of the given {@code BasicBlock}.
+     *
+     * @param bBlock
+     *        the {@code BasicBlock}
+     * @return the predecessors of {@code bBlock} in the {@code DFADirection} of the analysis
+     */
+    List<BasicBlock> getPredecessors(BasicBlock bBlock) {
+        switch (direction) {
+        case FORWARD:
+            return cfg.getPredecessors(bBlock);
+        case BACKWARD:
+            return cfg.getSuccessors(bBlock);
+        default:
+            throw new IllegalStateException("unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Returns the {@code BasicBlock}s the out-state of the given {@code BasicBlock} flows to.
+     *
+     * @param bBlock
+     *        the {@code BasicBlock}
+     * @return the successors of {@code bBlock} in the {@code DFADirection} of the analysis
+     */
+    List<BasicBlock> getSuccessors(BasicBlock bBlock) {
+        switch (direction) {
+        case FORWARD:
+            return cfg.getSuccessors(bBlock);
+        case BACKWARD:
+            return cfg.getPredecessors(bBlock);
+        default:
+            throw new IllegalStateException("unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Returns the elementary block of the given {@code BasicBlock} that is processed at the given position.
+     *
+     * @param bBlock
+     *        the {@code BasicBlock}
+     * @param eBlockIdx
+     *        the position in the {@code DFADirection} of the analysis
+     * @return the {@code ElementaryBlock} processed at position {@code eBlockIdx}
+     */
+    ElementaryBlock getElementaryBlock(BasicBlock bBlock, int eBlockIdx) {
+        switch (direction) {
+        case FORWARD:
+            return bBlock.getElementaryBlock(eBlockIdx);
+        case BACKWARD:
+            return bBlock.getElementaryBlock(bBlock.getElementaryBlockCount() - 1 - eBlockIdx);
+        default:
+            throw new IllegalStateException("unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Returns the state the given {@code BlockState} is entered with in the {@code DFADirection} of the analysis.
+     *
+     * @param bState
+     *        the {@code BlockState}
+     * @return the in-state for a forward analysis, the out-state for a backward analysis
+     */
+    E getInState(BlockState<E> bState) {
+        switch (direction) {
+        case FORWARD:
+            return bState.getInState();
+        case BACKWARD:
+            return bState.getOutState();
+        default:
+            throw new IllegalStateException("unknown direction: " + direction);
+        }
+    }
+
+    /**
+     * Returns the state the given {@code BlockState} is left with in the {@code DFADirection} of the analysis.
+     *
+     * @param bState
+     *        the {@code BlockState}
+     * @return the out-state for a forward analysis, the in-state for a backward analysis
+     */
+    E getOutState(BlockState<E> bState) {
+        switch (direction) {
+        case FORWARD:
+            return bState.getOutState();
+        case BACKWARD:
+            return bState.getInState();
+        default:
+            throw new IllegalStateException("unknown direction: " + direction);
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package dfa.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@code BlockReplayAnalysisTrace} stores only the {@code AnalysisState}s at the beginning and at the end of each
+ * block-step. The elementary-steps in between (one for each {@code ElementaryBlock} of the current {@code BasicBlock})
+ * are rebuilt on demand by replaying the transitions of the {@code DataFlowAnalysis} starting from the in-state the
+ * {@code BasicBlock} had at the beginning of the block-step.
+ *
+ * The most recently rebuilt {@code AnalysisState} is cached, so stepping forwards inside a {@code BasicBlock} replays
+ * only a single transition.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in the stored {@code AnalysisState}s
+ */
+class BlockReplayAnalysisTrace<E extends LatticeElement> implements AnalysisTrace<E> {
+
+    private final DataFlowAnalysis<E> dfa;
+
+    private final DFADirection direction;
+
+    private final BlockProcessor<E> processor;
+
+    private final List<AnalysisState<E>> snapshots = new ArrayList<>();
+
+    // the elementary-step of each snapshot (ascending)
+    private int[] snapshotSteps = new int[16];
+
+    private int size = 0;
+
+    private long heapEstimate = 0;
+
+    private int cachedStep = -1;
+    private AnalysisState<E> cachedState = null;
+
+    /**
+     * Creates an empty {@code BlockReplayAnalysisTrace}.
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} used to replay the elementary-steps
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis is based on
+     * @param direction
+     *        the {@code DFADirection} of {@code dfa}
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfa}, {@code cfg} or {@code direction} is {@code null}
+     */
+    BlockReplayAnalysisTrace(DataFlowAnalysis<E> dfa, ControlFlowGraph cfg, DFADirection direction) {
+        this.dfa = dfa;
+        this.direction = direction;
+        this.processor = new BlockProcessor<E>(dfa, cfg, direction);
+    }
+
+    @Override
+    public synchronized void add(AnalysisState<E> state) {
+        if (state == null) {
+            throw new IllegalArgumentException("state must not be null");
+        }
+
+        boolean isElementaryStep = state.getCurrentBasicBlock() != null && state.getCurrentElementaryBlockIndex() >= 0;
+        if (!isElementaryStep || snapshots.isEmpty()) {
+            if (snapshots.size() == snapshotSteps.length) {
+                snapshotSteps = Arrays.copyOf(snapshotSteps, 2 * snapshotSteps.length);
+            }
+
+            snapshotSteps[snapshots.size()] = size;
+            AnalysisState<E> lastSnapshot = snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+            heapEstimate += AnalysisStateCost.estimate(lastSnapshot, state);
+            snapshots.add(state);
+        }
+
+        ++size;
+    }
+
+    @Override
+    public synchronized AnalysisState<E> get(int step) {
+        if (step < 0 || step >= size) {
+            throw new IndexOutOfBoundsException("invalid step: " + step);
+        }
+
+        int idx = Arrays.binarySearch(snapshotSteps, 0, snapshots.size(), step);
+        if (idx >= 0) {
+            return snapshots.get(idx);
+        }
+
+        if (step == cachedStep) {
+            return cachedState;
+        }
+
+        // the snapshot of the beginning of the block-step this elementary-step belongs to
+        idx = -(idx + 1) - 1;
+        int blockStartStep = snapshotSteps[idx];
+
+        AnalysisState<E> state;
+        int fromStep;
+        if (cachedState != null && blockStartStep < cachedStep && cachedStep < step) {
+            state = cachedState;
+            fromStep = cachedStep;
+        } else {
+            state = snapshots.get(idx);
+            fromStep = blockStartStep;
+        }
+
+        for (int s = fromStep + 1; s <= step; ++s) {
+            state = replayElementaryBlock(state, s - blockStartStep - 1);
+        }
+
+        cachedStep = step;
+        cachedState = state;
+        return state;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized long getHeapEstimate() {
+        return heapEstimate;
+    }
+
+    /*
+     * computes the state after processing the elementary block with the given index, the states are chained in the
+     * same way as in DFAExecution
+     */
+    private AnalysisState<E> replayElementaryBlock(AnalysisState<E> prevState, int eBlockIdx) {
+        BasicBlock bBlock = prevState.getCurrentBasicBlock();
+        if (bBlock == null || eBlockIdx >= bBlock.getElementaryBlockCount()) {
+            throw new IllegalStateException("there is no elementary block to replay");
+        }
+
+        E prevOutState;
+        if (eBlockIdx == 0) {
+            prevOutState = processor.getInState(prevState.getBlockState(bBlock));
+        } else {
+            prevOutState = processor.getOutState(prevState.getBlockState(processor.getElementaryBlock(bBlock, eBlockIdx - 1)));
+        }
+
+        ElementaryBlock eBlock = processor.getElementaryBlock(bBlock, eBlockIdx);
+        E nextOutState = dfa.transition(prevOutState, eBlock.getUnit());
+
+        AnalysisState<E> newState = new AnalysisState<E>(prevState.getWorklist(), bBlock, eBlockIdx,
+                prevState.getStateMap(), prevState.getColorMap(), direction);
+        newState.setBlockState(eBlock, new BlockState<E>(prevOutState, nextOutState));
+        return newState;
+    }
+
+}
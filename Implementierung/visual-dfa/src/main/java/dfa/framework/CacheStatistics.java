@@ -0,0 +1,75 @@
+package dfa.framework;
+
+/**
+ * A {@code CacheStatistics} is an immutable snapshot of the hits, misses and evictions of a bounded cache.
+ */
+public final class CacheStatistics {
+
+    /**
+     * the statistics of a cache that has never been used (or does not exist)
+     */
+    public static final CacheStatistics NONE = new CacheStatistics(0, 0, 0);
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    /**
+     * Creates a new {@code CacheStatistics}.
+     *
+     * @param hits
+     *        the number of lookups that found a cached value
+     * @param misses
+     *        the number of lookups that did not find a cached value
+     * @param evictions
+     *        the number of values removed from the cache to respect its size limit
+     */
+    CacheStatistics(long hits, long misses, long evictions) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached value.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached value.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of values removed from the cache to respect its size limit.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the fraction of lookups that found a cached value.
+     *
+     * @return the hit rate in range {@code [0, 1]}, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + hits + ", misses: " + misses + ", evictions: " + evictions;
+    }
+
+}
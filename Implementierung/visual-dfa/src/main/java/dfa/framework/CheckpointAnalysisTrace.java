@@ -0,0 +1,205 @@
+package dfa.framework;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code CheckpointAnalysisTrace} stores the {@code AnalysisState} of every k-th elementary-step as a checkpoint,
+ * together with the {@code BasicBlock}s visited up to that step and how often each of them has been selected from the
+ * {@code Worklist}. Of all other elementary-steps only the most recently used {@code AnalysisState}s are kept in a
+ * bounded cache. An {@code AnalysisState} that is not in the cache is recalculated by running a {@code StepEngine} from
+ * the nearest preceding checkpoint (or from the most recently recalculated elementary-step, if that is closer).
+ *
+ * The cache hits, misses and evictions are counted, so the cache size can be tuned.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in the stored {@code AnalysisState}s
+ */
+class CheckpointAnalysisTrace<E extends LatticeElement> implements AnalysisTrace<E> {
+
+    private final StepEngine<E> engine;
+
+    private final int checkpointInterval;
+
+    private final List<Checkpoint<E>> checkpoints = new ArrayList<>();
+
+    private final Map<Integer, AnalysisState<E>> cache;
+
+    // the ids of the basic blocks visited up to the most recently added step
+    private final BitSet visited = new BitSet();
+
+    // how often each basic block (indexed by id) has been selected up to the most recently added step
+    private final int[] selections;
+
+    private int size = 0;
+
+    // the estimated heap used by the checkpoints
+    private long checkpointBytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    // the most recently recalculated step, calculation can continue from here
+    private int cursorStep = -1;
+    private AnalysisState<E> cursorState = null;
+    private BitSet cursorVisited = null;
+    private int[] cursorSelections = null;
+    private byte[] cursorColors = null;
+
+    /**
+     * Creates an empty {@code CheckpointAnalysisTrace}.
+     *
+     * @param engine
+     *        the {@code StepEngine} used to recalculate {@code AnalysisState}s, it must calculate the same steps as the
+     *        one the stored {@code AnalysisState}s come from
+     * @param checkpointInterval
+     *        the number of elementary-steps between two checkpoints
+     * @param cacheSize
+     *        the maximum number of cached {@code AnalysisState}s
+     *
+     * @throws IllegalArgumentException
+     *         if {@code engine} is {@code null} or if {@code checkpointInterval} or {@code cacheSize} is less than 1
+     */
+    CheckpointAnalysisTrace(StepEngine<E> engine, int checkpointInterval, final int cacheSize) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine must not be null");
+        }
+
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("checkpointInterval must be at least 1");
+        }
+
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("cacheSize must be at least 1");
+        }
+
+        this.engine = engine;
+        this.checkpointInterval = checkpointInterval;
+        this.selections = engine.createSelectionCounts();
+        this.cache = new LinkedHashMap<Integer, AnalysisState<E>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, AnalysisState<E>> eldest) {
+                if (size() > cacheSize) {
+                    ++evictions;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void add(AnalysisState<E> state) {
+        if (state == null) {
+            throw new IllegalArgumentException("state must not be null");
+        }
+
+        BasicBlock currentBBlock = state.getCurrentBasicBlock();
+        if (currentBBlock != null) {
+            visited.set(currentBBlock.getId());
+        }
+
+        // apart from step 0, each block-step begins by selecting its basic block from the worklist
+        if (size > 0 && StepEngine.beginsBlockStep(state)) {
+            ++selections[currentBBlock.getId()];
+        }
+
+        if (size % checkpointInterval == 0) {
+            AnalysisState<E> lastCheckpoint = checkpoints.isEmpty() ? null
+                    : checkpoints.get(checkpoints.size() - 1).state;
+            checkpointBytes += AnalysisStateCost.estimate(lastCheckpoint, state) + visited.size() / 8
+                    + 4 * selections.length;
+            checkpoints.add(new Checkpoint<E>(state, (BitSet) visited.clone(), selections.clone()));
+        } else {
+            cache.put(size, state);
+        }
+
+        ++size;
+    }
+
+    @Override
+    public synchronized AnalysisState<E> get(int step) {
+        if (step < 0 || step >= size) {
+            throw new IndexOutOfBoundsException("invalid step: " + step);
+        }
+
+        if (step % checkpointInterval == 0) {
+            ++hits;
+            return checkpoints.get(step / checkpointInterval).state;
+        }
+
+        AnalysisState<E> state = cache.get(step);
+        if (state != null) {
+            ++hits;
+            return state;
+        }
+
+        ++misses;
+
+        int checkpointStep = step - step % checkpointInterval;
+        if (cursorState == null || cursorStep < checkpointStep || cursorStep > step) {
+            Checkpoint<E> checkpoint = checkpoints.get(step / checkpointInterval);
+            cursorStep = checkpointStep;
+            cursorState = checkpoint.state;
+            cursorVisited = (BitSet) checkpoint.visited.clone();
+            cursorSelections = checkpoint.selections.clone();
+            cursorColors = engine.getColors(cursorState);
+        }
+
+        while (cursorStep < step) {
+            cursorState = engine.nextState(cursorState, cursorVisited, cursorSelections, cursorColors);
+            if (cursorState == null) {
+                throw new IllegalStateException("the recalculated analysis reached a fixpoint too early");
+            }
+
+            ++cursorStep;
+            cache.put(cursorStep, cursorState);
+        }
+
+        return cursorState;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized long getHeapEstimate() {
+        // a cached AnalysisState is assumed to differ from its predecessor in a single mapping
+        return checkpointBytes + (long) cache.size()
+                * (AnalysisStateCost.BYTES_PER_STATE + AnalysisStateCost.BYTES_PER_CHANGED_MAPPING);
+    }
+
+    /**
+     * Returns the statistics of the cache. A requested {@code AnalysisState} that is a checkpoint or is found in the
+     * cache counts as a hit, one that has to be recalculated as a miss.
+     *
+     * @return the current {@code CacheStatistics} of the cache
+     */
+    synchronized CacheStatistics getCacheStatistics() {
+        return new CacheStatistics(hits, misses, evictions);
+    }
+
+    private static final class Checkpoint<E extends LatticeElement> {
+
+        private final AnalysisState<E> state;
+        private final BitSet visited;
+        private final int[] selections;
+
+        private Checkpoint(AnalysisState<E> state, BitSet visited, int[] selections) {
+            this.state = state;
+            this.visited = visited;
+            this.selections = selections;
+        }
+
+    }
+
+}
@@ -21,6 +21,7 @@ public class CompositeDataFlowAnalysis<E extends LatticeElement> implements Data
     private Join<E> join;
     private Transition<E> transition;
     private Initializer<E> initializer;
+    private Widening<E> widening;
 
     /**
      * Creates a {@code CompositeDataFlowAnalysis} from a {@code Join} and a {@code Transition}.
@@ -36,6 +37,26 @@ public class CompositeDataFlowAnalysis<E extends LatticeElement> implements Data
      *         if {@code join} or {@code transition} or {@code initializer} is {@code null}
      */
     public CompositeDataFlowAnalysis(Join<E> join, Transition<E> transition, Initializer<E> initializer) {
+        this(join, transition, initializer, null);
+    }
+
+    /**
+     * Creates a {@code CompositeDataFlowAnalysis} from a {@code Join}, a {@code Transition} and a {@code Widening}.
+     * 
+     * @param join
+     *        the {@code Join} to use to perform {@code transition}
+     * @param transition
+     *        the {@code Transition} to use perform {@code join}
+     * @param initializer
+     *        the {@code Initializer} used to initialize the analysis
+     * @param widening
+     *        the {@code Widening} to apply at loop headers, may be {@code null}
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code join} or {@code transition} or {@code initializer} is {@code null}
+     */
+    public CompositeDataFlowAnalysis(Join<E> join, Transition<E> transition, Initializer<E> initializer,
+            Widening<E> widening) {
         if (join == null) {
             throw new IllegalArgumentException("join must not be null");
         }
@@ -51,6 +72,7 @@ public class CompositeDataFlowAnalysis<E extends LatticeElement> implements Data
         this.join = join;
         this.transition = transition;
         this.initializer = initializer;
+        this.widening = widening;
     }
 
     @Override
@@ -68,4 +90,13 @@ public class CompositeDataFlowAnalysis<E extends LatticeElement> implements Data
         return initializer.getInitialStates();
     }
 
+    /**
+     * Returns the {@code Widening} of this {@code CompositeDataFlowAnalysis}.
+     * 
+     * @return the {@code Widening} to apply at loop headers or {@code null} if there is none
+     */
+    public Widening<E> getWidening() {
+        return widening;
+    }
+
 }
@@ -1,12 +1,15 @@
 package dfa.framework;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import soot.Unit;
 import soot.toolkits.graph.Block;
@@ -16,19 +19,37 @@ import soot.toolkits.graph.Block;
  * control flow. A {@code ControlFlowGraph} has exactly one start-block and at most one end-block (no end-block is
  * possible).
  * 
+ * Each {@code AbstractBlock} of a {@code ControlFlowGraph} has a dense id (see {@link AbstractBlock#getId()}). The
+ * {@code BasicBlock}s have the ids {@code 0} to {@code getBasicBlocks().size() - 1} (in the order of
+ * {@code getBasicBlocks()}), followed by the ids of their {@code ElementaryBlock}s. The edges are stored as arrays of
+ * ids in compressed sparse row format.
+ * 
  * @author Sebastian Rauch
  */
 public class ControlFlowGraph {
 
+    private static final int[] NO_IDS = new int[0];
+
     private SimpleBlockGraph blockGraph;
 
-    private LinkedList<BasicBlock> basicBlocks = new LinkedList<BasicBlock>();
+    private List<BasicBlock> basicBlocks = new ArrayList<BasicBlock>();
+
+    // all blocks, indexed by their id
+    private List<AbstractBlock> blocks = new ArrayList<AbstractBlock>();
 
     private BasicBlock startBlock = null;
     private BasicBlock endBlock = null;
 
-    private Map<BasicBlock, List<BasicBlock>> predecessors;
-    private Map<BasicBlock, List<BasicBlock>> successors;
+    // the predecessors of the basic block with id i are predIds[predOffsets[i]] to predIds[predOffsets[i + 1] - 1]
+    private int[] predOffsets = new int[] { 0 };
+    private int[] predIds = NO_IDS;
+
+    // the successors, analogous to the predecessors
+    private int[] succOffsets = new int[] { 0 };
+    private int[] succIds = NO_IDS;
+
+    private List<List<BasicBlock>> predecessorLists = new ArrayList<List<BasicBlock>>();
+    private List<List<BasicBlock>> successorLists = new ArrayList<List<BasicBlock>>();
 
     /**
      * Creates a new {@code ControlFlowGraph} from a {@code SimpleBlockGraph}.
@@ -37,22 +58,22 @@ public class ControlFlowGraph {
      *        the {@code SimpleBlockGraph} this {@code ControlFlowGraph} is based on
      */
     public ControlFlowGraph(SimpleBlockGraph blockGraph) {
-        Map<Block, BasicBlock> blockMapping = new HashMap<Block, BasicBlock>();
+        this.blockGraph = blockGraph;
 
-        List<Block> blocks = blockGraph.getBlocks();
-        if (blocks.isEmpty()) {
+        List<Block> sootBlocks = blockGraph.getBlocks();
+        if (sootBlocks.isEmpty()) {
             throw new IllegalArgumentException("the given BlockGraph is empty");
         }
 
-        predecessors = new HashMap<BasicBlock, List<BasicBlock>>();
-        successors = new HashMap<BasicBlock, List<BasicBlock>>();
-
-        for (Block block : blocks) {
+        Map<Block, BasicBlock> blockMapping = new HashMap<Block, BasicBlock>(2 * sootBlocks.size());
+        for (Block block : sootBlocks) {
             BasicBlock basicBlock = buildBasicBlock(block);
-            addBasicBlock(basicBlock);
+            basicBlocks.add(basicBlock);
             blockMapping.put(block, basicBlock);
         }
 
+        assignIds();
+
         List<Block> heads = blockGraph.getHeads();
         if (heads.size() != 1) {
             throw new IllegalArgumentException("there must be exactly one entry-point");
@@ -69,25 +90,32 @@ public class ControlFlowGraph {
             setEndBlock(blockMapping.get(tails.get(0)));
         }
 
-        for (Block block : blocks) {
-            BasicBlock basicBlock = blockMapping.get(block);
-
-            List<BasicBlock> basicPreds = new LinkedList<BasicBlock>();
-            List<Block> preds = blockGraph.getPredsOf(block);
-            for (Block p : preds) {
-                basicPreds.add(blockMapping.get(p));
-            }
+        int blockCount = sootBlocks.size();
+        predOffsets = new int[blockCount + 1];
+        succOffsets = new int[blockCount + 1];
+        for (int i = 0; i < blockCount; ++i) {
+            Block block = sootBlocks.get(i);
+            predOffsets[i + 1] = predOffsets[i] + blockGraph.getPredsOf(block).size();
+            succOffsets[i + 1] = succOffsets[i] + blockGraph.getSuccsOf(block).size();
+        }
 
-            setPredecessors(basicBlock, basicPreds);
+        predIds = new int[predOffsets[blockCount]];
+        succIds = new int[succOffsets[blockCount]];
+        for (int i = 0; i < blockCount; ++i) {
+            Block block = sootBlocks.get(i);
 
-            List<BasicBlock> basicSuccs = new LinkedList<BasicBlock>();
-            List<Block> succs = blockGraph.getSuccsOf(block);
-            for (Block s : succs) {
-                basicSuccs.add(blockMapping.get(s));
+            int idx = predOffsets[i];
+            for (Block p : blockGraph.getPredsOf(block)) {
+                predIds[idx++] = blockMapping.get(p).getId();
             }
 
-            setSuccessors(basicBlock, basicSuccs);
+            idx = succOffsets[i];
+            for (Block s : blockGraph.getSuccsOf(block)) {
+                succIds[idx++] = blockMapping.get(s).getId();
+            }
         }
+
+        buildAdjacencyLists();
     }
 
     /**
@@ -99,6 +127,30 @@ public class ControlFlowGraph {
         return Collections.unmodifiableList(basicBlocks);
     }
 
+    /**
+     * Returns the number of {@code AbstractBlock}s ({@code BasicBlock}s and {@code ElementaryBlock}s) of this
+     * {@code ControlFlowGraph}. The ids of the {@code AbstractBlock}s are in range {@code [0, getBlockCount() - 1]}.
+     * 
+     * @return the number of {@code AbstractBlock}s of this {@code ControlFlowGraph}
+     */
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Returns the {@code AbstractBlock} with the given id.
+     * 
+     * @param id
+     *        the id of the {@code AbstractBlock} to return
+     * @return the {@code AbstractBlock} with the given id
+     * 
+     * @throws IndexOutOfBoundsException
+     *         if {@code id} is not in range {@code [0, getBlockCount() - 1]}
+     */
+    public AbstractBlock getBlock(int id) {
+        return blocks.get(id);
+    }
+
     /**
      * Returns the start-block of this {@code ControlFlowGraph}.
      * 
@@ -119,7 +171,7 @@ public class ControlFlowGraph {
      *         if {@code startBlock} does not belong to this {@code ControlFlowGraph}
      */
     protected void setStartBlock(BasicBlock startBlock) {
-        if (!basicBlocks.contains(startBlock)) {
+        if (!contains(startBlock)) {
             throw new IllegalArgumentException("startBlock is not a BasciBlock of this CFG");
         }
 
@@ -146,7 +198,7 @@ public class ControlFlowGraph {
      *         if {@code endBlock} does not belong to this {@code ControlFlowGraph}
      */
     protected void setEndBlock(BasicBlock endBlock) {
-        if (!basicBlocks.contains(endBlock)) {
+        if (!contains(endBlock)) {
             throw new IllegalArgumentException("endBlock is not a BasicBlock of this CFG");
         }
 
@@ -165,16 +217,16 @@ public class ControlFlowGraph {
      *         if {@code endBlock} does not belong to this {@code ControlFlowGraph}
      */
     public List<BasicBlock> getPredecessors(BasicBlock basicBlock) {
-        List<BasicBlock> preds = predecessors.get(basicBlock);
-        if (preds == null) {
+        if (!contains(basicBlock)) {
             throw new IllegalArgumentException("basicBlock is not in this CFG");
         }
 
-        return Collections.unmodifiableList(preds);
+        return predecessorLists.get(basicBlock.getId());
     }
 
     /**
-     * Sets the predecessors for {@code basicBlock}.
+     * Sets the predecessors for {@code basicBlock}. This rebuilds the arrays storing the edges, so it takes time
+     * linear in the number of edges.
      * 
      * @param basicBlock
      *        the {@code BasicBlock} for which the predecessors should be set
@@ -186,12 +238,15 @@ public class ControlFlowGraph {
      *         if {@code basicBlock} or any element of {@code preds} does not belong to this {@code ControlFlowGraph}
      */
     protected void setPredecessors(BasicBlock basicBlock, List<BasicBlock> preds) {
-        if (!(basicBlocks.contains(basicBlock) && basicBlocks.containsAll(preds))) {
+        if (!(contains(basicBlock) && containsAll(preds))) {
             throw new IllegalArgumentException("all involved BasicBlocks must be in thus CFG");
         }
 
-        List<BasicBlock> newPreds = new ArrayList<BasicBlock>(preds);
-        predecessors.put(basicBlock, newPreds);
+        int[][] rows = toRows(predOffsets, predIds, basicBlocks.size());
+        rows[basicBlock.getId()] = toIds(preds);
+        predOffsets = toOffsets(rows);
+        predIds = toIds(rows, predOffsets);
+        buildAdjacencyLists();
     }
 
     /**
@@ -206,16 +261,16 @@ public class ControlFlowGraph {
      *         if {@code endBlock} does not belong to this {@code ControlFlowGraph}
      */
     public List<BasicBlock> getSuccessors(BasicBlock basicBlock) {
-        List<BasicBlock> succs = successors.get(basicBlock);
-        if (succs == null) {
+        if (!contains(basicBlock)) {
             throw new IllegalArgumentException("basicBlock is not in this CFG");
         }
 
-        return Collections.unmodifiableList(succs);
+        return successorLists.get(basicBlock.getId());
     }
 
     /**
-     * Sets the successors for {@code basicBlock}.
+     * Sets the successors for {@code basicBlock}. This rebuilds the arrays storing the edges, so it takes time linear
+     * in the number of edges.
      * 
      * @param basicBlock
      *        the {@code BasicBlock} for which the successors should be set
@@ -227,16 +282,19 @@ public class ControlFlowGraph {
      *         if {@code basicBlock} or any element of {@code succs} does not belong to this {@code ControlFlowGraph}
      */
     protected void setSuccessors(BasicBlock basicBlock, List<BasicBlock> succs) {
-        if (!(basicBlocks.contains(basicBlock) && basicBlocks.containsAll(succs))) {
+        if (!(contains(basicBlock) && containsAll(succs))) {
             throw new IllegalArgumentException("all involved BasicBlocks must be in this CFG");
         }
 
-        List<BasicBlock> newSuccs = new ArrayList<BasicBlock>(succs);
-        successors.put(basicBlock, newSuccs);
+        int[][] rows = toRows(succOffsets, succIds, basicBlocks.size());
+        rows[basicBlock.getId()] = toIds(succs);
+        succOffsets = toOffsets(rows);
+        succIds = toIds(rows, succOffsets);
+        buildAdjacencyLists();
     }
 
     /**
-     * Adds {@code basicBlock} to this {@code ControlFlowGraph}.
+     * Adds {@code basicBlock} to this {@code ControlFlowGraph}. The ids of all {@code ElementaryBlock}s are reassigned.
      * 
      * @param basicBlock
      *        the {@code BasicBlock} to add
@@ -251,17 +309,25 @@ public class ControlFlowGraph {
             throw new IllegalArgumentException("basicBlock must not be null");
         }
 
-        if (basicBlocks.contains(basicBlock)) {
+        if (contains(basicBlock)) {
             return false;
         }
 
-        predecessors.put(basicBlock, new LinkedList<BasicBlock>());
-        successors.put(basicBlock, new LinkedList<BasicBlock>());
-        return basicBlocks.add(basicBlock); // returns true
+        basicBlocks.add(basicBlock);
+        assignIds();
+
+        // the new basic block has no edges yet
+        predOffsets = Arrays.copyOf(predOffsets, predOffsets.length + 1);
+        predOffsets[predOffsets.length - 1] = predIds.length;
+        succOffsets = Arrays.copyOf(succOffsets, succOffsets.length + 1);
+        succOffsets[succOffsets.length - 1] = succIds.length;
+        buildAdjacencyLists();
+        return true;
     }
 
     /**
-     * Removes {@code basicBlock} from this {@code ControlFlowGraph}.
+     * Removes {@code basicBlock} from this {@code ControlFlowGraph}. The ids of all following {@code BasicBlock}s and
+     * of all {@code ElementaryBlock}s are reassigned.
      * 
      * @param basicBlock
      *        the {@code BasicBlock} to remove
@@ -269,18 +335,28 @@ public class ControlFlowGraph {
      * @return {@code true} if {@code basicBlock} was successfully removed, {@code false} otherwise
      */
     protected boolean removeBasicBlock(BasicBlock basicBlock) {
-        if (!basicBlocks.contains(basicBlock)) {
+        if (!contains(basicBlock)) {
             return false;
         }
 
-        for (BasicBlock bBlock : basicBlocks) {
-            predecessors.get(bBlock).remove(basicBlock);
-            successors.get(bBlock).remove(basicBlock);
+        int removedId = basicBlock.getId();
+        int[][] predRows = removeFromRows(toRows(predOffsets, predIds, basicBlocks.size()), removedId);
+        int[][] succRows = removeFromRows(toRows(succOffsets, succIds, basicBlocks.size()), removedId);
+
+        basicBlocks.remove(removedId);
+        basicBlock.setId(-1);
+        for (ElementaryBlock eBlock : basicBlock.getElementaryBlocks()) {
+            eBlock.setId(-1);
         }
 
-        predecessors.remove(basicBlock);
-        successors.remove(basicBlock);
-        return basicBlocks.remove(basicBlock); // returns true
+        assignIds();
+
+        predOffsets = toOffsets(predRows);
+        predIds = toIds(predRows, predOffsets);
+        succOffsets = toOffsets(succRows);
+        succIds = toIds(succRows, succOffsets);
+        buildAdjacencyLists();
+        return true;
     }
 
     /**
@@ -292,6 +368,217 @@ public class ControlFlowGraph {
         return blockGraph;
     }
 
+    /**
+     * Returns the offsets into {@code getPredecessorIds()}: the ids of the predecessors of the {@code BasicBlock} with
+     * id {@code i} are stored from index {@code getPredecessorOffsets()[i]} (inclusive) to
+     * {@code getPredecessorOffsets()[i + 1]} (exclusive). The returned array must not be modified.
+     * 
+     * @return the offsets into {@code getPredecessorIds()}
+     */
+    int[] getPredecessorOffsets() {
+        return predOffsets;
+    }
+
+    /**
+     * Returns the ids of the predecessors of all {@code BasicBlock}s (see {@code getPredecessorOffsets()}). The
+     * returned array must not be modified.
+     * 
+     * @return the ids of the predecessors of all {@code BasicBlock}s
+     */
+    int[] getPredecessorIds() {
+        return predIds;
+    }
+
+    /**
+     * Returns the offsets into {@code getSuccessorIds()}: the ids of the successors of the {@code BasicBlock} with id
+     * {@code i} are stored from index {@code getSuccessorOffsets()[i]} (inclusive) to
+     * {@code getSuccessorOffsets()[i + 1]} (exclusive). The returned array must not be modified.
+     * 
+     * @return the offsets into {@code getSuccessorIds()}
+     */
+    int[] getSuccessorOffsets() {
+        return succOffsets;
+    }
+
+    /**
+     * Returns the ids of the successors of all {@code BasicBlock}s (see {@code getSuccessorOffsets()}). The returned
+     * array must not be modified.
+     * 
+     * @return the ids of the successors of all {@code BasicBlock}s
+     */
+    int[] getSuccessorIds() {
+        return succIds;
+    }
+
+    /**
+     * Returns the ids of the loop headers of this {@code ControlFlowGraph} for the given {@code DFADirection}. A loop
+     * header is the target of a back edge found by a depth-first search starting at the start block (or, if
+     * {@code direction} is {@code BACKWARD}, at the end block following the edges in reverse). Every cycle reachable
+     * from the start of the search contains at least one loop header.
+     * 
+     * @param direction
+     *        the {@code DFADirection} in which the edges are followed
+     * @return the ids of all loop headers
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code direction} is {@code null}
+     */
+    public BitSet getLoopHeaders(DFADirection direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        BasicBlock root = direction == DFADirection.FORWARD ? startBlock : endBlock;
+        int[] offsets = direction == DFADirection.FORWARD ? succOffsets : predOffsets;
+        int[] ids = direction == DFADirection.FORWARD ? succIds : predIds;
+
+        BitSet loopHeaders = new BitSet(basicBlocks.size());
+        if (root == null) {
+            return loopHeaders;
+        }
+
+        BitSet discovered = new BitSet(basicBlocks.size());
+        BitSet onStack = new BitSet(basicBlocks.size());
+
+        // iterative depth-first search, next[i] is the index of the next edge to follow from stack[i]
+        int[] stack = new int[basicBlocks.size()];
+        int[] next = new int[basicBlocks.size()];
+        int depth = 0;
+        stack[0] = root.getId();
+        next[0] = offsets[root.getId()];
+        discovered.set(root.getId());
+        onStack.set(root.getId());
+        ++depth;
+
+        while (depth > 0) {
+            int id = stack[depth - 1];
+            if (next[depth - 1] == offsets[id + 1]) {
+                onStack.clear(id);
+                --depth;
+                continue;
+            }
+
+            int target = ids[next[depth - 1]++];
+            if (onStack.get(target)) {
+                loopHeaders.set(target);
+            } else if (!discovered.get(target)) {
+                discovered.set(target);
+                onStack.set(target);
+                stack[depth] = target;
+                next[depth] = offsets[target];
+                ++depth;
+            }
+        }
+
+        return loopHeaders;
+    }
+
+    private boolean contains(BasicBlock basicBlock) {
+        if (basicBlock == null) {
+            return false;
+        }
+
+        int id = basicBlock.getId();
+        return 0 <= id && id < basicBlocks.size() && basicBlocks.get(id) == basicBlock;
+    }
+
+    private boolean containsAll(List<BasicBlock> basicBlocks) {
+        for (BasicBlock basicBlock : basicBlocks) {
+            if (!contains(basicBlock)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * assigns the ids 0, 1, ... to the basic blocks and then to their elementary blocks
+     */
+    private void assignIds() {
+        blocks = new ArrayList<AbstractBlock>(blocks.size());
+        for (BasicBlock bBlock : basicBlocks) {
+            bBlock.setId(blocks.size());
+            blocks.add(bBlock);
+        }
+
+        for (BasicBlock bBlock : basicBlocks) {
+            for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                eBlock.setId(blocks.size());
+                blocks.add(eBlock);
+            }
+        }
+    }
+
+    private void buildAdjacencyLists() {
+        predecessorLists = new ArrayList<List<BasicBlock>>(basicBlocks.size());
+        successorLists = new ArrayList<List<BasicBlock>>(basicBlocks.size());
+        for (int i = 0; i < basicBlocks.size(); ++i) {
+            predecessorLists.add(new BlockListView(predIds, predOffsets[i], predOffsets[i + 1]));
+            successorLists.add(new BlockListView(succIds, succOffsets[i], succOffsets[i + 1]));
+        }
+    }
+
+    private static int[] toIds(List<BasicBlock> basicBlocks) {
+        int[] ids = new int[basicBlocks.size()];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = basicBlocks.get(i).getId();
+        }
+
+        return ids;
+    }
+
+    private static int[][] toRows(int[] offsets, int[] ids, int blockCount) {
+        int[][] rows = new int[blockCount][];
+        for (int i = 0; i < blockCount; ++i) {
+            rows[i] = Arrays.copyOfRange(ids, offsets[i], offsets[i + 1]);
+        }
+
+        return rows;
+    }
+
+    private static int[] toOffsets(int[][] rows) {
+        int[] offsets = new int[rows.length + 1];
+        for (int i = 0; i < rows.length; ++i) {
+            offsets[i + 1] = offsets[i] + rows[i].length;
+        }
+
+        return offsets;
+    }
+
+    private static int[] toIds(int[][] rows, int[] offsets) {
+        int[] ids = new int[offsets[rows.length]];
+        for (int i = 0; i < rows.length; ++i) {
+            System.arraycopy(rows[i], 0, ids, offsets[i], rows[i].length);
+        }
+
+        return ids;
+    }
+
+    /*
+     * removes the row of the given id and all references to it, the ids greater than removedId are decremented
+     */
+    private static int[][] removeFromRows(int[][] rows, int removedId) {
+        int[][] newRows = new int[rows.length - 1][];
+        for (int i = 0, j = 0; i < rows.length; ++i) {
+            if (i == removedId) {
+                continue;
+            }
+
+            int[] row = new int[rows[i].length];
+            int count = 0;
+            for (int id : rows[i]) {
+                if (id != removedId) {
+                    row[count++] = id > removedId ? id - 1 : id;
+                }
+            }
+
+            newRows[j++] = Arrays.copyOf(row, count);
+        }
+
+        return newRows;
+    }
+
     /*
      * Creates a {@code BasicBlock} from a given (Soot-) {@code Block}. The corresponding (Soot-) {@code Block} of the
      * newly creates {@code BasicBlock} is set to {@code block}.
@@ -301,7 +588,7 @@ public class ControlFlowGraph {
      * @return a {@code BasicBlock} for the given (Soot-) {@code Block}
      */
     private BasicBlock buildBasicBlock(Block block) {
-        List<ElementaryBlock> elementaryBlocks = new LinkedList<ElementaryBlock>();
+        List<ElementaryBlock> elementaryBlocks = new ArrayList<ElementaryBlock>();
         Iterator<Unit> unitIterator = block.iterator();
 
         while (unitIterator.hasNext()) {
@@ -311,4 +598,35 @@ public class ControlFlowGraph {
         return new BasicBlock(elementaryBlocks, block);
     }
 
+    /*
+     * an unmodifiable view of a range of ids, which are mapped to the basic blocks of this CFG
+     */
+    private final class BlockListView extends AbstractList<BasicBlock> implements RandomAccess {
+
+        private final int[] ids;
+        private final int from;
+        private final int to;
+
+        BlockListView(int[] ids, int from, int to) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public BasicBlock get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("index is out of bounds: " + index);
+            }
+
+            return basicBlocks.get(ids[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+    }
+
 }
@@ -20,4 +20,16 @@ public class DFAException extends RuntimeException {
         super(msg);
     }
 
+    /**
+     * Creates a {@code DFAException} with the given message and cause.
+     * 
+     * @param msg
+     *        the message for this {@code DFAException}
+     * @param cause
+     *        the cause of this {@code DFAException}
+     */
+    public DFAException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
 }
@@ -1,14 +1,6 @@
 package dfa.framework;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
-import soot.toolkits.graph.Block;
+import java.util.BitSet;
 
 /**
  * A {@code DFAExecution} precalculates a {@code DataFlowAnalysis} and provides
@@ -22,16 +14,25 @@ import soot.toolkits.graph.Block;
  */
 public class DFAExecution<E extends LatticeElement> {
 
+	// the number of elementary-steps between two published PrecalcProgress snapshots
+	private static final int PROGRESS_INTERVAL = 64;
+
 	private final Worklist initialWorklist;
 
 	private final DFADirection direction;
 
 	private final DataFlowAnalysis<E> dfa;
 
+	// the widening applied at loop headers, or null
+	private final Widening<E> widening;
+
 	private final ControlFlowGraph cfg;
 
-	private List<AnalysisState<E>> analysisStates = new ArrayList<>();
-	private List<Integer> blockSteps = new ArrayList<>();
+	// calculates the steps, all lattice elements are interned so equal elements are stored only once
+	private final StepEngine<E> engine;
+
+	// the steps are published while they are precalculated, so they can be read before the precalculation completes
+	private final StepLog<E> steps;
 
 	private int currentElementaryStep = 0;
 	private int currentBlockStep = 0;
@@ -71,10 +72,21 @@ public class DFAExecution<E extends LatticeElement> {
 		this.initialWorklist = initialWorklist;
 		this.direction = dfaFactory.getDirection();
 
-		dfa = dfaFactory.getAnalysis(blockGraph);
+		DataFlowAnalysis<E> analysis = dfaFactory.getAnalysis(blockGraph);
+		this.widening = dfaFactory.getWidening(analysis);
+		if (precalcController.getTransitionCacheSize() > 0) {
+			// each step is a single transition, so only the unit cache is used
+			dfa = new MemoizingDataFlowAnalysis<E>(analysis, precalcController.getTransitionCacheSize(), 0);
+		} else {
+			dfa = analysis;
+		}
 
 		this.cfg = new ControlFlowGraph(blockGraph);
 
+		this.engine = createEngine(precalcController);
+
+		this.steps = new StepLog<E>(createTrace(precalcController));
+
 		precalc(precalcController);
 	}
 
@@ -82,10 +94,11 @@ public class DFAExecution<E extends LatticeElement> {
 		this.initialWorklist = copyFrom.initialWorklist;
 		this.direction = copyFrom.getDirection();
 		this.dfa = copyFrom.dfa;
+		this.widening = copyFrom.widening;
 		this.cfg = copyFrom.getCFG();
+		this.engine = copyFrom.engine;
 
-		this.analysisStates = copyFrom.analysisStates;
-		this.blockSteps = copyFrom.blockSteps;
+		this.steps = copyFrom.steps;
 
 		setCurrentElementaryStep(copyFrom.getCurrentElementaryStep());
 		setCurrentBlockStep(copyFrom.getCurrentBlockStep());
@@ -111,21 +124,25 @@ public class DFAExecution<E extends LatticeElement> {
 	}
 
 	/**
-	 * Returns the total number of elementary-steps.
+	 * Returns the total number of elementary-steps. While the precalculation is
+	 * still running, this is the number of elementary-steps calculated so far and
+	 * may increase with each call.
 	 * 
 	 * @return the total number of elementary-steps
 	 */
 	public int getTotalElementarySteps() {
-		return analysisStates.size();
+		return steps.getElementaryStepCount();
 	}
 
 	/**
-	 * Returns the total number of block-steps.
+	 * Returns the total number of block-steps. While the precalculation is still
+	 * running, this is the number of block-steps calculated so far and may
+	 * increase with each call.
 	 * 
 	 * @return the total number of block-steps
 	 */
 	public int getTotalBlockSteps() {
-		return blockSteps.size();
+		return steps.getBlockStepCount();
 	}
 
 	/**
@@ -155,12 +172,7 @@ public class DFAExecution<E extends LatticeElement> {
 		}
 
 		currentElementaryStep = elementaryStep;
-		int idx = Collections.binarySearch(blockSteps, currentElementaryStep);
-
-		if (idx < 0) { // currentElementaryStep has not been found
-			idx = -(idx + 1) - 1; // this gives the correct index of the corresponding block-step
-		}
-		currentBlockStep = idx;
+		currentBlockStep = steps.getBlockStep(elementaryStep);
 	}
 
 	/**
@@ -190,7 +202,7 @@ public class DFAExecution<E extends LatticeElement> {
 		}
 
 		currentBlockStep = blockStep;
-		currentElementaryStep = blockSteps.get(blockStep);
+		currentElementaryStep = steps.getBlockStepStart(blockStep);
 	}
 
 	/**
@@ -274,14 +286,84 @@ public class DFAExecution<E extends LatticeElement> {
 		return bBlock.getElementaryBlock(eBlockIdx).hasBreakpoint();
 	}
 
+	/**
+	 * Returns whether the given block-step applied the {@code Widening} of the
+	 * analysis, i. e. whether it selected a loop header and widened its
+	 * in-state instead of only joining the out-states of its predecessors.
+	 * 
+	 * @param blockStep
+	 *            the block-step
+	 * @return {@code true} iff {@code blockStep} is a widening step
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             if {@code blockStep} is not in range
+	 *             {@code [0, ..., getTotalBlockSteps() - 1]}
+	 */
+	public boolean isWideningBlockStep(int blockStep) {
+		return steps.isWidened(blockStep);
+	}
+
+	/**
+	 * Returns whether the current block-step is a widening step (see
+	 * {@code isWideningBlockStep}).
+	 * 
+	 * @return {@code true} iff the current block-step applied a
+	 *         {@code Widening}
+	 */
+	public boolean isAtWideningStep() {
+		return isWideningBlockStep(currentBlockStep);
+	}
+
 	/**
 	 * Returns the current {@code AnalysisState}, i. e. the state of the analysis at
-	 * the current elementary-step.
+	 * the current elementary-step. Depending on the {@code TraceMode}, the
+	 * {@code AnalysisState} may be rebuilt from the nearest keyframe.
 	 * 
 	 * @return the current {@code AnalysisState}
 	 */
 	public AnalysisState<E> getCurrentAnalysisState() {
-		return analysisStates.get(currentElementaryStep);
+		return steps.getState(currentElementaryStep);
+	}
+
+	/**
+	 * Returns the statistics of the cached {@code AnalysisState}s (see
+	 * {@code DFAPrecalcController.setStateCacheSize}). A requested
+	 * {@code AnalysisState} that does not have to be recalculated counts as a
+	 * hit. This is only counted if the {@code TraceMode} is
+	 * {@code CHECKPOINTS}.
+	 * 
+	 * @return the {@code CacheStatistics} of the cached {@code AnalysisState}s
+	 *         ({@code CacheStatistics.NONE} for other {@code TraceMode}s)
+	 */
+	public CacheStatistics getStateCacheStatistics() {
+		AnalysisTrace<E> trace = steps.getTrace();
+		return trace instanceof CheckpointAnalysisTrace
+				? ((CheckpointAnalysisTrace<E>) trace).getCacheStatistics() : CacheStatistics.NONE;
+	}
+
+	/**
+	 * Returns the statistics of the memoized transitions (see
+	 * {@code DFAPrecalcController.setTransitionCacheSize}).
+	 * 
+	 * @return the {@code CacheStatistics} of the memoized transitions
+	 *         ({@code CacheStatistics.NONE} if transitions are not memoized)
+	 */
+	public CacheStatistics getTransitionCacheStatistics() {
+		return dfa instanceof MemoizingDataFlowAnalysis ? ((MemoizingDataFlowAnalysis<E>) dfa).getUnitCacheStatistics()
+				: CacheStatistics.NONE;
+	}
+
+	/**
+	 * Releases the resources held by the stored steps, such as the scratch
+	 * file of {@code TraceMode.SPILLING}. The steps of this
+	 * {@code DFAExecution} and of all its copies (see {@code clone}) must not
+	 * be accessed afterwards.
+	 */
+	public void dispose() {
+		AnalysisTrace<E> trace = steps.getTrace();
+		if (trace instanceof SpillingAnalysisTrace) {
+			((SpillingAnalysisTrace<E>) trace).close();
+		}
 	}
 
 	/**
@@ -294,289 +376,109 @@ public class DFAExecution<E extends LatticeElement> {
 		return new DFAExecution<E>(this);
 	}
 
-	private void precalc(DFAPrecalcController precalcCtrl) {
-		Map<Block, BlockState<E>> initialStates = dfa.getInitialStates();
-
-		BasicBlock startBlock = getStartBlock();
-		if (startBlock == null) {
-			throw new DFAException("there is no start block");
-		}
-
-		AnalysisState<E> initialState = new AnalysisState<E>(initialWorklist, startBlock, -1, direction);
-
-		List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
-		for (BasicBlock bBlock : basicBlocks) {
-			Block sootBlock = bBlock.getSootBlock();
-			BlockState<E> state = initialStates.get(sootBlock);
-
-			LogicalColor lColor = bBlock.equals(startBlock) ? LogicalColor.CURRENT : LogicalColor.NOT_VISITED;
-			initialState.setBlockState(bBlock, state);
-			initialState.setColor(bBlock, lColor);
-
-			// set all in- and out-states to null for the elementary-blocks
-			List<ElementaryBlock> elementaryBlocks = bBlock.getElementaryBlocks();
-			BlockState<E> nullState = new BlockState<E>(null, null);
-			for (ElementaryBlock eBlock : elementaryBlocks) {
-				initialState.setBlockState(eBlock, nullState);
-			}
+	private StepEngine<E> createEngine(DFAPrecalcController precalcCtrl) {
+		return new StepEngine<E>(dfa, cfg, direction, precalcCtrl.isCompressedTrace(), widening,
+				precalcCtrl.getWideningDelay());
+	}
 
+	private AnalysisTrace<E> createTrace(DFAPrecalcController precalcCtrl) {
+		switch (precalcCtrl.getTraceMode()) {
+		case FULL:
+			return new FullAnalysisTrace<E>();
+		case KEYFRAMES:
+			return new KeyframeAnalysisTrace<E>(precalcCtrl.getKeyframeInterval(), direction);
+		case BLOCK_STEPS:
+			return new BlockReplayAnalysisTrace<E>(dfa, cfg, direction);
+		case SPILLING:
+			// the steps are recalculated by a separate engine, so its interner is never used concurrently
+			return new SpillingAnalysisTrace<E>(createEngine(precalcCtrl), cfg, initialWorklist,
+					precalcCtrl.getKeyframeInterval(), precalcCtrl.getHeapBudget(), direction);
+		case CHECKPOINTS:
+			// the steps are recalculated by a separate engine, so its interner is never used concurrently
+			StepEngine<E> replayEngine = createEngine(precalcCtrl);
+			return new CheckpointAnalysisTrace<E>(replayEngine, precalcCtrl.getKeyframeInterval(),
+					precalcCtrl.getStateCacheSize());
+		default:
+			throw new IllegalStateException("unknown trace mode: " + precalcCtrl.getTraceMode());
 		}
+	}
 
-		analysisStates.add(initialState);
+	private void precalc(DFAPrecalcController precalcCtrl) {
+		long startTime = System.nanoTime();
+		AnalysisState<E> initialState = engine.createInitialState(initialWorklist);
 
 		// elementary step 0 is always a block step
-		blockSteps.add(0);
+		steps.add(initialState, true);
+		precalcCtrl.attachPrecalcThread();
+		precalcCtrl.publishExecution(this);
+		publishProgress(initialState, precalcCtrl, startTime);
 
-		iterateToFixpoint(initialState, precalcCtrl);
+		iterateToFixpoint(initialState, precalcCtrl, startTime);
 	}
 
-	private void iterateToFixpoint(AnalysisState<E> initialState, DFAPrecalcController precalcCtrl) {
-		Set<BasicBlock> visitedBasicBlocks = new HashSet<BasicBlock>();
-		visitedBasicBlocks.add(getStartBlock());
+	private void iterateToFixpoint(AnalysisState<E> initialState, DFAPrecalcController precalcCtrl,
+			long startTime) {
+		// the ids of all visited basic blocks
+		BitSet visitedBasicBlocks = new BitSet(cfg.getBasicBlocks().size());
+		visitedBasicBlocks.set(engine.getStartBlock().getId());
+
+		// how often each basic block has been selected from the worklist (indexed by id)
+		int[] selections = engine.createSelectionCounts();
+
+		// the ordinal of the current color of each basic block (indexed by id)
+		byte[] colors = engine.getColors(initialState);
 
-		int elementaryStep = 1;
 		AnalysisState<E> prevAnalysisState = initialState;
 
+		Thread precalcThread = Thread.currentThread();
 		while (true) {
-			switch (precalcCtrl.getPrecalcState()) {
+			if (precalcThread.isInterrupted()) {
+				// interrupting the precalculation stops it, the steps calculated so far are kept
+				publishProgress(prevAnalysisState, precalcCtrl, startTime);
+				precalcCtrl.setResult(this, false);
+				return;
+			}
+
+			DFAPrecalcController.PrecalcState precalcState = precalcCtrl.getPrecalcState();
+			switch (precalcState) {
 			case CALCULATING:
 				break; // break switch
 			case COMPLETED:
 				return;
 			case PAUSED:
-				try {
-					Thread.sleep(precalcCtrl.getWaitTime());
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
+				publishProgress(prevAnalysisState, precalcCtrl, startTime);
+				precalcCtrl.awaitNotPaused();
 				continue;
 			case STOPPED:
+				publishProgress(prevAnalysisState, precalcCtrl, startTime);
 				precalcCtrl.setResult(this, false);
 				return;
 			default:
-				throw new IllegalStateException("unknown precalc state: " + precalcCtrl.getPrecalcState());
+				throw new IllegalStateException("unknown precalc state: " + precalcState);
 			}
 
-			BasicBlock prevBasicBlock = prevAnalysisState.getCurrentBasicBlock();
-
-			AnalysisState<E> newAnalysisState = null;
-			Worklist prevWorklist = prevAnalysisState.getWorklist();
-			if (prevBasicBlock == null) {
-				// no basic block currently selected, this begins a new basic block step (or
-				// completes calculation)
-
-				if (prevWorklist.isEmpty()) {
-					// we are at a fixpoint
-					precalcCtrl.setResult(this, true);
-					return;
-				}
-
-				Worklist newWorklist = prevWorklist.clone();
-				BasicBlock newBasicBlock = newWorklist.poll();
-				visitedBasicBlocks.add(newBasicBlock);
-
-				newAnalysisState = newState(prevAnalysisState, newWorklist, newBasicBlock, -1);
-
-				// join predecessors out-states
-				List<BasicBlock> preds = getPredecessors(newBasicBlock);
-				Set<E> predOutStates = new HashSet<E>();
-
-				for (BasicBlock p : preds) {
-					E predOutState = getOutState(prevAnalysisState.getBlockState(p));
-					predOutStates.add(predOutState);
-				}
-
-				E outStatesJoin = dfa.join(predOutStates);
-
-				BlockState<E> prevBlockState = prevAnalysisState.getBlockState(newBasicBlock);
-				BlockState<E> newBlockState = new BlockState<E>(outStatesJoin, getOutState(prevBlockState));
-				newAnalysisState.setBlockState(newBasicBlock, newBlockState);
-
-				updateColors(prevAnalysisState, newAnalysisState, visitedBasicBlocks);
-
-				analysisStates.add(newAnalysisState);
-
-				// this begins a new block step
-				blockSteps.add(elementaryStep++);
-				prevAnalysisState = newAnalysisState;
-
-				continue;
-			}
-
-			// prevBasicBlock is not null (so this is not a new block step)
-			int eBlockIdx = prevAnalysisState.getCurrentElementaryBlockIndex();
-			if (prevBasicBlock.getElementaryBlockCount() == 0) {
-
-				// handle empty basic block [e. g. artificial end block]
-				E inState = prevAnalysisState.getBlockState(prevBasicBlock).getInState(); // use .getInState
-
-				newAnalysisState = finishBasicBlock(prevBasicBlock, inState, prevAnalysisState, visitedBasicBlocks);
-			} else if (eBlockIdx < prevBasicBlock.getElementaryBlockCount()) {
-
-				// handle non-empty basic block
-				E prevOutState;
-				ElementaryBlock nextElementaryBlock;
-				AbstractBlock prevBlock;
-				if (eBlockIdx < 0) {
-					// first elementary block
-					prevOutState = getInState(prevAnalysisState.getBlockState(prevBasicBlock));
-					prevBlock = prevBasicBlock;
-					nextElementaryBlock = getElementaryBlock(prevBasicBlock, 0);
-				} else if (eBlockIdx < prevBasicBlock.getElementaryBlockCount() - 1) {
-					// some elementary block that is not the first or last in the basic block
-					ElementaryBlock prevElementaryBlock = getElementaryBlock(prevBasicBlock, eBlockIdx);
-					prevOutState = getOutState(prevAnalysisState.getBlockState(prevElementaryBlock));
-					prevBlock = prevElementaryBlock;
-					nextElementaryBlock = getElementaryBlock(prevBasicBlock, eBlockIdx + 1);
-				} else {
-					ElementaryBlock prevElementaryBlock = getElementaryBlock(prevBasicBlock, eBlockIdx);
-					prevOutState = getOutState(prevAnalysisState.getBlockState(prevElementaryBlock));
-					prevBlock = prevElementaryBlock;
-					nextElementaryBlock = null;
-				}
-
-				if (nextElementaryBlock == null) {
-					E prevState = prevAnalysisState.getBlockState(prevBlock).getOutState();
-					newAnalysisState = finishBasicBlock(prevBasicBlock, prevState, prevAnalysisState,
-							visitedBasicBlocks);
-				} else {
-					E nextOutState = dfa.transition(prevOutState, nextElementaryBlock.getUnit());
-					BlockState<E> nextBlockState = new BlockState<E>(prevOutState, nextOutState);
-					newAnalysisState = newState(prevAnalysisState, prevWorklist.clone(), prevBasicBlock, ++eBlockIdx);
-					newAnalysisState.setBlockState(nextElementaryBlock, nextBlockState);
-				}
+			AnalysisState<E> newAnalysisState = engine.nextState(prevAnalysisState, visitedBasicBlocks, selections,
+					colors);
+			if (newAnalysisState == null) {
+				// we are at a fixpoint
+				publishProgress(prevAnalysisState, precalcCtrl, startTime);
+				precalcCtrl.setResult(this, true);
+				return;
 			}
 
-			analysisStates.add(newAnalysisState);
+			steps.add(newAnalysisState, StepEngine.beginsBlockStep(newAnalysisState), engine.isLastStepWidened());
 			prevAnalysisState = newAnalysisState;
-			++elementaryStep;
-		}
-	}
-
-	private BasicBlock getStartBlock() {
-		switch (getDirection()) {
-		case FORWARD:
-			return cfg.getStartBlock();
-		case BACKWARD:
-			return cfg.getEndBlock();
-		default:
-			throw new IllegalStateException("unknown direction: " + getDirection());
-		}
-	}
-
-	private List<BasicBlock> getPredecessors(BasicBlock bBlock) {
-		switch (direction) {
-		case FORWARD:
-			return cfg.getPredecessors(bBlock);
-		case BACKWARD:
-			return cfg.getSuccessors(bBlock);
-		default:
-			throw new IllegalStateException();
-		}
-	}
-
-	private List<BasicBlock> getSuccessors(BasicBlock bBlock) {
-		switch (direction) {
-		case FORWARD:
-			return cfg.getSuccessors(bBlock);
-		case BACKWARD:
-			return cfg.getPredecessors(bBlock);
-		default:
-			throw new IllegalStateException("unknown direction: " + getDirection());
-		}
-	}
-
-	private AnalysisState<E> newState(AnalysisState<E> state, Worklist newWorklist, BasicBlock currentBBlock,
-			int eBlockIdx) {
-		Map<AbstractBlock, BlockState<E>> stateMap = new HashMap<AbstractBlock, BlockState<E>>(state.getStateMap());
-		Map<BasicBlock, LogicalColor> colorMap = new HashMap<BasicBlock, LogicalColor>(state.getColorMap());
-
-		AnalysisState<E> newState = new AnalysisState<E>(newWorklist, currentBBlock, eBlockIdx, stateMap, colorMap,
-				direction);
-		newState.setCurrentElementaryBlockIndex(eBlockIdx);
-		return newState;
-	}
 
-	/*
-	 * updates the color-mapping in newState according to prevState and the worklist
-	 * and current BasicBlock of newState
-	 */
-	private void updateColors(AnalysisState<E> prevState, AnalysisState<E> newState, Set<BasicBlock> visited) {
-		List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
-		Worklist newWorklist = newState.getWorklist();
-
-		for (BasicBlock basicBlock : basicBlocks) {
-			LogicalColor newColor;
-			if (basicBlock.equals(newState.getCurrentBasicBlock())) {
-				newColor = LogicalColor.CURRENT;
-			} else if (newWorklist.contains(basicBlock)) {
-				newColor = LogicalColor.ON_WORKLIST;
-			} else {
-				if (visited.contains(basicBlock)) {
-					newColor = LogicalColor.VISITED_NOT_ON_WORKLIST;
-				} else {
-					newColor = LogicalColor.NOT_VISITED;
-				}
+			if (steps.getElementaryStepCount() % PROGRESS_INTERVAL == 0) {
+				publishProgress(newAnalysisState, precalcCtrl, startTime);
 			}
-			newState.setColor(basicBlock, newColor);
 		}
 	}
 
-	private AnalysisState<E> finishBasicBlock(BasicBlock currentBBlock, E outState, AnalysisState<E> prevAnalysisState,
-			Set<BasicBlock> visited) {
-		Worklist newWorklist = prevAnalysisState.getWorklist().clone();
-		BlockState<E> prevBlockState = prevAnalysisState.getBlockState(currentBBlock);
-
-		List<BasicBlock> successors = getSuccessors(currentBBlock);
-		E prevOutState = getOutState(prevBlockState);
-
-		boolean outStateChanged = !outState.equals(prevOutState);
-		for (BasicBlock bSucc : successors) {
-			if (outStateChanged || !visited.contains(bSucc)) {
-				newWorklist.add(bSucc);
-			}
-		}
-
-		AnalysisState<E> newAnalysisState = newState(prevAnalysisState, newWorklist, null, -1);
-		BlockState<E> newBlockState = new BlockState<E>(getInState(prevBlockState), outState);
-		newAnalysisState.setBlockState(currentBBlock, newBlockState);
-
-		updateColors(prevAnalysisState, newAnalysisState, visited);
-		return newAnalysisState;
-	}
-
-	private ElementaryBlock getElementaryBlock(BasicBlock bBlock, int eBlockIdx) {
-		List<ElementaryBlock> elementaryBlocks = bBlock.getElementaryBlocks();
-		switch (direction) {
-		case FORWARD:
-			return elementaryBlocks.get(eBlockIdx);
-		case BACKWARD:
-			return elementaryBlocks.get(bBlock.getElementaryBlockCount() - 1 - eBlockIdx);
-		default:
-			throw new IllegalStateException("unknown direction: " + getDirection());
-		}
-	}
-
-	private E getInState(BlockState<E> bState) {
-		switch (direction) {
-		case FORWARD:
-			return bState.getInState();
-		case BACKWARD:
-			return bState.getOutState();
-		default:
-			throw new IllegalStateException("unknown direction: " + getDirection());
-		}
-	}
-
-	private E getOutState(BlockState<E> bState) {
-		switch (direction) {
-		case FORWARD:
-			return bState.getOutState();
-		case BACKWARD:
-			return bState.getInState();
-		default:
-			throw new IllegalStateException("unknown direction: " + getDirection());
-		}
+	private void publishProgress(AnalysisState<E> state, DFAPrecalcController precalcCtrl, long startTime) {
+		precalcCtrl.setProgress(new PrecalcProgress(steps.getElementaryStepCount(), steps.getBlockStepCount(),
+				AnalysisStateCost.getWorklistSize(state.getWorklist()), engine.getTransitions(), engine.getJoins(),
+				steps.getTrace().getHeapEstimate(), System.nanoTime() - startTime));
 	}
 
 }
@@ -34,4 +34,22 @@ public abstract class DFAFactory<E extends LatticeElement> {
      * @return a {@code DataFlowAnalysis} for the given {@code SimpleBlockGraph}
      */
     public abstract DataFlowAnalysis<E> getAnalysis(SimpleBlockGraph blockGraph);
+
+    /**
+     * Returns the {@code Widening} to apply at loop headers when executing the given {@code DataFlowAnalysis}, or
+     * {@code null} if the analysis only uses joins. By default, this is the {@code Widening} of a
+     * {@code CompositeDataFlowAnalysis} (if any).
+     * 
+     * @param analysis
+     *        a {@code DataFlowAnalysis} created by {@code getAnalysis}
+     * 
+     * @return the {@code Widening} for {@code analysis} or {@code null} if there is none
+     */
+    public Widening<E> getWidening(DataFlowAnalysis<E> analysis) {
+        if (analysis instanceof CompositeDataFlowAnalysis) {
+            return ((CompositeDataFlowAnalysis<E>) analysis).getWidening();
+        }
+
+        return null;
+    }
 }
@@ -1,23 +1,72 @@
 package dfa.framework;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * A {@code DFAPrecalcController} is used to control the precalculation of a {@code DFAExecution}. When precalculating
  * an analysis, a {@code DFAExecution} should regularly check it's given {@code DFAPrecalcController} to see, if it
  * should stop the calculation (e. g. because it already took quite some time).
  * 
+ * The state of the precalculation can be read without locking, so it may be checked on every elementary-step. A paused
+ * precalculation is parked until it is continued or stopped. Interrupting the precalculating thread stops the
+ * precalculation as well, leaving an intermediate result.
+ * 
  * @author Sebastian Rauch
  *
  */
 public class DFAPrecalcController {
 
-    private PrecalcState precalcState = PrecalcState.CALCULATING;
+    /**
+     * the default number of elementary-steps between two keyframes (see {@link TraceMode#KEYFRAMES})
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+    /**
+     * the default heap budget (in bytes) for the {@code AnalysisState}s kept on the heap (see
+     * {@link TraceMode#SPILLING})
+     */
+    public static final long DEFAULT_HEAP_BUDGET = 256L << 20;
+
+    /**
+     * the default number of {@code AnalysisState}s kept in the cache (see {@link TraceMode#CHECKPOINTS})
+     */
+    public static final int DEFAULT_STATE_CACHE_SIZE = 256;
+
+    /**
+     * the default number of times a loop header is selected before a {@code Widening} is applied to its in-state
+     */
+    public static final int DEFAULT_WIDENING_DELAY = 3;
+
+    private volatile PrecalcState precalcState = PrecalcState.CALCULATING;
+
+    private volatile ResultState resultState = ResultState.NO_RESULT;
+
+    private volatile int waitTime = 0;
+
+    // the thread performing the precalculation, unparked whenever the state changes
+    private volatile Thread precalcThread = null;
+
+    private TraceMode traceMode = TraceMode.FULL;
+
+    private int keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+
+    private long heapBudget = DEFAULT_HEAP_BUDGET;
 
-    private ResultState resultState = ResultState.NO_RESULT;
+    private int stateCacheSize = DEFAULT_STATE_CACHE_SIZE;
 
-    private int waitTime = 0;
+    private int transitionCacheSize = 0;
+
+    private boolean compressedTrace = false;
+
+    private int wideningDelay = DEFAULT_WIDENING_DELAY;
 
     private DFAExecution<? extends LatticeElement> result = null;
 
+    private DFAExecution<? extends LatticeElement> publishedExecution = null;
+
+    private volatile PrecalcProgress progress = PrecalcProgress.NONE;
+
     /**
      * Tells the {@code DFAPrecalcController} to stop the precalculation.
      */
@@ -27,14 +76,16 @@ public class DFAPrecalcController {
         }
 
         precalcState = PrecalcState.STOPPED;
+        unparkPrecalcThread();
     }
 
     /**
-     * Tells the {@code DFAPrecalcController} to pause the precalculation. The precalculation will be repeatedly paused
-     * for {@code wiatTime}.
+     * Tells the {@code DFAPrecalcController} to pause the precalculation. The precalculation is parked until it is
+     * continued or stopped. If {@code waitTime} is positive, the paused precalculation additionally rechecks its state
+     * every {@code waitTime} ms.
      * 
      * @param waitTime
-     *        the time to repeatedly wait (in ms)
+     *        the maximum time to park at once (in ms), or 0 to park until woken up
      */
     public synchronized void pausePrecalc(int waitTime) {
         if (getPrecalcState() == PrecalcState.STOPPED) {
@@ -66,6 +117,7 @@ public class DFAPrecalcController {
         }
 
         this.precalcState = PrecalcState.CALCULATING;
+        unparkPrecalcThread();
     }
 
     /**
@@ -78,23 +130,272 @@ public class DFAPrecalcController {
     }
 
     /**
-     * Returns the current {@code PrecalcState}.
+     * Sets the {@code TraceMode} the {@code AnalysisState}s of the precalculated {@code DFAExecution} are stored in.
+     * This has to be set before the precalculation is started.
+     * 
+     * @param traceMode
+     *        the {@code TraceMode} to use
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code traceMode} is {@code null}
+     */
+    public synchronized void setTraceMode(TraceMode traceMode) {
+        if (traceMode == null) {
+            throw new IllegalArgumentException("traceMode must not be null");
+        }
+
+        this.traceMode = traceMode;
+    }
+
+    /**
+     * Returns the {@code TraceMode} the {@code AnalysisState}s of the precalculated {@code DFAExecution} are stored in.
+     * 
+     * @return the set {@code TraceMode}
+     */
+    public synchronized TraceMode getTraceMode() {
+        return traceMode;
+    }
+
+    /**
+     * Sets the number of elementary-steps between two keyframes, which is used if the {@code TraceMode} is
+     * {@code KEYFRAMES}, {@code SPILLING} or {@code CHECKPOINTS} (where the keyframes are called checkpoints). Larger
+     * intervals save memory, but rebuilding a step takes longer. This has to be set before the precalculation is
+     * started.
+     * 
+     * @param keyframeInterval
+     *        the number of elementary-steps between two keyframes
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code keyframeInterval} is less than 1
+     */
+    public synchronized void setKeyframeInterval(int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("keyframeInterval must be at least 1");
+        }
+
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Returns the number of elementary-steps between two keyframes.
+     * 
+     * @return the number of elementary-steps between two keyframes
+     */
+    public synchronized int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Sets the heap budget (in bytes), which is used if the {@code TraceMode} is {@code SPILLING}. As soon as the
+     * estimated size of the {@code AnalysisState}s kept on the heap exceeds this budget, the oldest
+     * {@code AnalysisState}s are spilled to a scratch file. This has to be set before the precalculation is started.
+     * 
+     * @param heapBudget
+     *        the heap budget (in bytes)
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code heapBudget} is negative
+     */
+    public synchronized void setHeapBudget(long heapBudget) {
+        if (heapBudget < 0) {
+            throw new IllegalArgumentException("heapBudget must not be negative");
+        }
+
+        this.heapBudget = heapBudget;
+    }
+
+    /**
+     * Returns the heap budget (in bytes).
+     * 
+     * @return the heap budget (in bytes)
+     */
+    public synchronized long getHeapBudget() {
+        return heapBudget;
+    }
+
+    /**
+     * Sets the maximum number of {@code AnalysisState}s kept in the cache, which is used if the {@code TraceMode} is
+     * {@code CHECKPOINTS}. All other {@code AnalysisState}s (except for the checkpoints) are recalculated on demand.
+     * This has to be set before the precalculation is started.
+     * 
+     * @param stateCacheSize
+     *        the maximum number of cached {@code AnalysisState}s
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code stateCacheSize} is less than 1
+     */
+    public synchronized void setStateCacheSize(int stateCacheSize) {
+        if (stateCacheSize < 1) {
+            throw new IllegalArgumentException("stateCacheSize must be at least 1");
+        }
+
+        this.stateCacheSize = stateCacheSize;
+    }
+
+    /**
+     * Returns the maximum number of {@code AnalysisState}s kept in the cache.
+     * 
+     * @return the maximum number of cached {@code AnalysisState}s
+     */
+    public synchronized int getStateCacheSize() {
+        return stateCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of transitions the precalculated {@code DFAExecution} memoizes (see
+     * {@code MemoizingDataFlowAnalysis}). A size of 0 (the default) disables memoization. This has to be set before
+     * the precalculation is started.
+     * 
+     * @param transitionCacheSize
+     *        the maximum number of memoized transitions
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code transitionCacheSize} is negative
+     */
+    public synchronized void setTransitionCacheSize(int transitionCacheSize) {
+        if (transitionCacheSize < 0) {
+            throw new IllegalArgumentException("transitionCacheSize must not be negative");
+        }
+
+        this.transitionCacheSize = transitionCacheSize;
+    }
+
+    /**
+     * Returns the maximum number of memoized transitions.
+     * 
+     * @return the maximum number of memoized transitions
+     */
+    public synchronized int getTransitionCacheSize() {
+        return transitionCacheSize;
+    }
+
+    /**
+     * Sets whether the precalculated {@code DFAExecution} records a compressed trace. In a compressed trace, a
+     * {@code BasicBlock} whose in-state has not changed since it was last processed is not processed again, so its
+     * block-step consists of its first and its last elementary-step only. The final result is the same, but there are
+     * fewer steps to look at. This has to be set before the precalculation is started.
+     * 
+     * @param compressedTrace
+     *        whether to record a compressed trace
+     */
+    public synchronized void setCompressedTrace(boolean compressedTrace) {
+        this.compressedTrace = compressedTrace;
+    }
+
+    /**
+     * Returns whether the precalculated {@code DFAExecution} records a compressed trace.
+     * 
+     * @return {@code true} iff a compressed trace is recorded
+     */
+    public synchronized boolean isCompressedTrace() {
+        return compressedTrace;
+    }
+
+    /**
+     * Sets the number of times a loop header is selected from the {@code Worklist} before the {@code Widening} of the
+     * analysis (see {@code DFAFactory.getWidening}) is applied to its in-state. A delay of 0 widens from the first
+     * selection on. This has no effect on analyses without a {@code Widening} and has to be set before the
+     * precalculation is started.
+     * 
+     * @param wideningDelay
+     *        the number of selections of a loop header before widening
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code wideningDelay} is negative
+     */
+    public synchronized void setWideningDelay(int wideningDelay) {
+        if (wideningDelay < 0) {
+            throw new IllegalArgumentException("wideningDelay must not be negative");
+        }
+
+        this.wideningDelay = wideningDelay;
+    }
+
+    /**
+     * Returns the number of times a loop header is selected before a {@code Widening} is applied.
+     * 
+     * @return the number of selections of a loop header before widening
+     */
+    public synchronized int getWideningDelay() {
+        return wideningDelay;
+    }
+
+    /**
+     * Returns the current {@code PrecalcState}. This does not lock the {@code DFAPrecalcController}.
      * 
      * @return the current {@code PrecalcState}
      */
-    public synchronized PrecalcState getPrecalcState() {
+    public PrecalcState getPrecalcState() {
         return precalcState;
     }
 
     /**
-     * Returns the current {@code ResultState}.
+     * Returns the current {@code ResultState}. This does not lock the {@code DFAPrecalcController}.
      * 
      * @return the current {@code ResultState}
      */
-    public synchronized ResultState getResultState() {
+    public ResultState getResultState() {
         return resultState;
     }
 
+    /**
+     * Registers the calling thread as the one performing the precalculation, so it can be unparked when the state
+     * changes.
+     */
+    void attachPrecalcThread() {
+        precalcThread = Thread.currentThread();
+    }
+
+    /**
+     * Parks the calling (precalculating) thread while the precalculation is paused. Returns as soon as the
+     * precalculation is continued or stopped, or if the calling thread is interrupted.
+     * 
+     * @return the {@code PrecalcState} the precalculation is in after waiting
+     */
+    PrecalcState awaitNotPaused() {
+        PrecalcState state = precalcState;
+        while (state == PrecalcState.PAUSED && !Thread.currentThread().isInterrupted()) {
+            int maxWait = waitTime;
+            if (maxWait > 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(maxWait));
+            } else {
+                LockSupport.park(this);
+            }
+
+            state = precalcState;
+        }
+
+        return state;
+    }
+
+    /**
+     * Waits until a result has been set, but at most {@code timeout} ms.
+     * 
+     * @param timeout
+     *        the maximum time to wait (in ms)
+     * @return {@code true} if there is a result, {@code false} if the timeout elapsed before
+     * 
+     * @throws InterruptedException
+     *         if the calling thread is interrupted while waiting
+     */
+    public synchronized boolean awaitResult(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        long remaining = timeout;
+        while (result == null && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+
+        return result != null;
+    }
+
+    private void unparkPrecalcThread() {
+        Thread thread = precalcThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
     /**
      * Sets the result and the {@code ResultState} according to the {@code completed} parameter.
      * 
@@ -121,6 +422,54 @@ public class DFAPrecalcController {
         }
 
         this.result = result;
+        this.precalcThread = null;
+        notifyAll();
+    }
+
+    /**
+     * Publishes the {@code DFAExecution} that is being precalculated. This is called as soon as the first
+     * elementary-step is available, so the steps calculated so far can be shown before the precalculation completes.
+     * 
+     * @param execution
+     *        the {@code DFAExecution} that is being precalculated
+     */
+    public synchronized void publishExecution(DFAExecution<? extends LatticeElement> execution) {
+        if (execution == null) {
+            throw new IllegalArgumentException("execution must not be null");
+        }
+
+        this.publishedExecution = execution;
+    }
+
+    /**
+     * Returns the {@code DFAExecution} that is being precalculated, or {@code null} if no elementary-step has been
+     * calculated yet. Its total number of steps grows until the precalculation completes or is stopped.
+     * 
+     * @return the published {@code DFAExecution} or {@code null}
+     */
+    public synchronized DFAExecution<? extends LatticeElement> getPublishedExecution() {
+        return result != null ? result : publishedExecution;
+    }
+
+    /**
+     * Publishes a new snapshot of the progress of the precalculation. This is called regularly by the precalculating
+     * thread.
+     * 
+     * @param progress
+     *        the current progress
+     */
+    void setProgress(PrecalcProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Returns the most recently published progress of the precalculation. This does not lock the
+     * {@code DFAPrecalcController}, so it can be called frequently (e. g. from the GUI).
+     * 
+     * @return the current {@code PrecalcProgress}
+     */
+    public PrecalcProgress getProgress() {
+        return progress;
     }
 
     /**
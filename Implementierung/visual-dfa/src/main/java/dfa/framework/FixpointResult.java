@@ -0,0 +1,137 @@
+package dfa.framework;
+
+import java.util.Collections;
+import java.util.Map;
+
+import soot.Unit;
+import soot.toolkits.graph.Block;
+
+/**
+ * A {@code FixpointResult} holds the final in- and out-states of all {@code Block}s and {@code Unit}s computed by a
+ * {@code FixpointSolver}.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in this {@code FixpointResult}
+ */
+public class FixpointResult<E extends LatticeElement> {
+
+    private final Map<Block, BlockState<E>> blockStates;
+
+    private final Map<Unit, BlockState<E>> unitStates;
+
+    private final int blockVisits;
+
+    private final int skippedBlockVisits;
+
+    /**
+     * Creates a {@code FixpointResult} from the given final states.
+     *
+     * @param blockStates
+     *        the final {@code BlockState} of each {@code Block}
+     * @param unitStates
+     *        the final {@code BlockState} of each {@code Unit}
+     * @param blockVisits
+     *        the number of times a {@code Block} was processed until the fixpoint was reached
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockStates} or {@code unitStates} is {@code null}
+     */
+    public FixpointResult(Map<Block, BlockState<E>> blockStates, Map<Unit, BlockState<E>> unitStates,
+            int blockVisits) {
+        this(blockStates, unitStates, blockVisits, 0);
+    }
+
+    /**
+     * Creates a {@code FixpointResult} from the given final states.
+     *
+     * @param blockStates
+     *        the final {@code BlockState} of each {@code Block}
+     * @param unitStates
+     *        the final {@code BlockState} of each {@code Unit}
+     * @param blockVisits
+     *        the number of times a {@code Block} was processed until the fixpoint was reached
+     * @param skippedBlockVisits
+     *        the number of block visits whose transitions were skipped because the in-state had not changed
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockStates} or {@code unitStates} is {@code null}
+     */
+    public FixpointResult(Map<Block, BlockState<E>> blockStates, Map<Unit, BlockState<E>> unitStates,
+            int blockVisits, int skippedBlockVisits) {
+        if (blockStates == null) {
+            throw new IllegalArgumentException("blockStates must not be null");
+        }
+
+        if (unitStates == null) {
+            throw new IllegalArgumentException("unitStates must not be null");
+        }
+
+        this.blockStates = Collections.unmodifiableMap(blockStates);
+        this.unitStates = Collections.unmodifiableMap(unitStates);
+        this.blockVisits = blockVisits;
+        this.skippedBlockVisits = skippedBlockVisits;
+    }
+
+    /**
+     * Returns the final {@code BlockState} of the given {@code Block}.
+     *
+     * @param block
+     *        the {@code Block} for which to retrieve the {@code BlockState}
+     * @return the final {@code BlockState} of {@code block} or {@code null} if {@code block} is not part of the
+     *         analyzed graph
+     */
+    public BlockState<E> getBlockState(Block block) {
+        return blockStates.get(block);
+    }
+
+    /**
+     * Returns the final {@code BlockState} of the given {@code Unit}. The in- and out-state of a {@code Unit} that has
+     * never been reached are {@code null}.
+     *
+     * @param unit
+     *        the {@code Unit} for which to retrieve the {@code BlockState}
+     * @return the final {@code BlockState} of {@code unit} or {@code null} if {@code unit} is not part of the analyzed
+     *         graph
+     */
+    public BlockState<E> getUnitState(Unit unit) {
+        return unitStates.get(unit);
+    }
+
+    /**
+     * Returns an unmodifiable view of the final {@code BlockState}s of all {@code Block}s.
+     *
+     * @return the final {@code BlockState}s of all {@code Block}s
+     */
+    public Map<Block, BlockState<E>> getBlockStates() {
+        return blockStates;
+    }
+
+    /**
+     * Returns an unmodifiable view of the final {@code BlockState}s of all {@code Unit}s.
+     *
+     * @return the final {@code BlockState}s of all {@code Unit}s
+     */
+    public Map<Unit, BlockState<E>> getUnitStates() {
+        return unitStates;
+    }
+
+    /**
+     * Returns the number of times a {@code Block} was processed until the fixpoint was reached.
+     *
+     * @return the number of processed {@code Block}s
+     */
+    public int getBlockVisits() {
+        return blockVisits;
+    }
+
+    /**
+     * Returns the number of block visits whose transitions were skipped, because the in-state of the {@code Block}
+     * had not changed since it was last processed. These are included in {@code getBlockVisits}.
+     *
+     * @return the number of skipped block visits
+     */
+    public int getSkippedBlockVisits() {
+        return skippedBlockVisits;
+    }
+
+}
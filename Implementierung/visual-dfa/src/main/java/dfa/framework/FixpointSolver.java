@@ -0,0 +1,234 @@
+package dfa.framework;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import soot.Unit;
+import soot.toolkits.graph.Block;
+
+/**
+ * A {@code FixpointSolver} runs a {@code DataFlowAnalysis} to its fixpoint without recording any intermediate steps.
+ * It processes the {@code BasicBlock}s in the same order as a {@code DFAExecution} with the same {@code Worklist} and
+ * therefore computes the same final states, but it creates no {@code AnalysisState}s, does not copy the
+ * {@code Worklist} in each step and does not calculate any {@code LogicalColor}s.
+ *
+ * Unlike a {@code DFAExecution}, a {@code FixpointSolver} does not process a {@code BasicBlock} again if its in-state
+ * has not changed since it was last processed, since its transitions would have the same results.
+ *
+ * Like a {@code DFAExecution}, a {@code FixpointSolver} applies the {@code Widening} of the analysis (if any) at loop
+ * headers once they have been selected from the {@code Worklist} more than a given number of times.
+ *
+ * Use a {@code FixpointSolver} if only the result of an analysis is needed (e. g. when analyzing many methods without
+ * visualizing them).
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in this {@code FixpointSolver}
+ */
+public class FixpointSolver<E extends LatticeElement> {
+
+    private final Worklist initialWorklist;
+
+    // the memoizing analysis wrapping the analysis, or null if transitions are not memoized
+    private final MemoizingDataFlowAnalysis<E> memoizingDfa;
+
+    private final ControlFlowGraph cfg;
+
+    private final BlockProcessor<E> processor;
+
+    /**
+     * Creates a {@code FixpointSolver} from a given {@code DFAFactory}, an initial {@code Worklist} and a
+     * {@code SimpleBlockGraph}.
+     *
+     * @param dfaFactory
+     *        a {@code DFAFactory} from which a {@code DataFlowAnalysis} will be generated
+     * @param initialWorklist
+     *        an (empty) worklist to use in this {@code FixpointSolver}, it is not modified by this
+     *        {@code FixpointSolver}
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis is based on
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfaFactory}, {@code initialWorklist} or {@code blockGraph} is {@code null}
+     */
+    public FixpointSolver(DFAFactory<E> dfaFactory, Worklist initialWorklist, SimpleBlockGraph blockGraph) {
+        this(dfaFactory, initialWorklist, blockGraph, 0, 0);
+    }
+
+    /**
+     * Creates a {@code FixpointSolver} that memoizes the transitions of the analysis (see
+     * {@code MemoizingDataFlowAnalysis}). If both cache sizes are 0, transitions are not memoized.
+     *
+     * @param dfaFactory
+     *        a {@code DFAFactory} from which a {@code DataFlowAnalysis} will be generated
+     * @param initialWorklist
+     *        an (empty) worklist to use in this {@code FixpointSolver}, it is not modified by this
+     *        {@code FixpointSolver}
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis is based on
+     * @param unitCacheSize
+     *        the maximum number of cached transitions of single {@code Unit}s
+     * @param blockCacheSize
+     *        the maximum number of cached transitions of whole {@code BasicBlock}s
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfaFactory}, {@code initialWorklist} or {@code blockGraph} is {@code null} or if
+     *         {@code unitCacheSize} or {@code blockCacheSize} is negative
+     */
+    public FixpointSolver(DFAFactory<E> dfaFactory, Worklist initialWorklist, SimpleBlockGraph blockGraph,
+            int unitCacheSize, int blockCacheSize) {
+        this(dfaFactory, initialWorklist, blockGraph, unitCacheSize, blockCacheSize,
+                DFAPrecalcController.DEFAULT_WIDENING_DELAY);
+    }
+
+    /**
+     * Creates a {@code FixpointSolver} that memoizes the transitions of the analysis and applies its {@code Widening}
+     * (see {@code DFAFactory.getWidening}) at loop headers after the given number of selections.
+     *
+     * @param dfaFactory
+     *        a {@code DFAFactory} from which a {@code DataFlowAnalysis} will be generated
+     * @param initialWorklist
+     *        an (empty) worklist to use in this {@code FixpointSolver}, it is not modified by this
+     *        {@code FixpointSolver}
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis is based on
+     * @param unitCacheSize
+     *        the maximum number of cached transitions of single {@code Unit}s
+     * @param blockCacheSize
+     *        the maximum number of cached transitions of whole {@code BasicBlock}s
+     * @param wideningDelay
+     *        the number of times a loop header is selected from the {@code Worklist} before its in-state is widened
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfaFactory}, {@code initialWorklist} or {@code blockGraph} is {@code null} or if
+     *         {@code unitCacheSize}, {@code blockCacheSize} or {@code wideningDelay} is negative
+     */
+    public FixpointSolver(DFAFactory<E> dfaFactory, Worklist initialWorklist, SimpleBlockGraph blockGraph,
+            int unitCacheSize, int blockCacheSize, int wideningDelay) {
+        if (dfaFactory == null) {
+            throw new IllegalArgumentException("dfaFactory must not be null");
+        }
+
+        if (initialWorklist == null) {
+            throw new IllegalArgumentException("initialWorklist must not be null");
+        }
+
+        if (blockGraph == null) {
+            throw new IllegalArgumentException("blockGraph must not be null");
+        }
+
+        if (wideningDelay < 0) {
+            throw new IllegalArgumentException("wideningDelay must not be negative");
+        }
+
+        this.initialWorklist = initialWorklist;
+
+        DataFlowAnalysis<E> analysis = dfaFactory.getAnalysis(blockGraph);
+        DataFlowAnalysis<E> dfa;
+        if (unitCacheSize == 0 && blockCacheSize == 0) {
+            this.memoizingDfa = null;
+            dfa = analysis;
+        } else {
+            this.memoizingDfa = new MemoizingDataFlowAnalysis<E>(analysis, unitCacheSize, blockCacheSize);
+            dfa = memoizingDfa;
+        }
+
+        this.cfg = new ControlFlowGraph(blockGraph);
+        this.processor = new BlockProcessor<E>(dfa, cfg, dfaFactory.getDirection(), dfaFactory.getWidening(analysis),
+                wideningDelay);
+    }
+
+    /**
+     * Runs the analysis to its fixpoint.
+     *
+     * @return the {@code FixpointResult} containing the final states of all {@code Block}s and {@code Unit}s
+     *
+     * @throws DFAException
+     *         if there is no start block
+     */
+    public FixpointResult<E> solve() {
+        BasicBlock startBlock = processor.getStartBlock();
+        if (startBlock == null) {
+            throw new DFAException("there is no start block");
+        }
+
+        // the states of all blocks, indexed by their id
+        AtomicReferenceArray<BlockState<E>> blockStates = processor.createInitialStates();
+
+        BitSet visitedBasicBlocks = new BitSet(cfg.getBasicBlocks().size());
+        visitedBasicBlocks.set(startBlock.getId());
+
+        // how often each basic block has been selected from the worklist (indexed by id)
+        int[] selections = new int[cfg.getBasicBlocks().size()];
+
+        Worklist worklist = initialWorklist.clone();
+        int blockVisits = 0;
+        int skippedBlockVisits = 0;
+
+        // the start block is processed first and without joining its predecessors (like in DFAExecution)
+        BasicBlock currentBlock = startBlock;
+        while (true) {
+            if (currentBlock.getElementaryBlockCount() > 0 && processor.isUnchanged(currentBlock, blockStates)) {
+                ++skippedBlockVisits;
+            }
+            ++blockVisits;
+
+            boolean outStateChanged = processor.processBasicBlock(currentBlock, blockStates);
+            for (BasicBlock bSucc : processor.getSuccessors(currentBlock)) {
+                if (outStateChanged || !visitedBasicBlocks.get(bSucc.getId())) {
+                    worklist.add(bSucc);
+                }
+            }
+
+            if (worklist.isEmpty()) {
+                break;
+            }
+
+            currentBlock = worklist.poll();
+            visitedBasicBlocks.set(currentBlock.getId());
+            processor.selectBasicBlock(currentBlock, ++selections[currentBlock.getId()], blockStates);
+        }
+
+        Map<Block, BlockState<E>> blockResult = new HashMap<>();
+        Map<Unit, BlockState<E>> unitResult = new HashMap<>();
+        for (BasicBlock bBlock : cfg.getBasicBlocks()) {
+            blockResult.put(bBlock.getSootBlock(), blockStates.get(bBlock.getId()));
+            for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                unitResult.put(eBlock.getUnit(), blockStates.get(eBlock.getId()));
+            }
+        }
+
+        return new FixpointResult<E>(blockResult, unitResult, blockVisits, skippedBlockVisits);
+    }
+
+    /**
+     * Returns the {@code ControlFlowGraph} that is used to solve the dataflow-analysis.
+     *
+     * @return the {@code ControlFlowGraph} used to solve the dataflow-analysis
+     */
+    public ControlFlowGraph getCFG() {
+        return cfg;
+    }
+
+    /**
+     * Returns the statistics of the cached transitions of single {@code Unit}s.
+     *
+     * @return the {@code CacheStatistics} of the unit cache ({@code CacheStatistics.NONE} if transitions are not
+     *         memoized)
+     */
+    public CacheStatistics getUnitCacheStatistics() {
+        return memoizingDfa == null ? CacheStatistics.NONE : memoizingDfa.getUnitCacheStatistics();
+    }
+
+    /**
+     * Returns the statistics of the cached transitions of whole {@code BasicBlock}s.
+     *
+     * @return the {@code CacheStatistics} of the block cache ({@code CacheStatistics.NONE} if transitions are not
+     *         memoized)
+     */
+    public CacheStatistics getBlockCacheStatistics() {
+        return memoizingDfa == null ? CacheStatistics.NONE : memoizingDfa.getBlockCacheStatistics();
+    }
+
+}
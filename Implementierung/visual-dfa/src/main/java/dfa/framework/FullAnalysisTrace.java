@@ -0,0 +1,40 @@
+package dfa.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@code FullAnalysisTrace} stores every {@code AnalysisState}.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in the stored {@code AnalysisState}s
+ */
+class FullAnalysisTrace<E extends LatticeElement> implements AnalysisTrace<E> {
+
+    private final List<AnalysisState<E>> analysisStates = new ArrayList<>();
+
+    private long heapEstimate = 0;
+
+    @Override
+    public synchronized void add(AnalysisState<E> state) {
+        AnalysisState<E> prevState = analysisStates.isEmpty() ? null : analysisStates.get(analysisStates.size() - 1);
+        heapEstimate += AnalysisStateCost.estimateStep(prevState, state);
+        analysisStates.add(state);
+    }
+
+    @Override
+    public synchronized AnalysisState<E> get(int step) {
+        return analysisStates.get(step);
+    }
+
+    @Override
+    public synchronized int size() {
+        return analysisStates.size();
+    }
+
+    @Override
+    public synchronized long getHeapEstimate() {
+        return heapEstimate;
+    }
+
+}
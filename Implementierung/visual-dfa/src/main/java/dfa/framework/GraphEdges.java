@@ -0,0 +1,174 @@
+package dfa.framework;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soot.toolkits.graph.Block;
+
+/**
+ * The edges of a {@code ControlFlowGraph} or {@code SimpleBlockGraph} in one {@code DFADirection}, stored in
+ * compressed sparse row format (see {@code ControlFlowGraph.getSuccessorOffsets()}), together with the block an
+ * analysis in this direction starts at. The blocks are identified by the ids of their {@code BasicBlock}s, which are
+ * their indices in {@code SimpleBlockGraph.getBlocks()}.
+ */
+final class GraphEdges {
+
+    private final int[] offsets;
+    private final int[] ids;
+    private final int root;
+
+    /**
+     * Creates the {@code GraphEdges} of the given {@code ControlFlowGraph} in the given {@code DFADirection}.
+     *
+     * @param cfg
+     *        the {@code ControlFlowGraph}
+     * @param direction
+     *        the {@code DFADirection} in which the edges are followed
+     *
+     * @throws IllegalArgumentException
+     *         if {@code cfg} or {@code direction} is {@code null}
+     */
+    GraphEdges(ControlFlowGraph cfg, DFADirection direction) {
+        if (cfg == null) {
+            throw new IllegalArgumentException("cfg must not be null");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        BasicBlock rootBlock = direction == DFADirection.FORWARD ? cfg.getStartBlock() : cfg.getEndBlock();
+        offsets = direction == DFADirection.FORWARD ? cfg.getSuccessorOffsets() : cfg.getPredecessorOffsets();
+        ids = direction == DFADirection.FORWARD ? cfg.getSuccessorIds() : cfg.getPredecessorIds();
+        root = rootBlock == null ? -1 : rootBlock.getId();
+    }
+
+    /**
+     * Creates the {@code GraphEdges} of the given {@code SimpleBlockGraph} in the given {@code DFADirection}.
+     *
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph}
+     * @param direction
+     *        the {@code DFADirection} in which the edges are followed
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockGraph} or {@code direction} is {@code null}
+     */
+    GraphEdges(SimpleBlockGraph blockGraph, DFADirection direction) {
+        if (blockGraph == null) {
+            throw new IllegalArgumentException("blockGraph must not be null");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        List<Block> blocks = blockGraph.getBlocks();
+        int blockCount = blocks.size();
+        Map<Block, Integer> idOf = new HashMap<Block, Integer>(2 * blockCount);
+        for (int i = 0; i < blockCount; ++i) {
+            idOf.put(blocks.get(i), i);
+        }
+
+        offsets = new int[blockCount + 1];
+        for (int i = 0; i < blockCount; ++i) {
+            offsets[i + 1] = offsets[i] + getTargets(blockGraph, blocks.get(i), direction).size();
+        }
+
+        ids = new int[offsets[blockCount]];
+        for (int i = 0; i < blockCount; ++i) {
+            int idx = offsets[i];
+            for (Block target : getTargets(blockGraph, blocks.get(i), direction)) {
+                ids[idx++] = idOf.get(target);
+            }
+        }
+
+        List<Block> roots = direction == DFADirection.FORWARD ? blockGraph.getHeads() : blockGraph.getTails();
+        root = roots.size() == 1 ? idOf.get(roots.get(0)) : -1;
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of blocks
+     */
+    int getBlockCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the offsets into {@code getIds()}, one more than the number of blocks. The returned array must not be
+     * modified.
+     *
+     * @return the offsets into {@code getIds()}
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the targets of the edges of all blocks. The returned array must not be modified.
+     *
+     * @return the targets of the edges of all blocks
+     */
+    int[] getIds() {
+        return ids;
+    }
+
+    /**
+     * Returns the block an analysis in the direction of these {@code GraphEdges} starts at.
+     *
+     * @return the id of the block an analysis starts at or -1 if there is no such block
+     */
+    int getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the ids of all blocks which are reachable from the root in postorder of a depth-first search (visiting
+     * the targets of each block in the order of its edges).
+     *
+     * @return the ids of all reachable blocks in postorder
+     */
+    int[] getPostorder() {
+        int blockCount = getBlockCount();
+        int[] postorder = new int[blockCount];
+        int next = 0;
+
+        BitSet visited = new BitSet(blockCount);
+        if (root >= 0) {
+            // iterative depth-first search, nextEdge[i] is the index of the next edge to follow from searchStack[i]
+            int[] searchStack = new int[blockCount];
+            int[] nextEdge = new int[blockCount];
+            int depth = 0;
+
+            visited.set(root);
+            searchStack[depth] = root;
+            nextEdge[depth++] = offsets[root];
+            while (depth > 0) {
+                int id = searchStack[depth - 1];
+                if (nextEdge[depth - 1] < offsets[id + 1]) {
+                    int target = ids[nextEdge[depth - 1]++];
+                    if (!visited.get(target)) {
+                        visited.set(target);
+                        searchStack[depth] = target;
+                        nextEdge[depth++] = offsets[target];
+                    }
+                } else {
+                    postorder[next++] = id;
+                    --depth;
+                }
+            }
+        }
+
+        return Arrays.copyOf(postorder, next);
+    }
+
+    private static List<Block> getTargets(SimpleBlockGraph blockGraph, Block block, DFADirection direction) {
+        return direction == DFADirection.FORWARD ? blockGraph.getSuccsOf(block) : blockGraph.getPredsOf(block);
+    }
+
+}
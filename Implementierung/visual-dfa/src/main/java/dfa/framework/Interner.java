@@ -0,0 +1,77 @@
+package dfa.framework;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An {@code Interner} maps equal {@code LatticeElement}s to a single canonical instance. Interned elements can be
+ * compared by identity, i. e. two interned elements are equal iff they are the same object.
+ * 
+ * An {@code Interner} only keeps weak references to its elements, so it does not keep elements alive that are no
+ * longer referenced elsewhere. Interned elements must not be modified and must implement {@code equals} and
+ * {@code hashCode} consistently, otherwise equal elements may not be mapped to the same instance.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} to intern
+ */
+final class Interner<E extends LatticeElement> {
+
+    private final Map<E, WeakReference<E>> canonicalElements = new WeakHashMap<>();
+
+    /**
+     * Returns the canonical instance of the given {@code LatticeElement}. If there is no canonical instance equal to
+     * {@code element} yet, {@code element} becomes the canonical instance.
+     * 
+     * @param element
+     *        the {@code LatticeElement} to intern
+     * @return the canonical instance equal to {@code element} or {@code null} if {@code element} is {@code null}
+     */
+    E intern(E element) {
+        if (element == null) {
+            return null;
+        }
+
+        WeakReference<E> ref = canonicalElements.get(element);
+        E canonical = ref == null ? null : ref.get();
+        if (canonical == null) {
+            canonicalElements.put(element, new WeakReference<E>(element));
+            canonical = element;
+        }
+
+        return canonical;
+    }
+
+    /**
+     * Returns the {@code BlockState} consisting of the canonical instances of the in- and out-state of the given
+     * {@code BlockState}.
+     * 
+     * @param blockState
+     *        the {@code BlockState} to intern
+     * @return a {@code BlockState} with interned in- and out-state, this is {@code blockState} itself if its states
+     *         already are the canonical instances
+     */
+    BlockState<E> intern(BlockState<E> blockState) {
+        if (blockState == null) {
+            return null;
+        }
+
+        E inState = intern(blockState.getInState());
+        E outState = intern(blockState.getOutState());
+        if (inState == blockState.getInState() && outState == blockState.getOutState()) {
+            return blockState;
+        }
+
+        return new BlockState<E>(inState, outState);
+    }
+
+    /**
+     * Returns the number of canonical instances.
+     * 
+     * @return the number of canonical instances
+     */
+    int size() {
+        return canonicalElements.size();
+    }
+
+}
@@ -0,0 +1,223 @@
+package dfa.framework;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@code KeyframeAnalysisTrace} stores the {@code AnalysisState} of every k-th elementary-step as a keyframe. For all
+ * other elementary-steps only a {@code StepDelta} is stored, which describes the changes to the preceding step. The
+ * {@code AnalysisState} of such a step is rebuilt by applying at most {@code k - 1} {@code StepDelta}s to the nearest
+ * preceding keyframe.
+ *
+ * The most recently rebuilt {@code AnalysisState} is cached, so stepping forwards rebuilds only a single step.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in the stored {@code AnalysisState}s
+ */
+class KeyframeAnalysisTrace<E extends LatticeElement> implements AnalysisTrace<E> {
+
+    private final int keyframeInterval;
+
+    private final DFADirection direction;
+
+    private final List<AnalysisState<E>> keyframes = new ArrayList<>();
+
+    // contains null for all steps that are keyframes
+    private final List<StepDelta<E>> deltas = new ArrayList<>();
+
+    private AnalysisState<E> lastAdded = null;
+
+    private long heapEstimate = 0;
+
+    private int cachedStep = -1;
+    private AnalysisState<E> cachedState = null;
+
+    /**
+     * Creates an empty {@code KeyframeAnalysisTrace}.
+     *
+     * @param keyframeInterval
+     *        the number of elementary-steps between two keyframes
+     * @param direction
+     *        the {@code DFADirection} of the stored {@code AnalysisState}s
+     *
+     * @throws IllegalArgumentException
+     *         if {@code keyframeInterval} is less than 1 or {@code direction} is {@code null}
+     */
+    KeyframeAnalysisTrace(int keyframeInterval, DFADirection direction) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("keyframeInterval must be at least 1");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        this.keyframeInterval = keyframeInterval;
+        this.direction = direction;
+    }
+
+    @Override
+    public synchronized void add(AnalysisState<E> state) {
+        if (state == null) {
+            throw new IllegalArgumentException("state must not be null");
+        }
+
+        heapEstimate += AnalysisStateCost.estimateStep(lastAdded, state);
+        if (deltas.size() % keyframeInterval == 0) {
+            keyframes.add(state);
+            deltas.add(null);
+        } else {
+            deltas.add(StepDelta.between(lastAdded, state));
+        }
+
+        lastAdded = state;
+    }
+
+    @Override
+    public synchronized AnalysisState<E> get(int step) {
+        if (step < 0 || step >= deltas.size()) {
+            throw new IndexOutOfBoundsException("invalid step: " + step);
+        }
+
+        int keyframeStep = step - step % keyframeInterval;
+        if (step == keyframeStep) {
+            return keyframes.get(step / keyframeInterval);
+        }
+
+        if (step == cachedStep) {
+            return cachedState;
+        }
+
+        int fromStep;
+        AnalysisState<E> state;
+        if (cachedState != null && keyframeStep <= cachedStep && cachedStep < step) {
+            fromStep = cachedStep;
+            state = cachedState;
+        } else {
+            fromStep = keyframeStep;
+            state = keyframes.get(step / keyframeInterval);
+        }
+
+        for (int i = fromStep + 1; i <= step; ++i) {
+            state = deltas.get(i).applyTo(state, direction);
+        }
+
+        cachedStep = step;
+        cachedState = state;
+        return state;
+    }
+
+    @Override
+    public synchronized int size() {
+        return deltas.size();
+    }
+
+    @Override
+    public synchronized long getHeapEstimate() {
+        return heapEstimate;
+    }
+
+    /**
+     * Returns whether the given {@code Worklist}s contain the same {@code BasicBlock}s in the same order.
+     *
+     * @param worklist1
+     *        the first {@code Worklist}
+     * @param worklist2
+     *        the second {@code Worklist}
+     * @return {@code true} iff both {@code Worklist}s iterate over the same {@code BasicBlock}s
+     */
+    static boolean sameElements(Worklist worklist1, Worklist worklist2) {
+        if (worklist1 == worklist2) {
+            return true;
+        }
+
+        Iterator<BasicBlock> it1 = worklist1.iterator();
+        Iterator<BasicBlock> it2 = worklist2.iterator();
+        while (it1.hasNext() && it2.hasNext()) {
+            if (!it1.next().equals(it2.next())) {
+                return false;
+            }
+        }
+
+        return !it1.hasNext() && !it2.hasNext();
+    }
+
+    /*
+     * The changes between two consecutive AnalysisStates: the changed block-states and colors (stored as alternating
+     * keys and values), the current basic block and elementary block index and the worklist if it changed.
+     */
+    private static final class StepDelta<E extends LatticeElement> {
+
+        private static final Object[] NO_CHANGES = new Object[0];
+
+        private final Object[] blockStates;
+        private final Object[] colors;
+        private final Worklist worklist;
+        private final BasicBlock currentBasicBlock;
+        private final int eBlockIndex;
+
+        private StepDelta(Object[] blockStates, Object[] colors, Worklist worklist, BasicBlock currentBasicBlock,
+                int eBlockIndex) {
+            this.blockStates = blockStates;
+            this.colors = colors;
+            this.worklist = worklist;
+            this.currentBasicBlock = currentBasicBlock;
+            this.eBlockIndex = eBlockIndex;
+        }
+
+        static <E extends LatticeElement> StepDelta<E> between(AnalysisState<E> prevState, AnalysisState<E> state) {
+            ChangeCollector<AbstractBlock, BlockState<E>> stateChanges = new ChangeCollector<>();
+            state.getStateMap().forEachChanged(prevState.getStateMap(), stateChanges);
+
+            ChangeCollector<BasicBlock, LogicalColor> colorChanges = new ChangeCollector<>();
+            state.getColorMap().forEachChanged(prevState.getColorMap(), colorChanges);
+
+            Worklist worklist = state.getWorklist();
+            if (sameElements(prevState.getWorklist(), worklist)) {
+                worklist = null;
+            }
+
+            return new StepDelta<E>(stateChanges.toArray(), colorChanges.toArray(), worklist,
+                    state.getCurrentBasicBlock(), state.getCurrentElementaryBlockIndex());
+        }
+
+        @SuppressWarnings("unchecked")
+        AnalysisState<E> applyTo(AnalysisState<E> prevState, DFADirection direction) {
+            PersistentMap<AbstractBlock, BlockState<E>> stateMap = prevState.getStateMap();
+            for (int i = 0; i < blockStates.length; i += 2) {
+                stateMap = stateMap.put((AbstractBlock) blockStates[i], (BlockState<E>) blockStates[i + 1]);
+            }
+
+            PersistentMap<BasicBlock, LogicalColor> colorMap = prevState.getColorMap();
+            for (int i = 0; i < colors.length; i += 2) {
+                colorMap = colorMap.put((BasicBlock) colors[i], (LogicalColor) colors[i + 1]);
+            }
+
+            Worklist newWorklist = worklist == null ? prevState.getWorklist() : worklist;
+            return new AnalysisState<E>(newWorklist, currentBasicBlock, eBlockIndex, stateMap, colorMap, direction);
+        }
+
+    }
+
+    private static final class ChangeCollector<K, V> implements PersistentMap.EntryVisitor<K, V> {
+
+        private List<Object> changes = null;
+
+        @Override
+        public void visit(K key, V value) {
+            if (changes == null) {
+                changes = new ArrayList<>(4);
+            }
+
+            changes.add(key);
+            changes.add(value);
+        }
+
+        Object[] toArray() {
+            return changes == null ? StepDelta.NO_CHANGES : changes.toArray();
+        }
+
+    }
+
+}
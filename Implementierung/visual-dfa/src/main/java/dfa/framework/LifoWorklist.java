@@ -0,0 +1,159 @@
+package dfa.framework;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Iterator;
+
+/**
+ * A {@code LifoWorklist} is a {@code Worklist} which chooses the next {@code BasicBlock} to be retrieved according to
+ * the last-in-first-out principle. This means that the {@code BasicBlock} inserted last is retrieved first, so the
+ * analysis follows one path as far as possible (like a depth-first search). A {@code BasicBlock} cannot be inserted if
+ * it is still on the {@code LifoWorklist}.
+ * 
+ * The {@code BasicBlock}s on a {@code LifoWorklist} are tracked by their id, so they have to belong to a
+ * {@code ControlFlowGraph}. A copy shares its {@code BasicBlock}s with the original {@code LifoWorklist} until one of
+ * them is modified.
+ */
+public class LifoWorklist implements Worklist {
+
+    private ArrayDeque<BasicBlock> basicBlocks;
+
+    // the ids of all BasicBlocks on this worklist
+    private BitSet members;
+
+    // whether basicBlocks and members are shared with a copy and therefore must be copied before modification
+    private boolean shared;
+
+    /**
+     * Creates an empty {@code LifoWorklist}.
+     */
+    public LifoWorklist() {
+        basicBlocks = new ArrayDeque<BasicBlock>();
+        members = new BitSet();
+        shared = false;
+    }
+
+    private LifoWorklist(ArrayDeque<BasicBlock> basicBlocks, BitSet members) {
+        this.basicBlocks = basicBlocks;
+        this.members = members;
+        this.shared = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * If {@code basicBlock} is already on this {@code LifoWorklist}, this has no effect.
+     * 
+     * @throws {
+     * @code IllegalArgumentException}, if {@code basicBlock} is {@code null} or does not belong to a
+     *       {@code ControlFlowGraph}
+     */
+    public boolean add(BasicBlock basicBlock) {
+        if (basicBlock == null) {
+            throw new IllegalArgumentException("basicBlock is null");
+        }
+
+        if (contains(basicBlock)) {
+            return false;
+        }
+
+        copyIfShared();
+        members.set(basicBlock.getId());
+        return basicBlocks.add(basicBlock);
+    }
+
+    /**
+     * Retrieves and removes the next {@code BasicBlock} according to the last-in-first-out principle.
+     * 
+     * @return the next {@code BasicBlock} according to the last-in-first-out principle or {@code null} if this
+     *         {@code LifoWorklist} is empty
+     */
+    public BasicBlock poll() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        copyIfShared();
+        BasicBlock basicBlock = basicBlocks.removeLast();
+        members.clear(basicBlock.getId());
+        return basicBlock;
+    }
+
+    /**
+     * Retrieves the next {@code BasicBlock} according to the last-in-first-out principle. The retrieved
+     * {@code BasicBlock} is not removed from this {@code LifoWorklist}.
+     * 
+     * @return the next {@code BasicBlock} according to the last-in-first-out principle or {@code null} if this
+     *         {@code LifoWorklist} is empty
+     */
+    public BasicBlock peek() {
+        return basicBlocks.peekLast();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isEmpty() {
+        return basicBlocks.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws {
+     * @code IllegalArgumentException}, if {@code basicBlock} does not belong to a {@code ControlFlowGraph}
+     */
+    public boolean contains(BasicBlock basicBlock) {
+        return basicBlock != null && members.get(getId(basicBlock));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The returned {@code Iterator} does not support removal and returns the {@code BasicBlock}s in the order they
+     * would be retrieved.
+     */
+    public Iterator<BasicBlock> iterator() {
+        final Iterator<BasicBlock> it = basicBlocks.descendingIterator();
+        return new Iterator<BasicBlock>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public BasicBlock next() {
+                return it.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("this iterator does not support removal");
+            }
+        };
+    }
+
+    @Override
+    public Worklist clone() {
+        shared = true;
+        return new LifoWorklist(basicBlocks, members);
+    }
+
+    private void copyIfShared() {
+        if (shared) {
+            basicBlocks = new ArrayDeque<BasicBlock>(basicBlocks);
+            members = (BitSet) members.clone();
+            shared = false;
+        }
+    }
+
+    private static int getId(BasicBlock basicBlock) {
+        int id = basicBlock.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("basicBlock does not belong to a ControlFlowGraph");
+        }
+
+        return id;
+    }
+
+}
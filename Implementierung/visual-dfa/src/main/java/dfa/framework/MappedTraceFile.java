@@ -0,0 +1,109 @@
+package dfa.framework;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@code MappedTraceFile} is an append-only scratch file for binary records which is accessed via memory-mapped
+ * segments. Each record is stored completely inside one segment and is addressed by the position returned when it was
+ * appended. The file is deleted when it is closed or when the JVM exits.
+ */
+final class MappedTraceFile {
+
+    private static final int SEGMENT_SIZE = 16 << 20;
+
+    private final File file;
+
+    private final RandomAccessFile randomAccessFile;
+
+    private final FileChannel channel;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    private long nextSegmentStart = 0;
+
+    /**
+     * Creates an empty {@code MappedTraceFile} in the default temporary-file directory.
+     *
+     * @throws DFAException
+     *         if the file cannot be created
+     */
+    MappedTraceFile() {
+        try {
+            file = File.createTempFile("visualdfa-trace", ".bin");
+            file.deleteOnExit();
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+        } catch (IOException e) {
+            throw new DFAException("could not create trace file", e);
+        }
+    }
+
+    /**
+     * Appends a record. The bytes between position and limit of {@code record} are written.
+     *
+     * @param record
+     *        the record to append
+     * @return the position of the appended record
+     *
+     * @throws DFAException
+     *         if the file cannot be extended
+     */
+    long append(ByteBuffer record) {
+        int length = record.remaining();
+        MappedByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < length) {
+            segment = mapSegment(Math.max(SEGMENT_SIZE, length));
+        }
+
+        long position = ((long) (segments.size() - 1) << 32) | segment.position();
+        segment.put(record);
+        return position;
+    }
+
+    /**
+     * Returns a {@code ByteBuffer} positioned at the beginning of the record at the given position.
+     *
+     * @param position
+     *        the position returned by {@code append}
+     * @return a {@code ByteBuffer} to read the record from
+     */
+    ByteBuffer read(long position) {
+        ByteBuffer buffer = segments.get((int) (position >>> 32)).duplicate();
+        buffer.position((int) position);
+        return buffer;
+    }
+
+    /**
+     * Closes and deletes this {@code MappedTraceFile}. Records must not be read afterwards.
+     */
+    void close() {
+        segments.clear();
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException e) {
+            // nothing left to do, the file is deleted on exit
+        }
+
+        file.delete();
+    }
+
+    private MappedByteBuffer mapSegment(int size) {
+        try {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, nextSegmentStart, size);
+            nextSegmentStart += size;
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new DFAException("could not extend trace file", e);
+        }
+    }
+
+}
@@ -0,0 +1,308 @@
+package dfa.framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Unit;
+import soot.toolkits.graph.Block;
+
+/**
+ * A {@code MemoizingDataFlowAnalysis} wraps a {@code DataFlowAnalysis} and caches the results of its transitions. When
+ * a loop is visited again with an unchanged state, the transitions of its {@code Unit}s are looked up instead of being
+ * recalculated.
+ *
+ * There are two bounded caches, each of which evicts its least recently used entries:
+ * <ul>
+ * <li>the unit cache maps an in-state and a {@code Unit} to the result of {@code transition}</li>
+ * <li>the block cache maps an in-state and a {@code BasicBlock} to the out-states of all its {@code ElementaryBlock}s
+ * (see {@code transitionBlock})</li>
+ * </ul>
+ * In-states are compared with {@code equals}, so {@code LatticeElement}s must implement {@code hashCode} consistently.
+ * The wrapped transition must not modify its input and must always return equal results for equal inputs.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in this {@code MemoizingDataFlowAnalysis}
+ */
+public class MemoizingDataFlowAnalysis<E extends LatticeElement> implements DataFlowAnalysis<E> {
+
+    /**
+     * the default maximum number of entries in the unit cache
+     */
+    public static final int DEFAULT_UNIT_CACHE_SIZE = 4096;
+
+    /**
+     * the default maximum number of entries in the block cache
+     */
+    public static final int DEFAULT_BLOCK_CACHE_SIZE = 512;
+
+    private final DataFlowAnalysis<E> dfa;
+
+    private final LruCache<UnitKey<E>, E> unitCache;
+
+    private final LruCache<BlockKey<E>, List<E>> blockCache;
+
+    /**
+     * Creates a {@code MemoizingDataFlowAnalysis} with the default cache sizes.
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} whose transitions are cached
+     *
+     * @throws IllegalArgumentException
+     *         if {@code dfa} is {@code null}
+     */
+    public MemoizingDataFlowAnalysis(DataFlowAnalysis<E> dfa) {
+        this(dfa, DEFAULT_UNIT_CACHE_SIZE, DEFAULT_BLOCK_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a {@code MemoizingDataFlowAnalysis} with the given cache sizes. A cache of size 0 is disabled.
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} whose transitions are cached
+     * @param unitCacheSize
+     *        the maximum number of entries in the unit cache
+     * @param blockCacheSize
+     *        the maximum number of entries in the block cache
+     *
+     * @throws IllegalArgumentException
+     *         if {@code dfa} is {@code null} or if {@code unitCacheSize} or {@code blockCacheSize} is negative
+     */
+    public MemoizingDataFlowAnalysis(DataFlowAnalysis<E> dfa, int unitCacheSize, int blockCacheSize) {
+        if (dfa == null) {
+            throw new IllegalArgumentException("dfa must not be null");
+        }
+
+        if (unitCacheSize < 0) {
+            throw new IllegalArgumentException("unitCacheSize must not be negative");
+        }
+
+        if (blockCacheSize < 0) {
+            throw new IllegalArgumentException("blockCacheSize must not be negative");
+        }
+
+        this.dfa = dfa;
+        this.unitCache = new LruCache<>(unitCacheSize);
+        this.blockCache = new LruCache<>(blockCacheSize);
+    }
+
+    @Override
+    public E transition(E element, Unit unit) {
+        if (element == null || unitCache.maxSize == 0) {
+            return dfa.transition(element, unit);
+        }
+
+        UnitKey<E> key = new UnitKey<E>(element, unit);
+        synchronized (this) {
+            E cached = unitCache.lookup(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // transitions may be slow, so they are calculated without holding the lock
+        E result = dfa.transition(element, unit);
+        if (result != null) {
+            synchronized (this) {
+                unitCache.put(key, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Applies the transitions of all {@code ElementaryBlock}s of the given {@code BasicBlock}, in the order given by
+     * {@code direction}, starting with {@code inState}. The states of consecutive {@code ElementaryBlock}s are chained
+     * in the same way as in {@code DFAExecution}. If the block cache contains the result for {@code inState} and
+     * {@code bBlock}, no transition is calculated at all.
+     *
+     * @param inState
+     *        the in-state of the first processed {@code ElementaryBlock}
+     * @param bBlock
+     *        the {@code BasicBlock} to process
+     * @param direction
+     *        the {@code DFADirection} of the analysis
+     * @return the out-states of the {@code ElementaryBlock}s of {@code bBlock} in the order they were processed
+     *
+     * @throws IllegalArgumentException
+     *         if {@code bBlock} or {@code direction} is {@code null}
+     */
+    public List<E> transitionBlock(E inState, BasicBlock bBlock, DFADirection direction) {
+        if (bBlock == null) {
+            throw new IllegalArgumentException("bBlock must not be null");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        BlockKey<E> key = null;
+        if (inState != null && blockCache.maxSize > 0) {
+            key = new BlockKey<E>(inState, bBlock);
+            synchronized (this) {
+                List<E> cached = blockCache.lookup(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
+        int eBlockCount = bBlock.getElementaryBlockCount();
+        List<E> outStates = new ArrayList<>(eBlockCount);
+        E prevOutState = inState;
+        for (int i = 0; i < eBlockCount; ++i) {
+            int eBlockIdx = direction == DFADirection.FORWARD ? i : eBlockCount - 1 - i;
+            E nextOutState = transition(prevOutState, bBlock.getElementaryBlock(eBlockIdx).getUnit());
+            outStates.add(nextOutState);
+
+            // like in DFAExecution, the next in-state is getOutState(new BlockState(prevOutState, nextOutState))
+            if (direction == DFADirection.FORWARD) {
+                prevOutState = nextOutState;
+            }
+        }
+
+        outStates = Collections.unmodifiableList(outStates);
+        if (key != null) {
+            synchronized (this) {
+                blockCache.put(key, outStates);
+            }
+        }
+
+        return outStates;
+    }
+
+    @Override
+    public E join(Set<E> elements) {
+        return dfa.join(elements);
+    }
+
+    @Override
+    public Map<Block, BlockState<E>> getInitialStates() {
+        return dfa.getInitialStates();
+    }
+
+    /**
+     * Returns the statistics of the unit cache.
+     *
+     * @return the {@code CacheStatistics} of the unit cache
+     */
+    public synchronized CacheStatistics getUnitCacheStatistics() {
+        return unitCache.getStatistics();
+    }
+
+    /**
+     * Returns the statistics of the block cache.
+     *
+     * @return the {@code CacheStatistics} of the block cache
+     */
+    public synchronized CacheStatistics getBlockCacheStatistics() {
+        return blockCache.getStatistics();
+    }
+
+    private static final class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private long hits = 0;
+        private long misses = 0;
+        private long evictions = 0;
+
+        private LruCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        private V lookup(K key) {
+            V value = get(key);
+            if (value == null) {
+                ++misses;
+            } else {
+                ++hits;
+            }
+
+            return value;
+        }
+
+        private CacheStatistics getStatistics() {
+            return new CacheStatistics(hits, misses, evictions);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > maxSize) {
+                ++evictions;
+                return true;
+            }
+
+            return false;
+        }
+
+    }
+
+    private static final class UnitKey<E> {
+
+        private final E element;
+        private final Unit unit;
+        private final int hash;
+
+        private UnitKey(E element, Unit unit) {
+            this.element = element;
+            this.unit = unit;
+            this.hash = 31 * element.hashCode() + System.identityHashCode(unit);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof UnitKey)) {
+                return false;
+            }
+
+            UnitKey<?> other = (UnitKey<?>) obj;
+            return hash == other.hash && unit == other.unit
+                    && (element == other.element || element.equals(other.element));
+        }
+
+    }
+
+    private static final class BlockKey<E> {
+
+        private final E inState;
+        private final BasicBlock bBlock;
+        private final int hash;
+
+        private BlockKey(E inState, BasicBlock bBlock) {
+            this.inState = inState;
+            this.bBlock = bBlock;
+            this.hash = 31 * inState.hashCode() + System.identityHashCode(bBlock);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof BlockKey)) {
+                return false;
+            }
+
+            BlockKey<?> other = (BlockKey<?>) obj;
+            return hash == other.hash && bBlock == other.bBlock
+                    && (inState == other.inState || inState.equals(other.inState));
+        }
+
+    }
+
+}
@@ -1,28 +1,44 @@
 package dfa.framework;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 /**
  * A {@code NaiveWorklist} is a {@code Worklist} which chooses the next {@code BasicBlock} to be retrieved according to
  * the first-in-first-out principle. This means that {@code BasicBlock}s are retrieved in the order they are inserted. A
  * {@code BasicBlock} cannot be inserted if it is still on the {@code NaiveWorklist}.
  * 
+ * The {@code BasicBlock}s on a {@code NaiveWorklist} are tracked by their id, so they have to belong to a
+ * {@code ControlFlowGraph}. A copy shares its {@code BasicBlock}s with the original {@code NaiveWorklist} until one of
+ * them is modified.
+ * 
  * @author Sebastian Rauch
  */
 public class NaiveWorklist implements Worklist {
 
-    private LinkedList<BasicBlock> basicBlocks;
+    private ArrayDeque<BasicBlock> basicBlocks;
+
+    // the ids of all BasicBlocks on this worklist
+    private BitSet members;
+
+    // whether basicBlocks and members are shared with a copy and therefore must be copied before modification
+    private boolean shared;
 
     /**
      * Creates an empty {@code NaiveWorklist}.
      */
     public NaiveWorklist() {
-        basicBlocks = new LinkedList<BasicBlock>();
+        basicBlocks = new ArrayDeque<BasicBlock>();
+        members = new BitSet();
+        shared = false;
     }
 
-    private NaiveWorklist(LinkedList<BasicBlock> basicBlocks) {
-        this.basicBlocks = new LinkedList<BasicBlock>(basicBlocks);
+    private NaiveWorklist(ArrayDeque<BasicBlock> basicBlocks, BitSet members) {
+        this.basicBlocks = basicBlocks;
+        this.members = members;
+        this.shared = true;
     }
 
     /**
@@ -31,7 +47,8 @@ public class NaiveWorklist implements Worklist {
      * If {@code basicBlock} is already on this {@code NaiveWorklist}, this has no effect.
      * 
      * @throws {
-     * @code IllegalArgumentException}, if {@code basicBlock} is {@code null}
+     * @code IllegalArgumentException}, if {@code basicBlock} is {@code null} or does not belong to a
+     *       {@code ControlFlowGraph}
      */
     public boolean add(BasicBlock basicBlock) {
         if (basicBlock == null) {
@@ -42,6 +59,8 @@ public class NaiveWorklist implements Worklist {
             return false;
         }
 
+        copyIfShared();
+        members.set(basicBlock.getId());
         return basicBlocks.add(basicBlock);
     }
 
@@ -52,7 +71,14 @@ public class NaiveWorklist implements Worklist {
      *         {@code NaiveWorklist} is empty
      */
     public BasicBlock poll() {
-        return isEmpty() ? null : basicBlocks.removeFirst();
+        if (isEmpty()) {
+            return null;
+        }
+
+        copyIfShared();
+        BasicBlock basicBlock = basicBlocks.removeFirst();
+        members.clear(basicBlock.getId());
+        return basicBlock;
     }
 
     /**
@@ -63,7 +89,7 @@ public class NaiveWorklist implements Worklist {
      *         {@code NaiveWorklist} is empty
      */
     public BasicBlock peek() {
-        return isEmpty() ? null : basicBlocks.getFirst();
+        return basicBlocks.peekFirst();
     }
 
     /**
@@ -75,21 +101,44 @@ public class NaiveWorklist implements Worklist {
 
     /**
      * {@inheritDoc}
+     * 
+     * @throws {
+     * @code IllegalArgumentException}, if {@code basicBlock} does not belong to a {@code ControlFlowGraph}
      */
     public boolean contains(BasicBlock basicBlock) {
-        return basicBlocks.contains(basicBlock);
+        return basicBlock != null && members.get(getId(basicBlock));
     }
 
     /**
      * {@inheritDoc}
+     * 
+     * The returned {@code Iterator} does not support removal.
      */
     public Iterator<BasicBlock> iterator() {
-        return basicBlocks.iterator();
+        return Collections.unmodifiableCollection(basicBlocks).iterator();
     }
 
     @Override
     public Worklist clone() {
-        return new NaiveWorklist(basicBlocks);
+        shared = true;
+        return new NaiveWorklist(basicBlocks, members);
+    }
+
+    private void copyIfShared() {
+        if (shared) {
+            basicBlocks = new ArrayDeque<BasicBlock>(basicBlocks);
+            members = (BitSet) members.clone();
+            shared = false;
+        }
+    }
+
+    private static int getId(BasicBlock basicBlock) {
+        int id = basicBlock.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("basicBlock does not belong to a ControlFlowGraph");
+        }
+
+        return id;
     }
 
 }
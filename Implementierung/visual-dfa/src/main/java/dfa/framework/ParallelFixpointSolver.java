@@ -0,0 +1,367 @@
+package dfa.framework;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import soot.Unit;
+import soot.toolkits.graph.Block;
+
+/**
+ * A {@code ParallelFixpointSolver} runs a {@code DataFlowAnalysis} to its fixpoint on multiple threads. It divides the
+ * {@code ControlFlowGraph} into its strongly connected components. A component is solved as soon as all components
+ * it depends on are solved, so independent components (e. g. the loops in the two branches of an if-statement) are
+ * solved concurrently on a {@code ForkJoinPool}. Inside a component, the {@code BasicBlock}s are processed in weak
+ * topological order (as by a {@code WeakTopologicalWorklist}) until the component is stable.
+ *
+ * A single {@code BasicBlock} is processed in the same way as by a {@code FixpointSolver}, including skipping blocks
+ * whose in-state has not changed and applying the {@code Widening} of the analysis (if any) at loop headers. Only the
+ * order in which the {@code BasicBlock}s are processed differs, so for a monotone analysis without a {@code Widening}
+ * the result is the same as that of a {@code FixpointSolver}.
+ *
+ * The {@code DataFlowAnalysis} must be thread-safe, i. e. its transitions and joins may be called concurrently.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in this {@code ParallelFixpointSolver}
+ */
+public class ParallelFixpointSolver<E extends LatticeElement> {
+
+    private final ControlFlowGraph cfg;
+
+    private final BlockProcessor<E> processor;
+
+    private final StronglyConnectedComponents components;
+
+    private final WeakTopologicalOrder wto;
+
+    // the pool to solve on, or null if each call of solve uses a pool of its own
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a {@code ParallelFixpointSolver} from a given {@code DFAFactory} and a {@code SimpleBlockGraph}. Each
+     * call of {@code solve} uses a {@code ForkJoinPool} of its own with one thread per available processor.
+     *
+     * @param dfaFactory
+     *        a {@code DFAFactory} from which a {@code DataFlowAnalysis} will be generated
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis is based on
+     *
+     * @throws IllegalArgumentException
+     *         if {@code dfaFactory} or {@code blockGraph} is {@code null}
+     */
+    public ParallelFixpointSolver(DFAFactory<E> dfaFactory, SimpleBlockGraph blockGraph) {
+        this(dfaFactory, blockGraph, null);
+    }
+
+    /**
+     * Creates a {@code ParallelFixpointSolver} from a given {@code DFAFactory} and a {@code SimpleBlockGraph} that
+     * solves on the given {@code ForkJoinPool}. This allows many methods to be analyzed on a single pool.
+     *
+     * @param dfaFactory
+     *        a {@code DFAFactory} from which a {@code DataFlowAnalysis} will be generated
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis is based on
+     * @param pool
+     *        the {@code ForkJoinPool} to solve on, {@code null} to use a pool of its own in each call of
+     *        {@code solve}
+     *
+     * @throws IllegalArgumentException
+     *         if {@code dfaFactory} or {@code blockGraph} is {@code null}
+     */
+    public ParallelFixpointSolver(DFAFactory<E> dfaFactory, SimpleBlockGraph blockGraph, ForkJoinPool pool) {
+        this(dfaFactory, blockGraph, pool, DFAPrecalcController.DEFAULT_WIDENING_DELAY);
+    }
+
+    /**
+     * Creates a {@code ParallelFixpointSolver} from a given {@code DFAFactory} and a {@code SimpleBlockGraph} that
+     * solves on the given {@code ForkJoinPool} and applies the {@code Widening} of the analysis (see
+     * {@code DFAFactory.getWidening}) at loop headers after the given number of selections.
+     *
+     * @param dfaFactory
+     *        a {@code DFAFactory} from which a {@code DataFlowAnalysis} will be generated
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis is based on
+     * @param pool
+     *        the {@code ForkJoinPool} to solve on, {@code null} to use a pool of its own in each call of
+     *        {@code solve}
+     * @param wideningDelay
+     *        the number of times a loop header is selected before its in-state is widened
+     *
+     * @throws IllegalArgumentException
+     *         if {@code dfaFactory} or {@code blockGraph} is {@code null} or if {@code wideningDelay} is negative
+     */
+    public ParallelFixpointSolver(DFAFactory<E> dfaFactory, SimpleBlockGraph blockGraph, ForkJoinPool pool,
+            int wideningDelay) {
+        if (dfaFactory == null) {
+            throw new IllegalArgumentException("dfaFactory must not be null");
+        }
+
+        if (blockGraph == null) {
+            throw new IllegalArgumentException("blockGraph must not be null");
+        }
+
+        if (wideningDelay < 0) {
+            throw new IllegalArgumentException("wideningDelay must not be negative");
+        }
+
+        DFADirection direction = dfaFactory.getDirection();
+        DataFlowAnalysis<E> dfa = dfaFactory.getAnalysis(blockGraph);
+        this.cfg = new ControlFlowGraph(blockGraph);
+        this.processor = new BlockProcessor<E>(dfa, cfg, direction, dfaFactory.getWidening(dfa), wideningDelay);
+        this.components = new StronglyConnectedComponents(cfg, direction);
+        this.wto = new WeakTopologicalOrder(cfg, direction);
+        this.pool = pool;
+    }
+
+    /**
+     * Runs the analysis to its fixpoint. {@code BasicBlock}s that are not reachable from the start block keep their
+     * initial states.
+     *
+     * @return the {@code FixpointResult} containing the final states of all {@code Block}s and {@code Unit}s
+     *
+     * @throws DFAException
+     *         if there is no start block, if the analysis failed or if the calling thread was interrupted while
+     *         waiting for the result
+     */
+    public FixpointResult<E> solve() {
+        BasicBlock startBlock = processor.getStartBlock();
+        if (startBlock == null) {
+            throw new DFAException("there is no start block");
+        }
+
+        Solution solution = new Solution();
+
+        ForkJoinPool solvingPool = pool != null ? pool : new ForkJoinPool();
+        try {
+            solvingPool.execute(new ComponentTask(components.getComponent(startBlock.getId()), solution));
+            solution.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            solution.failure.compareAndSet(null, e);
+        } finally {
+            if (pool == null) {
+                solvingPool.shutdownNow();
+            }
+        }
+
+        Throwable failure = solution.failure.get();
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new DFAException("the solver was interrupted", failure);
+        }
+
+        Map<Block, BlockState<E>> blockResult = new HashMap<>();
+        Map<Unit, BlockState<E>> unitResult = new HashMap<>();
+        for (BasicBlock bBlock : cfg.getBasicBlocks()) {
+            blockResult.put(bBlock.getSootBlock(), solution.blockStates.get(bBlock.getId()));
+            for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                unitResult.put(eBlock.getUnit(), solution.blockStates.get(eBlock.getId()));
+            }
+        }
+
+        return new FixpointResult<E>(blockResult, unitResult, solution.blockVisits.get(),
+                solution.skippedBlockVisits.get());
+    }
+
+    /**
+     * Returns the {@code ControlFlowGraph} that is used to solve the dataflow-analysis.
+     *
+     * @return the {@code ControlFlowGraph} used to solve the dataflow-analysis
+     */
+    public ControlFlowGraph getCFG() {
+        return cfg;
+    }
+
+    /**
+     * Returns the number of strongly connected components that are reachable from the start block. At most this many
+     * components are solved concurrently.
+     *
+     * @return the number of reachable strongly connected components
+     */
+    public int getComponentCount() {
+        return components.getComponentCount();
+    }
+
+    /*
+     * processes the basic blocks of the given component in weak topological order until none of their out-states
+     * changes anymore, the components it depends on have to be solved already
+     */
+    private void solveComponent(int component, Solution solution) {
+        int[] members = components.getMembers();
+        int from = components.getMemberOffsets()[component];
+        int to = components.getMemberOffsets()[component + 1];
+
+        // the positions in the weak topological order of the members still to be processed, initially all members
+        BitSet queued = new BitSet();
+        for (int i = from; i < to; ++i) {
+            queued.set(wto.getPosition(members[i]));
+        }
+
+        int blockVisits = 0;
+        int skippedBlockVisits = 0;
+        int[] order = wto.getOrder();
+        List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
+        for (int position = queued.nextSetBit(0); position >= 0; position = queued.nextSetBit(0)) {
+            queued.clear(position);
+            int id = order[position];
+
+            BasicBlock bBlock = basicBlocks.get(id);
+            selectBasicBlock(bBlock, solution);
+
+            ++blockVisits;
+            if (bBlock.getElementaryBlockCount() > 0 && processor.isUnchanged(bBlock, solution.blockStates)) {
+                ++skippedBlockVisits;
+            }
+
+            if (processor.processBasicBlock(bBlock, solution.blockStates)) {
+                for (BasicBlock bSucc : processor.getSuccessors(bBlock)) {
+                    int succId = bSucc.getId();
+                    if (components.getComponent(succId) == component) {
+                        queued.set(wto.getPosition(succId));
+                    }
+                }
+            }
+        }
+
+        solution.blockVisits.addAndGet(blockVisits);
+        solution.skippedBlockVisits.addAndGet(skippedBlockVisits);
+    }
+
+    /*
+     * sets the in-state of bBlock to the join of the out-states of its predecessors (like FixpointSolver does when
+     * polling a block from the worklist), the start block is processed the first time without joining
+     */
+    private void selectBasicBlock(BasicBlock bBlock, Solution solution) {
+        if (bBlock.equals(processor.getStartBlock()) && !solution.startBlockProcessed) {
+            solution.startBlockProcessed = true;
+            return;
+        }
+
+        processor.selectBasicBlock(bBlock, ++solution.selections[bBlock.getId()], solution.blockStates);
+    }
+
+    /*
+     * the state of a single call of solve: each block state is only written by the task solving the component of its
+     * basic block, and a component is only solved after all components it reads from are solved
+     */
+    private final class Solution {
+
+        private final AtomicReferenceArray<BlockState<E>> blockStates;
+
+        // how often each basic block has been selected (indexed by id), only accessed by the task of its component
+        private final int[] selections;
+
+        // the number of edges from unsolved components into each component
+        private final AtomicIntegerArray pendingEdges;
+
+        private final AtomicInteger unsolvedComponents;
+
+        private final AtomicInteger blockVisits = new AtomicInteger();
+        private final AtomicInteger skippedBlockVisits = new AtomicInteger();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // counted down once all components are solved or one of them failed
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        // only accessed by the task solving the component of the start block
+        private boolean startBlockProcessed = false;
+
+        private Solution() {
+            List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
+            blockStates = processor.createInitialStates();
+            selections = new int[basicBlocks.size()];
+            pendingEdges = new AtomicIntegerArray(components.getComponentCount());
+            for (BasicBlock bBlock : basicBlocks) {
+                int component = components.getComponent(bBlock.getId());
+                if (component < 0) {
+                    continue;
+                }
+
+                for (BasicBlock bSucc : processor.getSuccessors(bBlock)) {
+                    int succComponent = components.getComponent(bSucc.getId());
+                    if (succComponent != component) {
+                        pendingEdges.incrementAndGet(succComponent);
+                    }
+                }
+            }
+
+            unsolvedComponents = new AtomicInteger(components.getComponentCount());
+        }
+
+        private void fail(Throwable t) {
+            failure.compareAndSet(null, t);
+            done.countDown();
+        }
+
+    }
+
+    /*
+     * solves a component and then the components that depend on it, one of the components that become solvable is
+     * solved by the same task and all others are forked
+     */
+    private final class ComponentTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int component;
+
+        private final Solution solution;
+
+        private ComponentTask(int component, Solution solution) {
+            this.component = component;
+            this.solution = solution;
+        }
+
+        @Override
+        protected void compute() {
+            int current = component;
+            while (current >= 0 && solution.failure.get() == null) {
+                try {
+                    solveComponent(current, solution);
+                } catch (RuntimeException | Error e) {
+                    solution.fail(e);
+                    return;
+                }
+
+                int next = -1;
+                int[] members = components.getMembers();
+                int[] memberOffsets = components.getMemberOffsets();
+                List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
+                for (int i = memberOffsets[current]; i < memberOffsets[current + 1]; ++i) {
+                    for (BasicBlock bSucc : processor.getSuccessors(basicBlocks.get(members[i]))) {
+                        int succComponent = components.getComponent(bSucc.getId());
+                        if (succComponent == current || solution.pendingEdges.decrementAndGet(succComponent) > 0) {
+                            continue;
+                        }
+
+                        if (next < 0) {
+                            next = succComponent;
+                        } else {
+                            new ComponentTask(succComponent, solution).fork();
+                        }
+                    }
+                }
+
+                if (solution.unsolvedComponents.decrementAndGet() == 0) {
+                    solution.done.countDown();
+                }
+
+                current = next;
+            }
+        }
+
+    }
+
+}
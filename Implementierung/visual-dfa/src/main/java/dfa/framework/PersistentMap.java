@@ -0,0 +1,404 @@
+package dfa.framework;
+
+/**
+ * A {@code PersistentMap} is an immutable map implemented as a hash array mapped trie (HAMT). Each modifying operation
+ * returns a new {@code PersistentMap} which shares all unchanged parts of the trie with the original one, so deriving
+ * a map that differs in only a few entries only allocates the nodes on the paths to those entries.
+ *
+ * Keys are compared using {@code equals} and {@code hashCode}, {@code null}-keys are not supported. Values are compared
+ * by identity to detect updates that do not change anything.
+ *
+ * @param <K>
+ *        the type of the keys
+ * @param <V>
+ *        the type of the values
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentMap EMPTY = new PersistentMap<Object, Object>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns an empty {@code PersistentMap}.
+     *
+     * @return an empty {@code PersistentMap}
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the number of mappings in this {@code PersistentMap}.
+     *
+     * @return the number of mappings in this {@code PersistentMap}
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value mapped to {@code key}.
+     *
+     * @param key
+     *        the key to look up
+     * @return the value mapped to {@code key} or {@code null} if there is no such mapping
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+
+        return (V) root.get(hash(key), key, 0);
+    }
+
+    /**
+     * Returns a {@code PersistentMap} that contains all mappings of this {@code PersistentMap} except that
+     * {@code key} is mapped to {@code value}. This {@code PersistentMap} is not modified.
+     *
+     * @param key
+     *        the key
+     * @param value
+     *        the value to map {@code key} to
+     * @return a {@code PersistentMap} with the given mapping (this {@code PersistentMap} if {@code key} already was
+     *         mapped to {@code value})
+     *
+     * @throws IllegalArgumentException
+     *         if {@code key} is {@code null}
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(hash(key), key, value, 0, added);
+        if (newRoot == root) {
+            return this;
+        }
+
+        return new PersistentMap<K, V>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Calls {@code visitor} for each mapping of this {@code PersistentMap}.
+     *
+     * @param visitor
+     *        the {@code EntryVisitor} to call for each mapping
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(EntryVisitor<K, V> visitor) {
+        root.forEach((EntryVisitor<Object, Object>) visitor);
+    }
+
+    /**
+     * Calls {@code visitor} for each mapping of this {@code PersistentMap} that is not contained in {@code base}. If
+     * this {@code PersistentMap} was derived from {@code base}, all shared parts of the tries are skipped, so the cost
+     * is proportional to the number of changed mappings.
+     *
+     * @param base
+     *        the {@code PersistentMap} to compare to
+     * @param visitor
+     *        the {@code EntryVisitor} to call for each changed mapping
+     */
+    @SuppressWarnings("unchecked")
+    void forEachChanged(PersistentMap<K, V> base, EntryVisitor<K, V> visitor) {
+        root.forEachChanged(base.root, base, 0, (EntryVisitor<Object, Object>) visitor);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitIndex(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * An {@code EntryVisitor} is called for the mappings of a {@code PersistentMap}.
+     *
+     * @param <K>
+     *        the type of the keys
+     * @param <V>
+     *        the type of the values
+     */
+    interface EntryVisitor<K, V> {
+
+        /**
+         * Visits a single mapping.
+         *
+         * @param key
+         *        the key
+         * @param value
+         *        the value mapped to {@code key}
+         */
+        void visit(K key, V value);
+
+    }
+
+    private abstract static class Node {
+
+        abstract Object get(int hash, Object key, int shift);
+
+        abstract Node put(int hash, Object key, Object value, int shift, boolean[] added);
+
+        abstract void forEach(EntryVisitor<Object, Object> visitor);
+
+        void forEachChanged(Node baseNode, PersistentMap<?, ?> base, int shift, EntryVisitor<Object, Object> visitor) {
+            if (this == baseNode) {
+                return;
+            }
+
+            forEach(new ChangeFilter(base, visitor));
+        }
+
+    }
+
+    /*
+     * passes on only those mappings that are not contained in the base map
+     */
+    private static final class ChangeFilter implements EntryVisitor<Object, Object> {
+
+        private final PersistentMap<?, ?> base;
+        private final EntryVisitor<Object, Object> visitor;
+
+        ChangeFilter(PersistentMap<?, ?> base, EntryVisitor<Object, Object> visitor) {
+            this.base = base;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void visit(Object key, Object value) {
+            if (base.get(key) != value) {
+                visitor.visit(key, value);
+            }
+        }
+
+    }
+
+    /*
+     * A node that holds up to 32 slots, selected by 5 bits of the hash. Each slot occupies two entries of the array:
+     * either a key and its value or null and a sub-node.
+     */
+    private static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        Object get(int hash, Object key, int shift) {
+            int bit = bitIndex(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+
+            int idx = index(bit);
+            Object k = array[idx];
+            Object v = array[idx + 1];
+            if (k == null) {
+                return ((Node) v).get(hash, key, shift + BITS);
+            }
+
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        Node put(int hash, Object key, Object value, int shift, boolean[] added) {
+            int bit = bitIndex(hash, shift);
+            int idx = index(bit);
+
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, idx);
+                newArray[idx] = key;
+                newArray[idx + 1] = value;
+                System.arraycopy(array, idx, newArray, idx + 2, array.length - idx);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+
+            Object k = array[idx];
+            Object v = array[idx + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.put(hash, key, value, shift + BITS, added);
+                return newChild == child ? this : with(idx + 1, newChild);
+            }
+
+            if (key.equals(k)) {
+                return v == value ? this : with(idx + 1, value);
+            }
+
+            added[0] = true;
+            Node subNode = createNode(shift + BITS, k, v, hash, key, value);
+            Object[] newArray = array.clone();
+            newArray[idx] = null;
+            newArray[idx + 1] = subNode;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        void forEach(EntryVisitor<Object, Object> visitor) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(visitor);
+                } else {
+                    visitor.visit(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        @Override
+        void forEachChanged(Node baseNode, PersistentMap<?, ?> base, int shift, EntryVisitor<Object, Object> visitor) {
+            if (this == baseNode) {
+                return;
+            }
+
+            if (!(baseNode instanceof BitmapNode)) {
+                super.forEachChanged(baseNode, base, shift, visitor);
+                return;
+            }
+
+            BitmapNode baseBitmapNode = (BitmapNode) baseNode;
+            ChangeFilter filter = null;
+            for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                int bit = Integer.lowestOneBit(remaining);
+                int idx = index(bit);
+                Object k = array[idx];
+                Object v = array[idx + 1];
+
+                if ((baseBitmapNode.bitmap & bit) != 0) {
+                    int baseIdx = baseBitmapNode.index(bit);
+                    Object baseK = baseBitmapNode.array[baseIdx];
+                    Object baseV = baseBitmapNode.array[baseIdx + 1];
+
+                    if (k == null && baseK == null) {
+                        ((Node) v).forEachChanged((Node) baseV, base, shift + BITS, visitor);
+                        continue;
+                    }
+
+                    if (k != null && k.equals(baseK)) {
+                        if (v != baseV) {
+                            visitor.visit(k, v);
+                        }
+                        continue;
+                    }
+                }
+
+                // the slot has a different shape in the base map, compare each mapping
+                if (filter == null) {
+                    filter = new ChangeFilter(base, visitor);
+                }
+
+                if (k == null) {
+                    ((Node) v).forEach(filter);
+                } else {
+                    filter.visit(k, v);
+                }
+            }
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private BitmapNode with(int idx, Object o) {
+            Object[] newArray = array.clone();
+            newArray[idx] = o;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private static Node createNode(int shift, Object k1, Object v1, int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+            }
+
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(h1, k1, v1, shift, ignored).put(h2, k2, v2, shift, ignored);
+        }
+
+    }
+
+    /*
+     * A node for keys whose hashes are completely equal.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Object get(int hash, Object key, int shift) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return array[i + 1];
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        Node put(int hash, Object key, Object value, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                // nest this node into a BitmapNode to be able to distinguish the different hashes
+                BitmapNode wrapper = new BitmapNode(bitIndex(this.hash, shift), new Object[] { null, this });
+                return wrapper.put(hash, key, value, shift, added);
+            }
+
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    if (array[i + 1] == value) {
+                        return this;
+                    }
+
+                    Object[] newArray = array.clone();
+                    newArray[i + 1] = value;
+                    return new CollisionNode(hash, newArray);
+                }
+            }
+
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        void forEach(EntryVisitor<Object, Object> visitor) {
+            for (int i = 0; i < array.length; i += 2) {
+                visitor.visit(array[i], array[i + 1]);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+package dfa.framework;
+
+/**
+ * A {@code PostorderWorklist} is a {@code PriorityWorklist} which retrieves the {@code BasicBlock} that comes first in
+ * postorder of a depth-first search of the graph the analysis runs on, starting at its start block. Apart from loops,
+ * every {@code BasicBlock} comes after its successors, which makes this order a good choice for backward analyses.
+ */
+public class PostorderWorklist extends PriorityWorklist {
+
+    /**
+     * Creates an empty {@code PostorderWorklist} for the given {@code SimpleBlockGraph}.
+     *
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis runs on
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockGraph} is {@code null}
+     */
+    public PostorderWorklist(SimpleBlockGraph blockGraph) {
+        this(new GraphEdges(blockGraph, DFADirection.FORWARD));
+    }
+
+    /**
+     * Creates an empty {@code PostorderWorklist} for the given {@code ControlFlowGraph}.
+     *
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis runs on
+     *
+     * @throws IllegalArgumentException
+     *         if {@code cfg} is {@code null}
+     */
+    public PostorderWorklist(ControlFlowGraph cfg) {
+        this(new GraphEdges(cfg, DFADirection.FORWARD));
+    }
+
+    /**
+     * Creates an empty {@code PostorderWorklist} for the given forward {@code GraphEdges}.
+     *
+     * @param edges
+     *        the {@code GraphEdges} of the graph the analysis runs on, in {@code DFADirection.FORWARD}
+     */
+    PostorderWorklist(GraphEdges edges) {
+        super(edges.getPostorder(), edges.getBlockCount());
+    }
+
+}
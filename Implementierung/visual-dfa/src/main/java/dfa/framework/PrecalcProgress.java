@@ -0,0 +1,130 @@
+package dfa.framework;
+
+/**
+ * A {@code PrecalcProgress} is an immutable snapshot of the progress of a precalculation. It is published by the
+ * precalculating thread via its {@code DFAPrecalcController} and can be read by any other thread.
+ *
+ *
+ * @see DFAPrecalcController#getProgress()
+ */
+public final class PrecalcProgress {
+
+    /**
+     * the progress of a precalculation that has not calculated any step yet
+     */
+    public static final PrecalcProgress NONE = new PrecalcProgress(0, 0, 0, 0, 0, 0, 0);
+
+    private final int elementarySteps;
+    private final int blockSteps;
+    private final int worklistSize;
+    private final long transitions;
+    private final long joins;
+    private final long traceHeapEstimate;
+    private final long elapsedNanos;
+
+    /**
+     * Creates a new {@code PrecalcProgress}.
+     *
+     * @param elementarySteps
+     *        the number of elementary-steps calculated so far
+     * @param blockSteps
+     *        the number of block-steps calculated so far
+     * @param worklistSize
+     *        the size of the current {@code Worklist}
+     * @param transitions
+     *        the number of transitions executed so far
+     * @param joins
+     *        the number of joins executed so far
+     * @param traceHeapEstimate
+     *        the estimated heap (in bytes) used by the stored {@code AnalysisState}s
+     * @param elapsedNanos
+     *        the time (in ns) since the precalculation started
+     */
+    PrecalcProgress(int elementarySteps, int blockSteps, int worklistSize, long transitions, long joins,
+            long traceHeapEstimate, long elapsedNanos) {
+        this.elementarySteps = elementarySteps;
+        this.blockSteps = blockSteps;
+        this.worklistSize = worklistSize;
+        this.transitions = transitions;
+        this.joins = joins;
+        this.traceHeapEstimate = traceHeapEstimate;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of elementary-steps calculated so far.
+     *
+     * @return the number of elementary-steps
+     */
+    public int getElementarySteps() {
+        return elementarySteps;
+    }
+
+    /**
+     * Returns the number of block-steps calculated so far.
+     *
+     * @return the number of block-steps
+     */
+    public int getBlockSteps() {
+        return blockSteps;
+    }
+
+    /**
+     * Returns the size of the {@code Worklist} of the most recently calculated elementary-step.
+     *
+     * @return the size of the current {@code Worklist}
+     */
+    public int getWorklistSize() {
+        return worklistSize;
+    }
+
+    /**
+     * Returns the number of transitions executed so far.
+     *
+     * @return the number of transitions
+     */
+    public long getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * Returns the number of joins executed so far.
+     *
+     * @return the number of joins
+     */
+    public long getJoins() {
+        return joins;
+    }
+
+    /**
+     * Returns a rough estimate of the heap (in bytes) used by the stored {@code AnalysisState}s.
+     *
+     * @return the estimated heap used by the stored {@code AnalysisState}s
+     */
+    public long getTraceHeapEstimate() {
+        return traceHeapEstimate;
+    }
+
+    /**
+     * Returns the time (in ns) from the start of the precalculation to this snapshot.
+     *
+     * @return the elapsed time (in ns)
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the average number of elementary-steps calculated per second.
+     *
+     * @return the number of elementary-steps per second
+     */
+    public double getStepsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+
+        return elementarySteps * 1e9 / elapsedNanos;
+    }
+
+}
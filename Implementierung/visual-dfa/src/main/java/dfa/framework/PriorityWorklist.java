@@ -0,0 +1,234 @@
+package dfa.framework;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * A {@code PriorityWorklist} is a {@code Worklist} which retrieves the {@code BasicBlock} that comes first in a fixed
+ * order of all {@code BasicBlock}s of a graph. The order is given by subclasses. A {@code BasicBlock} cannot be
+ * inserted if it is still on the {@code PriorityWorklist}.
+ *
+ * The {@code BasicBlock}s are kept in a binary heap, so inserting and retrieving a {@code BasicBlock} takes time
+ * logarithmic in the size of the {@code PriorityWorklist}, while {@code contains} takes constant time.
+ *
+ * The {@code BasicBlock}s on a {@code PriorityWorklist} are tracked by their id, so they have to belong to a
+ * {@code ControlFlowGraph} created from the graph the {@code PriorityWorklist} was created for. {@code BasicBlock}s
+ * added to the {@code ControlFlowGraph} later come after all others. A copy shares its {@code BasicBlock}s with the
+ * original {@code PriorityWorklist} until one of them is modified.
+ */
+public abstract class PriorityWorklist implements Worklist, Cloneable {
+
+    // the position of each BasicBlock (indexed by id) in the order, lower positions are retrieved first
+    private final int[] positions;
+
+    // a binary heap of the BasicBlocks on this worklist, ordered by their positions
+    private BasicBlock[] heap;
+    private int size;
+
+    // the ids of all BasicBlocks on this worklist
+    private BitSet members;
+
+    // whether heap and members are shared with a copy and therefore must be copied before modification
+    private boolean shared;
+
+    /**
+     * Creates an empty {@code PriorityWorklist} which retrieves {@code BasicBlock}s in the given order. The ids of all
+     * {@code BasicBlock}s which do not appear in {@code order} come after all others, in ascending order.
+     *
+     * @param order
+     *        the ids of the {@code BasicBlock}s in the order they are to be retrieved, without duplicates
+     * @param blockCount
+     *        the number of {@code BasicBlock}s of the graph
+     *
+     * @throws IllegalArgumentException
+     *         if {@code order} is {@code null} or contains an id twice or an id which is not less than
+     *         {@code blockCount}
+     */
+    protected PriorityWorklist(int[] order, int blockCount) {
+        if (order == null) {
+            throw new IllegalArgumentException("order must not be null");
+        }
+
+        positions = new int[blockCount];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < order.length; ++i) {
+            if (order[i] < 0 || order[i] >= blockCount || positions[order[i]] >= 0) {
+                throw new IllegalArgumentException("invalid id in order: " + order[i]);
+            }
+
+            positions[order[i]] = i;
+        }
+
+        int next = order.length;
+        for (int id = 0; id < blockCount; ++id) {
+            if (positions[id] < 0) {
+                positions[id] = next++;
+            }
+        }
+
+        heap = new BasicBlock[8];
+        size = 0;
+        members = new BitSet();
+        shared = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * If {@code basicBlock} is already on this {@code PriorityWorklist}, this has no effect.
+     *
+     * @throws {
+     * @code IllegalArgumentException}, if {@code basicBlock} is {@code null} or does not belong to a
+     *       {@code ControlFlowGraph}
+     */
+    public boolean add(BasicBlock basicBlock) {
+        if (basicBlock == null) {
+            throw new IllegalArgumentException("basicBlock is null");
+        }
+
+        if (contains(basicBlock)) {
+            return false;
+        }
+
+        copyIfShared();
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * size);
+        }
+
+        int position = getPosition(basicBlock);
+        int idx = size++;
+        while (idx > 0) {
+            int parent = (idx - 1) >>> 1;
+            if (getPosition(heap[parent]) <= position) {
+                break;
+            }
+
+            heap[idx] = heap[parent];
+            idx = parent;
+        }
+
+        heap[idx] = basicBlock;
+        members.set(basicBlock.getId());
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the {@code BasicBlock} that comes first in the order of this {@code PriorityWorklist}.
+     *
+     * @return the {@code BasicBlock} that comes first or {@code null} if this {@code PriorityWorklist} is empty
+     */
+    public BasicBlock poll() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        copyIfShared();
+        BasicBlock first = heap[0];
+        BasicBlock last = heap[--size];
+        heap[size] = null;
+
+        if (size > 0) {
+            int position = getPosition(last);
+            int idx = 0;
+            while (2 * idx + 1 < size) {
+                int child = 2 * idx + 1;
+                if (child + 1 < size && getPosition(heap[child + 1]) < getPosition(heap[child])) {
+                    ++child;
+                }
+
+                if (position <= getPosition(heap[child])) {
+                    break;
+                }
+
+                heap[idx] = heap[child];
+                idx = child;
+            }
+
+            heap[idx] = last;
+        }
+
+        members.clear(first.getId());
+        return first;
+    }
+
+    /**
+     * Retrieves the {@code BasicBlock} that comes first in the order of this {@code PriorityWorklist}. The retrieved
+     * {@code BasicBlock} is not removed from this {@code PriorityWorklist}.
+     *
+     * @return the {@code BasicBlock} that comes first or {@code null} if this {@code PriorityWorklist} is empty
+     */
+    public BasicBlock peek() {
+        return isEmpty() ? null : heap[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws {
+     * @code IllegalArgumentException}, if {@code basicBlock} does not belong to a {@code ControlFlowGraph}
+     */
+    public boolean contains(BasicBlock basicBlock) {
+        return basicBlock != null && members.get(getId(basicBlock));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned {@code Iterator} does not support removal and returns the {@code BasicBlock}s in the order they
+     * would be retrieved.
+     */
+    public Iterator<BasicBlock> iterator() {
+        BasicBlock[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, new Comparator<BasicBlock>() {
+            @Override
+            public int compare(BasicBlock b1, BasicBlock b2) {
+                return Integer.compare(getPosition(b1), getPosition(b2));
+            }
+        });
+
+        return Collections.unmodifiableList(Arrays.asList(sorted)).iterator();
+    }
+
+    @Override
+    public Worklist clone() {
+        try {
+            shared = true;
+            return (PriorityWorklist) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void copyIfShared() {
+        if (shared) {
+            heap = heap.clone();
+            members = (BitSet) members.clone();
+            shared = false;
+        }
+    }
+
+    private int getPosition(BasicBlock basicBlock) {
+        int id = getId(basicBlock);
+        return id < positions.length ? positions[id] : id;
+    }
+
+    private static int getId(BasicBlock basicBlock) {
+        int id = basicBlock.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("basicBlock does not belong to a ControlFlowGraph");
+        }
+
+        return id;
+    }
+
+}
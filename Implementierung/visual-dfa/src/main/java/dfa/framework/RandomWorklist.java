@@ -1,38 +1,74 @@
 package dfa.framework;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Random;
 
 /**
  * A {@code RandomWorklist} is a {@code Worklist} which chooses the next {@code BasicBlock} to be retrieved (pseudo-)
  * randomly among the {@code BasicBlock}s on the {@code RandomWorklist}.
  * 
+ * The {@code BasicBlock}s on a {@code RandomWorklist} are tracked by their id, so they have to belong to a
+ * {@code ControlFlowGraph}. A copy shares its {@code BasicBlock}s with the original {@code RandomWorklist} until one of
+ * them is modified.
+ * 
+ * The choices of a {@code RandomWorklist} are determined by its seed. A copy gets a seed derived from the seed of the
+ * original, so an analysis using a {@code RandomWorklist} can be repeated exactly by using the same initial seed.
+ * 
  * @author Sebastian Rauch
  */
 public class RandomWorklist implements Worklist {
 
-    private Random random;
+    // multiplier and increment of the linear congruential generator used to derive the seeds of copies
+    private static final long SEED_MULTIPLIER = 6364136223846793005L;
+    private static final long SEED_INCREMENT = 1442695040888963407L;
+
+    private final long seed;
+
+    private final Random random;
 
-    private LinkedList<BasicBlock> basicBlocks;
+    private ArrayList<BasicBlock> basicBlocks;
+
+    // the ids of all BasicBlocks on this worklist
+    private BitSet members;
+
+    // whether basicBlocks and members are shared with a copy and therefore must be copied before modification
+    private boolean shared;
 
     /**
-     * Creates an empty {@code RandomWorklist}.
+     * Creates an empty {@code RandomWorklist} with a random seed.
      */
     public RandomWorklist() {
-        this(new Random(), new LinkedList<BasicBlock>());
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Creates an empty {@code RandomWorklist} with the given seed.
+     * 
+     * @param seed
+     *        the seed that determines the choices of the new {@code RandomWorklist} and its copies
+     */
+    public RandomWorklist(long seed) {
+        this(seed, new ArrayList<BasicBlock>(), new BitSet(), false);
     }
 
     /*
-     * @param random a {@code Random} that is used by the new {@code RandomWorklist} no copy is made, {@code random} is
-     * used directly
+     * @param seed the seed of the new {@code RandomWorklist}
+     * 
+     * @param basicBlocks the {@code BasicBlock}s that should be on the new {@code RandomWorklist}
      * 
-     * @param basicBlocks the {@code BasicBlock}s that should be on the new {@code RandomWorklist} a copy of {@code
-     * basicBlocks} is made and used by the new {@code RandomWorklist}
+     * @param members the ids of {@code basicBlocks}
+     * 
+     * @param shared whether {@code basicBlocks} and {@code members} are shared with another {@code RandomWorklist}
      */
-    private RandomWorklist(Random random, LinkedList<BasicBlock> basicBlocks) {
-        this.random = random;
-        this.basicBlocks = new LinkedList<BasicBlock>(basicBlocks);
+    private RandomWorklist(long seed, ArrayList<BasicBlock> basicBlocks, BitSet members, boolean shared) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.basicBlocks = basicBlocks;
+        this.members = members;
+        this.shared = shared;
     }
 
     /**
@@ -41,7 +77,8 @@ public class RandomWorklist implements Worklist {
      * If {@code basicBlock} is already on this {@code RandomWorklist}, this has no effect.
      * 
      * @throws {
-     * @code IllegalArgumentException}, if {@code basicBlock} is {@code null}
+     * @code IllegalArgumentException}, if {@code basicBlock} is {@code null} or does not belong to a
+     *       {@code ControlFlowGraph}
      */
     public boolean add(BasicBlock basicBlock) {
         if (basicBlock == null) {
@@ -52,6 +89,8 @@ public class RandomWorklist implements Worklist {
             return false;
         }
 
+        copyIfShared();
+        members.set(basicBlock.getId());
         return basicBlocks.add(basicBlock);
     }
 
@@ -66,8 +105,15 @@ public class RandomWorklist implements Worklist {
             return null;
         }
 
+        copyIfShared();
         int index = random.nextInt(basicBlocks.size());
-        return basicBlocks.remove(index);
+
+        // move the last BasicBlock into the gap, so removal takes constant time
+        int lastIndex = basicBlocks.size() - 1;
+        BasicBlock basicBlock = basicBlocks.set(index, basicBlocks.get(lastIndex));
+        basicBlocks.remove(lastIndex);
+        members.clear(basicBlock.getId());
+        return basicBlock;
     }
 
     /**
@@ -95,23 +141,57 @@ public class RandomWorklist implements Worklist {
 
     /**
      * {@inheritDoc}
+     * 
+     * @throws {
+     * @code IllegalArgumentException}, if {@code basicBlock} does not belong to a {@code ControlFlowGraph}
      */
     public boolean contains(BasicBlock basicBlock) {
-        return basicBlocks.contains(basicBlock);
+        return basicBlock != null && members.get(getId(basicBlock));
     }
 
     /**
      * {@inheritDoc}
+     * 
+     * The returned {@code Iterator} does not support removal.
      */
     public Iterator<BasicBlock> iterator() {
-        return basicBlocks.iterator();
+        return Collections.unmodifiableList(basicBlocks).iterator();
+    }
+
+    /**
+     * Returns the seed of this {@code RandomWorklist}.
+     * 
+     * @return the seed of this {@code RandomWorklist}
+     */
+    public long getSeed() {
+        return seed;
     }
 
     /**
      * {@inheritDoc}
+     * 
+     * The seed of the copy only depends on the seed of this {@code RandomWorklist}, so copying is deterministic.
      */
     public Worklist clone() {
-        return new RandomWorklist(new Random(), basicBlocks);
+        shared = true;
+        return new RandomWorklist(seed * SEED_MULTIPLIER + SEED_INCREMENT, basicBlocks, members, true);
+    }
+
+    private void copyIfShared() {
+        if (shared) {
+            basicBlocks = new ArrayList<BasicBlock>(basicBlocks);
+            members = (BitSet) members.clone();
+            shared = false;
+        }
+    }
+
+    private static int getId(BasicBlock basicBlock) {
+        int id = basicBlock.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("basicBlock does not belong to a ControlFlowGraph");
+        }
+
+        return id;
     }
 
 }
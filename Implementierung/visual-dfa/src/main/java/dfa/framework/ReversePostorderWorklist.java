@@ -0,0 +1,56 @@
+package dfa.framework;
+
+/**
+ * A {@code ReversePostorderWorklist} is a {@code PriorityWorklist} which retrieves the {@code BasicBlock} that comes
+ * first in reverse postorder of a depth-first search of the graph the analysis runs on, starting at its start block.
+ * Apart from loops, every {@code BasicBlock} comes after its predecessors, which makes this order a good choice for
+ * forward analyses.
+ */
+public class ReversePostorderWorklist extends PriorityWorklist {
+
+    /**
+     * Creates an empty {@code ReversePostorderWorklist} for the given {@code SimpleBlockGraph}.
+     *
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis runs on
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockGraph} is {@code null}
+     */
+    public ReversePostorderWorklist(SimpleBlockGraph blockGraph) {
+        this(new GraphEdges(blockGraph, DFADirection.FORWARD));
+    }
+
+    /**
+     * Creates an empty {@code ReversePostorderWorklist} for the given {@code ControlFlowGraph}.
+     *
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis runs on
+     *
+     * @throws IllegalArgumentException
+     *         if {@code cfg} is {@code null}
+     */
+    public ReversePostorderWorklist(ControlFlowGraph cfg) {
+        this(new GraphEdges(cfg, DFADirection.FORWARD));
+    }
+
+    /**
+     * Creates an empty {@code ReversePostorderWorklist} for the given forward {@code GraphEdges}.
+     *
+     * @param edges
+     *        the {@code GraphEdges} of the graph the analysis runs on, in {@code DFADirection.FORWARD}
+     */
+    ReversePostorderWorklist(GraphEdges edges) {
+        super(reverse(edges.getPostorder()), edges.getBlockCount());
+    }
+
+    private static int[] reverse(int[] order) {
+        int[] reversed = new int[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            reversed[order.length - 1 - i] = order[i];
+        }
+
+        return reversed;
+    }
+
+}
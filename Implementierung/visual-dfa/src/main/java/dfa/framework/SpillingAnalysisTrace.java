@@ -0,0 +1,679 @@
+package dfa.framework;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code SpillingAnalysisTrace} keeps the most recent {@code AnalysisState}s on the heap as long as their estimated
+ * size does not exceed a given heap budget. Older {@code AnalysisState}s are spilled to a {@code MappedTraceFile} in a
+ * compact binary encoding: every k-th spilled step is written completely, all other steps are written as the changes
+ * to their preceding step. Blocks are encoded by their id and {@code LatticeElement}s by their id in a table of
+ * {@code LatticeElement}s on the heap. The table counts towards the heap budget, so its least recently used
+ * {@code LatticeElement}s are evicted when the budget is exceeded.
+ *
+ * A {@code Worklist} may carry state that is not visible through its {@code BasicBlock}s (like the seed of a
+ * {@code RandomWorklist}), so the {@code Worklist}s of the completely written steps are kept on the heap, as the
+ * steps are recalculated from them. The {@code Worklist}s of all other spilled steps are written as their
+ * {@code BasicBlock}s and rebuilt when they are decoded.
+ *
+ * Spilled steps are decoded on demand, the most recently decoded steps are kept in a bounded cache. If a spilled step
+ * refers to an evicted {@code LatticeElement}, it is recalculated by running a {@code StepEngine} from the nearest
+ * preceding completely written step that can be decoded (or from elementary-step 0), which puts the
+ * {@code LatticeElement}s back into the table.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in the stored {@code AnalysisState}s
+ */
+class SpillingAnalysisTrace<E extends LatticeElement> implements AnalysisTrace<E> {
+
+    private static final int CACHE_SIZE = 64;
+
+    private static final byte FULL_RECORD = 0;
+    private static final byte DELTA_RECORD = 1;
+
+    private static final int NO_ID = -1;
+
+    private final StepEngine<E> engine;
+
+    private final Worklist initialWorklist;
+
+    private final int keyframeInterval;
+
+    private final long heapBudget;
+
+    private final DFADirection direction;
+
+    private final Worklist emptyWorklist;
+
+    private final ControlFlowGraph cfg;
+    private final int basicBlockCount;
+
+    // the elements kept on the heap by their id, in the order they were used
+    private final Map<Integer, E> elements = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<E, Integer> elementIds = new HashMap<>();
+    private int nextElementId = 0;
+    private boolean missingElement = false;
+
+    private final LogicalColor[] colors = LogicalColor.values();
+
+    // the steps that are not spilled, stored in a ring buffer
+    private Object[] hotStates = new Object[16];
+    private int[] hotCosts = new int[16];
+    private int hotHead = 0;
+    private int hotCount = 0;
+    private long hotBytes = 0;
+
+    private AnalysisState<E> lastAdded = null;
+
+    private int spilledSteps = 0;
+    private long[] recordPositions = new long[16];
+    private AnalysisState<E> lastSpilled = null;
+    private MappedTraceFile file = null;
+
+    // the worklists of the full-records, indexed by their step divided by keyframeInterval
+    private final List<Worklist> keyframeWorklists = new ArrayList<>();
+
+    // the ids of the basic blocks visited up to the most recently spilled step
+    private final BitSet spilledVisited = new BitSet();
+
+    // how often each basic block (indexed by id) has been selected up to the most recently spilled step
+    private final int[] spilledSelections;
+
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(4096);
+
+    private final Map<Integer, AnalysisState<E>> decodedCache = new LinkedHashMap<Integer, AnalysisState<E>>(16,
+            0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, AnalysisState<E>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private int lastDecodedStep = -1;
+    private AnalysisState<E> lastDecoded = null;
+
+    // the most recently recalculated step, calculation can continue from here
+    private int cursorStep = -1;
+    private AnalysisState<E> cursorState = null;
+    private BitSet cursorVisited = null;
+    private int[] cursorSelections = null;
+    private byte[] cursorColors = null;
+
+    private final BlockState<E> nullState = new BlockState<E>(null, null);
+
+    /**
+     * Creates an empty {@code SpillingAnalysisTrace}.
+     *
+     * @param engine
+     *        the {@code StepEngine} used to recalculate {@code AnalysisState}s, it must calculate the same steps as the
+     *        one the stored {@code AnalysisState}s come from
+     * @param cfg
+     *        the {@code ControlFlowGraph} containing all blocks of the stored {@code AnalysisState}s
+     * @param initialWorklist
+     *        the {@code Worklist} of elementary-step 0, it is not modified by this {@code SpillingAnalysisTrace}
+     * @param keyframeInterval
+     *        the number of spilled steps between two completely written steps
+     * @param heapBudget
+     *        the maximum estimated number of bytes used by the steps and {@code LatticeElement}s kept on the heap
+     * @param direction
+     *        the {@code DFADirection} of the stored {@code AnalysisState}s
+     *
+     * @throws IllegalArgumentException
+     *         if {@code keyframeInterval} is less than 1, {@code heapBudget} is negative or any of {@code engine},
+     *         {@code cfg}, {@code initialWorklist} or {@code direction} is {@code null}
+     */
+    SpillingAnalysisTrace(StepEngine<E> engine, ControlFlowGraph cfg, Worklist initialWorklist, int keyframeInterval,
+            long heapBudget, DFADirection direction) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine must not be null");
+        }
+
+        if (cfg == null) {
+            throw new IllegalArgumentException("cfg must not be null");
+        }
+
+        if (initialWorklist == null) {
+            throw new IllegalArgumentException("initialWorklist must not be null");
+        }
+
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("keyframeInterval must be at least 1");
+        }
+
+        if (heapBudget < 0) {
+            throw new IllegalArgumentException("heapBudget must not be negative");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        this.engine = engine;
+        this.initialWorklist = initialWorklist;
+        this.keyframeInterval = keyframeInterval;
+        this.heapBudget = heapBudget;
+        this.direction = direction;
+        this.spilledSelections = engine.createSelectionCounts();
+
+        emptyWorklist = initialWorklist.clone();
+        while (!emptyWorklist.isEmpty()) {
+            emptyWorklist.poll();
+        }
+
+        this.cfg = cfg;
+        this.basicBlockCount = cfg.getBasicBlocks().size();
+    }
+
+    @Override
+    public synchronized void add(AnalysisState<E> state) {
+        if (state == null) {
+            throw new IllegalArgumentException("state must not be null");
+        }
+
+        int cost = AnalysisStateCost.estimateStep(lastAdded, state);
+        lastAdded = state;
+
+        if (hotCount == hotStates.length) {
+            growRing();
+        }
+
+        int idx = (hotHead + hotCount) % hotStates.length;
+        hotStates[idx] = state;
+        hotCosts[idx] = cost;
+        ++hotCount;
+        hotBytes += cost;
+
+        // the most recent step always stays on the heap
+        while (getHeapEstimate() > heapBudget && hotCount > 1) {
+            spillOldest();
+        }
+
+        evictElements();
+    }
+
+    @Override
+    public synchronized AnalysisState<E> get(int step) {
+        if (step < 0 || step >= size()) {
+            throw new IndexOutOfBoundsException("invalid step: " + step);
+        }
+
+        if (step >= spilledSteps) {
+            return getHotState(step - spilledSteps);
+        }
+
+        AnalysisState<E> state = decodedCache.get(step);
+        if (state != null) {
+            return state;
+        }
+
+        state = decodeStep(step);
+        if (state == null) {
+            // the records refer to evicted elements
+            state = recalculate(step);
+        }
+
+        lastDecodedStep = step;
+        lastDecoded = state;
+        decodedCache.put(step, state);
+        evictElements();
+        return state;
+    }
+
+    @Override
+    public synchronized int size() {
+        return spilledSteps + hotCount;
+    }
+
+    @Override
+    public synchronized long getHeapEstimate() {
+        // a decoded AnalysisState is assumed to differ from its predecessor in a single mapping
+        return hotBytes + (long) elements.size() * AnalysisStateCost.BYTES_PER_ELEMENT
+                + (long) decodedCache.size()
+                        * (AnalysisStateCost.BYTES_PER_STATE + AnalysisStateCost.BYTES_PER_CHANGED_MAPPING)
+                + (long) keyframeWorklists.size() * AnalysisStateCost.BYTES_PER_WORKLIST + 8L * recordPositions.length;
+    }
+
+    /**
+     * Returns the number of steps that have been spilled to the scratch file.
+     *
+     * @return the number of spilled steps
+     */
+    synchronized int getSpilledSteps() {
+        return spilledSteps;
+    }
+
+    /**
+     * Returns the number of {@code LatticeElement}s of spilled steps that are kept on the heap.
+     *
+     * @return the number of {@code LatticeElement}s in the element table
+     */
+    synchronized int getElementTableSize() {
+        return elements.size();
+    }
+
+    /**
+     * Closes and deletes the scratch file. The spilled steps cannot be accessed afterwards.
+     */
+    synchronized void close() {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AnalysisState<E> getHotState(int hotIdx) {
+        return (AnalysisState<E>) hotStates[(hotHead + hotIdx) % hotStates.length];
+    }
+
+    private void growRing() {
+        Object[] newStates = new Object[2 * hotStates.length];
+        int[] newCosts = new int[2 * hotCosts.length];
+        for (int i = 0; i < hotCount; ++i) {
+            int idx = (hotHead + i) % hotStates.length;
+            newStates[i] = hotStates[idx];
+            newCosts[i] = hotCosts[idx];
+        }
+
+        hotStates = newStates;
+        hotCosts = newCosts;
+        hotHead = 0;
+    }
+
+    private void spillOldest() {
+        AnalysisState<E> state = getHotState(0);
+        hotBytes -= hotCosts[hotHead];
+        hotStates[hotHead] = null;
+        hotHead = (hotHead + 1) % hotStates.length;
+        --hotCount;
+
+        if (file == null) {
+            file = new MappedTraceFile();
+        }
+
+        BasicBlock currentBBlock = state.getCurrentBasicBlock();
+        if (currentBBlock != null) {
+            spilledVisited.set(currentBBlock.getId());
+        }
+
+        // apart from step 0, each block-step begins by selecting its basic block from the worklist
+        if (spilledSteps > 0 && StepEngine.beginsBlockStep(state)) {
+            ++spilledSelections[currentBBlock.getId()];
+        }
+
+        encodeBuffer.clear();
+        if (spilledSteps % keyframeInterval == 0) {
+            encodeFull(state);
+        } else {
+            encodeDelta(lastSpilled, state);
+        }
+        encodeBuffer.flip();
+
+        if (spilledSteps == recordPositions.length) {
+            recordPositions = Arrays.copyOf(recordPositions, 2 * recordPositions.length);
+        }
+
+        recordPositions[spilledSteps++] = file.append(encodeBuffer);
+        lastSpilled = state;
+    }
+
+    private void encodeFull(AnalysisState<E> state) {
+        putHeader(FULL_RECORD, state);
+
+        // needed to recalculate the following steps
+        long[] visitedWords = spilledVisited.toLongArray();
+        putInt(visitedWords.length);
+        for (long word : visitedWords) {
+            ensureCapacity(8);
+            encodeBuffer.putLong(word);
+        }
+
+        for (int selectionCount : spilledSelections) {
+            putInt(selectionCount);
+        }
+
+        // the worklist is kept on the heap, since recalculation depends on its internal state
+        keyframeWorklists.add(state.getWorklist());
+
+        for (int id = 0; id < cfg.getBlockCount(); ++id) {
+            putBlockState(state.getBlockState(cfg.getBlock(id)));
+        }
+
+        // the basic blocks have the ids 0, ..., basicBlockCount - 1
+        for (int id = 0; id < basicBlockCount; ++id) {
+            LogicalColor color = state.getColor((BasicBlock) cfg.getBlock(id));
+            ensureCapacity(1);
+            encodeBuffer.put(color == null ? (byte) NO_ID : (byte) color.ordinal());
+        }
+    }
+
+    private void encodeDelta(AnalysisState<E> prevState, AnalysisState<E> state) {
+        putHeader(DELTA_RECORD, state);
+
+        if (KeyframeAnalysisTrace.sameElements(prevState.getWorklist(), state.getWorklist())) {
+            putInt(NO_ID);
+        } else {
+            putWorklist(state.getWorklist());
+        }
+
+        final List<Object> stateChanges = new ArrayList<>();
+        state.getStateMap().forEachChanged(prevState.getStateMap(),
+                new PersistentMap.EntryVisitor<AbstractBlock, BlockState<E>>() {
+
+                    @Override
+                    public void visit(AbstractBlock key, BlockState<E> value) {
+                        stateChanges.add(key);
+                        stateChanges.add(value);
+                    }
+                });
+
+        putInt(stateChanges.size() / 2);
+        for (int i = 0; i < stateChanges.size(); i += 2) {
+            putInt(((AbstractBlock) stateChanges.get(i)).getId());
+            @SuppressWarnings("unchecked")
+            BlockState<E> blockState = (BlockState<E>) stateChanges.get(i + 1);
+            putBlockState(blockState);
+        }
+
+        final List<Object> colorChanges = new ArrayList<>();
+        state.getColorMap().forEachChanged(prevState.getColorMap(),
+                new PersistentMap.EntryVisitor<BasicBlock, LogicalColor>() {
+
+                    @Override
+                    public void visit(BasicBlock key, LogicalColor value) {
+                        colorChanges.add(key);
+                        colorChanges.add(value);
+                    }
+                });
+
+        putInt(colorChanges.size() / 2);
+        for (int i = 0; i < colorChanges.size(); i += 2) {
+            putInt(((BasicBlock) colorChanges.get(i)).getId());
+            ensureCapacity(1);
+            encodeBuffer.put((byte) ((LogicalColor) colorChanges.get(i + 1)).ordinal());
+        }
+    }
+
+    private void putHeader(byte recordType, AnalysisState<E> state) {
+        ensureCapacity(1);
+        encodeBuffer.put(recordType);
+
+        BasicBlock currentBasicBlock = state.getCurrentBasicBlock();
+        putInt(currentBasicBlock == null ? NO_ID : currentBasicBlock.getId());
+        putInt(state.getCurrentElementaryBlockIndex());
+    }
+
+    private void putWorklist(Worklist worklist) {
+        int sizePosition = encodeBuffer.position();
+        putInt(0);
+
+        int count = 0;
+        for (BasicBlock bBlock : worklist) {
+            putInt(bBlock.getId());
+            ++count;
+        }
+
+        encodeBuffer.putInt(sizePosition, count);
+    }
+
+    private void putBlockState(BlockState<E> blockState) {
+        if (blockState == null) {
+            // distinguishes a missing BlockState from a BlockState with null-states
+            putInt(NO_ID - 1);
+            putInt(NO_ID - 1);
+            return;
+        }
+
+        putInt(getElementId(blockState.getInState()));
+        putInt(getElementId(blockState.getOutState()));
+    }
+
+    private int getElementId(E element) {
+        if (element == null) {
+            return NO_ID;
+        }
+
+        Integer id = elementIds.get(element);
+        if (id == null) {
+            id = nextElementId++;
+            elementIds.put(element, id);
+        }
+
+        // marks the element as used
+        elements.put(id, element);
+        return id;
+    }
+
+    private void evictElements() {
+        Iterator<Map.Entry<Integer, E>> it = elements.entrySet().iterator();
+        while (getHeapEstimate() > heapBudget && it.hasNext()) {
+            Map.Entry<Integer, E> eldest = it.next();
+            if (eldest.getKey().equals(elementIds.get(eldest.getValue()))) {
+                elementIds.remove(eldest.getValue());
+            }
+
+            it.remove();
+        }
+    }
+
+    private void putInt(int value) {
+        ensureCapacity(4);
+        encodeBuffer.putInt(value);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (encodeBuffer.remaining() < bytes) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(2 * encodeBuffer.capacity(),
+                    encodeBuffer.position() + bytes));
+            encodeBuffer.flip();
+            newBuffer.put(encodeBuffer);
+            encodeBuffer = newBuffer;
+        }
+    }
+
+    /*
+     * decodes the given step from the records starting at the nearest preceding full-record (or at the most recently
+     * decoded step, if that is closer), returns null if a record refers to an evicted element
+     */
+    private AnalysisState<E> decodeStep(int step) {
+        int keyframeStep = step - step % keyframeInterval;
+        int fromStep;
+        AnalysisState<E> state;
+        if (lastDecoded != null && keyframeStep <= lastDecodedStep && lastDecodedStep < step) {
+            fromStep = lastDecodedStep;
+            state = lastDecoded;
+        } else {
+            fromStep = keyframeStep;
+            state = decode(keyframeStep, null, null);
+        }
+
+        for (int s = fromStep + 1; s <= step && state != null; ++s) {
+            state = decode(s, state, null);
+        }
+
+        return state;
+    }
+
+    /*
+     * recalculates the given step, starting at the most recently recalculated step or at the nearest preceding
+     * full-record that can be decoded
+     */
+    private AnalysisState<E> recalculate(int step) {
+        moveCursor(step);
+
+        while (cursorStep < step) {
+            AnalysisState<E> nextState = engine.nextState(cursorState, cursorVisited, cursorSelections, cursorColors);
+            if (nextState == null) {
+                throw new IllegalStateException("the recalculated analysis reached a fixpoint too early");
+            }
+
+            // puts the evicted elements the record refers to back into the table
+            decode(++cursorStep, cursorState, nextState);
+            cursorState = nextState;
+        }
+
+        return cursorState;
+    }
+
+    private void moveCursor(int step) {
+        for (int keyframeStep = step - step % keyframeInterval; keyframeStep >= 0; keyframeStep -= keyframeInterval) {
+            if (cursorState != null && keyframeStep <= cursorStep && cursorStep <= step) {
+                return;
+            }
+
+            AnalysisState<E> keyframe = decode(keyframeStep, null, null);
+            if (keyframe != null) {
+                ByteBuffer buffer = file.read(recordPositions[keyframeStep]);
+                buffer.position(buffer.position() + 9); // skip the header
+
+                long[] visitedWords = new long[buffer.getInt()];
+                for (int i = 0; i < visitedWords.length; ++i) {
+                    visitedWords[i] = buffer.getLong();
+                }
+
+                int[] selections = new int[spilledSelections.length];
+                for (int i = 0; i < selections.length; ++i) {
+                    selections[i] = buffer.getInt();
+                }
+
+                setCursor(keyframeStep, keyframe, BitSet.valueOf(visitedWords), selections);
+                return;
+            }
+        }
+
+        AnalysisState<E> initialState = engine.createInitialState(initialWorklist);
+        decode(0, null, initialState);
+
+        BitSet visited = new BitSet();
+        visited.set(engine.getStartBlock().getId());
+        setCursor(0, initialState, visited, engine.createSelectionCounts());
+    }
+
+    private void setCursor(int step, AnalysisState<E> state, BitSet visited, int[] selections) {
+        cursorStep = step;
+        cursorState = state;
+        cursorVisited = visited;
+        cursorSelections = selections;
+        cursorColors = engine.getColors(state);
+    }
+
+    /*
+     * decodes the record of the given step, prevState must be the state of the preceding step if the record is a
+     * delta-record; if recalculatedState is given, the evicted elements the record refers to are taken from it,
+     * otherwise null is returned if the record refers to an evicted element
+     */
+    private AnalysisState<E> decode(int step, AnalysisState<E> prevState, AnalysisState<E> recalculatedState) {
+        ByteBuffer buffer = file.read(recordPositions[step]);
+        byte recordType = buffer.get();
+        missingElement = false;
+
+        int currentBlockId = buffer.getInt();
+        BasicBlock currentBasicBlock = currentBlockId == NO_ID ? null : (BasicBlock) cfg.getBlock(currentBlockId);
+        int eBlockIndex = buffer.getInt();
+
+        if (recordType == FULL_RECORD) {
+            // skip the visited basic blocks and selection counts
+            int visitedWords = buffer.getInt();
+            buffer.position(buffer.position() + 8 * visitedWords + 4 * spilledSelections.length);
+
+            Worklist worklist = keyframeWorklists.get(step / keyframeInterval);
+
+            PersistentMap<AbstractBlock, BlockState<E>> stateMap = PersistentMap.empty();
+            for (int id = 0; id < cfg.getBlockCount(); ++id) {
+                AbstractBlock block = cfg.getBlock(id);
+                BlockState<E> blockState = getBlockState(buffer, block, recalculatedState);
+                if (blockState != null) {
+                    stateMap = stateMap.put(block, blockState);
+                }
+            }
+
+            PersistentMap<BasicBlock, LogicalColor> colorMap = PersistentMap.empty();
+            for (int id = 0; id < basicBlockCount; ++id) {
+                byte color = buffer.get();
+                if (color != NO_ID) {
+                    colorMap = colorMap.put((BasicBlock) cfg.getBlock(id), colors[color]);
+                }
+            }
+
+            return missingElement ? null
+                    : new AnalysisState<E>(worklist, currentBasicBlock, eBlockIndex, stateMap, colorMap, direction);
+        }
+
+        int worklistSize = buffer.getInt();
+        Worklist worklist = worklistSize == NO_ID ? prevState.getWorklist() : getWorklist(buffer, worklistSize);
+
+        PersistentMap<AbstractBlock, BlockState<E>> stateMap = prevState.getStateMap();
+        int stateChanges = buffer.getInt();
+        for (int i = 0; i < stateChanges; ++i) {
+            AbstractBlock block = cfg.getBlock(buffer.getInt());
+            stateMap = stateMap.put(block, getBlockState(buffer, block, recalculatedState));
+        }
+
+        PersistentMap<BasicBlock, LogicalColor> colorMap = prevState.getColorMap();
+        int colorChanges = buffer.getInt();
+        for (int i = 0; i < colorChanges; ++i) {
+            BasicBlock bBlock = (BasicBlock) cfg.getBlock(buffer.getInt());
+            colorMap = colorMap.put(bBlock, colors[buffer.get()]);
+        }
+
+        return missingElement ? null
+                : new AnalysisState<E>(worklist, currentBasicBlock, eBlockIndex, stateMap, colorMap, direction);
+    }
+
+    private Worklist getWorklist(ByteBuffer buffer, int size) {
+        Worklist worklist = emptyWorklist.clone();
+        for (int i = 0; i < size; ++i) {
+            worklist.add((BasicBlock) cfg.getBlock(buffer.getInt()));
+        }
+
+        return worklist;
+    }
+
+    private BlockState<E> getBlockState(ByteBuffer buffer, AbstractBlock block, AnalysisState<E> recalculatedState) {
+        int inId = buffer.getInt();
+        int outId = buffer.getInt();
+        if (inId == NO_ID - 1) {
+            return null;
+        }
+
+        if (inId == NO_ID && outId == NO_ID) {
+            return nullState;
+        }
+
+        BlockState<E> recalculated = recalculatedState == null ? null : recalculatedState.getBlockState(block);
+        return new BlockState<E>(getElement(inId, recalculated == null ? null : recalculated.getInState()),
+                getElement(outId, recalculated == null ? null : recalculated.getOutState()));
+    }
+
+    private E getElement(int id, E recalculated) {
+        if (id == NO_ID) {
+            return null;
+        }
+
+        E element = elements.get(id);
+        if (element == null) {
+            if (recalculated == null) {
+                missingElement = true;
+                return null;
+            }
+
+            element = recalculated;
+            elements.put(id, element);
+            if (!elementIds.containsKey(element)) {
+                elementIds.put(element, id);
+            }
+        }
+
+        return element;
+    }
+
+}
@@ -0,0 +1,428 @@
+package dfa.framework;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.toolkits.graph.Block;
+
+/**
+ * A {@code StepEngine} calculates the elementary-steps of a {@code DataFlowAnalysis} on a {@code ControlFlowGraph}.
+ * Given the {@code AnalysisState} of one elementary-step it calculates the {@code AnalysisState} of the next one. The
+ * calculation is deterministic (as long as the {@code Worklist} is), so any elementary-step can be recalculated from
+ * an earlier {@code AnalysisState} and the set of {@code BasicBlock}s visited up to that step.
+ *
+ * All {@code LatticeElement}s calculated by a {@code StepEngine} are interned.
+ *
+ * A {@code StepEngine} can skip the transitions of a {@code BasicBlock} whose in-state has not changed since it was
+ * last processed, in which case the block-step consists of its first and its last elementary-step only.
+ *
+ * If a {@code Widening} is given, it is applied to the in-state of a loop header (see
+ * {@code ControlFlowGraph.getLoopHeaders}) each time the loop header is selected after it has been selected
+ * {@code wideningDelay} times. The number of times each {@code BasicBlock} has been selected is therefore part of the
+ * state needed to recalculate a step.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used by the {@code DataFlowAnalysis}
+ */
+final class StepEngine<E extends LatticeElement> {
+
+    private final DataFlowAnalysis<E> dfa;
+
+    private final ControlFlowGraph cfg;
+
+    private final DFADirection direction;
+
+    private final boolean skipUnchangedBlocks;
+
+    // the widening to apply at loop headers, or null
+    private final Widening<E> widening;
+
+    private final int wideningDelay;
+
+    private final BitSet loopHeaders;
+
+    private final BlockProcessor<E> processor;
+
+    private final Interner<E> interner = new Interner<E>();
+
+    // only accessed by the thread calculating the steps
+    private long transitions = 0;
+    private long joins = 0;
+    private boolean lastStepWidened = false;
+
+    /**
+     * Creates a {@code StepEngine} for the given {@code DataFlowAnalysis} and {@code ControlFlowGraph}.
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} to calculate the steps of
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis is based on
+     * @param direction
+     *        the {@code DFADirection} of {@code dfa}
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfa}, {@code cfg} or {@code direction} is {@code null}
+     */
+    StepEngine(DataFlowAnalysis<E> dfa, ControlFlowGraph cfg, DFADirection direction) {
+        this(dfa, cfg, direction, false);
+    }
+
+    /**
+     * Creates a {@code StepEngine} for the given {@code DataFlowAnalysis} and {@code ControlFlowGraph}.
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} to calculate the steps of
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis is based on
+     * @param direction
+     *        the {@code DFADirection} of {@code dfa}
+     * @param skipUnchangedBlocks
+     *        whether to skip the transitions of {@code BasicBlock}s whose in-state has not changed
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfa}, {@code cfg} or {@code direction} is {@code null}
+     */
+    StepEngine(DataFlowAnalysis<E> dfa, ControlFlowGraph cfg, DFADirection direction, boolean skipUnchangedBlocks) {
+        this(dfa, cfg, direction, skipUnchangedBlocks, null, 0);
+    }
+
+    /**
+     * Creates a {@code StepEngine} for the given {@code DataFlowAnalysis} and {@code ControlFlowGraph} that applies
+     * the given {@code Widening} at loop headers.
+     *
+     * @param dfa
+     *        the {@code DataFlowAnalysis} to calculate the steps of
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis is based on
+     * @param direction
+     *        the {@code DFADirection} of {@code dfa}
+     * @param skipUnchangedBlocks
+     *        whether to skip the transitions of {@code BasicBlock}s whose in-state has not changed
+     * @param widening
+     *        the {@code Widening} to apply at loop headers, {@code null} to apply none
+     * @param wideningDelay
+     *        the number of times a loop header is selected before the {@code Widening} is applied
+     *
+     * @throws IllegalArgumentException
+     *         if any of {@code dfa}, {@code cfg} or {@code direction} is {@code null} or if {@code wideningDelay} is
+     *         negative
+     */
+    StepEngine(DataFlowAnalysis<E> dfa, ControlFlowGraph cfg, DFADirection direction, boolean skipUnchangedBlocks,
+            Widening<E> widening, int wideningDelay) {
+        if (dfa == null) {
+            throw new IllegalArgumentException("dfa must not be null");
+        }
+
+        if (cfg == null) {
+            throw new IllegalArgumentException("cfg must not be null");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        if (wideningDelay < 0) {
+            throw new IllegalArgumentException("wideningDelay must not be negative");
+        }
+
+        this.dfa = dfa;
+        this.cfg = cfg;
+        this.direction = direction;
+        this.skipUnchangedBlocks = skipUnchangedBlocks;
+        this.widening = widening;
+        this.wideningDelay = wideningDelay;
+        this.loopHeaders = widening == null ? new BitSet() : cfg.getLoopHeaders(direction);
+        this.processor = new BlockProcessor<E>(dfa, cfg, direction);
+    }
+
+    /**
+     * Creates the {@code AnalysisState} of elementary-step 0, in which the start block is the current
+     * {@code BasicBlock}.
+     *
+     * @param initialWorklist
+     *        the initial {@code Worklist}
+     * @return the initial {@code AnalysisState}
+     *
+     * @throws DFAException
+     *         if there is no start block
+     */
+    AnalysisState<E> createInitialState(Worklist initialWorklist) {
+        Map<Block, BlockState<E>> initialStates = dfa.getInitialStates();
+
+        BasicBlock startBlock = getStartBlock();
+        if (startBlock == null) {
+            throw new DFAException("there is no start block");
+        }
+
+        AnalysisState<E> initialState = new AnalysisState<E>(initialWorklist, startBlock, -1, direction);
+
+        // set all in- and out-states to null for the elementary-blocks
+        BlockState<E> nullState = new BlockState<E>(null, null);
+        for (BasicBlock bBlock : cfg.getBasicBlocks()) {
+            BlockState<E> state = initialStates.get(bBlock.getSootBlock());
+
+            LogicalColor lColor = bBlock.equals(startBlock) ? LogicalColor.CURRENT : LogicalColor.NOT_VISITED;
+            initialState.setBlockState(bBlock, interner.intern(state));
+            initialState.setColor(bBlock, lColor);
+
+            for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                initialState.setBlockState(eBlock, nullState);
+            }
+        }
+
+        return initialState;
+    }
+
+    /**
+     * Returns the ordinals of the {@code LogicalColor}s of all {@code BasicBlock}s in the given {@code AnalysisState},
+     * indexed by the ids of the {@code BasicBlock}s.
+     *
+     * @param state
+     *        the {@code AnalysisState}
+     * @return the ordinals of the {@code LogicalColor}s in {@code state}
+     */
+    byte[] getColors(AnalysisState<E> state) {
+        List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
+        byte[] colors = new byte[basicBlocks.size()];
+        for (BasicBlock bBlock : basicBlocks) {
+            colors[bBlock.getId()] = (byte) state.getColor(bBlock).ordinal();
+        }
+
+        return colors;
+    }
+
+    /**
+     * Creates the selection counts of elementary-step 0 (see {@code nextState}), in which no {@code BasicBlock} has
+     * been selected from the {@code Worklist}.
+     *
+     * @return an array holding a count of 0 for each {@code BasicBlock}
+     */
+    int[] createSelectionCounts() {
+        return new int[cfg.getBasicBlocks().size()];
+    }
+
+    /**
+     * Calculates the {@code AnalysisState} of the elementary-step following the given one. {@code visited},
+     * {@code selections} and {@code colors} have to describe {@code prevState} and are updated to describe the
+     * returned {@code AnalysisState}.
+     *
+     * @param prevState
+     *        the {@code AnalysisState} of the previous elementary-step
+     * @param visited
+     *        the ids of all {@code BasicBlock}s visited up to the previous elementary-step
+     * @param selections
+     *        how often each {@code BasicBlock} (indexed by id) has been selected from the {@code Worklist} up to the
+     *        previous elementary-step
+     * @param colors
+     *        the ordinals of the {@code LogicalColor}s in {@code prevState} (see {@code getColors})
+     * @return the {@code AnalysisState} of the next elementary-step or {@code null} if {@code prevState} is a fixpoint
+     */
+    AnalysisState<E> nextState(AnalysisState<E> prevState, BitSet visited, int[] selections, byte[] colors) {
+        lastStepWidened = false;
+        BasicBlock prevBasicBlock = prevState.getCurrentBasicBlock();
+        Worklist prevWorklist = prevState.getWorklist();
+
+        if (prevBasicBlock == null) {
+            // no basic block currently selected, this begins a new basic block step (or completes calculation)
+            if (prevWorklist.isEmpty()) {
+                // we are at a fixpoint
+                return null;
+            }
+
+            Worklist newWorklist = prevWorklist.clone();
+            BasicBlock newBasicBlock = newWorklist.poll();
+            visited.set(newBasicBlock.getId());
+            int selectionCount = ++selections[newBasicBlock.getId()];
+
+            AnalysisState<E> newState = newState(prevState, newWorklist, newBasicBlock, -1);
+
+            // join predecessors out-states, they are interned, so duplicates can be detected by identity
+            Set<E> predOutStates = Collections.newSetFromMap(new IdentityHashMap<E, Boolean>());
+            for (BasicBlock p : processor.getPredecessors(newBasicBlock)) {
+                predOutStates.add(processor.getOutState(prevState.getBlockState(p)));
+            }
+
+            E outStatesJoin = interner.intern(dfa.join(predOutStates));
+            ++joins;
+
+            BlockState<E> prevBlockState = prevState.getBlockState(newBasicBlock);
+            if (widening != null && selectionCount > wideningDelay && loopHeaders.get(newBasicBlock.getId())
+                    && prevBlockState.getInState() != null) {
+                // the previous join result of the loop header is kept as the in-state of its block state
+                outStatesJoin = interner.intern(widening.widen(prevBlockState.getInState(), outStatesJoin));
+                lastStepWidened = true;
+            }
+
+            newState.setBlockState(newBasicBlock,
+                    new BlockState<E>(outStatesJoin, processor.getOutState(prevBlockState)));
+
+            // only the polled block changes its color
+            updateColor(newState, newBasicBlock, visited, colors);
+            return newState;
+        }
+
+        // prevBasicBlock is not null (so this is not a new block step)
+        int eBlockIdx = prevState.getCurrentElementaryBlockIndex();
+        int eBlockCount = prevBasicBlock.getElementaryBlockCount();
+        if (eBlockCount == 0) {
+            // handle empty basic block [e. g. artificial end block]
+            E inState = prevState.getBlockState(prevBasicBlock).getInState(); // use .getInState
+            return finishBasicBlock(prevBasicBlock, inState, prevState, visited, colors);
+        }
+
+        if (eBlockIdx < 0 && skipUnchangedBlocks && isUnchanged(prevBasicBlock, prevState)) {
+            // the transitions would have the same results as last time, so finish the block right away
+            ElementaryBlock lastElementaryBlock = processor.getElementaryBlock(prevBasicBlock, eBlockCount - 1);
+            E outState = prevState.getBlockState(lastElementaryBlock).getOutState();
+            return finishBasicBlock(prevBasicBlock, outState, prevState, visited, colors);
+        }
+
+        if (eBlockIdx >= eBlockCount - 1) {
+            // the last elementary block has been processed
+            ElementaryBlock lastElementaryBlock = processor.getElementaryBlock(prevBasicBlock, eBlockCount - 1);
+            E outState = prevState.getBlockState(lastElementaryBlock).getOutState();
+            return finishBasicBlock(prevBasicBlock, outState, prevState, visited, colors);
+        }
+
+        E prevOutState;
+        if (eBlockIdx < 0) {
+            // first elementary block
+            prevOutState = processor.getInState(prevState.getBlockState(prevBasicBlock));
+        } else {
+            ElementaryBlock prevElementaryBlock = processor.getElementaryBlock(prevBasicBlock, eBlockIdx);
+            prevOutState = processor.getOutState(prevState.getBlockState(prevElementaryBlock));
+        }
+
+        ElementaryBlock nextElementaryBlock = processor.getElementaryBlock(prevBasicBlock, eBlockIdx + 1);
+        E nextOutState = interner.intern(dfa.transition(prevOutState, nextElementaryBlock.getUnit()));
+        ++transitions;
+
+        // the worklist does not change inside a basic block, so the new state shares it with the previous one
+        AnalysisState<E> newState = newState(prevState, prevWorklist, prevBasicBlock, eBlockIdx + 1);
+        newState.setBlockState(nextElementaryBlock, new BlockState<E>(prevOutState, nextOutState));
+        return newState;
+    }
+
+    /**
+     * Returns whether the {@code Widening} was applied in the most recent call of {@code nextState}.
+     *
+     * @return {@code true} iff the most recently calculated elementary-step selected a loop header and widened its
+     *         in-state
+     */
+    boolean isLastStepWidened() {
+        return lastStepWidened;
+    }
+
+    /**
+     * Returns the number of transitions executed by this {@code StepEngine}.
+     *
+     * @return the number of executed transitions
+     */
+    long getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * Returns the number of joins executed by this {@code StepEngine}.
+     *
+     * @return the number of executed joins
+     */
+    long getJoins() {
+        return joins;
+    }
+
+    /**
+     * Returns whether the given {@code AnalysisState} begins a block-step, i. e. whether a {@code BasicBlock} has been
+     * selected but none of its {@code ElementaryBlock}s has been processed.
+     *
+     * @param state
+     *        the {@code AnalysisState}
+     * @return {@code true} iff {@code state} begins a block-step
+     */
+    static boolean beginsBlockStep(AnalysisState<?> state) {
+        return state.getCurrentBasicBlock() != null && state.getCurrentElementaryBlockIndex() < 0;
+    }
+
+    /**
+     * Returns the {@code BasicBlock} the analysis starts with, this depends on the {@code DFADirection}.
+     *
+     * @return the start block of the analysis
+     */
+    BasicBlock getStartBlock() {
+        return processor.getStartBlock();
+    }
+
+    private AnalysisState<E> newState(AnalysisState<E> state, Worklist newWorklist, BasicBlock currentBBlock,
+            int eBlockIdx) {
+        // the maps are persistent, so the new state shares all mappings with the previous state until they are changed
+        return new AnalysisState<E>(newWorklist, currentBBlock, eBlockIdx, state.getStateMap(), state.getColorMap(),
+                direction);
+    }
+
+    /*
+     * updates the color of basicBlock in newState according to the worklist and current BasicBlock of newState, colors
+     * holds the ordinals of the colors of the previous state and is updated as well. The colors of all other blocks are
+     * shared with the previous state, so this has to be called for each block that was (or now is) current or that was
+     * added to or removed from the worklist.
+     */
+    private void updateColor(AnalysisState<E> newState, BasicBlock basicBlock, BitSet visited, byte[] colors) {
+        LogicalColor newColor;
+        if (basicBlock.equals(newState.getCurrentBasicBlock())) {
+            newColor = LogicalColor.CURRENT;
+        } else if (newState.getWorklist().contains(basicBlock)) {
+            newColor = LogicalColor.ON_WORKLIST;
+        } else if (visited.get(basicBlock.getId())) {
+            newColor = LogicalColor.VISITED_NOT_ON_WORKLIST;
+        } else {
+            newColor = LogicalColor.NOT_VISITED;
+        }
+
+        int id = basicBlock.getId();
+        if (colors[id] != newColor.ordinal()) {
+            colors[id] = (byte) newColor.ordinal();
+            newState.setColor(basicBlock, newColor);
+        }
+    }
+
+    /*
+     * returns whether bBlock (which must have at least one elementary block) has been processed before with the
+     * in-state it has in state, i. e. whether its first elementary block was given the same in-state
+     */
+    private boolean isUnchanged(BasicBlock bBlock, AnalysisState<E> state) {
+        return BlockProcessor.isUnchanged(state.getBlockState(processor.getElementaryBlock(bBlock, 0)),
+                processor.getInState(state.getBlockState(bBlock)));
+    }
+
+    private AnalysisState<E> finishBasicBlock(BasicBlock currentBBlock, E outState, AnalysisState<E> prevState,
+            BitSet visited, byte[] colors) {
+        Worklist newWorklist = prevState.getWorklist().clone();
+        BlockState<E> prevBlockState = prevState.getBlockState(currentBBlock);
+
+        List<BasicBlock> successors = processor.getSuccessors(currentBBlock);
+        E prevOutState = processor.getOutState(prevBlockState);
+
+        // both states are interned, so equal states are usually identical
+        boolean outStateChanged = outState != prevOutState && !outState.equals(prevOutState);
+        for (BasicBlock bSucc : successors) {
+            if (outStateChanged || !visited.get(bSucc.getId())) {
+                newWorklist.add(bSucc);
+            }
+        }
+
+        AnalysisState<E> newState = newState(prevState, newWorklist, null, -1);
+        newState.setBlockState(currentBBlock, new BlockState<E>(processor.getInState(prevBlockState), outState));
+
+        // only the finished block and its successors (which may have been added to the worklist) change their colors
+        updateColor(newState, currentBBlock, visited, colors);
+        for (BasicBlock bSucc : successors) {
+            updateColor(newState, bSucc, visited, colors);
+        }
+
+        return newState;
+    }
+
+}
@@ -0,0 +1,214 @@
+package dfa.framework;
+
+import java.util.Arrays;
+
+/**
+ * A {@code StepLog} is the append-only log of the elementary-steps (and block-steps) of a {@code DFAExecution}. It is
+ * appended to by a single thread (the one performing the precalculation) and may be read by any number of other
+ * threads at the same time. A step becomes visible to readers only after it has been added completely, so readers
+ * always see a consistent prefix of the log.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} used in the stored {@code AnalysisState}s
+ */
+final class StepLog<E extends LatticeElement> {
+
+    private final AnalysisTrace<E> trace;
+
+    // the elementary-step each block-step begins with (ascending), replaced when it has to grow
+    private volatile int[] blockSteps = new int[16];
+
+    // one bit per block-step that is set if the block-step widened the in-state of a loop header
+    private volatile long[] widenedBlockSteps = new long[1];
+
+    // the published number of block-steps (upper 32 bits) and elementary-steps (lower 32 bits)
+    private volatile long published = 0;
+
+    /**
+     * Creates an empty {@code StepLog} storing its {@code AnalysisState}s in the given {@code AnalysisTrace}. The
+     * {@code AnalysisTrace} must support concurrent reads and appends.
+     *
+     * @param trace
+     *        the {@code AnalysisTrace} to store the {@code AnalysisState}s in
+     *
+     * @throws IllegalArgumentException
+     *         if {@code trace} is {@code null}
+     */
+    StepLog(AnalysisTrace<E> trace) {
+        if (trace == null) {
+            throw new IllegalArgumentException("trace must not be null");
+        }
+
+        this.trace = trace;
+    }
+
+    /**
+     * Returns the {@code AnalysisTrace} the {@code AnalysisState}s are stored in.
+     *
+     * @return the {@code AnalysisTrace} of this {@code StepLog}
+     */
+    AnalysisTrace<E> getTrace() {
+        return trace;
+    }
+
+    /**
+     * Appends the {@code AnalysisState} of the next elementary-step and publishes it. Must only be called by a single
+     * thread.
+     *
+     * @param state
+     *        the {@code AnalysisState} to append
+     * @param beginsBlockStep
+     *        whether the elementary-step begins a new block-step
+     */
+    void add(AnalysisState<E> state, boolean beginsBlockStep) {
+        add(state, beginsBlockStep, false);
+    }
+
+    /**
+     * Appends the {@code AnalysisState} of the next elementary-step and publishes it. Must only be called by a single
+     * thread.
+     *
+     * @param state
+     *        the {@code AnalysisState} to append
+     * @param beginsBlockStep
+     *        whether the elementary-step begins a new block-step
+     * @param widened
+     *        whether the elementary-step widened the in-state of a loop header, only allowed if it begins a new
+     *        block-step
+     *
+     * @throws IllegalArgumentException
+     *         if {@code widened} is {@code true} but {@code beginsBlockStep} is not
+     */
+    void add(AnalysisState<E> state, boolean beginsBlockStep, boolean widened) {
+        if (widened && !beginsBlockStep) {
+            throw new IllegalArgumentException("only the first elementary-step of a block-step can be widened");
+        }
+
+        long counts = published;
+        int blockStepCount = (int) (counts >>> 32);
+        int elementaryStepCount = (int) counts;
+
+        trace.add(state);
+
+        if (beginsBlockStep) {
+            int[] steps = blockSteps;
+            if (blockStepCount == steps.length) {
+                steps = Arrays.copyOf(steps, 2 * steps.length);
+            }
+
+            if (widened) {
+                long[] widenedSteps = widenedBlockSteps;
+                if (blockStepCount >> 6 >= widenedSteps.length) {
+                    widenedSteps = Arrays.copyOf(widenedSteps, 2 * widenedSteps.length + (blockStepCount >> 6));
+                }
+
+                widenedSteps[blockStepCount >> 6] |= 1L << blockStepCount;
+                widenedBlockSteps = widenedSteps;
+            }
+
+            steps[blockStepCount++] = elementaryStepCount;
+            blockSteps = steps;
+        }
+
+        published = ((long) blockStepCount << 32) | (elementaryStepCount + 1);
+    }
+
+    /**
+     * Returns the number of published elementary-steps.
+     *
+     * @return the number of published elementary-steps
+     */
+    int getElementaryStepCount() {
+        return (int) published;
+    }
+
+    /**
+     * Returns the number of published block-steps.
+     *
+     * @return the number of published block-steps
+     */
+    int getBlockStepCount() {
+        return (int) (published >>> 32);
+    }
+
+    /**
+     * Returns the {@code AnalysisState} of the given elementary-step.
+     *
+     * @param elementaryStep
+     *        the elementary-step
+     * @return the {@code AnalysisState} of {@code elementaryStep}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code elementaryStep} has not been published
+     */
+    AnalysisState<E> getState(int elementaryStep) {
+        if (elementaryStep < 0 || elementaryStep >= getElementaryStepCount()) {
+            throw new IndexOutOfBoundsException("invalid elementaryStep: " + elementaryStep);
+        }
+
+        return trace.get(elementaryStep);
+    }
+
+    /**
+     * Returns the elementary-step the given block-step begins with.
+     *
+     * @param blockStep
+     *        the block-step
+     * @return the first elementary-step of {@code blockStep}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code blockStep} has not been published
+     */
+    int getBlockStepStart(int blockStep) {
+        if (blockStep < 0 || blockStep >= getBlockStepCount()) {
+            throw new IndexOutOfBoundsException("invalid blockStep: " + blockStep);
+        }
+
+        return blockSteps[blockStep];
+    }
+
+    /**
+     * Returns whether the given block-step widened the in-state of a loop header.
+     *
+     * @param blockStep
+     *        the block-step
+     * @return {@code true} iff {@code blockStep} applied a {@code Widening}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code blockStep} has not been published
+     */
+    boolean isWidened(int blockStep) {
+        if (blockStep < 0 || blockStep >= getBlockStepCount()) {
+            throw new IndexOutOfBoundsException("invalid blockStep: " + blockStep);
+        }
+
+        long[] widenedSteps = widenedBlockSteps;
+        return blockStep >> 6 < widenedSteps.length && (widenedSteps[blockStep >> 6] & (1L << blockStep)) != 0;
+    }
+
+    /**
+     * Returns the block-step the given elementary-step belongs to.
+     *
+     * @param elementaryStep
+     *        the elementary-step
+     * @return the block-step containing {@code elementaryStep}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code elementaryStep} has not been published
+     */
+    int getBlockStep(int elementaryStep) {
+        long counts = published;
+        if (elementaryStep < 0 || elementaryStep >= (int) counts) {
+            throw new IndexOutOfBoundsException("invalid elementaryStep: " + elementaryStep);
+        }
+
+        int idx = Arrays.binarySearch(blockSteps, 0, (int) (counts >>> 32), elementaryStep);
+        if (idx < 0) {
+            // elementaryStep does not begin a block-step, so it belongs to the preceding one
+            idx = -(idx + 1) - 1;
+        }
+
+        return idx;
+    }
+
+}
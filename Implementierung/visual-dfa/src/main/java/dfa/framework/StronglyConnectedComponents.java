@@ -0,0 +1,249 @@
+package dfa.framework;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The strongly connected components of the {@code BasicBlock}s of a {@code ControlFlowGraph} that are reachable from
+ * the start of an analysis (the start block or, if the {@code DFADirection} is {@code BACKWARD}, the end block). The
+ * components are numbered in topological order of the condensation, so an edge between two different components
+ * always leads from a lower to a higher number, and component 0 contains the start of the analysis.
+ *
+ * The members of each component are stored in the order a depth-first search discovered them, so the first member
+ * of a component is its entry (the block through which the search entered it).
+ *
+ * The components can also be calculated for a subgraph, given by the nodes it contains and the roots to start the
+ * search from (see {@code WeakTopologicalOrder}).
+ */
+final class StronglyConnectedComponents {
+
+    private final int[] componentOf;
+
+    // the members of component c are members[memberOffsets[c]] to members[memberOffsets[c + 1] - 1]
+    private final int[] memberOffsets;
+    private final int[] members;
+
+    /**
+     * Calculates the strongly connected components of the given {@code ControlFlowGraph} (using Tarjan's algorithm),
+     * following its edges in the given {@code DFADirection}.
+     *
+     * @param cfg
+     *        the {@code ControlFlowGraph}
+     * @param direction
+     *        the {@code DFADirection} in which the edges are followed
+     *
+     * @throws IllegalArgumentException
+     *         if {@code cfg} or {@code direction} is {@code null}
+     */
+    StronglyConnectedComponents(ControlFlowGraph cfg, DFADirection direction) {
+        this(getOffsets(cfg, direction), getIds(cfg, direction), getRoots(cfg, direction), null);
+    }
+
+    /**
+     * Calculates the strongly connected components of the subgraph of the nodes in {@code nodes} that are reachable
+     * from {@code roots} (which are searched in the given order). The edges are given in compressed sparse row format
+     * (see {@code ControlFlowGraph.getSuccessorOffsets()}), edges to nodes not in {@code nodes} are ignored.
+     *
+     * @param offsets
+     *        the offsets into {@code ids}, one more than the number of nodes
+     * @param ids
+     *        the targets of the edges of all nodes
+     * @param roots
+     *        the nodes to start the search from, they have to be in {@code nodes}
+     * @param nodes
+     *        the nodes of the subgraph, {@code null} for all nodes
+     */
+    StronglyConnectedComponents(int[] offsets, int[] ids, int[] roots, BitSet nodes) {
+        int blockCount = offsets.length - 1;
+        componentOf = new int[blockCount];
+        Arrays.fill(componentOf, -1);
+
+        // the components in the order Tarjan's algorithm completes them (reverse topological order)
+        int[] completedMembers = new int[blockCount];
+        int[] completedOffsets = new int[blockCount + 1];
+        int completedCount = 0;
+        int memberCount = 0;
+
+        if (roots.length > 0) {
+            int[] index = new int[blockCount];
+            Arrays.fill(index, -1);
+            int[] lowLink = new int[blockCount];
+            int nextIndex = 0;
+
+            int[] tarjanStack = new int[blockCount];
+            int tarjanTop = 0;
+            BitSet onTarjanStack = new BitSet(blockCount);
+
+            // iterative depth-first search, nextEdge[i] is the index of the next edge to follow from searchStack[i]
+            int[] searchStack = new int[blockCount];
+            int[] nextEdge = new int[blockCount];
+            int depth = 0;
+
+            int nextRoot = 0;
+            while (depth > 0 || nextRoot < roots.length) {
+                if (depth == 0) {
+                    int rootId = roots[nextRoot++];
+                    if (index[rootId] < 0) {
+                        index[rootId] = lowLink[rootId] = nextIndex++;
+                        tarjanStack[tarjanTop++] = rootId;
+                        onTarjanStack.set(rootId);
+                        searchStack[depth] = rootId;
+                        nextEdge[depth++] = offsets[rootId];
+                    }
+
+                    continue;
+                }
+
+                int id = searchStack[depth - 1];
+                if (nextEdge[depth - 1] < offsets[id + 1]) {
+                    int target = ids[nextEdge[depth - 1]++];
+                    if (nodes != null && !nodes.get(target)) {
+                        continue;
+                    } else if (index[target] < 0) {
+                        index[target] = lowLink[target] = nextIndex++;
+                        tarjanStack[tarjanTop++] = target;
+                        onTarjanStack.set(target);
+                        searchStack[depth] = target;
+                        nextEdge[depth++] = offsets[target];
+                    } else if (onTarjanStack.get(target)) {
+                        lowLink[id] = Math.min(lowLink[id], index[target]);
+                    }
+
+                    continue;
+                }
+
+                --depth;
+                if (depth > 0) {
+                    int parent = searchStack[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[id]);
+                }
+
+                if (lowLink[id] == index[id]) {
+                    // id is the entry of a component, its members are on top of the stack in discovery order
+                    int bottom = tarjanTop;
+                    do {
+                        --bottom;
+                    } while (tarjanStack[bottom] != id);
+
+                    for (int i = bottom; i < tarjanTop; ++i) {
+                        onTarjanStack.clear(tarjanStack[i]);
+                        componentOf[tarjanStack[i]] = completedCount;
+                        completedMembers[memberCount++] = tarjanStack[i];
+                    }
+
+                    tarjanTop = bottom;
+                    completedOffsets[++completedCount] = memberCount;
+                }
+            }
+        }
+
+        // renumber the components in topological order
+        memberOffsets = new int[completedCount + 1];
+        members = new int[memberCount];
+        int idx = 0;
+        for (int c = 0; c < completedCount; ++c) {
+            int completed = completedCount - 1 - c;
+            int from = completedOffsets[completed];
+            int to = completedOffsets[completed + 1];
+            System.arraycopy(completedMembers, from, members, idx, to - from);
+            idx += to - from;
+            memberOffsets[c + 1] = idx;
+        }
+
+        for (int id = 0; id < blockCount; ++id) {
+            if (componentOf[id] >= 0) {
+                componentOf[id] = completedCount - 1 - componentOf[id];
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given component is cyclic, i. e. whether it has more than one member or its only member has
+     * an edge to itself.
+     *
+     * @param component
+     *        the number of the component
+     * @param offsets
+     *        the offsets the components were calculated with
+     * @param ids
+     *        the targets of the edges the components were calculated with
+     * @return {@code true} iff {@code component} contains a cycle
+     */
+    boolean isCyclic(int component, int[] offsets, int[] ids) {
+        if (memberOffsets[component + 1] - memberOffsets[component] > 1) {
+            return true;
+        }
+
+        int id = members[memberOffsets[component]];
+        for (int i = offsets[id]; i < offsets[id + 1]; ++i) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return the number of components
+     */
+    int getComponentCount() {
+        return memberOffsets.length - 1;
+    }
+
+    /**
+     * Returns the component containing the {@code BasicBlock} with the given id.
+     *
+     * @param basicBlockId
+     *        the id of a {@code BasicBlock}
+     * @return the number of its component or -1 if the {@code BasicBlock} is not reachable
+     */
+    int getComponent(int basicBlockId) {
+        return componentOf[basicBlockId];
+    }
+
+    /**
+     * Returns the offsets into {@code getMembers()}: the ids of the members of component {@code c} are stored from
+     * index {@code getMemberOffsets()[c]} (inclusive) to {@code getMemberOffsets()[c + 1]} (exclusive). The returned
+     * array must not be modified.
+     *
+     * @return the offsets into {@code getMembers()}
+     */
+    int[] getMemberOffsets() {
+        return memberOffsets;
+    }
+
+    /**
+     * Returns the ids of the members of all components (see {@code getMemberOffsets()}). The returned array must not be
+     * modified.
+     *
+     * @return the ids of the members of all components
+     */
+    int[] getMembers() {
+        return members;
+    }
+
+    private static int[] getOffsets(ControlFlowGraph cfg, DFADirection direction) {
+        if (cfg == null) {
+            throw new IllegalArgumentException("cfg must not be null");
+        }
+
+        if (direction == null) {
+            throw new IllegalArgumentException("direction must not be null");
+        }
+
+        return direction == DFADirection.FORWARD ? cfg.getSuccessorOffsets() : cfg.getPredecessorOffsets();
+    }
+
+    private static int[] getIds(ControlFlowGraph cfg, DFADirection direction) {
+        return direction == DFADirection.FORWARD ? cfg.getSuccessorIds() : cfg.getPredecessorIds();
+    }
+
+    private static int[] getRoots(ControlFlowGraph cfg, DFADirection direction) {
+        BasicBlock root = direction == DFADirection.FORWARD ? cfg.getStartBlock() : cfg.getEndBlock();
+        return root == null ? new int[0] : new int[] { root.getId() };
+    }
+
+}
@@ -0,0 +1,48 @@
+package dfa.framework;
+
+/**
+ * A {@code TraceMode} determines how a {@code DFAExecution} stores the {@code AnalysisState}s of its elementary-steps.
+ */
+public enum TraceMode {
+
+    /**
+     * every {@code AnalysisState} is stored
+     */
+    FULL("full"),
+
+    /**
+     * every k-th {@code AnalysisState} is stored as keyframe, all other steps are stored as the changes to their
+     * preceding step and are rebuilt from the nearest preceding keyframe on demand
+     */
+    KEYFRAMES("keyframes"),
+
+    /**
+     * only the {@code AnalysisState}s at the beginning and at the end of each block-step are stored, the
+     * elementary-steps in between are rebuilt on demand by replaying the transitions of the current
+     * {@code BasicBlock}
+     */
+    BLOCK_STEPS("block steps"),
+
+    /**
+     * the most recent {@code AnalysisState}s are kept on the heap as long as they fit into the heap budget, older
+     * {@code AnalysisState}s are spilled to a memory-mapped scratch file and are decoded on demand
+     */
+    SPILLING("spilling"),
+
+    /**
+     * every k-th {@code AnalysisState} is stored as checkpoint, of all other steps only the most recently used
+     * {@code AnalysisState}s are cached, all others are recalculated from the nearest preceding checkpoint on demand
+     */
+    CHECKPOINTS("checkpoints");
+
+    private final String description;
+
+    private TraceMode(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
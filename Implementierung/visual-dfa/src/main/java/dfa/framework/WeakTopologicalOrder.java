@@ -0,0 +1,170 @@
+package dfa.framework;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A weak topological order (Bourdoncle) of the blocks of a graph, following its edges in a given {@code DFADirection}.
+ * The graph is decomposed into its strongly connected components, which are ordered topologically. Each cyclic
+ * component is ordered by its head (the block through which it is entered) followed by the weak topological order of
+ * the rest of the component, so nested loops are ordered inside the loops containing them.
+ *
+ * Iterating in this order (always continuing with the block with the lowest position) stabilizes inner loops before
+ * outer ones and processes blocks outside of loops only once their predecessors are done. Blocks which are not
+ * reachable from the start of the analysis are placed after all reachable blocks, in the order of their ids.
+ */
+final class WeakTopologicalOrder {
+
+    private final int[] order;
+    private final int[] positionOf;
+    private final BitSet heads;
+
+    // the maximal number of nested cyclic components
+    private int nestingDepth;
+
+    /**
+     * Calculates the weak topological order of the given {@code ControlFlowGraph}.
+     *
+     * @param cfg
+     *        the {@code ControlFlowGraph}
+     * @param direction
+     *        the {@code DFADirection} in which the edges are followed
+     *
+     * @throws IllegalArgumentException
+     *         if {@code cfg} or {@code direction} is {@code null}
+     */
+    WeakTopologicalOrder(ControlFlowGraph cfg, DFADirection direction) {
+        this(new GraphEdges(cfg, direction));
+    }
+
+    /**
+     * Calculates the weak topological order of the given {@code GraphEdges}.
+     *
+     * @param edges
+     *        the {@code GraphEdges}
+     */
+    WeakTopologicalOrder(GraphEdges edges) {
+        int blockCount = edges.getBlockCount();
+        order = new int[blockCount];
+        positionOf = new int[blockCount];
+        heads = new BitSet(blockCount);
+        build(edges.getOffsets(), edges.getIds(), edges.getRoot());
+    }
+
+    /**
+     * Returns the position of the block with the given id in this {@code WeakTopologicalOrder}.
+     *
+     * @param id
+     *        the id of a block
+     * @return the position of the block
+     */
+    int getPosition(int id) {
+        return positionOf[id];
+    }
+
+    /**
+     * Returns the ids of all blocks in this {@code WeakTopologicalOrder}. The returned array must not be modified.
+     *
+     * @return the ids of all blocks, ordered by their position
+     */
+    int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns whether the block with the given id is the head of a cyclic component.
+     *
+     * @param id
+     *        the id of a block
+     * @return {@code true} iff the block is the head of a cyclic component
+     */
+    boolean isHead(int id) {
+        return heads.get(id);
+    }
+
+    /**
+     * Returns the number of heads of cyclic components, i. e. the number of loops.
+     *
+     * @return the number of heads of cyclic components
+     */
+    int getHeadCount() {
+        return heads.cardinality();
+    }
+
+    /**
+     * Returns the maximal nesting depth of cyclic components, i. e. 0 if there are no loops, 1 if there are loops but
+     * none of them is nested inside another and so on.
+     *
+     * @return the maximal nesting depth of cyclic components
+     */
+    int getNestingDepth() {
+        return nestingDepth;
+    }
+
+    /**
+     * Returns the number of blocks in this {@code WeakTopologicalOrder}.
+     *
+     * @return the number of blocks
+     */
+    int size() {
+        return order.length;
+    }
+
+    private void build(int[] offsets, int[] ids, int root) {
+        int next = 0;
+        if (root >= 0) {
+            next = appendComponents(offsets, ids, new int[] { root }, null, 0, 0);
+        }
+
+        BitSet placed = new BitSet(order.length);
+        for (int i = 0; i < next; ++i) {
+            placed.set(order[i]);
+        }
+
+        for (int id = placed.nextClearBit(0); id < order.length; id = placed.nextClearBit(id + 1)) {
+            order[next++] = id;
+        }
+
+        for (int i = 0; i < order.length; ++i) {
+            positionOf[order[i]] = i;
+        }
+    }
+
+    /*
+     * appends the weak topological order of the subgraph of the given nodes which are reachable from roots to order,
+     * starting at position next, and returns the position after the last appended block
+     */
+    private int appendComponents(int[] offsets, int[] ids, int[] roots, BitSet nodes, int next, int depth) {
+        StronglyConnectedComponents sccs = new StronglyConnectedComponents(offsets, ids, roots, nodes);
+        int[] memberOffsets = sccs.getMemberOffsets();
+        int[] members = sccs.getMembers();
+        for (int c = 0; c < sccs.getComponentCount(); ++c) {
+            int head = members[memberOffsets[c]];
+            order[next++] = head;
+            if (!sccs.isCyclic(c, offsets, ids)) {
+                continue;
+            }
+
+            heads.set(head);
+            nestingDepth = Math.max(nestingDepth, depth + 1);
+            BitSet rest = new BitSet(order.length);
+            for (int i = memberOffsets[c] + 1; i < memberOffsets[c + 1]; ++i) {
+                rest.set(members[i]);
+            }
+
+            // every other member is reachable from the head without passing it again
+            int[] restRoots = new int[offsets[head + 1] - offsets[head]];
+            int rootCount = 0;
+            for (int i = offsets[head]; i < offsets[head + 1]; ++i) {
+                if (rest.get(ids[i])) {
+                    restRoots[rootCount++] = ids[i];
+                }
+            }
+
+            next = appendComponents(offsets, ids, Arrays.copyOf(restRoots, rootCount), rest, next, depth + 1);
+        }
+
+        return next;
+    }
+
+}
@@ -0,0 +1,53 @@
+package dfa.framework;
+
+/**
+ * A {@code WeakTopologicalWorklist} is a {@code PriorityWorklist} which retrieves the {@code BasicBlock} that comes
+ * first in a weak topological order (Bourdoncle) of the graph the analysis runs on. This stabilizes inner loops before
+ * the loops containing them and processes {@code BasicBlock}s outside of loops only once all of their predecessors are
+ * done, which usually needs far fewer steps than a {@code NaiveWorklist}.
+ */
+public class WeakTopologicalWorklist extends PriorityWorklist {
+
+    /**
+     * Creates an empty {@code WeakTopologicalWorklist} for an analysis in the given {@code DFADirection} on the given
+     * {@code SimpleBlockGraph}.
+     *
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the analysis runs on
+     * @param direction
+     *        the {@code DFADirection} of the analysis
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockGraph} or {@code direction} is {@code null}
+     */
+    public WeakTopologicalWorklist(SimpleBlockGraph blockGraph, DFADirection direction) {
+        this(new WeakTopologicalOrder(new GraphEdges(blockGraph, direction)));
+    }
+
+    /**
+     * Creates an empty {@code WeakTopologicalWorklist} for an analysis in the given {@code DFADirection} on the given
+     * {@code ControlFlowGraph}.
+     *
+     * @param cfg
+     *        the {@code ControlFlowGraph} the analysis runs on
+     * @param direction
+     *        the {@code DFADirection} of the analysis
+     *
+     * @throws IllegalArgumentException
+     *         if {@code cfg} or {@code direction} is {@code null}
+     */
+    public WeakTopologicalWorklist(ControlFlowGraph cfg, DFADirection direction) {
+        this(new WeakTopologicalOrder(cfg, direction));
+    }
+
+    /**
+     * Creates an empty {@code WeakTopologicalWorklist} for the given {@code WeakTopologicalOrder}.
+     *
+     * @param wto
+     *        the {@code WeakTopologicalOrder} to retrieve {@code BasicBlock}s in
+     */
+    WeakTopologicalWorklist(WeakTopologicalOrder wto) {
+        super(wto.getOrder(), wto.size());
+    }
+
+}
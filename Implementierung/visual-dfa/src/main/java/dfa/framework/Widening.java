@@ -0,0 +1,29 @@
+package dfa.framework;
+
+/**
+ * A {@code Widening} executes a widening-operation on two {@code LatticeElement}s. It is applied at loop headers
+ * instead of a plain join once a loop header has been visited often enough, so that analyses with tall (or infinite)
+ * lattices reach a fixpoint after a bounded number of visits.
+ *
+ * @param <E>
+ *        the type of {@code LatticeElement} to perform widenings on
+ *
+ *
+ * @see DFAFactory#getWidening(DataFlowAnalysis)
+ */
+public interface Widening<E extends LatticeElement> {
+
+    /**
+     * Calculates the widening of the previous and the next in-state of a loop header. The result has to be greater
+     * than or equal to both {@code previous} and {@code next}, and any sequence of repeated widenings must become
+     * stable after finitely many steps.
+     *
+     * @param previous
+     *        the in-state the loop header had when it was visited last
+     * @param next
+     *        the join of the out-states of the predecessors of the loop header
+     * @return the widening of {@code previous} and {@code next}
+     */
+    E widen(E previous, E next);
+
+}
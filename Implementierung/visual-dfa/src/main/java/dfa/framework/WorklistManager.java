@@ -15,6 +15,11 @@ public class WorklistManager {
 
     private static final String WL_NAME_NAIVE = "naive";
     private static final String WL_NAME_RANDOM = "random";
+    private static final String WL_NAME_WTO = "wto";
+    private static final String WL_NAME_RPO = "reverse postorder";
+    private static final String WL_NAME_PO = "postorder";
+    private static final String WL_NAME_LIFO = "lifo";
+    private static final String WL_NAME_AUTO = "auto";
 
     private static WorklistManager singleInstance;
 
@@ -24,6 +29,11 @@ public class WorklistManager {
         List<String> wlNames = new ArrayList<>();
         wlNames.add(WL_NAME_NAIVE);
         wlNames.add(WL_NAME_RANDOM);
+        wlNames.add(WL_NAME_WTO);
+        wlNames.add(WL_NAME_RPO);
+        wlNames.add(WL_NAME_PO);
+        wlNames.add(WL_NAME_LIFO);
+        wlNames.add(WL_NAME_AUTO);
         worklistNames = Collections.unmodifiableList(wlNames);
     }
 
@@ -59,11 +69,37 @@ public class WorklistManager {
      * @return an empty {@code Worklist}
      */
     public Worklist getWorklist(String worklistName, SimpleBlockGraph blockGraph) {
+        return getWorklist(worklistName, blockGraph, DFADirection.FORWARD);
+    }
+
+    /**
+     * Returns an empty {@code Worklist} for the given name, a {@code SimpleBlockGraph} and the {@code DFADirection} of
+     * the analysis it is used for (which determines the order of a "wto"- or "auto"-{@code Worklist}).
+     * 
+     * @param worklistName
+     *        the name of the {@code Worklist} to be returned
+     * @param blockGraph
+     *        the {@code SimpleBlockGraph} the {@code Worklist} should be used for
+     * @param direction
+     *        the {@code DFADirection} of the analysis the {@code Worklist} should be used for
+     * @return an empty {@code Worklist}
+     */
+    public Worklist getWorklist(String worklistName, SimpleBlockGraph blockGraph, DFADirection direction) {
         switch (worklistName) {
         case WL_NAME_NAIVE:
             return new NaiveWorklist();
         case WL_NAME_RANDOM:
             return new RandomWorklist();
+        case WL_NAME_WTO:
+            return new WeakTopologicalWorklist(blockGraph, direction);
+        case WL_NAME_RPO:
+            return new ReversePostorderWorklist(blockGraph);
+        case WL_NAME_PO:
+            return new PostorderWorklist(blockGraph);
+        case WL_NAME_LIFO:
+            return new LifoWorklist();
+        case WL_NAME_AUTO:
+            return new AdaptiveWorklist(blockGraph, direction);
         default:
             throw new IllegalArgumentException("unknown worklist name: " + worklistName);
         }
@@ -11,6 +11,7 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 import controller.Controller;
+import dfa.framework.PrecalcProgress;
 import java.awt.GridBagLayout;
 
 import javax.swing.JSlider;
@@ -56,6 +57,7 @@ public class ControlPanel extends JPanel {
     private GridBagConstraints gbc_btnPlayPause;
 
     private JLabel lblDelayInSeconds;
+    private JLabel lblPrecalcProgress;
 
     private StepSliderChangeListener stepListener;
 
@@ -87,9 +89,9 @@ public class ControlPanel extends JPanel {
 
         GridBagLayout gridBagLayout = new GridBagLayout();
         gridBagLayout.columnWidths = new int[] { 0, 0, 0, 0, 0, 0, 0 };
-        gridBagLayout.rowHeights = new int[] { 0, 0, 0, 0 };
+        gridBagLayout.rowHeights = new int[] { 0, 0, 0, 0, 0 };
         gridBagLayout.columnWeights = new double[] { 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5 };
-        gridBagLayout.rowWeights = new double[] { 0.5, 0.5, 0.5, 0.5 };
+        gridBagLayout.rowWeights = new double[] { 0.5, 0.5, 0.5, 0.5, 0.0 };
         setLayout(gridBagLayout);
 
         stepListener = new StepSliderChangeListener();
@@ -178,6 +180,11 @@ public class ControlPanel extends JPanel {
         GridBagConstraints gbc_delaySlider = GridBagConstraintFactory.getStandardGridBagConstraints(7, 2, 2, 2);
         add(delaySlider, gbc_delaySlider);
 
+        lblPrecalcProgress = new JLabel();
+        jLaDecorator.decorateLabel(lblPrecalcProgress, " ");
+        GridBagConstraints gbc_lblPrecalcProgress = GridBagConstraintFactory.getStandardGridBagConstraints(0, 4, 9, 1);
+        add(lblPrecalcProgress, gbc_lblPrecalcProgress);
+
         setShortcuts();
         
     }
@@ -250,6 +257,39 @@ public class ControlPanel extends JPanel {
         stepSlider.addChangeListener(stepListener);
     }
 
+    /**
+     * Extend the step-slider to the given total number of steps without
+     * changing the current step. Used while steps are still being
+     * precalculated.
+     * 
+     * @param steps
+     *            the total number of steps
+     */
+    public void extendTotalSteps(int steps) {
+        stepSlider.removeChangeListener(stepListener);
+        stepSlider.setMaximum(steps - 1);
+        stepSlider.addChangeListener(stepListener);
+    }
+
+    /**
+     * Show the progress of the running precalculation below the step-slider,
+     * so the user can decide whether to keep waiting or to stop it.
+     * 
+     * @param progress
+     *            the progress to show, or {@code null} to hide the progress
+     */
+    public void setPrecalcProgress(PrecalcProgress progress) {
+        if (progress == null) {
+            lblPrecalcProgress.setText(" ");
+            return;
+        }
+        lblPrecalcProgress.setText(String.format(
+                "Steps: %d (%d blocks), %.0f steps/s | Worklist: %d | Transitions: %d, Joins: %d | Trace: %.1f MB",
+                progress.getElementarySteps(), progress.getBlockSteps(), progress.getStepsPerSecond(),
+                progress.getWorklistSize(), progress.getTransitions(), progress.getJoins(),
+                progress.getTraceHeapEstimate() / (1024.0 * 1024.0)));
+    }
+
     /**
      * Set the activity state of the {@code ControlPanel}. {@code ACTIVATED}:
      * All UI-elements are activated. {@code PLAYING}: Only the
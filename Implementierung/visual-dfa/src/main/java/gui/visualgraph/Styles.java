@@ -16,6 +16,7 @@ public class Styles {
     public final static String INITIAL_COLOR = "#eff7fb";
     public final static String BREAKPOINT_COLOR = "#dd7063";
     public final static String CURRENT_COLOR = "#d0febf";
+    public final static String WIDENING_COLOR = "#ffd3a1";
     public final static String ON_WORKLIST_COLOR = "#fff7a9";
     public final static String VISITED_COLOR = "#c6dafd";
     public final static String TRANSPARENT_COLOR = "rgba(255, 255, 255, 0)";
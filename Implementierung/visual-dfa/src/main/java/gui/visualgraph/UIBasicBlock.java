@@ -24,6 +24,7 @@ public class UIBasicBlock extends UIAbstractBlock {
     private BasicBlock dfaBasicBlock;
     private DFAExecution<? extends LatticeElement> dfa;
     private LogicalColor currentColor = null;
+    private boolean widened = false;
 
     /**
      * Creates and inserts a new {@code mxCell} into the {@code mxGraph}, or updates the {@code mxCell} if it already
@@ -42,12 +43,15 @@ public class UIBasicBlock extends UIAbstractBlock {
         } else {
             LogicalColor newColor = dfa.getCurrentAnalysisState().getColor(dfaBasicBlock);
 
-            if (!newColor.equals(currentColor)) {
+            // the current block is highlighted differently if its in-state has been widened in this block-step
+            boolean newWidened = newColor == LogicalColor.CURRENT && dfa.isAtWideningStep();
+
+            if (!newColor.equals(currentColor) || newWidened != widened) {
                 String colorStyle;
 
                 switch (dfa.getCurrentAnalysisState().getColor(dfaBasicBlock)) {
                 case CURRENT:
-                    colorStyle = Styles.CURRENT_COLOR;
+                    colorStyle = newWidened ? Styles.WIDENING_COLOR : Styles.CURRENT_COLOR;
                     break;
                 case NOT_VISITED:
                     colorStyle = Styles.INITIAL_COLOR;
@@ -64,6 +68,7 @@ public class UIBasicBlock extends UIAbstractBlock {
 
                 graph.setCellStyles(mxConstants.STYLE_FILLCOLOR, colorStyle, new Object[] { cell });
                 currentColor = newColor;
+                widened = newWidened;
             }
         }
     }
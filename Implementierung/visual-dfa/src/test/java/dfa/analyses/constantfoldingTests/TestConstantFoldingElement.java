@@ -1,5 +1,7 @@
 package dfa.analyses.constantfoldingTests;
 
+import java.util.Arrays;
+import java.util.Map;
 import java.util.TreeMap;
 
 import org.junit.Assert;
@@ -8,6 +10,7 @@ import org.junit.Test;
 import dfa.analyses.ConstantFoldingElement;
 import dfa.analyses.ConstantFoldingElement.Value;
 import dfa.analyses.LocalComparator;
+import dfa.analyses.LocalIndex;
 import dfa.analyses.LocalMapElement;
 import soot.BooleanType;
 import soot.ByteType;
@@ -39,6 +42,38 @@ public class TestConstantFoldingElement {
         Assert.assertNotEquals(cfe2, s);
     }
 
+    @Test
+    public void testSharedLocalIndex() {
+        JimpleLocal x = new JimpleLocal("x", IntType.v());
+        JimpleLocal y = new JimpleLocal("y", IntType.v());
+        LocalIndex localIndex = new LocalIndex(Arrays.asList(y, x));
+        Assert.assertEquals(2, localIndex.size());
+        Assert.assertEquals(x, localIndex.getLocal(0));
+        Assert.assertEquals(1, localIndex.indexOf(new JimpleLocal("y", IntType.v())));
+        Assert.assertEquals(-1, localIndex.indexOf(new JimpleLocal("z", IntType.v())));
+
+        Map<JimpleLocal, Value> map = new TreeMap<JimpleLocal, Value>(new LocalComparator());
+        map.put(x, new Value(IntConstant.v(1)));
+        map.put(y, Value.getTop());
+        ConstantFoldingElement shared = new ConstantFoldingElement(localIndex, map);
+        ConstantFoldingElement own = new ConstantFoldingElement(map);
+        Assert.assertEquals(shared, own);
+        Assert.assertEquals(shared.hashCode(), own.hashCode());
+
+        ConstantFoldingElement copy = shared.clone();
+        Assert.assertSame(localIndex, copy.getLocalIndex());
+        copy.setValue(0, new Value(IntConstant.v(2)));
+        Assert.assertEquals(new Value(IntConstant.v(1)), shared.getValue(x));
+        Assert.assertNotEquals(shared, copy);
+
+        // a local which is not in the LocalIndex extends it, without affecting the original
+        JimpleLocal z = new JimpleLocal("z", IntType.v());
+        copy.setValue(z, Value.getBottom());
+        Assert.assertNotSame(localIndex, copy.getLocalIndex());
+        Assert.assertEquals(Arrays.asList(x, y, z), Arrays.asList(copy.getLocalMap().keySet().toArray()));
+        Assert.assertNull(shared.getValue(z));
+    }
+
     @Test
     public void testValueEquals() {
         Value v1 = new Value(IntConstant.v(0));
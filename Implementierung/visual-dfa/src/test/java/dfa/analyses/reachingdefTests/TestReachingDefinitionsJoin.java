@@ -6,6 +6,7 @@ import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 
+import dfa.analyses.DefinitionIndex;
 import dfa.analyses.ReachingDefinitionsElement;
 import dfa.analyses.ReachingDefinitionsElement.DefinitionSet;
 import dfa.analyses.ReachingDefinitionsJoin;
@@ -146,4 +147,37 @@ public class TestReachingDefinitionsJoin {
         Assert.assertEquals(dDef1, joinResult.getValue(d));
     }
 
+    @Test
+    public void testJoinSharedDefinitionIndex() {
+        DefinitionIndex definitionIndex = new DefinitionIndex();
+        int one = definitionIndex.getId("1");
+        int seventeen = definitionIndex.getId("17");
+        Assert.assertEquals(one, definitionIndex.getId("1"));
+
+        JimpleLocal x = new JimpleLocal("x", IntType.v());
+        JimpleLocal y = new JimpleLocal("y", IntType.v());
+
+        ReachingDefinitionsElement rde1 = new ReachingDefinitionsElement();
+        rde1.setValue(x, new DefinitionSet(definitionIndex, one));
+        rde1.setValue(y, DefinitionSet.getBottom());
+
+        ReachingDefinitionsElement rde2 = new ReachingDefinitionsElement();
+        rde2.setValue(x, new DefinitionSet(definitionIndex, seventeen));
+        rde2.setValue(y, new DefinitionSet(IntConstant.v(1)));
+
+        Set<ReachingDefinitionsElement> toJoin = new HashSet<>();
+        toJoin.add(rde1);
+        toJoin.add(rde2);
+
+        ReachingDefinitionsJoin join = new ReachingDefinitionsJoin();
+        ReachingDefinitionsElement joinResult = join.join(toJoin);
+
+        DefinitionSet xJoin = joinResult.getValue(x);
+        Assert.assertSame(definitionIndex, xJoin.getDefinitionIndex());
+        Assert.assertEquals(ValueHelper.getDefinitionSet("1", "17"), xJoin);
+        Assert.assertEquals(ValueHelper.getDefinitionSet("1", "17").hashCode(), xJoin.hashCode());
+        Assert.assertEquals(new DefinitionSet(definitionIndex, one), joinResult.getValue(y));
+        Assert.assertEquals(2, definitionIndex.size());
+    }
+
 }
@@ -1,11 +1,15 @@
 package dfa.analyses.taintTests;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import dfa.analyses.LocalIndex;
 import dfa.analyses.TaintElement;
 import dfa.analyses.TaintJoin;
 import dfa.analyses.TaintElement.TaintState;
@@ -84,4 +88,54 @@ public class TestJoin {
 
     }
 
+    @Test
+    public void testJoinSharedLocalIndex() {
+        JimpleLocal x = new JimpleLocal("x", IntType.v());
+        JimpleLocal y = new JimpleLocal("y", IntType.v());
+        JimpleLocal z = new JimpleLocal("z", LongType.v());
+        LocalIndex localIndex = new LocalIndex(Arrays.asList(x, y, z));
+
+        Map<JimpleLocal, Value> map1 = new HashMap<JimpleLocal, Value>();
+        map1.put(x, Value.of(TaintState.BOTTOM, false));
+        map1.put(y, Value.of(TaintState.CLEAN, true));
+        map1.put(z, Value.of(TaintState.TAINTED, false));
+
+        Map<JimpleLocal, Value> map2 = new HashMap<JimpleLocal, Value>();
+        map2.put(x, Value.of(TaintState.CLEAN, false));
+        map2.put(y, Value.of(TaintState.TAINTED, false));
+        map2.put(z, Value.of(TaintState.CLEAN, false));
+
+        Set<TaintElement> toJoin = new HashSet<>();
+        toJoin.add(new TaintElement(localIndex, map1));
+        toJoin.add(new TaintElement(localIndex, map2));
+
+        TaintJoin join = new TaintJoin();
+        TaintElement joinResult = join.join(toJoin);
+
+        Assert.assertSame(localIndex, joinResult.getLocalIndex());
+        Assert.assertSame(Value.of(TaintState.CLEAN, false), joinResult.getValue(x));
+        Assert.assertSame(Value.of(TaintState.TAINTED, true), joinResult.getValue(y));
+        Assert.assertSame(Value.of(TaintState.TAINTED, false), joinResult.getValue(z));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJoinSharedLocalIndexNotMatching() {
+        JimpleLocal x = new JimpleLocal("x", IntType.v());
+        JimpleLocal y = new JimpleLocal("y", IntType.v());
+        LocalIndex localIndex = new LocalIndex(Arrays.asList(x, y));
+
+        Map<JimpleLocal, Value> map1 = new HashMap<JimpleLocal, Value>();
+        map1.put(x, Value.of(TaintState.CLEAN, false));
+        map1.put(y, Value.of(TaintState.CLEAN, false));
+
+        Map<JimpleLocal, Value> map2 = new HashMap<JimpleLocal, Value>();
+        map2.put(x, Value.of(TaintState.CLEAN, false));
+
+        Set<TaintElement> toJoin = new HashSet<>();
+        toJoin.add(new TaintElement(localIndex, map1));
+        toJoin.add(new TaintElement(localIndex, map2));
+
+        new TaintJoin().join(toJoin);
+    }
+
 }
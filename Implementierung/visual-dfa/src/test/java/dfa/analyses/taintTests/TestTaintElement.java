@@ -136,4 +136,20 @@ public class TestTaintElement {
         Assert.assertFalse(TaintElement.isLocalTypeAccepted(VoidType.v()));
     }
     
+    @Test
+    public void testValueFlyweights() {
+        Value value = Value.of(TaintState.TAINTED, true);
+        Assert.assertSame(value, Value.of(TaintState.TAINTED, true));
+        Assert.assertNotSame(value, Value.of(TaintState.TAINTED, false));
+        Assert.assertEquals(new Value(TaintState.TAINTED, true), value);
+        Assert.assertEquals(new Value(TaintState.TAINTED, true).hashCode(), value.hashCode());
+
+        // values are stored packed, so even a non-shared Value is read back as the shared one
+        TaintElement te = new TaintElement();
+        JimpleLocal l = new JimpleLocal("x", IntType.v());
+        te.setValue(l, new Value(TaintState.TAINTED, true));
+        Assert.assertSame(value, te.getValue(l));
+        Assert.assertEquals("x: tainted (v)", te.getStringRepresentation());
+    }
+
 }
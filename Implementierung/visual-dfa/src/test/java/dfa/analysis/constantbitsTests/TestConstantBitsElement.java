@@ -59,11 +59,13 @@ public class TestConstantBitsElement {
         JimpleLocal z = new JimpleLocal("z", LongType.v());
         
         BitValueArray xVal = new BitValueArray(IntConstant.v(-943));
-        BitValueArray yVal = new BitValueArray(IntConstant.v(6));
-        yVal.getBitValues()[0] = BitValue.TOP;
+        BitValue[] yBits = new BitValueArray(IntConstant.v(6)).getBitValues();
+        yBits[0] = BitValue.TOP;
+        BitValueArray yVal = new BitValueArray(yBits);
         
-        BitValueArray zVal = BitValueArray.getLongTop();
-        zVal.getBitValues()[0] = BitValue.BOTTOM;
+        BitValue[] zBits = BitValueArray.getLongTop().getBitValues();
+        zBits[0] = BitValue.BOTTOM;
+        BitValueArray zVal = new BitValueArray(zBits);
         
         ConstantBitsElement cbe = new ConstantBitsElement();
         cbe.setValue(x, xVal);
@@ -123,8 +125,9 @@ public class TestConstantBitsElement {
         BitValueArray bva = new BitValueArray(IntConstant.v(-8360));
         Assert.assertTrue(bva.isConst());
         
-        bva.getBitValues()[4] = BitValue.TOP;
-        Assert.assertFalse(bva.isConst());
+        BitValue[] bits = bva.getBitValues();
+        bits[4] = BitValue.TOP;
+        Assert.assertFalse(new BitValueArray(bits).isConst());
     }
     
     @Test
@@ -133,9 +136,9 @@ public class TestConstantBitsElement {
         Assert.assertFalse(new BitValueArray(LongConstant.v(77777)).isPowerOfTwo());
         Assert.assertFalse(new BitValueArray(IntConstant.v(-Integer.MIN_VALUE)).isPowerOfTwo());
 
-        BitValueArray bva = new BitValueArray(IntConstant.v(100));
-        bva.getBitValues()[7] = BitValue.TOP;
-        Assert.assertFalse(bva.isPowerOfTwo());
+        BitValue[] bits = new BitValueArray(IntConstant.v(100)).getBitValues();
+        bits[7] = BitValue.TOP;
+        Assert.assertFalse(new BitValueArray(bits).isPowerOfTwo());
     }
     
     @Test
@@ -192,12 +195,14 @@ public class TestConstantBitsElement {
         BitValueArray bva1 = new BitValueArray(IntConstant.v(12));
         BitValueArray bva2 = new BitValueArray(LongConstant.v(12));
         BitValueArray bva3 = new BitValueArray(IntConstant.v(-5));
-        BitValueArray bva4 = new BitValueArray(IntConstant.v(-5));
-        bva4.getBitValues()[2] = BitValue.TOP;
+        BitValue[] bva4Values = new BitValueArray(IntConstant.v(-5)).getBitValues();
+        bva4Values[2] = BitValue.TOP;
+        BitValueArray bva4 = new BitValueArray(bva4Values);
         
-        BitValueArray intTwelve = new BitValueArray(32, BitValue.ZERO);
-        intTwelve.getBitValues()[2] = BitValue.ONE;
-        intTwelve.getBitValues()[3] = BitValue.ONE;
+        BitValue[] intTwelveValues = new BitValueArray(32, BitValue.ZERO).getBitValues();
+        intTwelveValues[2] = BitValue.ONE;
+        intTwelveValues[3] = BitValue.ONE;
+        BitValueArray intTwelve = new BitValueArray(intTwelveValues);
         
         Assert.assertEquals(bva1, intTwelve);
         
@@ -206,5 +211,42 @@ public class TestConstantBitsElement {
         Assert.assertNotEquals(bva3, new String());
         Assert.assertNotEquals(bva3, BitValueArray.getIntTop());
     }
-    
+
+    @Test
+    public void testBitValueArrayMasks() {
+        BitValueArray bva = new BitValueArray(IntConstant.v(6));
+        Assert.assertEquals(6L, bva.getOneMask());
+        Assert.assertEquals(0xFFFFFFF9L, bva.getZeroMask());
+        Assert.assertEquals(0L, bva.getBottomMask());
+        Assert.assertEquals(0L, bva.getTopMask());
+
+        BitValue[] bits = bva.toBitValues();
+        bits[0] = BitValue.TOP;
+        bits[3] = BitValue.BOTTOM;
+        BitValueArray packed = new BitValueArray(bits);
+        Assert.assertEquals(new BitValueArray(32, 8L, 0xFFFFFFF0L, 6L), packed);
+        Assert.assertEquals(1L, packed.getTopMask());
+        Assert.assertEquals(BitValue.TOP, packed.getBitValue(0));
+        Assert.assertEquals(BitValue.ONE, packed.getBitValue(1));
+        Assert.assertEquals(BitValue.BOTTOM, packed.getBitValue(3));
+        Assert.assertEquals(BitValue.ZERO, packed.getBitValue(31));
+
+        // toBitValues() and getBitValues() return copies, so bva is unchanged
+        bva.getBitValues()[1] = BitValue.TOP;
+        Assert.assertEquals(new BitValueArray(IntConstant.v(6)), bva);
+        Assert.assertEquals(6L, bva.getOneMask());
+        Assert.assertEquals(0L, bva.getTopMask());
+        Assert.assertNotSame(bva.getBitValues(), bva.getBitValues());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBitValueArrayOverlappingMasks() {
+        new BitValueArray(32, 0L, 3L, 2L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBitValueArrayMaskTooLong() {
+        new BitValueArray(32, 0L, 1L << 32, 0L);
+    }
+
 }
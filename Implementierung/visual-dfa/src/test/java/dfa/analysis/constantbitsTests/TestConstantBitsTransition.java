@@ -1,5 +1,6 @@
 package dfa.analysis.constantbitsTests;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -22,7 +23,11 @@ import dfa.framework.SimpleBlockGraph;
 import dfaTests.TestMethod;
 import dfaTests.TestUtils;
 import dfaTests.ValueHelper;
+import soot.IntType;
 import soot.Unit;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.internal.JimpleLocal;
 import soot.toolkits.graph.Block;
 
 public class TestConstantBitsTransition {
@@ -1994,23 +1999,26 @@ public class TestConstantBitsTransition {
         ConstantBitsJoin join = new ConstantBitsJoin();
         ConstantBitsElement cbeJoinResult = join(join, cbeLeftBranchOut, cbeRightBranchOut);
 
-        BitValueArray expectedX = ValueHelper.getCbIntBitValueArray(1);
-        expectedX.getBitValues()[1] = BitValue.TOP;
-        expectedX.getBitValues()[2] = BitValue.TOP;
-        expectedX.getBitValues()[3] = BitValue.TOP;
-        expectedX.getBitValues()[4] = BitValue.TOP;
-        expectedX.getBitValues()[6] = BitValue.TOP;
+        BitValue[] expectedXValues = ValueHelper.getCbIntBitValueArray(1).getBitValues();
+        expectedXValues[1] = BitValue.TOP;
+        expectedXValues[2] = BitValue.TOP;
+        expectedXValues[3] = BitValue.TOP;
+        expectedXValues[4] = BitValue.TOP;
+        expectedXValues[6] = BitValue.TOP;
+        BitValueArray expectedX = new BitValueArray(expectedXValues);
 
-        BitValueArray expectedY = ValueHelper.getCbIntBitValueArray(25);
-        expectedY.getBitValues()[1] = BitValue.TOP;
-        expectedY.getBitValues()[5] = BitValue.TOP;
+        BitValue[] expectedYValues = ValueHelper.getCbIntBitValueArray(25).getBitValues();
+        expectedYValues[1] = BitValue.TOP;
+        expectedYValues[5] = BitValue.TOP;
+        BitValueArray expectedY = new BitValueArray(expectedYValues);
 
         ConstantBitsElement cbe01 = transition.transition(cbeJoinResult, endUnits.get(0));
         currentCbe = cbe01;
 
-        BitValueArray expected = ValueHelper.getCbIntBitValueArray(23);
-        expected.getBitValues()[3] = BitValue.TOP;
-        expected.getBitValues()[6] = BitValue.TOP;
+        BitValue[] expectedValues = ValueHelper.getCbIntBitValueArray(23).getBitValues();
+        expectedValues[3] = BitValue.TOP;
+        expectedValues[6] = BitValue.TOP;
+        BitValueArray expected = new BitValueArray(expectedValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(27), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(69), "b", currentCbe);
@@ -2022,11 +2030,12 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe02 = transition.transition(cbe01, endUnits.get(1));
         currentCbe = cbe02;
 
-        expected = ValueHelper.getCbIntBitValueArray(25);
-        expected.getBitValues()[1] = BitValue.TOP;
-        expected.getBitValues()[2] = BitValue.TOP;
-        expected.getBitValues()[5] = BitValue.TOP;
-        expected.getBitValues()[6] = BitValue.TOP;
+        expectedValues = ValueHelper.getCbIntBitValueArray(25).getBitValues();
+        expectedValues[1] = BitValue.TOP;
+        expectedValues[2] = BitValue.TOP;
+        expectedValues[5] = BitValue.TOP;
+        expectedValues[6] = BitValue.TOP;
+        expected = new BitValueArray(expectedValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(27), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(69), "b", currentCbe);
@@ -2038,9 +2047,10 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe03 = transition.transition(cbe02, endUnits.get(2));
         currentCbe = cbe03;
 
-        expected = ValueHelper.getCbIntBitValueArray(1);
-        expected.getBitValues()[2] = BitValue.TOP;
-        expected.getBitValues()[3] = BitValue.TOP;
+        expectedValues = ValueHelper.getCbIntBitValueArray(1).getBitValues();
+        expectedValues[2] = BitValue.TOP;
+        expectedValues[3] = BitValue.TOP;
+        expected = new BitValueArray(expectedValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(27), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(69), "b", currentCbe);
@@ -2052,10 +2062,11 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe04 = transition.transition(cbe03, endUnits.get(3));
         currentCbe = cbe04;
 
-        expected = ValueHelper.getCbIntBitValueArray(1);
-        expected.getBitValues()[1] = BitValue.TOP;
-        expected.getBitValues()[3] = BitValue.TOP;
-        expected.getBitValues()[4] = BitValue.TOP;
+        expectedValues = ValueHelper.getCbIntBitValueArray(1).getBitValues();
+        expectedValues[1] = BitValue.TOP;
+        expectedValues[3] = BitValue.TOP;
+        expectedValues[4] = BitValue.TOP;
+        expected = new BitValueArray(expectedValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(27), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(69), "b", currentCbe);
@@ -2067,12 +2078,13 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe05 = transition.transition(cbe04, endUnits.get(4));
         currentCbe = cbe05;
 
-        expected = ValueHelper.getCbIntBitValueArray(32);
-        expected.getBitValues()[1] = BitValue.TOP;
-        expected.getBitValues()[2] = BitValue.TOP;
-        expected.getBitValues()[3] = BitValue.TOP;
-        expected.getBitValues()[4] = BitValue.TOP;
-        expected.getBitValues()[6] = BitValue.TOP;
+        expectedValues = ValueHelper.getCbIntBitValueArray(32).getBitValues();
+        expectedValues[1] = BitValue.TOP;
+        expectedValues[2] = BitValue.TOP;
+        expectedValues[3] = BitValue.TOP;
+        expectedValues[4] = BitValue.TOP;
+        expectedValues[6] = BitValue.TOP;
+        expected = new BitValueArray(expectedValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(27), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(69), "b", currentCbe);
@@ -2084,13 +2096,14 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe06 = transition.transition(cbe05, endUnits.get(5));
         currentCbe = cbe06;
 
-        expected = ValueHelper.getCbIntBitValueArray(0);
-        expected.getBitValues()[1] = BitValue.TOP;
-        expected.getBitValues()[2] = BitValue.TOP;
-        expected.getBitValues()[3] = BitValue.TOP;
-        expected.getBitValues()[4] = BitValue.TOP;
-        expected.getBitValues()[5] = BitValue.TOP;
-        expected.getBitValues()[6] = BitValue.TOP;
+        expectedValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        expectedValues[1] = BitValue.TOP;
+        expectedValues[2] = BitValue.TOP;
+        expectedValues[3] = BitValue.TOP;
+        expectedValues[4] = BitValue.TOP;
+        expectedValues[5] = BitValue.TOP;
+        expectedValues[6] = BitValue.TOP;
+        expected = new BitValueArray(expectedValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(27), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(69), "b", currentCbe);
@@ -2221,18 +2234,20 @@ public class TestConstantBitsTransition {
         ConstantBitsJoin join = new ConstantBitsJoin();
         ConstantBitsElement cbeJoinResult = join(join, cbeLeftBranchOut, cbeRightBranchOut);
 
-        BitValueArray expectedX = ValueHelper.getCbLongBitValueArray(2);
-        expectedX.getBitValues()[0] = BitValue.TOP;
-        expectedX.getBitValues()[2] = BitValue.TOP;
-        expectedX.getBitValues()[5] = BitValue.TOP;
-
-        BitValueArray expectedY = ValueHelper.getCbLongBitValueArray(2);
-        expectedY.getBitValues()[0] = BitValue.TOP;
-        expectedY.getBitValues()[2] = BitValue.TOP;
-        expectedY.getBitValues()[3] = BitValue.TOP;
-        expectedY.getBitValues()[5] = BitValue.TOP;
-        expectedY.getBitValues()[6] = BitValue.TOP;
-        expectedY.getBitValues()[7] = BitValue.TOP;
+        BitValue[] expectedXValues = ValueHelper.getCbLongBitValueArray(2).getBitValues();
+        expectedXValues[0] = BitValue.TOP;
+        expectedXValues[2] = BitValue.TOP;
+        expectedXValues[5] = BitValue.TOP;
+        BitValueArray expectedX = new BitValueArray(expectedXValues);
+
+        BitValue[] expectedYValues = ValueHelper.getCbLongBitValueArray(2).getBitValues();
+        expectedYValues[0] = BitValue.TOP;
+        expectedYValues[2] = BitValue.TOP;
+        expectedYValues[3] = BitValue.TOP;
+        expectedYValues[5] = BitValue.TOP;
+        expectedYValues[6] = BitValue.TOP;
+        expectedYValues[7] = BitValue.TOP;
+        BitValueArray expectedY = new BitValueArray(expectedYValues);
 
         currentCbe = cbeJoinResult;
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(6), "a", currentCbe);
@@ -2246,14 +2261,15 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe02 = transition.transition(cbe01, endUnits.get(1));
         currentCbe = cbe02;
 
-        BitValueArray expectedN = ValueHelper.getCbLongBitValueArray(0);
+        BitValue[] expectedNValues = ValueHelper.getCbLongBitValueArray(0).getBitValues();
         for (int i = 2; i <= 14; ++i) {
-            expectedN.getBitValues()[i] = BitValue.TOP;
+            expectedNValues[i] = BitValue.TOP;
         }
 
         for (int i = 34; i <= 46; ++i) {
-            expectedN.getBitValues()[i] = BitValue.TOP;
+            expectedNValues[i] = BitValue.TOP;
         }
+        BitValueArray expectedN = new BitValueArray(expectedNValues);
 
         currentCbe = cbe02;
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(6), "a", currentCbe);
@@ -2267,16 +2283,17 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe04 = transition.transition(cbe03, endUnits.get(3));
         currentCbe = cbe04;
 
-        expectedN = ValueHelper.getCbLongBitValueArray(0);
+        expectedNValues = ValueHelper.getCbLongBitValueArray(0).getBitValues();
         for (int i = 0; i < 64; ++i) {
             if (i >= 2 && i <= 17) {
-                expectedN.getBitValues()[i] = BitValue.TOP;
+                expectedNValues[i] = BitValue.TOP;
             } else if (i >= 34 && i <= 49) {
-                expectedN.getBitValues()[i] = BitValue.TOP;
+                expectedNValues[i] = BitValue.TOP;
             } else if (i == 19 || i == 20 || i == 51 || i == 52) {
-                expectedN.getBitValues()[i] = BitValue.TOP;
+                expectedNValues[i] = BitValue.TOP;
             }
         }
+        expectedN = new BitValueArray(expectedNValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(6), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(35), "b", currentCbe);
@@ -2289,10 +2306,11 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe06 = transition.transition(cbe05, endUnits.get(5));
         currentCbe = cbe06;
 
-        expectedN = ValueHelper.getCbLongBitValueArray(0);
+        expectedNValues = ValueHelper.getCbLongBitValueArray(0).getBitValues();
         for (int i = 0; i <= 5; ++i) {
-            expectedN.getBitValues()[i] = BitValue.TOP;
+            expectedNValues[i] = BitValue.TOP;
         }
+        expectedN = new BitValueArray(expectedNValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(6), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(35), "b", currentCbe);
@@ -2305,10 +2323,11 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe08 = transition.transition(cbe07, endUnits.get(7));
         currentCbe = cbe08;
 
-        expectedN = ValueHelper.getCbLongBitValueArray(0);
-        expectedN.getBitValues()[0] = BitValue.TOP;
-        expectedN.getBitValues()[2] = BitValue.TOP;
-        expectedN.getBitValues()[3] = BitValue.TOP;
+        expectedNValues = ValueHelper.getCbLongBitValueArray(0).getBitValues();
+        expectedNValues[0] = BitValue.TOP;
+        expectedNValues[2] = BitValue.TOP;
+        expectedNValues[3] = BitValue.TOP;
+        expectedN = new BitValueArray(expectedNValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(6), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(35), "b", currentCbe);
@@ -2438,14 +2457,16 @@ public class TestConstantBitsTransition {
         ConstantBitsJoin join = new ConstantBitsJoin();
         ConstantBitsElement cbeJoinResult = join(join, cbeLeftBranchOut, cbeRightBranchOut);
 
-        BitValueArray xArr = new BitValueArray(32, BitValue.ONE);
-        xArr.getBitValues()[0] = BitValue.TOP;
-        xArr.getBitValues()[2] = BitValue.TOP;
+        BitValue[] xArrValues = new BitValueArray(32, BitValue.ONE).getBitValues();
+        xArrValues[0] = BitValue.TOP;
+        xArrValues[2] = BitValue.TOP;
+        BitValueArray xArr = new BitValueArray(xArrValues);
 
-        BitValueArray yArr = new BitValueArray(32, BitValue.TOP);
-        yArr.getBitValues()[1] = BitValue.ONE;
-        yArr.getBitValues()[2] = BitValue.ONE;
-        yArr.getBitValues()[5] = BitValue.ONE;
+        BitValue[] yArrValues = new BitValueArray(32, BitValue.TOP).getBitValues();
+        yArrValues[1] = BitValue.ONE;
+        yArrValues[2] = BitValue.ONE;
+        yArrValues[5] = BitValue.ONE;
+        BitValueArray yArr = new BitValueArray(yArrValues);
 
         currentCbe = cbeJoinResult;
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(-2), "a", currentCbe);
@@ -2458,10 +2479,11 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe01 = transition.transition(cbeJoinResult, endUnits.get(0));
         currentCbe = cbe01;
 
-        BitValueArray expectedN = ValueHelper.getCbIntBitValueArray(0);
+        BitValue[] expectedNValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
         for (int i = 0; i <= 5; ++i) {
-            expectedN.getBitValues()[i] = BitValue.TOP;
+            expectedNValues[i] = BitValue.TOP;
         }
+        BitValueArray expectedN = new BitValueArray(expectedNValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(-2), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(-5), "b", currentCbe);
@@ -2473,14 +2495,15 @@ public class TestConstantBitsTransition {
         ConstantBitsElement cbe02 = transition.transition(cbe01, endUnits.get(1));
         currentCbe = cbe02;
 
-        expectedN = new BitValueArray(32, BitValue.TOP);
-        expectedN.getBitValues()[0] = BitValue.ONE;
-        expectedN.getBitValues()[26] = BitValue.ZERO;
-        expectedN.getBitValues()[27] = BitValue.ZERO;
-        expectedN.getBitValues()[28] = BitValue.ZERO;
-        expectedN.getBitValues()[29] = BitValue.ZERO;
-        expectedN.getBitValues()[30] = BitValue.ZERO;
-        expectedN.getBitValues()[31] = BitValue.ZERO;
+        expectedNValues = new BitValueArray(32, BitValue.TOP).getBitValues();
+        expectedNValues[0] = BitValue.ONE;
+        expectedNValues[26] = BitValue.ZERO;
+        expectedNValues[27] = BitValue.ZERO;
+        expectedNValues[28] = BitValue.ZERO;
+        expectedNValues[29] = BitValue.ZERO;
+        expectedNValues[30] = BitValue.ZERO;
+        expectedNValues[31] = BitValue.ZERO;
+        expectedN = new BitValueArray(expectedNValues);
 
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(-2), "a", currentCbe);
         tu.assertLocalValue(ValueHelper.getCbIntBitValueArray(-5), "b", currentCbe);
@@ -2518,6 +2541,140 @@ public class TestConstantBitsTransition {
         return new TestMethod(signature, method);
     }
 
+    @Test
+    public void testArithmeticWithTopBits() {
+        ConstantBitsTransition transition = new ConstantBitsTransition();
+        JimpleLocal x = new JimpleLocal("x", IntType.v());
+        JimpleLocal n = new JimpleLocal("n", IntType.v());
+
+        // x = <T 1 0 0 0 ...>, so x is 2 or 3
+        BitValue[] xValues = ValueHelper.getCbIntBitValueArray(2).getBitValues();
+        xValues[0] = BitValue.TOP;
+        BitValueArray xArr = new BitValueArray(xValues);
+
+        Map<JimpleLocal, BitValueArray> localMap = new HashMap<JimpleLocal, BitValueArray>();
+        localMap.put(x, xArr);
+        localMap.put(n, BitValueArray.getIntBottom());
+        ConstantBitsElement in = new ConstantBitsElement(localMap);
+
+        // -x is -2 (<0 1 1 1 ...>) or -3 (<1 0 1 1 ...>)
+        BitValue[] expectedNValues = ValueHelper.getCbIntBitValueArray(-1).getBitValues();
+        expectedNValues[0] = BitValue.TOP;
+        expectedNValues[1] = BitValue.TOP;
+        BitValueArray expectedN = new BitValueArray(expectedNValues);
+        ConstantBitsElement out = transition.transition(in, Jimple.v().newAssignStmt(n, Jimple.v().newNegExpr(x)));
+        tu.assertLocalValue(expectedN, "n", out);
+
+        // x + 1 is 3 (<1 1 0 0 ...>) or 4 (<0 0 1 0 ...>)
+        expectedNValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        expectedNValues[0] = BitValue.TOP;
+        expectedNValues[1] = BitValue.TOP;
+        expectedNValues[2] = BitValue.TOP;
+        expectedN = new BitValueArray(expectedNValues);
+        out = transition.transition(in, Jimple.v().newAssignStmt(n, Jimple.v().newAddExpr(x, IntConstant.v(1))));
+        tu.assertLocalValue(expectedN, "n", out);
+
+        // 1 - x is -1 (<1 1 1 1 ...>) or -2 (<0 1 1 1 ...>)
+        expectedNValues = ValueHelper.getCbIntBitValueArray(-1).getBitValues();
+        expectedNValues[0] = BitValue.TOP;
+        expectedN = new BitValueArray(expectedNValues);
+        out = transition.transition(in, Jimple.v().newAssignStmt(n, Jimple.v().newSubExpr(IntConstant.v(1), x)));
+        tu.assertLocalValue(expectedN, "n", out);
+    }
+
+    @Test
+    public void testNegOfValuesWithTopBits() {
+        ConstantBitsTransition transition = new ConstantBitsTransition();
+        JimpleLocal x = new JimpleLocal("x", IntType.v());
+        JimpleLocal n = new JimpleLocal("n", IntType.v());
+
+        // x = <0 T T 0 0 ...>, so x is 0, 2, 4 or 6
+        BitValue[] xValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        xValues[1] = BitValue.TOP;
+        xValues[2] = BitValue.TOP;
+
+        Map<JimpleLocal, BitValueArray> localMap = new HashMap<JimpleLocal, BitValueArray>();
+        localMap.put(x, new BitValueArray(xValues));
+        localMap.put(n, BitValueArray.getIntBottom());
+        ConstantBitsElement in = new ConstantBitsElement(localMap);
+
+        // -x is 0 (<0 0 0 0 ...>), -2, -4 or -6 (<0 T T 1 1 ...>), so only the lowest bit is known
+        BitValue[] expectedNValues = BitValueArray.getIntTop().getBitValues();
+        expectedNValues[0] = BitValue.ZERO;
+        BitValueArray expectedN = new BitValueArray(expectedNValues);
+        ConstantBitsElement out = transition.transition(in, Jimple.v().newAssignStmt(n, Jimple.v().newNegExpr(x)));
+        tu.assertLocalValue(expectedN, "n", out);
+
+        // x = <0 T T 1 1 ...>, so x is -8, -6, -4 or -2
+        xValues = ValueHelper.getCbIntBitValueArray(-8).getBitValues();
+        xValues[1] = BitValue.TOP;
+        xValues[2] = BitValue.TOP;
+        localMap.put(x, new BitValueArray(xValues));
+        in = new ConstantBitsElement(localMap);
+
+        // -x is 8 (<0 0 0 1 0 ...>), 6, 4 or 2 (<0 T T 0 0 ...>)
+        expectedNValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        expectedNValues[1] = BitValue.TOP;
+        expectedNValues[2] = BitValue.TOP;
+        expectedNValues[3] = BitValue.TOP;
+        expectedN = new BitValueArray(expectedNValues);
+        out = transition.transition(in, Jimple.v().newAssignStmt(n, Jimple.v().newNegExpr(x)));
+        tu.assertLocalValue(expectedN, "n", out);
+    }
+
+    @Test
+    public void testMulOfPositiveValuesWithManyTopBits() {
+        ConstantBitsTransition transition = new ConstantBitsTransition();
+        JimpleLocal x = new JimpleLocal("x", IntType.v());
+        JimpleLocal y = new JimpleLocal("y", IntType.v());
+        JimpleLocal n = new JimpleLocal("n", IntType.v());
+
+        // x = <0 T T ... T 0 0 ...> with 16 TOP bits, y = <0 T T ... T 0 0 ...> with 15 TOP bits
+        BitValue[] xValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        for (int i = 1; i <= 16; ++i) {
+            xValues[i] = BitValue.TOP;
+        }
+
+        BitValue[] yValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        for (int i = 1; i <= 15; ++i) {
+            yValues[i] = BitValue.TOP;
+        }
+
+        Map<JimpleLocal, BitValueArray> localMap = new HashMap<JimpleLocal, BitValueArray>();
+        localMap.put(x, new BitValueArray(xValues));
+        localMap.put(y, new BitValueArray(yValues));
+        localMap.put(n, BitValueArray.getIntBottom());
+        ConstantBitsElement in = new ConstantBitsElement(localMap);
+
+        // x * y is a multiple of 4, but it may overflow, so all other bits are TOP
+        BitValue[] expectedNValues = BitValueArray.getIntTop().getBitValues();
+        expectedNValues[0] = BitValue.ZERO;
+        expectedNValues[1] = BitValue.ZERO;
+        BitValueArray expectedN = new BitValueArray(expectedNValues);
+        ConstantBitsElement out = transition.transition(in, Jimple.v().newAssignStmt(n, Jimple.v().newMulExpr(x, y)));
+        tu.assertLocalValue(expectedN, "n", out);
+
+        // with 4 TOP bits each, x * y is less than 256
+        xValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        yValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        for (int i = 0; i < 4; ++i) {
+            xValues[i] = BitValue.TOP;
+            yValues[i] = BitValue.TOP;
+        }
+
+        localMap.put(x, new BitValueArray(xValues));
+        localMap.put(y, new BitValueArray(yValues));
+        in = new ConstantBitsElement(localMap);
+        expectedNValues = ValueHelper.getCbIntBitValueArray(0).getBitValues();
+        for (int i = 0; i < 8; ++i) {
+            expectedNValues[i] = BitValue.TOP;
+        }
+
+        expectedN = new BitValueArray(expectedNValues);
+        out = transition.transition(in, Jimple.v().newAssignStmt(n, Jimple.v().newMulExpr(x, y)));
+        tu.assertLocalValue(expectedN, "n", out);
+    }
+
     private ConstantBitsElement transitionThroughBlock(Block block, ConstantBitsElement in,
             ConstantBitsTransition transition) {
         List<Unit> units = tu.getUnitsFromBlock(block);
@@ -85,8 +85,9 @@ public class TestJoin {
         
         ConstantBitsElement joinResult = join(join, cbe1, cbe2);
 
-        BitValueArray expectedC = new BitValueArray(LongConstant.v(5));
-        expectedC.getBitValues()[1] = BitValue.TOP;
+        BitValue[] expectedCValues = new BitValueArray(LongConstant.v(5)).getBitValues();
+        expectedCValues[1] = BitValue.TOP;
+        BitValueArray expectedC = new BitValueArray(expectedCValues);
         
         Assert.assertEquals(valA1, joinResult.getValue(a));
         Assert.assertEquals(valB1, joinResult.getValue(b));
@@ -0,0 +1,101 @@
+package dfa.frameworkTests;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dfa.analyses.ConstantFoldingElement;
+import dfa.analyses.ConstantFoldingFactory;
+import dfa.framework.AbstractBlock;
+import dfa.framework.AnalysisState;
+import dfa.framework.BasicBlock;
+import dfa.framework.BlockState;
+import dfa.framework.ControlFlowGraph;
+import dfa.framework.DFAExecution;
+import dfa.framework.DFAPrecalcController;
+import dfa.framework.ElementaryBlock;
+import dfa.framework.LogicalColor;
+import dfa.framework.SimpleBlockGraph;
+import dfa.framework.WorklistManager;
+import dfaTests.GeneratedTestMethods;
+
+/**
+ * Measures the heap used per elementary-step of a {@code DFAExecution}. The structurally shared history is compared
+ * to a history which copies the complete state- and color-mappings in every step (which is how {@code AnalysisState}s
+ * used to be stored).
+ *
+ * This is not a unit test, run it via {@code main} (e. g. with {@code -Xmx2g}).
+ */
+public class AnalysisStateMemoryBenchmark {
+
+    private static final int DEFAULT_BRANCHES = 250;
+
+    public static void main(String[] args) {
+        int branches = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BRANCHES;
+        SimpleBlockGraph blockGraph = GeneratedTestMethods
+                .buildGraph(GeneratedTestMethods.getCodeManyBranches(branches));
+
+        // warm up (loads all classes used during the precalculation)
+        runAnalysis(blockGraph);
+
+        long before = usedHeap();
+        DFAExecution<ConstantFoldingElement> dfaExecution = runAnalysis(blockGraph);
+        long sharedBytes = usedHeap() - before;
+
+        int steps = dfaExecution.getTotalElementarySteps();
+
+        before = usedHeap();
+        List<Map<AbstractBlock, BlockState<ConstantFoldingElement>>> copiedStateMaps = new ArrayList<>(steps);
+        List<Map<BasicBlock, LogicalColor>> copiedColorMaps = new ArrayList<>(steps);
+        copyHistory(dfaExecution, copiedStateMaps, copiedColorMaps);
+        long copiedBytes = usedHeap() - before;
+
+        System.out.println("bytes/step (copies): " + copiedBytes / steps);
+        System.out.println("bytes/step (shared): " + sharedBytes / steps);
+
+        // printed last, so the execution and the copies stay reachable until the measurements are done
+        System.out.println("basic blocks:        " + dfaExecution.getCFG().getBasicBlocks().size());
+        System.out.println("elementary steps:    " + dfaExecution.getTotalElementarySteps());
+        System.out.println("copied steps:        " + copiedStateMaps.size() + " states, " + copiedColorMaps.size()
+                + " colors");
+    }
+
+    private static DFAExecution<ConstantFoldingElement> runAnalysis(SimpleBlockGraph blockGraph) {
+        return new DFAExecution<>(new ConstantFoldingFactory(),
+                WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, new DFAPrecalcController());
+    }
+
+    private static void copyHistory(DFAExecution<ConstantFoldingElement> dfaExecution,
+            List<Map<AbstractBlock, BlockState<ConstantFoldingElement>>> stateMaps,
+            List<Map<BasicBlock, LogicalColor>> colorMaps) {
+        ControlFlowGraph cfg = dfaExecution.getCFG();
+        for (int step = 0; step < dfaExecution.getTotalElementarySteps(); ++step) {
+            dfaExecution.setCurrentElementaryStep(step);
+            AnalysisState<ConstantFoldingElement> state = dfaExecution.getCurrentAnalysisState();
+
+            Map<AbstractBlock, BlockState<ConstantFoldingElement>> stateMap = new HashMap<>();
+            Map<BasicBlock, LogicalColor> colorMap = new HashMap<>();
+            for (BasicBlock bBlock : cfg.getBasicBlocks()) {
+                stateMap.put(bBlock, state.getBlockState(bBlock));
+                colorMap.put(bBlock, state.getColor(bBlock));
+                for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                    stateMap.put(eBlock, state.getBlockState(eBlock));
+                }
+            }
+
+            stateMaps.add(stateMap);
+            colorMaps.add(colorMap);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
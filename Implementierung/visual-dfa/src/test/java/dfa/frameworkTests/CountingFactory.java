@@ -0,0 +1,123 @@
+package dfa.frameworkTests;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import dfa.framework.BlockState;
+import dfa.framework.CompositeDataFlowAnalysis;
+import dfa.framework.DFADirection;
+import dfa.framework.DFAFactory;
+import dfa.framework.DataFlowAnalysis;
+import dfa.framework.Initializer;
+import dfa.framework.Join;
+import dfa.framework.LatticeElement;
+import dfa.framework.SimpleBlockGraph;
+import dfa.framework.Transition;
+import dfa.framework.Widening;
+import soot.Unit;
+import soot.toolkits.graph.Block;
+
+/**
+ * A {@code CountingFactory} creates an analysis that counts the {@code Unit}s executed on the longest path to each
+ * program point. Its lattice has infinite height, so on a graph with loops it only reaches a fixpoint because of its
+ * {@code Widening}, which sets every count that is still growing to top.
+ */
+public class CountingFactory extends DFAFactory<CountingFactory.Count> {
+
+    @Override
+    public String getName() {
+        return "Counting";
+    }
+
+    @Override
+    public DFADirection getDirection() {
+        return DFADirection.FORWARD;
+    }
+
+    @Override
+    public DataFlowAnalysis<Count> getAnalysis(final SimpleBlockGraph blockGraph) {
+        Join<Count> join = new Join<Count>() {
+            @Override
+            public Count join(Set<Count> elements) {
+                int max = 0;
+                for (Count count : elements) {
+                    max = Math.max(max, count.value);
+                }
+
+                return new Count(max);
+            }
+        };
+
+        Transition<Count> transition = new Transition<Count>() {
+            @Override
+            public Count transition(Count element, Unit unit) {
+                return element.value == Count.TOP ? element : new Count(element.value + 1);
+            }
+        };
+
+        Initializer<Count> initializer = new Initializer<Count>() {
+            @Override
+            public Map<Block, BlockState<Count>> getInitialStates() {
+                Map<Block, BlockState<Count>> initialStates = new HashMap<>();
+                for (Block block : blockGraph.getBlocks()) {
+                    initialStates.put(block, new BlockState<Count>(new Count(0), new Count(0)));
+                }
+
+                return initialStates;
+            }
+        };
+
+        Widening<Count> widening = new Widening<Count>() {
+            @Override
+            public Count widen(Count previous, Count next) {
+                return previous.equals(next) ? next : new Count(Count.TOP);
+            }
+        };
+
+        return new CompositeDataFlowAnalysis<Count>(join, transition, initializer, widening);
+    }
+
+    /**
+     * A {@code Count} is a non-negative number or top.
+     */
+    public static final class Count implements LatticeElement {
+
+        /**
+         * the value of top
+         */
+        public static final int TOP = Integer.MAX_VALUE;
+
+        private final int value;
+
+        private Count(int value) {
+            this.value = value;
+        }
+
+        /**
+         * Returns whether this {@code Count} is top.
+         *
+         * @return {@code true} iff this {@code Count} is top
+         */
+        public boolean isTop() {
+            return value == TOP;
+        }
+
+        @Override
+        public String getStringRepresentation() {
+            return isTop() ? "TOP" : Integer.toString(value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Count && ((Count) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+
+    }
+
+}
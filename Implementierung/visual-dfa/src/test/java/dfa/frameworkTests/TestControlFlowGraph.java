@@ -0,0 +1,120 @@
+package dfa.frameworkTests;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dfa.framework.AbstractBlock;
+import dfa.framework.BasicBlock;
+import dfa.framework.ControlFlowGraph;
+import dfa.framework.DFADirection;
+import dfa.framework.ElementaryBlock;
+import dfa.framework.SimpleBlockGraph;
+import dfaTests.GeneratedTestMethods;
+import soot.toolkits.graph.Block;
+
+public class TestControlFlowGraph {
+
+    private static SimpleBlockGraph blockGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        blockGraph = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeManyBranches(20));
+    }
+
+    @Test
+    public void testDenseIds() {
+        ControlFlowGraph cfg = new ControlFlowGraph(blockGraph);
+        List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
+
+        int elementaryBlockCount = 0;
+        for (int i = 0; i < basicBlocks.size(); ++i) {
+            BasicBlock bBlock = basicBlocks.get(i);
+            Assert.assertEquals(i, bBlock.getId());
+            Assert.assertSame(bBlock, cfg.getBlock(i));
+            elementaryBlockCount += bBlock.getElementaryBlockCount();
+        }
+
+        Assert.assertEquals(basicBlocks.size() + elementaryBlockCount, cfg.getBlockCount());
+
+        int id = basicBlocks.size();
+        for (BasicBlock bBlock : basicBlocks) {
+            for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                Assert.assertEquals(id, eBlock.getId());
+                Assert.assertSame(eBlock, cfg.getBlock(id));
+                ++id;
+            }
+        }
+
+        for (int i = 0; i < cfg.getBlockCount(); ++i) {
+            AbstractBlock block = cfg.getBlock(i);
+            Assert.assertEquals(i, block.getId());
+        }
+    }
+
+    @Test
+    public void testEdges() {
+        ControlFlowGraph cfg = new ControlFlowGraph(blockGraph);
+        List<BasicBlock> basicBlocks = cfg.getBasicBlocks();
+        List<Block> sootBlocks = blockGraph.getBlocks();
+        Assert.assertEquals(sootBlocks.size(), basicBlocks.size());
+
+        // the basic blocks are created in the order of the soot blocks
+        for (int i = 0; i < sootBlocks.size(); ++i) {
+            Block sootBlock = sootBlocks.get(i);
+            BasicBlock bBlock = basicBlocks.get(i);
+
+            List<BasicBlock> preds = cfg.getPredecessors(bBlock);
+            List<Block> sootPreds = blockGraph.getPredsOf(sootBlock);
+            Assert.assertEquals(sootPreds.size(), preds.size());
+            for (int j = 0; j < preds.size(); ++j) {
+                Assert.assertSame(basicBlocks.get(sootBlocks.indexOf(sootPreds.get(j))), preds.get(j));
+            }
+
+            List<BasicBlock> succs = cfg.getSuccessors(bBlock);
+            List<Block> sootSuccs = blockGraph.getSuccsOf(sootBlock);
+            Assert.assertEquals(sootSuccs.size(), succs.size());
+            for (int j = 0; j < succs.size(); ++j) {
+                Assert.assertSame(basicBlocks.get(sootBlocks.indexOf(sootSuccs.get(j))), succs.get(j));
+            }
+        }
+
+        Assert.assertSame(basicBlocks.get(sootBlocks.indexOf(blockGraph.getHeads().get(0))), cfg.getStartBlock());
+        Assert.assertSame(basicBlocks.get(sootBlocks.indexOf(blockGraph.getTails().get(0))), cfg.getEndBlock());
+    }
+
+    @Test
+    public void testLoopHeaders() {
+        ControlFlowGraph cfg = new ControlFlowGraph(blockGraph);
+        BitSet forwardHeaders = cfg.getLoopHeaders(DFADirection.FORWARD);
+        BitSet backwardHeaders = cfg.getLoopHeaders(DFADirection.BACKWARD);
+
+        // there is a single loop, its header is a successor of the start block
+        Assert.assertEquals(1, forwardHeaders.cardinality());
+        Assert.assertTrue(cfg.getSuccessors(cfg.getStartBlock()).contains(cfg.getBlock(forwardHeaders.nextSetBit(0))));
+        Assert.assertEquals(1, backwardHeaders.cardinality());
+
+        ControlFlowGraph nestedLoops = new ControlFlowGraph(
+                GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeNestedLoops(4)));
+        Assert.assertEquals(4, nestedLoops.getLoopHeaders(DFADirection.FORWARD).cardinality());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnmodifiableSuccessors() {
+        ControlFlowGraph cfg = new ControlFlowGraph(blockGraph);
+        cfg.getSuccessors(cfg.getStartBlock()).add(cfg.getStartBlock());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignBlock() {
+        ControlFlowGraph cfg1 = new ControlFlowGraph(blockGraph);
+        ControlFlowGraph cfg2 = new ControlFlowGraph(blockGraph);
+
+        // the block of cfg2 has the same id, but does not belong to cfg1
+        cfg1.getPredecessors(cfg2.getBasicBlocks().get(1));
+    }
+
+}
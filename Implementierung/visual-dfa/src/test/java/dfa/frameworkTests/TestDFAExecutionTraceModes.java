@@ -0,0 +1,500 @@
+package dfa.frameworkTests;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dfa.analyses.ConstantFoldingElement;
+import dfa.analyses.ConstantFoldingFactory;
+import dfa.analyses.testanalyses.DummyElement;
+import dfa.analyses.testanalyses.DummyFactoryBackwards;
+import dfa.framework.AnalysisState;
+import dfa.framework.BasicBlock;
+import dfa.framework.CacheStatistics;
+import dfa.framework.DFADirection;
+import dfa.framework.DFAExecution;
+import dfa.framework.DFAFactory;
+import dfa.framework.DFAPrecalcController;
+import dfa.framework.ElementaryBlock;
+import dfa.framework.LatticeElement;
+import dfa.framework.LogicalColor;
+import dfa.framework.RandomWorklist;
+import dfa.framework.SimpleBlockGraph;
+import dfa.framework.TraceMode;
+import dfa.framework.WorklistManager;
+import dfaTests.GeneratedTestMethods;
+
+public class TestDFAExecutionTraceModes {
+
+    private static SimpleBlockGraph blockGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        blockGraph = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeManyBranches(10));
+    }
+
+    @Test
+    public void testKeyframesSequential() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAExecution<ConstantFoldingElement> keyframes = runAnalysis(TraceMode.KEYFRAMES, 7);
+        Assert.assertEquals(full.getTotalElementarySteps(), keyframes.getTotalElementarySteps());
+        Assert.assertEquals(full.getTotalBlockSteps(), keyframes.getTotalBlockSteps());
+
+        for (int step = 0; step < full.getTotalElementarySteps(); ++step) {
+            assertSameStep(full, keyframes, step);
+        }
+
+        for (int step = full.getTotalElementarySteps() - 1; step >= 0; --step) {
+            assertSameStep(full, keyframes, step);
+        }
+    }
+
+    @Test
+    public void testKeyframesRandomAccess() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAExecution<ConstantFoldingElement> keyframes = runAnalysis(TraceMode.KEYFRAMES, 16);
+        DFAExecution<ConstantFoldingElement> keyframesCopy = keyframes.clone();
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; ++i) {
+            int step = random.nextInt(full.getTotalElementarySteps());
+            assertSameStep(full, keyframes, step);
+            assertSameStep(full, keyframesCopy, full.getTotalElementarySteps() - 1 - step);
+        }
+    }
+
+    @Test
+    public void testBlockStepsSequential() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAExecution<ConstantFoldingElement> blockSteps = runAnalysis(TraceMode.BLOCK_STEPS, 1);
+        Assert.assertEquals(full.getTotalElementarySteps(), blockSteps.getTotalElementarySteps());
+        Assert.assertEquals(full.getTotalBlockSteps(), blockSteps.getTotalBlockSteps());
+
+        for (int step = 0; step < full.getTotalElementarySteps(); ++step) {
+            assertSameStep(full, blockSteps, step);
+        }
+
+        for (int step = full.getTotalElementarySteps() - 1; step >= 0; --step) {
+            assertSameStep(full, blockSteps, step);
+        }
+    }
+
+    @Test
+    public void testBlockStepsRandomAccess() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAExecution<ConstantFoldingElement> blockSteps = runAnalysis(TraceMode.BLOCK_STEPS, 1);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; ++i) {
+            assertSameStep(full, blockSteps, random.nextInt(full.getTotalElementarySteps()));
+        }
+
+        for (int blockStep = 0; blockStep < full.getTotalBlockSteps(); ++blockStep) {
+            full.setCurrentBlockStep(blockStep);
+            blockSteps.setCurrentBlockStep(blockStep);
+            Assert.assertEquals(full.getCurrentElementaryStep(), blockSteps.getCurrentElementaryStep());
+            assertSameStep(full, blockSteps, full.getCurrentElementaryStep());
+        }
+    }
+
+    @Test
+    public void testBlockStepsBackward() {
+        DFAExecution<DummyElement> full = runAnalysis(new DummyFactoryBackwards(), TraceMode.FULL, 1);
+        DFAExecution<DummyElement> blockSteps = runAnalysis(new DummyFactoryBackwards(), TraceMode.BLOCK_STEPS, 1);
+        Assert.assertEquals(full.getTotalElementarySteps(), blockSteps.getTotalElementarySteps());
+
+        for (int step = 0; step < full.getTotalElementarySteps(); ++step) {
+            assertSameStep(full, blockSteps, step);
+        }
+    }
+
+    @Test
+    public void testSpilling() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.SPILLING);
+        precalcCtrl.setKeyframeInterval(5);
+        precalcCtrl.setHeapBudget(0);
+        DFAExecution<ConstantFoldingElement> spilling = new DFAExecution<>(new ConstantFoldingFactory(),
+                WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+        Assert.assertEquals(full.getTotalElementarySteps(), spilling.getTotalElementarySteps());
+
+        for (int step = 0; step < full.getTotalElementarySteps(); ++step) {
+            assertSameStep(full, spilling, step);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; ++i) {
+            assertSameStep(full, spilling, random.nextInt(full.getTotalElementarySteps()));
+        }
+
+        spilling.dispose();
+    }
+
+    @Test
+    public void testSpillingRandomWorklist() {
+        DFAPrecalcController fullCtrl = new DFAPrecalcController();
+        DFAExecution<ConstantFoldingElement> full = new DFAExecution<>(new ConstantFoldingFactory(),
+                new RandomWorklist(42), blockGraph, fullCtrl);
+
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.SPILLING);
+        precalcCtrl.setKeyframeInterval(5);
+        precalcCtrl.setHeapBudget(0);
+        DFAExecution<ConstantFoldingElement> spilling = new DFAExecution<>(new ConstantFoldingFactory(),
+                new RandomWorklist(42), blockGraph, precalcCtrl);
+        Assert.assertEquals(full.getTotalElementarySteps(), spilling.getTotalElementarySteps());
+
+        // with a heap budget of 0 all elements are evicted, so the steps are recalculated from the keyframes
+        Random random = new Random(42);
+        for (int i = 0; i < 300; ++i) {
+            assertSameStep(full, spilling, random.nextInt(full.getTotalElementarySteps()));
+        }
+
+        spilling.dispose();
+    }
+
+    @Test
+    public void testSpillingWithinHeapBudget() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.SPILLING);
+        precalcCtrl.setKeyframeInterval(8);
+        precalcCtrl.setHeapBudget(32 * 1024);
+        DFAExecution<ConstantFoldingElement> spilling = new DFAExecution<>(new ConstantFoldingFactory(),
+                WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+        Assert.assertEquals(full.getTotalElementarySteps(), spilling.getTotalElementarySteps());
+        Assert.assertTrue(precalcCtrl.getProgress().getTraceHeapEstimate() <= 32 * 1024);
+
+        for (int step = full.getTotalElementarySteps() - 1; step >= 0; --step) {
+            assertSameStep(full, spilling, step);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; ++i) {
+            assertSameStep(full, spilling, random.nextInt(full.getTotalElementarySteps()));
+        }
+
+        spilling.dispose();
+    }
+
+    @Test
+    public void testColorsMatchWorklist() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        List<BasicBlock> basicBlocks = full.getCFG().getBasicBlocks();
+        Set<BasicBlock> visited = new HashSet<>();
+
+        for (int step = 0; step < full.getTotalElementarySteps(); ++step) {
+            full.setCurrentElementaryStep(step);
+            AnalysisState<ConstantFoldingElement> state = full.getCurrentAnalysisState();
+            if (state.getCurrentBasicBlock() != null) {
+                visited.add(state.getCurrentBasicBlock());
+            }
+
+            for (BasicBlock bBlock : basicBlocks) {
+                LogicalColor expected;
+                if (bBlock.equals(state.getCurrentBasicBlock())) {
+                    expected = LogicalColor.CURRENT;
+                } else if (state.getWorklist().contains(bBlock)) {
+                    expected = LogicalColor.ON_WORKLIST;
+                } else if (visited.contains(bBlock)) {
+                    expected = LogicalColor.VISITED_NOT_ON_WORKLIST;
+                } else {
+                    expected = LogicalColor.NOT_VISITED;
+                }
+
+                Assert.assertEquals(expected, state.getColor(bBlock));
+            }
+        }
+    }
+
+    @Test
+    public void testEqualStatesAreShared() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        full.setCurrentElementaryStep(full.getTotalElementarySteps() - 1);
+        AnalysisState<ConstantFoldingElement> state = full.getCurrentAnalysisState();
+
+        List<ConstantFoldingElement> elements = new ArrayList<>();
+        for (BasicBlock bBlock : full.getCFG().getBasicBlocks()) {
+            elements.add(state.getBlockState(bBlock).getInState());
+            elements.add(state.getBlockState(bBlock).getOutState());
+            for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                elements.add(state.getBlockState(eBlock).getInState());
+                elements.add(state.getBlockState(eBlock).getOutState());
+            }
+        }
+
+        for (ConstantFoldingElement e1 : elements) {
+            for (ConstantFoldingElement e2 : elements) {
+                if (e1 != null && e1.equals(e2)) {
+                    Assert.assertSame(e1, e2);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReadWhilePrecalculating() throws InterruptedException {
+        final DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        final DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.KEYFRAMES);
+        precalcCtrl.setKeyframeInterval(4);
+
+        Thread precalcThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                new DFAExecution<>(new ConstantFoldingFactory(),
+                        WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+            }
+        });
+        precalcThread.start();
+
+        while (precalcCtrl.getPublishedExecution() == null) {
+            Thread.yield();
+        }
+
+        @SuppressWarnings("unchecked")
+        DFAExecution<ConstantFoldingElement> published =
+                (DFAExecution<ConstantFoldingElement>) precalcCtrl.getPublishedExecution();
+
+        // read the latest published step until the precalculation completes
+        while (precalcThread.isAlive()) {
+            int total = published.getTotalElementarySteps();
+            Assert.assertTrue(total <= full.getTotalElementarySteps());
+            assertSameStep(full, published, total - 1);
+        }
+        precalcThread.join();
+
+        Assert.assertSame(published, precalcCtrl.getResult());
+        Assert.assertEquals(full.getTotalElementarySteps(), published.getTotalElementarySteps());
+        Assert.assertEquals(full.getTotalBlockSteps(), published.getTotalBlockSteps());
+        for (int step = 0; step < full.getTotalElementarySteps(); ++step) {
+            assertSameStep(full, published, step);
+        }
+    }
+
+    @Test
+    public void testCheckpoints() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.CHECKPOINTS);
+        precalcCtrl.setKeyframeInterval(8);
+        precalcCtrl.setStateCacheSize(4);
+        DFAExecution<ConstantFoldingElement> checkpoints = new DFAExecution<>(new ConstantFoldingFactory(),
+                WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+        Assert.assertEquals(full.getTotalElementarySteps(), checkpoints.getTotalElementarySteps());
+
+        for (int step = full.getTotalElementarySteps() - 1; step >= 0; --step) {
+            assertSameStep(full, checkpoints, step);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; ++i) {
+            assertSameStep(full, checkpoints, random.nextInt(full.getTotalElementarySteps()));
+        }
+
+        CacheStatistics statistics = checkpoints.getStateCacheStatistics();
+        Assert.assertTrue(statistics.getHits() > 0);
+        Assert.assertTrue(statistics.getMisses() > 0);
+        Assert.assertTrue(statistics.getEvictions() > 0);
+        Assert.assertSame(CacheStatistics.NONE, full.getStateCacheStatistics());
+    }
+
+    @Test
+    public void testCheckpointsRandomWorklist() {
+        DFAPrecalcController fullCtrl = new DFAPrecalcController();
+        DFAExecution<ConstantFoldingElement> full = new DFAExecution<>(new ConstantFoldingFactory(),
+                new RandomWorklist(42), blockGraph, fullCtrl);
+
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.CHECKPOINTS);
+        precalcCtrl.setKeyframeInterval(16);
+        precalcCtrl.setStateCacheSize(1);
+        DFAExecution<ConstantFoldingElement> checkpoints = new DFAExecution<>(new ConstantFoldingFactory(),
+                new RandomWorklist(42), blockGraph, precalcCtrl);
+        Assert.assertEquals(full.getTotalElementarySteps(), checkpoints.getTotalElementarySteps());
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; ++i) {
+            assertSameStep(full, checkpoints, random.nextInt(full.getTotalElementarySteps()));
+        }
+    }
+
+    @Test
+    public void testMemoizedTransitions() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.BLOCK_STEPS);
+        precalcCtrl.setTransitionCacheSize(4096);
+        DFAExecution<ConstantFoldingElement> memoized = new DFAExecution<>(new ConstantFoldingFactory(),
+                WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+        Assert.assertEquals(full.getTotalElementarySteps(), memoized.getTotalElementarySteps());
+
+        for (int step = full.getTotalElementarySteps() - 1; step >= 0; --step) {
+            assertSameStep(full, memoized, step);
+        }
+
+        // replaying the block-steps reuses the transitions calculated during the precalculation
+        Assert.assertTrue(memoized.getTransitionCacheStatistics().getHits() > 0);
+        Assert.assertSame(CacheStatistics.NONE, full.getTransitionCacheStatistics());
+    }
+
+    @Test
+    public void testCompressedTrace() {
+        DFAExecution<ConstantFoldingElement> full = runAnalysis(TraceMode.FULL, 1);
+        DFAExecution<ConstantFoldingElement> compressed = runCompressed(TraceMode.FULL);
+        Assert.assertEquals(full.getTotalBlockSteps(), compressed.getTotalBlockSteps());
+        Assert.assertTrue(compressed.getTotalElementarySteps() < full.getTotalElementarySteps());
+
+        full.setCurrentElementaryStep(full.getTotalElementarySteps() - 1);
+        compressed.setCurrentElementaryStep(compressed.getTotalElementarySteps() - 1);
+        assertSameCurrentState(full, compressed);
+
+        // the steps of a compressed trace can be recalculated as well
+        DFAExecution<ConstantFoldingElement> checkpoints = runCompressed(TraceMode.CHECKPOINTS);
+        DFAExecution<ConstantFoldingElement> blockSteps = runCompressed(TraceMode.BLOCK_STEPS);
+        for (int step = compressed.getTotalElementarySteps() - 1; step >= 0; --step) {
+            assertSameStep(compressed, checkpoints, step);
+            assertSameStep(compressed, blockSteps, step);
+        }
+    }
+
+    @Test
+    public void testWideningSteps() {
+        DFAExecution<CountingFactory.Count> full = runAnalysis(new CountingFactory(), TraceMode.FULL, 1);
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(TraceMode.CHECKPOINTS);
+        precalcCtrl.setKeyframeInterval(8);
+        precalcCtrl.setStateCacheSize(4);
+        DFAExecution<CountingFactory.Count> checkpoints = new DFAExecution<>(new CountingFactory(),
+                WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+        Assert.assertEquals(full.getTotalElementarySteps(), checkpoints.getTotalElementarySteps());
+
+        // recalculating a step from a checkpoint has to widen at the same steps
+        for (int step = full.getTotalElementarySteps() - 1; step >= 0; --step) {
+            assertSameStep(full, checkpoints, step);
+            Assert.assertEquals(full.isAtWideningStep(), checkpoints.isAtWideningStep());
+        }
+
+        BitSet loopHeaders = full.getCFG().getLoopHeaders(DFADirection.FORWARD);
+        Assert.assertFalse(loopHeaders.isEmpty());
+
+        int wideningSteps = 0;
+        for (int blockStep = 0; blockStep < full.getTotalBlockSteps(); ++blockStep) {
+            if (full.isWideningBlockStep(blockStep)) {
+                full.setCurrentBlockStep(blockStep);
+                Assert.assertTrue(full.isAtWideningStep());
+                Assert.assertTrue(loopHeaders.get(full.getCurrentAnalysisState().getCurrentBasicBlock().getId()));
+                ++wideningSteps;
+            }
+        }
+
+        Assert.assertTrue(wideningSteps > 0);
+
+        DFAExecution<ConstantFoldingElement> constantFolding = runAnalysis(TraceMode.FULL, 1);
+        for (int blockStep = 0; blockStep < constantFolding.getTotalBlockSteps(); ++blockStep) {
+            Assert.assertFalse(constantFolding.isWideningBlockStep(blockStep));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWideningDelay() {
+        new DFAPrecalcController().setWideningDelay(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStateCacheSize() {
+        new DFAPrecalcController().setStateCacheSize(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHeapBudget() {
+        new DFAPrecalcController().setHeapBudget(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidKeyframeInterval() {
+        new DFAPrecalcController().setKeyframeInterval(0);
+    }
+
+    private static DFAExecution<ConstantFoldingElement> runAnalysis(TraceMode traceMode, int keyframeInterval) {
+        return runAnalysis(new ConstantFoldingFactory(), traceMode, keyframeInterval);
+    }
+
+    private static <E extends LatticeElement> DFAExecution<E> runAnalysis(DFAFactory<E> factory, TraceMode traceMode,
+            int keyframeInterval) {
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(traceMode);
+        precalcCtrl.setKeyframeInterval(keyframeInterval);
+        return new DFAExecution<>(factory, WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph,
+                precalcCtrl);
+    }
+
+    private static DFAExecution<ConstantFoldingElement> runCompressed(TraceMode traceMode) {
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.setTraceMode(traceMode);
+        precalcCtrl.setKeyframeInterval(8);
+        precalcCtrl.setStateCacheSize(4);
+        precalcCtrl.setCompressedTrace(true);
+        return new DFAExecution<>(new ConstantFoldingFactory(),
+                WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+    }
+
+    private static <E extends LatticeElement> void assertSameStep(DFAExecution<E> expected, DFAExecution<E> actual,
+            int step) {
+        expected.setCurrentElementaryStep(step);
+        actual.setCurrentElementaryStep(step);
+        Assert.assertEquals(expected.getCurrentBlockStep(), actual.getCurrentBlockStep());
+        assertSameCurrentState(expected, actual);
+    }
+
+    private static <E extends LatticeElement> void assertSameCurrentState(DFAExecution<E> expected,
+            DFAExecution<E> actual) {
+        AnalysisState<E> expectedState = expected.getCurrentAnalysisState();
+        AnalysisState<E> actualState = actual.getCurrentAnalysisState();
+
+        // the blocks of both executions are different objects, so they are compared by position
+        List<BasicBlock> expectedBlocks = expected.getCFG().getBasicBlocks();
+        List<BasicBlock> actualBlocks = actual.getCFG().getBasicBlocks();
+        Assert.assertEquals(expectedBlocks.indexOf(expectedState.getCurrentBasicBlock()),
+                actualBlocks.indexOf(actualState.getCurrentBasicBlock()));
+        Assert.assertEquals(expectedState.getCurrentElementaryBlockIndex(),
+                actualState.getCurrentElementaryBlockIndex());
+
+        Iterator<BasicBlock> expectedIt = expectedState.getWorklist().iterator();
+        Iterator<BasicBlock> actualIt = actualState.getWorklist().iterator();
+        while (expectedIt.hasNext()) {
+            Assert.assertTrue(actualIt.hasNext());
+            Assert.assertEquals(expectedBlocks.indexOf(expectedIt.next()), actualBlocks.indexOf(actualIt.next()));
+        }
+        Assert.assertFalse(actualIt.hasNext());
+
+        for (int i = 0; i < expectedBlocks.size(); ++i) {
+            BasicBlock expectedBlock = expectedBlocks.get(i);
+            BasicBlock actualBlock = actualBlocks.get(i);
+            Assert.assertEquals(expectedState.getColor(expectedBlock), actualState.getColor(actualBlock));
+            Assert.assertEquals(expectedState.getBlockState(expectedBlock).getInState(),
+                    actualState.getBlockState(actualBlock).getInState());
+            Assert.assertEquals(expectedState.getBlockState(expectedBlock).getOutState(),
+                    actualState.getBlockState(actualBlock).getOutState());
+
+            for (int j = 0; j < expectedBlock.getElementaryBlockCount(); ++j) {
+                ElementaryBlock expectedEBlock = expectedBlock.getElementaryBlock(j);
+                ElementaryBlock actualEBlock = actualBlock.getElementaryBlock(j);
+                Assert.assertEquals(expectedState.getBlockState(expectedEBlock).getInState(),
+                        actualState.getBlockState(actualEBlock).getInState());
+                Assert.assertEquals(expectedState.getBlockState(expectedEBlock).getOutState(),
+                        actualState.getBlockState(actualEBlock).getOutState());
+            }
+        }
+    }
+
+}
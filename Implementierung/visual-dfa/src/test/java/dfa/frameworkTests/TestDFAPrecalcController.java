@@ -0,0 +1,133 @@
+package dfa.frameworkTests;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dfa.analyses.ConstantFoldingFactory;
+import dfa.framework.DFAExecution;
+import dfa.framework.DFAPrecalcController;
+import dfa.framework.DFAPrecalcController.PrecalcState;
+import dfa.framework.DFAPrecalcController.ResultState;
+import dfa.framework.LatticeElement;
+import dfa.framework.PrecalcProgress;
+import dfa.framework.SimpleBlockGraph;
+import dfa.framework.WorklistManager;
+import dfaTests.GeneratedTestMethods;
+
+public class TestDFAPrecalcController {
+
+    private static final long TIMEOUT = 10000;
+
+    private static SimpleBlockGraph blockGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        blockGraph = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeManyBranches(10));
+    }
+
+    @Test
+    public void testPauseAndContinue() throws InterruptedException {
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.pausePrecalc(0);
+        Thread precalcThread = startPrecalc(precalcCtrl);
+
+        awaitParked(precalcThread);
+        Assert.assertEquals(1, precalcCtrl.getPublishedExecution().getTotalElementarySteps());
+
+        precalcCtrl.continuePrecalc();
+        Assert.assertTrue(precalcCtrl.awaitResult(TIMEOUT));
+        precalcThread.join(TIMEOUT);
+
+        Assert.assertEquals(PrecalcState.COMPLETED, precalcCtrl.getPrecalcState());
+        Assert.assertEquals(ResultState.COMPLETE_RESULT, precalcCtrl.getResultState());
+        Assert.assertTrue(precalcCtrl.getResult().getTotalElementarySteps() > 1);
+    }
+
+    @Test
+    public void testStopWhilePaused() throws InterruptedException {
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.pausePrecalc(0);
+        Thread precalcThread = startPrecalc(precalcCtrl);
+
+        awaitParked(precalcThread);
+        precalcCtrl.stopPrecalc();
+        Assert.assertTrue(precalcCtrl.awaitResult(TIMEOUT));
+        precalcThread.join(TIMEOUT);
+
+        Assert.assertEquals(PrecalcState.STOPPED, precalcCtrl.getPrecalcState());
+        Assert.assertEquals(ResultState.INTERMEDIATE_RESULT, precalcCtrl.getResultState());
+        Assert.assertEquals(1, precalcCtrl.getResult().getTotalElementarySteps());
+    }
+
+    @Test
+    public void testInterruptStops() throws InterruptedException {
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        precalcCtrl.pausePrecalc(0);
+        Thread precalcThread = startPrecalc(precalcCtrl);
+
+        awaitParked(precalcThread);
+        precalcThread.interrupt();
+        Assert.assertTrue(precalcCtrl.awaitResult(TIMEOUT));
+        precalcThread.join(TIMEOUT);
+
+        Assert.assertFalse(precalcThread.isAlive());
+        Assert.assertEquals(ResultState.INTERMEDIATE_RESULT, precalcCtrl.getResultState());
+        Assert.assertSame(precalcCtrl.getPublishedExecution(), precalcCtrl.getResult());
+    }
+
+    @Test
+    public void testProgress() throws InterruptedException {
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        Assert.assertSame(PrecalcProgress.NONE, precalcCtrl.getProgress());
+        precalcCtrl.pausePrecalc(0);
+        Thread precalcThread = startPrecalc(precalcCtrl);
+
+        awaitParked(precalcThread);
+        PrecalcProgress progress = precalcCtrl.getProgress();
+        Assert.assertEquals(1, progress.getElementarySteps());
+        Assert.assertEquals(1, progress.getBlockSteps());
+        Assert.assertEquals(0, progress.getTransitions());
+
+        precalcCtrl.continuePrecalc();
+        Assert.assertTrue(precalcCtrl.awaitResult(TIMEOUT));
+        precalcThread.join(TIMEOUT);
+
+        DFAExecution<? extends LatticeElement> result = precalcCtrl.getResult();
+        progress = precalcCtrl.getProgress();
+        Assert.assertEquals(result.getTotalElementarySteps(), progress.getElementarySteps());
+        Assert.assertEquals(result.getTotalBlockSteps(), progress.getBlockSteps());
+        Assert.assertEquals(0, progress.getWorklistSize());
+        Assert.assertTrue(progress.getTransitions() > 0);
+        Assert.assertTrue(progress.getJoins() > 0);
+        Assert.assertTrue(progress.getTraceHeapEstimate() > 0);
+        Assert.assertTrue(progress.getStepsPerSecond() > 0);
+    }
+
+    @Test
+    public void testAwaitResultTimesOut() throws InterruptedException {
+        Assert.assertFalse(new DFAPrecalcController().awaitResult(10));
+    }
+
+    private static Thread startPrecalc(final DFAPrecalcController precalcCtrl) {
+        Thread precalcThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                new DFAExecution<>(new ConstantFoldingFactory(),
+                        WorklistManager.getInstance().getWorklist("naive", blockGraph), blockGraph, precalcCtrl);
+            }
+        });
+        precalcThread.start();
+        return precalcThread;
+    }
+
+    private static void awaitParked(Thread precalcThread) {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (precalcThread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+
+        Assert.assertEquals(Thread.State.WAITING, precalcThread.getState());
+    }
+
+}
@@ -0,0 +1,240 @@
+package dfa.frameworkTests;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dfa.analyses.ConstantBitsElement;
+import dfa.analyses.ConstantBitsFactory;
+import dfa.analyses.ConstantFoldingFactory;
+import dfa.analyses.ReachingDefinitionsFactory;
+import dfa.analyses.TaintFactory;
+import dfa.analyses.testanalyses.DummyFactoryBackwards;
+import dfa.framework.AnalysisState;
+import dfa.framework.BasicBlock;
+import dfa.framework.BlockState;
+import dfa.framework.CacheStatistics;
+import dfa.framework.DFADirection;
+import dfa.framework.DFAExecution;
+import dfa.framework.DFAFactory;
+import dfa.framework.DFAPrecalcController;
+import dfa.framework.DFAPrecalcController.ResultState;
+import dfa.framework.ElementaryBlock;
+import dfa.framework.FixpointResult;
+import dfa.framework.FixpointSolver;
+import dfa.framework.LatticeElement;
+import dfa.framework.NaiveWorklist;
+import dfa.framework.PostorderWorklist;
+import dfa.framework.ReversePostorderWorklist;
+import dfa.framework.SimpleBlockGraph;
+import dfa.framework.WeakTopologicalWorklist;
+import dfa.framework.WorklistManager;
+import dfaTests.GeneratedTestMethods;
+import soot.toolkits.graph.Block;
+
+public class TestFixpointSolver {
+
+    private static SimpleBlockGraph blockGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        blockGraph = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeManyBranches(10));
+    }
+
+    @Test
+    public void testConstantFolding() {
+        assertSameResult(new ConstantFoldingFactory(), "naive");
+    }
+
+    @Test
+    public void testConstantBits() {
+        assertSameResult(new ConstantBitsFactory(), "naive");
+    }
+
+    @Test
+    public void testReachingDefinitions() {
+        assertSameResult(new ReachingDefinitionsFactory(), "naive");
+    }
+
+    @Test
+    public void testTaint() {
+        assertSameResult(new TaintFactory(), "naive");
+    }
+
+    @Test
+    public void testBackward() {
+        assertSameResult(new DummyFactoryBackwards(), "naive");
+    }
+
+    @Test
+    public void testWeakTopologicalOrder() {
+        assertSameResult(new ConstantFoldingFactory(), "wto");
+        assertSameResult(new ConstantBitsFactory(), "wto");
+        assertSameResult(new ReachingDefinitionsFactory(), "wto");
+        assertSameResult(new TaintFactory(), "wto");
+        assertSameResult(new DummyFactoryBackwards(), "wto");
+    }
+
+    @Test
+    public void testPriorityWorklists() {
+        assertSameResult(new ConstantFoldingFactory(), "reverse postorder");
+        assertSameResult(new ReachingDefinitionsFactory(), "postorder");
+        assertSameResult(new TaintFactory(), "lifo");
+        assertSameResult(new DummyFactoryBackwards(), "postorder");
+    }
+
+    @Test
+    public void testAdaptiveWorklist() {
+        assertSameResult(new ConstantFoldingFactory(), "auto");
+        assertSameResult(new ReachingDefinitionsFactory(), "auto");
+        assertSameResult(new DummyFactoryBackwards(), "auto");
+        assertSameResult(new CountingFactory(), "auto");
+    }
+
+    @Test
+    public void testReversePostorderForForwardAnalysis() {
+        FixpointResult<?> reversePostorder = new FixpointSolver<>(new ReachingDefinitionsFactory(),
+                new ReversePostorderWorklist(blockGraph), blockGraph).solve();
+        FixpointResult<?> postorder = new FixpointSolver<>(new ReachingDefinitionsFactory(),
+                new PostorderWorklist(blockGraph), blockGraph).solve();
+        Assert.assertTrue(reversePostorder.getBlockVisits() < postorder.getBlockVisits());
+    }
+
+    @Test
+    public void testWeakTopologicalOrderNestedLoops() {
+        SimpleBlockGraph nestedLoops = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeNestedLoops(4));
+        FixpointResult<?> naive = new FixpointSolver<>(new ReachingDefinitionsFactory(), new NaiveWorklist(),
+                nestedLoops).solve();
+        FixpointResult<?> wto = new FixpointSolver<>(new ReachingDefinitionsFactory(),
+                new WeakTopologicalWorklist(nestedLoops, DFADirection.FORWARD), nestedLoops).solve();
+
+        // the inner loops are stabilized first, so the outer loops are iterated less often
+        Assert.assertTrue(wto.getBlockVisits() < naive.getBlockVisits());
+        for (Block block : nestedLoops.getBlocks()) {
+            Assert.assertEquals(naive.getBlockState(block).getOutState(), wto.getBlockState(block).getOutState());
+        }
+    }
+
+    @Test
+    public void testMemoizedConstantBits() {
+        FixpointSolver<ConstantBitsElement> solver = assertSameResult(new ConstantBitsFactory(), "naive", 4096, 512);
+        CacheStatistics unitStatistics = solver.getUnitCacheStatistics();
+        CacheStatistics blockStatistics = solver.getBlockCacheStatistics();
+        Assert.assertTrue(blockStatistics.getMisses() > 0);
+        Assert.assertEquals(0, unitStatistics.getEvictions());
+
+        // solving again does not calculate any transitions
+        solver.solve();
+        Assert.assertTrue(solver.getBlockCacheStatistics().getHits() > blockStatistics.getHits());
+        Assert.assertEquals(blockStatistics.getMisses(), solver.getBlockCacheStatistics().getMisses());
+        Assert.assertEquals(unitStatistics.getMisses(), solver.getUnitCacheStatistics().getMisses());
+    }
+
+    @Test
+    public void testMemoizedEvictions() {
+        FixpointSolver<?> solver = assertSameResult(new ConstantFoldingFactory(), "naive", 8, 2);
+        Assert.assertTrue(solver.getUnitCacheStatistics().getEvictions() > 0);
+        Assert.assertTrue(solver.getBlockCacheStatistics().getEvictions() > 0);
+    }
+
+    @Test
+    public void testMemoizedBackward() {
+        FixpointSolver<?> solver = assertSameResult(new DummyFactoryBackwards(), "naive", 1024, 0);
+        Assert.assertEquals(0, solver.getBlockCacheStatistics().getMisses());
+        Assert.assertTrue(solver.getUnitCacheStatistics().getMisses() > 0);
+    }
+
+    @Test
+    public void testSkipsUnchangedBlocks() {
+        // the results are compared with DFAExecution (which never skips a block) in testConstantFolding
+        FixpointResult<?> result = new FixpointSolver<>(new ConstantFoldingFactory(), new NaiveWorklist(), blockGraph)
+                .solve();
+        Assert.assertTrue(result.getSkippedBlockVisits() > 0);
+        Assert.assertTrue(result.getSkippedBlockVisits() < result.getBlockVisits());
+    }
+
+    @Test
+    public void testWidening() {
+        // the counts grow with each iteration of the loop, so the fixpoint is only reached because of the widening
+        assertSameResult(new CountingFactory(), "naive");
+    }
+
+    @Test
+    public void testWideningNestedLoops() {
+        SimpleBlockGraph nestedLoops = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeNestedLoops(6));
+        for (int wideningDelay = 0; wideningDelay < 4; ++wideningDelay) {
+            FixpointSolver<CountingFactory.Count> solver = new FixpointSolver<>(new CountingFactory(),
+                    new NaiveWorklist(), nestedLoops, 0, 0, wideningDelay);
+            FixpointResult<CountingFactory.Count> result = solver.solve();
+
+            for (Block block : nestedLoops.getBlocks()) {
+                Assert.assertNotNull(result.getBlockState(block).getInState());
+            }
+
+            // each loop header is widened after wideningDelay + 1 selections and is stable after the next one
+            int basicBlockCount = solver.getCFG().getBasicBlocks().size();
+            Assert.assertTrue(result.getBlockVisits() <= basicBlockCount * (wideningDelay + 3));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWideningDelay() {
+        new FixpointSolver<>(new CountingFactory(), new NaiveWorklist(), blockGraph, 0, 0, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCacheSize() {
+        new FixpointSolver<>(new ConstantFoldingFactory(), new NaiveWorklist(), blockGraph, -1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullWorklist() {
+        new FixpointSolver<>(new ConstantFoldingFactory(), null, blockGraph);
+    }
+
+    private static <E extends LatticeElement> void assertSameResult(DFAFactory<E> factory, String worklistName) {
+        assertSameResult(factory, worklistName, 0, 0);
+    }
+
+    private static <E extends LatticeElement> FixpointSolver<E> assertSameResult(DFAFactory<E> factory,
+            String worklistName, int unitCacheSize, int blockCacheSize) {
+        DFAPrecalcController precalcCtrl = new DFAPrecalcController();
+        WorklistManager manager = WorklistManager.getInstance();
+        DFAExecution<E> dfaExecution = new DFAExecution<>(factory,
+                manager.getWorklist(worklistName, blockGraph, factory.getDirection()), blockGraph, precalcCtrl);
+        Assert.assertEquals(ResultState.COMPLETE_RESULT, precalcCtrl.getResultState());
+
+        FixpointSolver<E> solver = new FixpointSolver<>(factory,
+                manager.getWorklist(worklistName, blockGraph, factory.getDirection()), blockGraph, unitCacheSize,
+                blockCacheSize);
+        FixpointResult<E> result = solver.solve();
+
+        dfaExecution.setCurrentElementaryStep(dfaExecution.getTotalElementarySteps() - 1);
+        AnalysisState<E> finalState = dfaExecution.getCurrentAnalysisState();
+
+        List<BasicBlock> basicBlocks = dfaExecution.getCFG().getBasicBlocks();
+        Assert.assertEquals(basicBlocks.size(), result.getBlockStates().size());
+        List<Block> sootBlocks = blockGraph.getBlocks();
+        for (int i = 0; i < basicBlocks.size(); ++i) {
+            // the basic blocks are created in the order of the soot blocks
+            BasicBlock bBlock = basicBlocks.get(i);
+            assertSameBlockState(finalState.getBlockState(bBlock), result.getBlockState(sootBlocks.get(i)));
+
+            for (ElementaryBlock eBlock : bBlock.getElementaryBlocks()) {
+                assertSameBlockState(finalState.getBlockState(eBlock), result.getUnitState(eBlock.getUnit()));
+            }
+        }
+
+        Assert.assertEquals(dfaExecution.getTotalBlockSteps(), result.getBlockVisits());
+        return solver;
+    }
+
+    private static <E extends LatticeElement> void assertSameBlockState(BlockState<E> expected, BlockState<E> actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getInState(), actual.getInState());
+        Assert.assertEquals(expected.getOutState(), actual.getOutState());
+    }
+
+}
@@ -0,0 +1,206 @@
+package dfa.frameworkTests;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dfa.analyses.ConstantBitsFactory;
+import dfa.analyses.ConstantFoldingElement;
+import dfa.analyses.ConstantFoldingFactory;
+import dfa.analyses.ReachingDefinitionsFactory;
+import dfa.analyses.TaintFactory;
+import dfa.analyses.testanalyses.DummyFactoryBackwards;
+import dfa.framework.BlockState;
+import dfa.framework.DFAFactory;
+import dfa.framework.DataFlowAnalysis;
+import dfa.framework.FixpointResult;
+import dfa.framework.FixpointSolver;
+import dfa.framework.LatticeElement;
+import dfa.framework.NaiveWorklist;
+import dfa.framework.ParallelFixpointSolver;
+import dfa.framework.SimpleBlockGraph;
+import dfaTests.TestMethod;
+import dfaTests.GeneratedTestMethods;
+import soot.Unit;
+import soot.toolkits.graph.Block;
+
+public class TestParallelFixpointSolver {
+
+    private static SimpleBlockGraph blockGraph;
+
+    private static SimpleBlockGraph independentLoops;
+
+    @BeforeClass
+    public static void setUp() {
+        blockGraph = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeManyBranches(10));
+        independentLoops = GeneratedTestMethods.buildGraph(getCodeIndependentLoops(8));
+    }
+
+    @Test
+    public void testConstantFolding() {
+        assertSameResult(new ConstantFoldingFactory(), blockGraph);
+        assertSameResult(new ConstantFoldingFactory(), independentLoops);
+    }
+
+    @Test
+    public void testConstantBits() {
+        assertSameResult(new ConstantBitsFactory(), blockGraph);
+        assertSameResult(new ConstantBitsFactory(), independentLoops);
+    }
+
+    @Test
+    public void testReachingDefinitions() {
+        assertSameResult(new ReachingDefinitionsFactory(), blockGraph);
+        assertSameResult(new ReachingDefinitionsFactory(), independentLoops);
+    }
+
+    @Test
+    public void testTaint() {
+        assertSameResult(new TaintFactory(), blockGraph);
+        assertSameResult(new TaintFactory(), independentLoops);
+    }
+
+    @Test
+    public void testBackward() {
+        assertSameResult(new DummyFactoryBackwards(), blockGraph);
+    }
+
+    @Test
+    public void testComponents() {
+        ParallelFixpointSolver<?> solver = new ParallelFixpointSolver<>(new ConstantFoldingFactory(),
+                independentLoops);
+
+        // each loop is a component of its own, all other blocks are components of a single block
+        Assert.assertTrue(solver.getComponentCount() > 8);
+        Assert.assertTrue(solver.getComponentCount() < solver.getCFG().getBasicBlocks().size());
+    }
+
+    @Test
+    public void testSharedPool() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int i = 0; i < 10; ++i) {
+                assertSameResult(new ConstantFoldingFactory(), independentLoops, pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWidening() {
+        SimpleBlockGraph nestedLoops = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeNestedLoops(6));
+        FixpointResult<CountingFactory.Count> result = new ParallelFixpointSolver<>(new CountingFactory(), nestedLoops)
+                .solve();
+        for (Block block : nestedLoops.getBlocks()) {
+            Assert.assertNotNull(result.getBlockState(block).getOutState());
+        }
+    }
+
+    @Test
+    public void testWideningDelay() {
+        SimpleBlockGraph nestedLoops = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeNestedLoops(6));
+        for (int wideningDelay = 0; wideningDelay < 4; ++wideningDelay) {
+            ParallelFixpointSolver<CountingFactory.Count> solver = new ParallelFixpointSolver<>(new CountingFactory(),
+                    nestedLoops, null, wideningDelay);
+            FixpointResult<CountingFactory.Count> result = solver.solve();
+
+            for (Block block : nestedLoops.getBlocks()) {
+                Assert.assertNotNull(result.getBlockState(block).getOutState());
+            }
+
+            // each loop header is widened after wideningDelay + 1 selections and is stable after the next one
+            int basicBlockCount = solver.getCFG().getBasicBlocks().size();
+            Assert.assertTrue(result.getBlockVisits() <= basicBlockCount * (wideningDelay + 3));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWideningDelay() {
+        new ParallelFixpointSolver<>(new CountingFactory(), independentLoops, null, -1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailingAnalysis() {
+        DFAFactory<ConstantFoldingElement> failingFactory = new ConstantFoldingFactory() {
+            @Override
+            public DataFlowAnalysis<ConstantFoldingElement> getAnalysis(SimpleBlockGraph blockGraph) {
+                final DataFlowAnalysis<ConstantFoldingElement> dfa = super.getAnalysis(blockGraph);
+                return new DataFlowAnalysis<ConstantFoldingElement>() {
+                    @Override
+                    public ConstantFoldingElement transition(ConstantFoldingElement element, Unit unit) {
+                        throw new IllegalStateException("transition failed");
+                    }
+
+                    @Override
+                    public ConstantFoldingElement join(Set<ConstantFoldingElement> elements) {
+                        return dfa.join(elements);
+                    }
+
+                    @Override
+                    public Map<Block, BlockState<ConstantFoldingElement>> getInitialStates() {
+                        return dfa.getInitialStates();
+                    }
+                };
+            }
+        };
+
+        new ParallelFixpointSolver<>(failingFactory, independentLoops).solve();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullBlockGraph() {
+        new ParallelFixpointSolver<>(new ConstantFoldingFactory(), null);
+    }
+
+    /*
+     * returns a method with a sequence of if-statements, each of which has a loop in both of its branches
+     */
+    private static TestMethod getCodeIndependentLoops(int branches) {
+        String signature = "void test_independentLoops(int)";
+        StringBuilder sb = new StringBuilder("void test_independentLoops(int a) {");
+        sb.append("int x = 0;");
+        sb.append("int y = 0;");
+        for (int i = 0; i < branches; ++i) {
+            sb.append("if (a == ").append(i).append(") {");
+            sb.append("while (x < a) { x = x + ").append(i).append("; }");
+            sb.append("} else {");
+            sb.append("while (y < a) { y = y + ").append(i).append("; }");
+            sb.append("}");
+        }
+
+        sb.append("}");
+        return new TestMethod(signature, sb.toString());
+    }
+
+    private static <E extends LatticeElement> void assertSameResult(DFAFactory<E> factory,
+            SimpleBlockGraph blockGraph) {
+        assertSameResult(factory, blockGraph, null);
+    }
+
+    private static <E extends LatticeElement> void assertSameResult(DFAFactory<E> factory,
+            SimpleBlockGraph blockGraph, ForkJoinPool pool) {
+        FixpointResult<E> expected = new FixpointSolver<>(factory, new NaiveWorklist(), blockGraph).solve();
+        FixpointResult<E> actual = new ParallelFixpointSolver<>(factory, blockGraph, pool).solve();
+
+        List<Block> blocks = blockGraph.getBlocks();
+        for (Block block : blocks) {
+            assertSameBlockState(expected.getBlockState(block), actual.getBlockState(block));
+            for (Unit unit : block) {
+                assertSameBlockState(expected.getUnitState(unit), actual.getUnitState(unit));
+            }
+        }
+    }
+
+    private static <E extends LatticeElement> void assertSameBlockState(BlockState<E> expected, BlockState<E> actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getInState(), actual.getInState());
+        Assert.assertEquals(expected.getOutState(), actual.getOutState());
+    }
+
+}
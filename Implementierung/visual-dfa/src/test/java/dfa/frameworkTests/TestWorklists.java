@@ -0,0 +1,287 @@
+package dfa.frameworkTests;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import dfa.framework.AdaptiveWorklist;
+import dfa.framework.BasicBlock;
+import dfa.framework.ControlFlowGraph;
+import dfa.framework.DFADirection;
+import dfa.framework.LifoWorklist;
+import dfa.framework.NaiveWorklist;
+import dfa.framework.PostorderWorklist;
+import dfa.framework.RandomWorklist;
+import dfa.framework.ReversePostorderWorklist;
+import dfa.framework.SimpleBlockGraph;
+import dfa.framework.WeakTopologicalWorklist;
+import dfa.framework.Worklist;
+import dfaTests.GeneratedTestMethods;
+
+public class TestWorklists {
+
+    private static SimpleBlockGraph blockGraph;
+
+    private static ControlFlowGraph cfg;
+
+    private static List<BasicBlock> basicBlocks;
+
+    @BeforeClass
+    public static void setUp() {
+        blockGraph = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeManyBranches(5));
+        cfg = new ControlFlowGraph(blockGraph);
+        basicBlocks = cfg.getBasicBlocks();
+    }
+
+    @Test
+    public void testNaiveOrder() {
+        Worklist worklist = new NaiveWorklist();
+        for (BasicBlock bBlock : basicBlocks) {
+            Assert.assertTrue(worklist.add(bBlock));
+            Assert.assertFalse(worklist.add(bBlock));
+            Assert.assertTrue(worklist.contains(bBlock));
+        }
+
+        for (BasicBlock bBlock : basicBlocks) {
+            Assert.assertSame(bBlock, worklist.peek());
+            Assert.assertSame(bBlock, worklist.poll());
+            Assert.assertFalse(worklist.contains(bBlock));
+        }
+
+        Assert.assertTrue(worklist.isEmpty());
+        Assert.assertNull(worklist.poll());
+    }
+
+    @Test
+    public void testRandomContainsAll() {
+        Worklist worklist = new RandomWorklist();
+        for (BasicBlock bBlock : basicBlocks) {
+            worklist.add(bBlock);
+        }
+
+        Set<BasicBlock> polled = new HashSet<>();
+        while (!worklist.isEmpty()) {
+            BasicBlock bBlock = worklist.poll();
+            Assert.assertFalse(worklist.contains(bBlock));
+            Assert.assertTrue(polled.add(bBlock));
+        }
+
+        Assert.assertEquals(basicBlocks.size(), polled.size());
+    }
+
+    @Test
+    public void testWeakTopologicalOrder() {
+        assertWeakTopologicalOrder(DFADirection.FORWARD);
+        assertWeakTopologicalOrder(DFADirection.BACKWARD);
+    }
+
+    @Test
+    public void testReversePostorder() {
+        List<BasicBlock> polled = pollAll(new ReversePostorderWorklist(cfg));
+        Assert.assertSame(cfg.getStartBlock(), polled.get(0));
+        assertOnlyLoopHeadersBackwards(polled, DFADirection.FORWARD);
+    }
+
+    @Test
+    public void testPostorder() {
+        List<BasicBlock> polled = pollAll(new PostorderWorklist(cfg));
+        Assert.assertSame(cfg.getStartBlock(), polled.get(polled.size() - 1));
+
+        List<BasicBlock> reversePostorder = pollAll(new ReversePostorderWorklist(cfg));
+        Collections.reverse(reversePostorder);
+        Assert.assertEquals(reversePostorder, polled);
+    }
+
+    @Test
+    public void testLifoOrder() {
+        Worklist worklist = new LifoWorklist();
+        for (BasicBlock bBlock : basicBlocks) {
+            Assert.assertTrue(worklist.add(bBlock));
+            Assert.assertFalse(worklist.add(bBlock));
+        }
+
+        Iterator<BasicBlock> it = worklist.iterator();
+        for (int i = basicBlocks.size() - 1; i >= 0; --i) {
+            Assert.assertSame(basicBlocks.get(i), it.next());
+        }
+
+        for (int i = basicBlocks.size() - 1; i >= 0; --i) {
+            Assert.assertSame(basicBlocks.get(i), worklist.peek());
+            Assert.assertSame(basicBlocks.get(i), worklist.poll());
+        }
+
+        Assert.assertNull(worklist.poll());
+    }
+
+    @Test
+    public void testPriorityIteratorOrder() {
+        Worklist worklist = new ReversePostorderWorklist(cfg);
+        for (int i = basicBlocks.size() - 1; i >= 0; --i) {
+            worklist.add(basicBlocks.get(i));
+        }
+
+        List<BasicBlock> iterated = new ArrayList<>();
+        for (BasicBlock bBlock : worklist) {
+            iterated.add(bBlock);
+        }
+
+        Assert.assertEquals(pollAll(new ReversePostorderWorklist(cfg)), iterated);
+    }
+
+    @Test
+    public void testAdaptiveStrategy() {
+        Assert.assertEquals(AdaptiveWorklist.Strategy.REVERSE_POSTORDER,
+                new AdaptiveWorklist(blockGraph, DFADirection.FORWARD).getStrategy());
+        Assert.assertEquals(AdaptiveWorklist.Strategy.POSTORDER,
+                new AdaptiveWorklist(blockGraph, DFADirection.BACKWARD).getStrategy());
+
+        SimpleBlockGraph nestedLoops = GeneratedTestMethods.buildGraph(GeneratedTestMethods.getCodeNestedLoops(3));
+        Assert.assertEquals(AdaptiveWorklist.Strategy.WEAK_TOPOLOGICAL_ORDER,
+                new AdaptiveWorklist(nestedLoops, DFADirection.FORWARD).getStrategy());
+    }
+
+    @Test
+    public void testAdaptiveSwitch() {
+        AdaptiveWorklist worklist = new AdaptiveWorklist(blockGraph, DFADirection.FORWARD, 1);
+        for (BasicBlock bBlock : basicBlocks) {
+            worklist.add(bBlock);
+        }
+
+        Worklist copy = worklist.clone();
+        for (int i = 0; i < basicBlocks.size() - 1; ++i) {
+            worklist.add(worklist.poll());
+        }
+
+        Assert.assertEquals(AdaptiveWorklist.Strategy.REVERSE_POSTORDER, worklist.getStrategy());
+        BasicBlock last = worklist.poll();
+        Assert.assertEquals(AdaptiveWorklist.Strategy.WEAK_TOPOLOGICAL_ORDER, worklist.getStrategy());
+
+        // all blocks but the last one polled are still on the worklist after switching
+        for (BasicBlock bBlock : basicBlocks) {
+            Assert.assertEquals(bBlock != last, worklist.contains(bBlock));
+        }
+
+        Assert.assertEquals(AdaptiveWorklist.Strategy.REVERSE_POSTORDER, ((AdaptiveWorklist) copy).getStrategy());
+        Assert.assertEquals(basicBlocks.size(), pollRemaining(copy).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdaptiveInvalidThreshold() {
+        new AdaptiveWorklist(blockGraph, DFADirection.FORWARD, 0);
+    }
+
+    @Test
+    public void testNaiveCopiesAreIndependent() {
+        assertCopiesAreIndependent(new NaiveWorklist());
+    }
+
+    @Test
+    public void testRandomCopiesAreIndependent() {
+        assertCopiesAreIndependent(new RandomWorklist());
+    }
+
+    @Test
+    public void testWeakTopologicalCopiesAreIndependent() {
+        assertCopiesAreIndependent(new WeakTopologicalWorklist(cfg, DFADirection.FORWARD));
+    }
+
+    @Test
+    public void testPriorityCopiesAreIndependent() {
+        assertCopiesAreIndependent(new ReversePostorderWorklist(cfg));
+        assertCopiesAreIndependent(new PostorderWorklist(cfg));
+    }
+
+    @Test
+    public void testLifoCopiesAreIndependent() {
+        assertCopiesAreIndependent(new LifoWorklist());
+    }
+
+    @Test
+    public void testAdaptiveCopiesAreIndependent() {
+        assertCopiesAreIndependent(new AdaptiveWorklist(blockGraph, DFADirection.FORWARD));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIteratorIsReadOnly() {
+        Worklist worklist = new NaiveWorklist();
+        worklist.add(basicBlocks.get(0));
+        Iterator<BasicBlock> it = worklist.iterator();
+        it.next();
+        it.remove();
+    }
+
+    private static void assertWeakTopologicalOrder(DFADirection direction) {
+        List<BasicBlock> polled = pollAll(new WeakTopologicalWorklist(cfg, direction));
+        Assert.assertSame(direction == DFADirection.FORWARD ? cfg.getStartBlock() : cfg.getEndBlock(), polled.get(0));
+        assertOnlyLoopHeadersBackwards(polled, direction);
+    }
+
+    /*
+     * adds all basic blocks to the given empty worklist in reverse order and returns them in the order they are
+     * polled
+     */
+    private static List<BasicBlock> pollAll(Worklist worklist) {
+        for (int i = basicBlocks.size() - 1; i >= 0; --i) {
+            Assert.assertTrue(worklist.add(basicBlocks.get(i)));
+            Assert.assertFalse(worklist.add(basicBlocks.get(i)));
+        }
+
+        List<BasicBlock> polled = pollRemaining(worklist);
+        Assert.assertEquals(basicBlocks.size(), polled.size());
+        return polled;
+    }
+
+    private static List<BasicBlock> pollRemaining(Worklist worklist) {
+        List<BasicBlock> polled = new ArrayList<>();
+        while (!worklist.isEmpty()) {
+            BasicBlock peeked = worklist.peek();
+            Assert.assertSame(peeked, worklist.poll());
+            Assert.assertFalse(worklist.contains(peeked));
+            polled.add(peeked);
+        }
+
+        return polled;
+    }
+
+    private static void assertOnlyLoopHeadersBackwards(List<BasicBlock> polled, DFADirection direction) {
+        BitSet loopHeaders = cfg.getLoopHeaders(direction);
+        for (BasicBlock bBlock : basicBlocks) {
+            List<BasicBlock> targets = direction == DFADirection.FORWARD ? cfg.getSuccessors(bBlock)
+                    : cfg.getPredecessors(bBlock);
+            for (BasicBlock target : targets) {
+                if (!loopHeaders.get(target.getId())) {
+                    Assert.assertTrue(polled.indexOf(bBlock) < polled.indexOf(target));
+                }
+            }
+        }
+    }
+
+    private static void assertCopiesAreIndependent(Worklist worklist) {
+        worklist.add(basicBlocks.get(0));
+        worklist.add(basicBlocks.get(1));
+
+        Worklist copy = worklist.clone();
+        copy.add(basicBlocks.get(2));
+        Assert.assertFalse(worklist.contains(basicBlocks.get(2)));
+        Assert.assertTrue(copy.contains(basicBlocks.get(2)));
+
+        BasicBlock polled = worklist.poll();
+        Assert.assertFalse(worklist.contains(polled));
+        Assert.assertTrue(copy.contains(polled));
+
+        List<BasicBlock> copyBlocks = new ArrayList<>();
+        for (BasicBlock bBlock : copy) {
+            copyBlocks.add(bBlock);
+        }
+        Assert.assertEquals(3, copyBlocks.size());
+    }
+
+}
@@ -0,0 +1,81 @@
+package dfaTests;
+
+import codeprocessor.CodeProcessor;
+import codeprocessor.GraphBuilder;
+import dfa.framework.SimpleBlockGraph;
+
+/**
+ * Generates {@code TestMethod}s of configurable size, e. g. to compare the results of different trace modes or
+ * solvers on methods with many steps.
+ */
+public final class GeneratedTestMethods {
+
+    private GeneratedTestMethods() {
+    }
+
+    /**
+     * Returns a method with a loop around {@code branches} if-statements, which results in many basic blocks and many
+     * steps until the fixpoint is reached.
+     *
+     * @param branches
+     *        the number of if-statements inside the loop
+     * @return the generated method
+     */
+    public static TestMethod getCodeManyBranches(int branches) {
+        String signature = "void test_manyBranches(int)";
+        StringBuilder sb = new StringBuilder("void test_manyBranches(int a) {");
+        sb.append("int x = 0;");
+        sb.append("while (a < 1000) {");
+        for (int i = 0; i < branches; ++i) {
+            sb.append("if (a == ").append(i).append(") {");
+            sb.append("x = x + ").append(i).append(";");
+            sb.append("}");
+        }
+        sb.append("a = a + 1;");
+        sb.append("}");
+        sb.append("}");
+        return new TestMethod(signature, sb.toString());
+    }
+
+    /**
+     * Returns a method with {@code depth} nested loops, each of which increments a variable of its own.
+     *
+     * @param depth
+     *        the number of nested loops
+     * @return the generated method
+     */
+    public static TestMethod getCodeNestedLoops(int depth) {
+        String signature = "void test_nestedLoops(int)";
+        StringBuilder sb = new StringBuilder("void test_nestedLoops(int a) {");
+        for (int i = 0; i < depth; ++i) {
+            sb.append("int x").append(i).append(" = 0;");
+            sb.append("while (x").append(i).append(" < a) {");
+            sb.append("x").append(i).append(" = x").append(i).append(" + 1;");
+        }
+
+        for (int i = 0; i < depth; ++i) {
+            sb.append("}");
+        }
+
+        sb.append("}");
+        return new TestMethod(signature, sb.toString());
+    }
+
+    /**
+     * Compiles the given {@code TestMethod} and returns its {@code SimpleBlockGraph}.
+     *
+     * @param testMethod
+     *        the {@code TestMethod} to compile
+     * @return the {@code SimpleBlockGraph} of {@code testMethod}
+     */
+    public static SimpleBlockGraph buildGraph(TestMethod testMethod) {
+        CodeProcessor cp = new CodeProcessor(testMethod.method);
+        if (!cp.wasSuccessful()) {
+            throw new IllegalStateException(cp.getErrorMessage());
+        }
+
+        GraphBuilder gb = new GraphBuilder(cp.getPath(), cp.getClassName());
+        return gb.buildGraph(testMethod.signature);
+    }
+
+}